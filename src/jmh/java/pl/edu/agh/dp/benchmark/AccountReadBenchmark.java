@@ -0,0 +1,102 @@
+package pl.edu.agh.dp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.dto.AccountDto;
+import pl.edu.agh.dp.dto.CursorPage;
+import pl.edu.agh.dp.entity.Account;
+import pl.edu.agh.dp.entity.BankAccount;
+import pl.edu.agh.dp.entity.InvestmentAccount;
+import pl.edu.agh.dp.entity.SavingsAccount;
+import pl.edu.agh.dp.orm.SqlMonitor;
+import pl.edu.agh.dp.orm.SqlStats;
+import pl.edu.agh.dp.service.AccountService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Odczyt wszystkich kont: strony LEFT JOIN po hierarchii JOINED (GET /api/accounts/) vs. dawne
+ * trzy findAll podklas (bez bazowych Account). Wymaga PostgreSQL z danymi (DB_URL, np. po seedzie
+ * harnessu obciążeniowego). Liczba instrukcji SQL na operację jest wypisywana po każdym benchmarku.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountReadBenchmark {
+
+    private SessionFactory sessionFactory;
+    private AccountService accountService;
+
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = OrmConfig.getSessionFactory();
+        accountService = new AccountService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long ops = Math.max(1, operations.sum());
+        System.out.printf("%nround trips per operation: %.1f, accounts per operation: %.1f%n",
+                (double) statements.sum() / ops, (double) rows.sum() / ops);
+        accountService.close();
+    }
+
+    @Benchmark
+    public void leftJoinPages(Blackhole blackhole) {
+        SqlMonitor.beginRequest();
+        long count = 0;
+        String cursor = null;
+        do {
+            CursorPage<?> page = accountService.findPage(cursor, CursorPage.MAX_SIZE, null);
+            page.getItems().forEach(blackhole::consume);
+            count += page.getItems().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        record(SqlMonitor.endRequest(), count);
+    }
+
+    @Benchmark
+    public void threePerSubclassFindAll(Blackhole blackhole) {
+        SqlMonitor.beginRequest();
+        List<Account> accounts = new ArrayList<>();
+        try (Session session = sessionFactory.openSession()) {
+            accounts.addAll(session.findAll(BankAccount.class));
+            accounts.addAll(session.findAll(SavingsAccount.class));
+            accounts.addAll(session.findAll(InvestmentAccount.class));
+        }
+        for (Account account : accounts) {
+            blackhole.consume(AccountDto.fromEntity(account));
+        }
+        record(SqlMonitor.endRequest(), accounts.size());
+    }
+
+    private void record(SqlStats stats, long count) {
+        operations.increment();
+        statements.add(stats.getStatements());
+        rows.add(count);
+    }
+}
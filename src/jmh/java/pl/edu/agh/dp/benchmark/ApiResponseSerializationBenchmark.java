@@ -0,0 +1,70 @@
+package pl.edu.agh.dp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.edu.agh.dp.dto.ApiResponse;
+import pl.edu.agh.dp.dto.DocumentDto;
+import pl.edu.agh.dp.dto.EmployeeDto;
+import pl.edu.agh.dp.dto.NotificationDto;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializacja Jackson odpowiedzi ApiResponse&lt;List&lt;...&gt;&gt; do bajtów
+ * (to, co robi HttpMessageConverter dla endpointów listujących).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private ObjectWriter writer;
+    private ApiResponse<List<EmployeeDto>> employees;
+    private ApiResponse<List<DocumentDto>> documents;
+    private ApiResponse<List<NotificationDto>> notifications;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        writer = JsonMapper.builder().build().writer();
+        employees = ApiResponse.success(
+                BenchmarkData.employees(size).stream().map(EmployeeDto::fromEntity).toList(), "benchmark");
+        documents = ApiResponse.success(
+                BenchmarkData.documents(size).stream().map(DocumentDto::fromEntity).toList(), "benchmark");
+        notifications = ApiResponse.success(
+                BenchmarkData.notifications(size).stream().map(NotificationDto::fromEntity).toList(), "benchmark");
+    }
+
+    @Benchmark
+    public byte[] serializeEmployees() {
+        return writer.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public byte[] serializeDocuments() {
+        return writer.writeValueAsBytes(documents);
+    }
+
+    @Benchmark
+    public byte[] serializeNotifications() {
+        return writer.writeValueAsBytes(notifications);
+    }
+}
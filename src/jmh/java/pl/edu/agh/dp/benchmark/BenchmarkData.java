@@ -0,0 +1,182 @@
+package pl.edu.agh.dp.benchmark;
+
+import pl.edu.agh.dp.entity.Curriculum;
+import pl.edu.agh.dp.entity.Department;
+import pl.edu.agh.dp.entity.Document;
+import pl.edu.agh.dp.entity.EmailNotification;
+import pl.edu.agh.dp.entity.Employee;
+import pl.edu.agh.dp.entity.Invoice;
+import pl.edu.agh.dp.entity.Notification;
+import pl.edu.agh.dp.entity.PushNotification;
+import pl.edu.agh.dp.entity.Report;
+import pl.edu.agh.dp.entity.SmsNotification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministyczne dane dla benchmarków - encje z wypełnionymi relacjami,
+ * tak jak po wsadowym załadowaniu przez EmployeeAssociationLoader (bez bazy).
+ */
+final class BenchmarkData {
+
+    private static final LocalDate BASE_DATE = LocalDate.of(2024, 1, 1);
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private BenchmarkData() {
+    }
+
+    static List<Department> departments(int count) {
+        List<Department> departments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Department department = new Department();
+            department.setId((long) i + 1);
+            department.setName("Department " + i);
+            department.setCode("D" + i);
+            departments.add(department);
+        }
+        return departments;
+    }
+
+    /**
+     * Pracownicy z działem, managerem (co 10. pracownik jest managerem kolejnych 9),
+     * podwładnymi i dwoma dokumentami.
+     */
+    static List<Employee> employees(int count) {
+        List<Department> departments = departments(20);
+        List<Document> documents = documents(50);
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = new Employee();
+            employee.setId((long) i + 1);
+            employee.setFirstName("First" + i);
+            employee.setLastName("Last" + i);
+            employee.setEmail("employee" + i + "@example.com");
+            employee.setPhone("+48 600 " + (100000 + i % 900000));
+            employee.setEmployeeCode("EMP-" + i);
+            employee.setHireDate(BASE_DATE.minusDays(i % 3650));
+            employee.setSalary(BigDecimal.valueOf(5000 + (i % 100) * 100L));
+            employee.setPosition(i % 10 == 0 ? "Manager" : "Engineer");
+            employee.setDepartment(departments.get(i % departments.size()));
+            employee.setSubordinates(new ArrayList<>());
+            employee.setDocuments(new ArrayList<>(List.of(
+                    documents.get(i % documents.size()),
+                    documents.get((i + 1) % documents.size()))));
+            employees.add(employee);
+        }
+        for (int i = 0; i < count; i++) {
+            if (i % 10 != 0) {
+                Employee manager = employees.get(i - i % 10);
+                employees.get(i).setManager(manager);
+                manager.getSubordinates().add(employees.get(i));
+            }
+        }
+        return employees;
+    }
+
+    /**
+     * Dokumenty wszystkich typów hierarchii SINGLE_TABLE po równo (Document, Report, Invoice, CV),
+     * żeby benchmark przechodził przez cały łańcuch instanceof.
+     */
+    static List<Document> documents(int count) {
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Document document = switch (i % 4) {
+                case 0 -> new Document();
+                case 1 -> report(new Report(), i);
+                case 2 -> invoice(i);
+                default -> curriculum(i);
+            };
+            document.setId((long) i + 1);
+            document.setTitle("Document " + i);
+            document.setCreatedDate(BASE_DATE.plusDays(i % 365));
+            document.setCreatedBy("user" + (i % 50));
+            document.setContent("Content of document " + i);
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    private static Report report(Report report, int i) {
+        report.setReportType(i % 2 == 0 ? "MONTHLY" : "QUARTERLY");
+        report.setPeriodStart(BASE_DATE);
+        report.setPeriodEnd(BASE_DATE.plusMonths(1));
+        report.setStatus("DRAFT");
+        return report;
+    }
+
+    private static Invoice invoice(int i) {
+        Invoice invoice = (Invoice) report(new Invoice(), i);
+        invoice.setInvoiceNumber("INV-" + i);
+        invoice.setIssueDate(BASE_DATE);
+        invoice.setDueDate(BASE_DATE.plusDays(30));
+        invoice.setTotalAmount(BigDecimal.valueOf(1000 + i % 1000));
+        invoice.setTaxAmount(BigDecimal.valueOf(230 + i % 230));
+        invoice.setPaymentStatus("PENDING");
+        return invoice;
+    }
+
+    private static Curriculum curriculum(int i) {
+        Curriculum cv = new Curriculum();
+        cv.setName("Name" + i);
+        cv.setSurname("Surname" + i);
+        cv.setCreationDate(BASE_DATE);
+        return cv;
+    }
+
+    /**
+     * Powiadomienia wszystkich typów hierarchii TABLE_PER_CLASS po równo.
+     */
+    static List<Notification> notifications(int count) {
+        List<Notification> notifications = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Notification notification = switch (i % 4) {
+                case 0 -> new Notification();
+                case 1 -> email(i);
+                case 2 -> sms(i);
+                default -> push(i);
+            };
+            notification.setId((long) i + 1);
+            notification.setTitle("Notification " + i);
+            notification.setMessage("Message body " + i);
+            notification.setCreatedAt(BASE_TIME.plusMinutes(i));
+            notification.setIsRead(i % 3 == 0);
+            notification.setStatus("PENDING");
+            notifications.add(notification);
+        }
+        return notifications;
+    }
+
+    private static EmailNotification email(int i) {
+        EmailNotification email = new EmailNotification();
+        email.setRecipientEmail("recipient" + i + "@example.com");
+        email.setSubject("Subject " + i);
+        email.setSenderEmail("noreply@example.com");
+        email.setIsHtml(i % 2 == 0);
+        return email;
+    }
+
+    private static SmsNotification sms(int i) {
+        SmsNotification sms = new SmsNotification();
+        sms.setPhoneNumber("+48 500 " + (100000 + i % 900000));
+        sms.setSenderNumber("+48 100 000 000");
+        sms.setCarrier("PLAY");
+        sms.setDeliveryReport(true);
+        sms.setMessageParts(1);
+        return sms;
+    }
+
+    private static PushNotification push(int i) {
+        PushNotification push = new PushNotification();
+        push.setDeviceToken("token-" + i);
+        push.setPlatform(i % 2 == 0 ? "ANDROID" : "IOS");
+        push.setCategory("GENERAL");
+        push.setBadgeCount(i % 10);
+        push.setIsSilent(false);
+        push.setTimeToLive(3600);
+        return push;
+    }
+}
@@ -0,0 +1,72 @@
+package pl.edu.agh.dp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.edu.agh.dp.dto.DocumentDto;
+import pl.edu.agh.dp.dto.EmployeeDto;
+import pl.edu.agh.dp.dto.NotificationDto;
+import pl.edu.agh.dp.entity.Document;
+import pl.edu.agh.dp.entity.Employee;
+import pl.edu.agh.dp.entity.Notification;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapowanie encja -> DTO dla całych list (ścieżka list/stron/eksportu).
+ * Wynik jest czasem na listę; na element = wynik / size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private List<Employee> employees;
+    private List<Document> documents;
+    private List<Notification> notifications;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        employees = BenchmarkData.employees(size);
+        documents = BenchmarkData.documents(size);
+        notifications = BenchmarkData.notifications(size);
+    }
+
+    @Benchmark
+    public void employeeFromEntity(Blackhole blackhole) {
+        for (Employee employee : employees) {
+            blackhole.consume(EmployeeDto.fromEntity(employee));
+        }
+    }
+
+    @Benchmark
+    public void documentFromEntity(Blackhole blackhole) {
+        for (Document document : documents) {
+            blackhole.consume(DocumentDto.fromEntity(document));
+        }
+    }
+
+    @Benchmark
+    public void notificationFromEntity(Blackhole blackhole) {
+        for (Notification notification : notifications) {
+            blackhole.consume(NotificationDto.fromEntity(notification));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package pl.edu.agh.dp.loadtest;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cienki klient HTTP do API aplikacji. Wszystkie endpointy zwracają ApiResponse,
+ * więc błąd to status HTTP >= 400 albo {@code success=false} w ciele odpowiedzi.
+ *
+ * Wątki klienta są demonami i są zamykane w {@link #close()}, więc nie przytrzymują JVM po przebiegu.
+ */
+final class ApiClient implements AutoCloseable {
+
+    record Result(int statusCode, boolean success, JsonNode body) {
+    }
+
+    private final String baseUrl;
+    private final ExecutorService executor;
+    private final HttpClient http;
+    private final JsonMapper json = JsonMapper.builder().build();
+
+    ApiClient(String baseUrl, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.executor = Executors.newFixedThreadPool(Math.max(2, concurrency / 4), runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        http.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    Result get(String path) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+
+    Result post(String path, Object body) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body))));
+    }
+
+    Result put(String path, Object body) {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body))));
+    }
+
+    /**
+     * Czeka aż aplikacja zacznie odpowiadać (np. po starcie kontenera).
+     */
+    void awaitReady(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        RuntimeException lastError = null;
+        while (System.nanoTime() < deadline) {
+            try {
+                if (get("/api/orm/cache").statusCode() < 500) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                lastError = e;
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Application at " + baseUrl + " is not responding", lastError);
+    }
+
+    private Result send(HttpRequest.Builder request) {
+        try {
+            HttpResponse<byte[]> response = http.send(request.timeout(Duration.ofSeconds(60)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            JsonNode body = response.body().length == 0 ? null : json.readTree(response.body());
+            boolean success = response.statusCode() < 400
+                    && body != null && body.path("success").asBoolean(false);
+            return new Result(response.statusCode(), success, body);
+        } catch (IOException e) {
+            throw new RuntimeException("HTTP request failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during HTTP request", e);
+        }
+    }
+}
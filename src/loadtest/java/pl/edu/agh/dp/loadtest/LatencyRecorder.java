@@ -0,0 +1,60 @@
+package pl.edu.agh.dp.loadtest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Próbki czasów odpowiedzi jednego wątku klienta (bez synchronizacji w pętli pomiarowej);
+ * po przebiegu rejestratory wątków są scalane.
+ */
+final class LatencyRecorder {
+
+    static final class Samples {
+        long[] nanos = new long[1024];
+        int count;
+        long errors;
+
+        void add(long latencyNanos) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latencyNanos;
+        }
+
+        void addAll(Samples other) {
+            if (count + other.count > nanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, count + other.count));
+            }
+            System.arraycopy(other.nanos, 0, nanos, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        /**
+         * Percentyl metodą nearest-rank na posortowanych próbkach.
+         */
+        double percentileMillis(long[] sorted, double percentile) {
+            if (count == 0) {
+                return 0.0;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * count);
+            return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+
+    private final Map<String, Samples> samplesByEndpoint = new HashMap<>();
+
+    void record(String endpoint, long latencyNanos, boolean success) {
+        Samples samples = samplesByEndpoint.computeIfAbsent(endpoint, k -> new Samples());
+        samples.add(latencyNanos);
+        if (!success) {
+            samples.errors++;
+        }
+    }
+
+    void mergeInto(Map<String, Samples> target) {
+        samplesByEndpoint.forEach((endpoint, samples) ->
+                target.computeIfAbsent(endpoint, k -> new Samples()).addAll(samples));
+    }
+}
@@ -0,0 +1,96 @@
+package pl.edu.agh.dp.loadtest;
+
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Raport przebiegu w stabilnym formacie JSON (endpointy posortowane po nazwie),
+ * żeby raporty z dwóch buildów można było porównać zwykłym diffem.
+ */
+record LoadReport(
+        String startedAt,
+        LoadTestConfig config,
+        Map<String, Long> seedMillis,
+        double durationSeconds,
+        EndpointStats total,
+        List<EndpointStats> endpoints) {
+
+    record EndpointStats(
+            String endpoint,
+            long requests,
+            long errors,
+            double throughputPerSecond,
+            double meanMillis,
+            double p50Millis,
+            double p95Millis,
+            double p99Millis,
+            double maxMillis) {
+    }
+
+    static LoadReport of(String startedAt, LoadTestConfig config, Map<String, Long> seedMillis,
+                         double durationSeconds, Map<String, LatencyRecorder.Samples> samplesByEndpoint) {
+        List<EndpointStats> endpoints = new ArrayList<>();
+        LatencyRecorder.Samples all = new LatencyRecorder.Samples();
+        for (Map.Entry<String, LatencyRecorder.Samples> entry : new TreeMap<>(samplesByEndpoint).entrySet()) {
+            endpoints.add(stats(entry.getKey(), entry.getValue(), durationSeconds));
+            all.addAll(entry.getValue());
+        }
+        return new LoadReport(startedAt, config, seedMillis, durationSeconds,
+                stats("TOTAL", all, durationSeconds), endpoints);
+    }
+
+    private static EndpointStats stats(String endpoint, LatencyRecorder.Samples samples, double durationSeconds) {
+        long[] sorted = Arrays.copyOf(samples.nanos, samples.count);
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (long value : sorted) {
+            sum += value;
+        }
+        return new EndpointStats(
+                endpoint,
+                samples.count,
+                samples.errors,
+                round(samples.count / durationSeconds),
+                round(samples.count == 0 ? 0.0 : sum / samples.count / 1_000_000.0),
+                round(samples.percentileMillis(sorted, 50)),
+                round(samples.percentileMillis(sorted, 95)),
+                round(samples.percentileMillis(sorted, 99)),
+                round(samples.count == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        JsonMapper json = JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build();
+        Files.write(path, json.writeValueAsBytes(this));
+    }
+
+    String summary() {
+        StringBuilder out = new StringBuilder(String.format("%-36s %9s %7s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms"));
+        for (EndpointStats stats : endpoints) {
+            out.append(line(stats));
+        }
+        out.append(line(total));
+        return out.toString();
+    }
+
+    private static String line(EndpointStats stats) {
+        return String.format("%-36s %9d %7d %9.1f %9.2f %9.2f %9.2f%n", stats.endpoint(), stats.requests(),
+                stats.errors(), stats.throughputPerSecond(), stats.p50Millis(), stats.p95Millis(), stats.p99Millis());
+    }
+}
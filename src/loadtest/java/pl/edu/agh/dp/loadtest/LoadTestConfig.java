@@ -0,0 +1,89 @@
+package pl.edu.agh.dp.loadtest;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parametry przebiegu obciążeniowego, z argumentów {@code --klucz=wartość}.
+ *
+ * @param baseUrl         adres aplikacji (ignorowany przy {@code boot} - wtedy localhost:port)
+ * @param boot            uruchom aplikację w tym samym procesie (baza ze zmiennych środowiskowych DB_URL/DB_USER/DB_PASSWORD)
+ * @param port            port aplikacji przy {@code boot}
+ * @param departments     liczba seedowanych działów
+ * @param employees       liczba seedowanych pracowników (w trzech poziomach hierarchii)
+ * @param documents       liczba seedowanych dokumentów (po równo report/invoice/cv)
+ * @param accounts        liczba seedowanych kont bankowych
+ * @param notifications   liczba seedowanych powiadomień (po równo email/sms/push)
+ * @param concurrency     liczba równoległych klientów
+ * @param warmupSeconds   rozgrzewka - żądania nie trafiają do raportu
+ * @param durationSeconds czas pomiaru
+ * @param writeRatio      udział żądań zapisujących w ruchu (0..1)
+ * @param randomSeed      ziarno wyboru operacji i id (powtarzalny rozkład ruchu)
+ * @param report          ścieżka raportu JSON
+ */
+record LoadTestConfig(
+        String baseUrl,
+        boolean boot,
+        int port,
+        int departments,
+        int employees,
+        int documents,
+        int accounts,
+        int notifications,
+        int concurrency,
+        int warmupSeconds,
+        int durationSeconds,
+        double writeRatio,
+        long randomSeed,
+        Path report) {
+
+    private static final Set<String> KNOWN_KEYS = Set.of(
+            "base-url", "boot", "port", "departments", "employees", "documents", "accounts", "notifications",
+            "concurrency", "warmup", "duration", "write-ratio", "seed", "report");
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        boolean boot = Boolean.parseBoolean(values.getOrDefault("boot", "false"));
+        int port = Integer.parseInt(values.getOrDefault("port", "18080"));
+        LoadTestConfig config = new LoadTestConfig(
+                boot ? "http://localhost:" + port : values.getOrDefault("base-url", "http://localhost:8080"),
+                boot,
+                port,
+                Integer.parseInt(values.getOrDefault("departments", "50")),
+                Integer.parseInt(values.getOrDefault("employees", "5000")),
+                Integer.parseInt(values.getOrDefault("documents", "5000")),
+                Integer.parseInt(values.getOrDefault("accounts", "1000")),
+                Integer.parseInt(values.getOrDefault("notifications", "10000")),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                Integer.parseInt(values.getOrDefault("warmup", "10")),
+                Integer.parseInt(values.getOrDefault("duration", "60")),
+                Double.parseDouble(values.getOrDefault("write-ratio", "0.1")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Path.of(values.getOrDefault("report", "target/loadtest-report.json")));
+        values.keySet().removeAll(KNOWN_KEYS);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (config.departments() < 1 || config.employees() < 1 || config.documents() < 1
+                || config.accounts() < 1 || config.notifications() < 1) {
+            throw new IllegalArgumentException("Seed volumes must be at least 1");
+        }
+        if (config.concurrency() < 1 || config.durationSeconds() < 1 || config.warmupSeconds() < 0) {
+            throw new IllegalArgumentException("concurrency and duration must be at least 1, warmup at least 0");
+        }
+        if (config.writeRatio() < 0 || config.writeRatio() > 1) {
+            throw new IllegalArgumentException("write-ratio must be between 0 and 1");
+        }
+        return config;
+    }
+}
@@ -0,0 +1,119 @@
+package pl.edu.agh.dp.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.edu.agh.dp.CoreOrmUsageApplication;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Harness obciążeniowy end-to-end: (opcjonalnie) uruchamia aplikację na lokalnym PostgreSQL,
+ * seeduje dane przez API, generuje mieszany ruch odczyt/zapis z {@code concurrency} klientów
+ * i zapisuje raport p50/p95/p99 + przepustowość per endpoint do JSON.
+ *
+ * Uruchomienie: {@code ./mvnw -Ploadtest compile exec:exec -Dloadtest.args="--boot=true --duration=60"}
+ *
+ * Kod wyjścia: 0 po zapisaniu raportu, 1 gdy przebieg się nie powiódł (np. aplikacja nie wstała).
+ */
+public final class LoadTestHarness {
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) {
+        int status = 1;
+        ConfigurableApplicationContext application = null;
+        try {
+            LoadTestConfig config = LoadTestConfig.parse(args);
+            application = config.boot() ? boot(config) : null;
+            LoadReport report = run(config);
+            report.write(config.report());
+            System.out.print(report.summary());
+            System.out.println("Report written to " + config.report().toAbsolutePath());
+            status = 0;
+        } catch (Exception e) {
+            System.err.println("Load test failed: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+        // wątki aplikacji (pula połączeń, zadania w tle) nie mogą przytrzymać JVM po przebiegu
+        System.exit(status);
+    }
+
+    /**
+     * Aplikacja w tym samym procesie - baza ze zmiennych środowiskowych DB_URL/DB_USER/DB_PASSWORD
+     * (np. serwis db z compose.yaml: {@code docker compose up -d db}). exec:exec uruchamia harness
+     * w osobnej JVM, więc {@code -DDB_URL=...} podane Mavenowi do niej nie trafia.
+     */
+    private static ConfigurableApplicationContext boot(LoadTestConfig config) {
+        return SpringApplication.run(CoreOrmUsageApplication.class,
+                "--server.port=" + config.port(),
+                "--spring.docker.compose.enabled=false",
+                "--spring.devtools.restart.enabled=false");
+    }
+
+    static LoadReport run(LoadTestConfig config) throws Exception {
+        String startedAt = Instant.now().toString();
+        try (ApiClient client = new ApiClient(config.baseUrl(), config.concurrency())) {
+            client.awaitReady(Duration.ofMinutes(2));
+
+            Seeder seeder = new Seeder(client, config);
+            Seeder.SeedData data = seeder.seed();
+            System.out.println("Seeded in " + data.millisPerEntity() + " ms");
+
+            TrafficMix mix = new TrafficMix(seeder, data, config.writeRatio());
+            long warmupEnd = System.nanoTime() + Duration.ofSeconds(config.warmupSeconds()).toNanos();
+            long measureEnd = warmupEnd + Duration.ofSeconds(config.durationSeconds()).toNanos();
+
+            ExecutorService workers = Executors.newFixedThreadPool(config.concurrency());
+            try {
+                List<Future<LatencyRecorder>> futures = new ArrayList<>();
+                for (int worker = 0; worker < config.concurrency(); worker++) {
+                    Random random = new Random(config.randomSeed() + worker);
+                    futures.add(workers.submit(() -> drive(client, mix, random, warmupEnd, measureEnd)));
+                }
+
+                Map<String, LatencyRecorder.Samples> samples = new HashMap<>();
+                for (Future<LatencyRecorder> future : futures) {
+                    future.get().mergeInto(samples);
+                }
+                return LoadReport.of(startedAt, config, data.millisPerEntity(), config.durationSeconds(), samples);
+            } finally {
+                // po błędzie jednego klienta pozostali nie dokończą pomiaru do measureEnd
+                workers.shutdownNow();
+            }
+        }
+    }
+
+    private static LatencyRecorder drive(ApiClient client, TrafficMix mix, Random random, long warmupEnd, long measureEnd) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long now = System.nanoTime();
+        while (now < measureEnd) {
+            TrafficMix.Operation operation = mix.next(random);
+            boolean success;
+            try {
+                success = operation.call().apply(client, random).success();
+            } catch (RuntimeException e) {
+                success = false;
+            }
+            long finished = System.nanoTime();
+            if (now >= warmupEnd) {
+                recorder.record(operation.endpoint(), finished - now, success);
+            }
+            now = finished;
+        }
+        return recorder;
+    }
+}
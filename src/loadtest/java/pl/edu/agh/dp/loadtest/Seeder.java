@@ -0,0 +1,256 @@
+package pl.edu.agh.dp.loadtest;
+
+import tools.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Wypełnia bazę danymi przez API aplikacji (endpointy bulk tam, gdzie istnieją).
+ * Kody/numery zawierają identyfikator przebiegu, więc seed można powtarzać na tej samej bazie.
+ */
+final class Seeder {
+
+    /** Elementów na jedno żądanie bulk (limit serwera to 10 000). */
+    private static final int BULK_REQUEST_SIZE = 1000;
+    private static final int SEED_PARALLELISM = 8;
+
+    /**
+     * Id utworzonych encji - pula dla ruchu odczytującego.
+     */
+    record SeedData(List<Long> departmentIds, List<Long> employeeIds, List<Long> documentIds,
+                    List<Long> accountIds, Map<String, Long> millisPerEntity) {
+    }
+
+    private final ApiClient client;
+    private final LoadTestConfig config;
+    private final Random random;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    Seeder(ApiClient client, LoadTestConfig config) {
+        this.client = client;
+        this.config = config;
+        this.random = new Random(config.randomSeed());
+    }
+
+    SeedData seed() throws Exception {
+        Map<String, Long> millis = new LinkedHashMap<>();
+
+        long start = System.nanoTime();
+        List<Long> departments = createEach(config.departments(), i -> client.post("/api/departments/", Map.of(
+                "name", "Department " + i,
+                "code", "D-" + runId + "-" + i,
+                "description", "Load test department " + i)));
+        millis.put("departments", elapsedMillis(start));
+
+        // Trzy poziomy hierarchii (10% / 30% / 60%) - managerowie z poziomu wyżej
+        start = System.nanoTime();
+        List<Long> employees = new ArrayList<>();
+        List<Long> previousTier = List.of();
+        int created = 0;
+        int[] tiers = {Math.max(1, config.employees() / 10), config.employees() * 3 / 10};
+        for (int tier = 0; tier < 3; tier++) {
+            int tierSize = tier < 2 ? tiers[tier] : config.employees() - created;
+            List<Long> managers = previousTier;
+            int offset = created;
+            List<Map<String, Object>> items = new ArrayList<>(tierSize);
+            for (int i = 0; i < tierSize; i++) {
+                items.add(employee(offset + i, departments, managers, random));
+            }
+            previousTier = bulk("/api/employees/bulk", items);
+            employees.addAll(previousTier);
+            created += tierSize;
+        }
+        millis.put("employees", elapsedMillis(start));
+
+        start = System.nanoTime();
+        List<Long> documents = new ArrayList<>();
+        int perType = config.documents() / 3;
+        documents.addAll(bulk("/api/documents/report/bulk", items(perType, this::report)));
+        documents.addAll(bulk("/api/documents/invoice/bulk", items(perType, this::invoice)));
+        documents.addAll(bulk("/api/documents/cv/bulk", items(config.documents() - 2 * perType, this::curriculum)));
+        millis.put("documents", elapsedMillis(start));
+
+        start = System.nanoTime();
+        List<Long> accounts = createEach(config.accounts(), i -> client.post("/api/accounts/bank", bankAccount(i)));
+        millis.put("accounts", elapsedMillis(start));
+
+        start = System.nanoTime();
+        int perChannel = config.notifications() / 3;
+        bulk("/api/notifications/email/bulk", items(perChannel, this::email));
+        bulk("/api/notifications/sms/bulk", items(perChannel, this::sms));
+        bulk("/api/notifications/push/bulk", items(config.notifications() - 2 * perChannel, this::push));
+        millis.put("notifications", elapsedMillis(start));
+
+        return new SeedData(departments, employees, documents, accounts, millis);
+    }
+
+    // ==================== PAYLOADS ====================
+
+    Map<String, Object> employee(int i, List<Long> departments, List<Long> managers, Random random) {
+        Map<String, Object> employee = new LinkedHashMap<>();
+        employee.put("firstName", "First" + i);
+        employee.put("lastName", "Last" + i);
+        employee.put("email", "employee" + i + "." + runId + "@example.com");
+        employee.put("employeeCode", "E-" + runId + "-" + i);
+        employee.put("hireDate", LocalDate.of(2020, 1, 1).plusDays(i % 1500).toString());
+        employee.put("salary", 5000 + (i % 100) * 100);
+        employee.put("position", managers.isEmpty() ? "Manager" : "Engineer");
+        employee.put("departmentId", pick(departments, random));
+        if (!managers.isEmpty()) {
+            employee.put("managerId", pick(managers, random));
+        }
+        return employee;
+    }
+
+    Map<String, Object> report(int i) {
+        Map<String, Object> report = document(i);
+        report.put("reportType", i % 2 == 0 ? "MONTHLY" : "QUARTERLY");
+        report.put("periodStart", "2024-01-01");
+        report.put("periodEnd", "2024-03-31");
+        report.put("status", "DRAFT");
+        return report;
+    }
+
+    private Map<String, Object> invoice(int i) {
+        Map<String, Object> invoice = report(i);
+        invoice.put("invoiceNumber", "INV-" + runId + "-" + i);
+        invoice.put("issueDate", "2024-04-01");
+        invoice.put("dueDate", "2024-05-01");
+        invoice.put("totalAmount", 1000 + i % 5000);
+        invoice.put("taxAmount", 230 + i % 1000);
+        return invoice;
+    }
+
+    private Map<String, Object> curriculum(int i) {
+        Map<String, Object> cv = document(i);
+        cv.put("name", "Name" + i);
+        cv.put("surname", "Surname" + i);
+        cv.put("creationDate", "2024-01-15");
+        return cv;
+    }
+
+    private Map<String, Object> document(int i) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("title", "Load test document " + i);
+        document.put("createdDate", "2024-01-01");
+        document.put("createdBy", "user" + (i % 50));
+        document.put("content", "Content of document " + i);
+        return document;
+    }
+
+    private Map<String, Object> bankAccount(int i) {
+        Map<String, Object> account = new LinkedHashMap<>();
+        account.put("accountNumber", "ACC-" + runId + "-" + i);
+        account.put("accountName", "Account " + i);
+        account.put("balance", 1000 + i % 100000);
+        account.put("openDate", "2023-01-01");
+        account.put("currency", i % 3 == 0 ? "EUR" : "PLN");
+        account.put("bankName", "Load Test Bank");
+        account.put("iban", "PL" + runId + i);
+        return account;
+    }
+
+    Map<String, Object> email(int i) {
+        Map<String, Object> email = notification(i);
+        email.put("recipientEmail", "recipient" + i + "@example.com");
+        email.put("subject", "Subject " + i);
+        email.put("senderEmail", "noreply@example.com");
+        return email;
+    }
+
+    private Map<String, Object> sms(int i) {
+        Map<String, Object> sms = notification(i);
+        sms.put("phoneNumber", "+48500" + String.format("%06d", i % 1_000_000));
+        sms.put("senderNumber", "+48100000000");
+        return sms;
+    }
+
+    private Map<String, Object> push(int i) {
+        Map<String, Object> push = notification(i);
+        push.put("deviceToken", "token-" + runId + "-" + i);
+        push.put("platform", i % 2 == 0 ? "ANDROID" : "IOS");
+        push.put("timeToLive", 3600);
+        return push;
+    }
+
+    private Map<String, Object> notification(int i) {
+        Map<String, Object> notification = new LinkedHashMap<>();
+        notification.put("title", "Notification " + i);
+        notification.put("message", "Load test message " + i);
+        return notification;
+    }
+
+    // ==================== HELPERS ====================
+
+    static Long pick(List<Long> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static List<Map<String, Object>> items(int count, IntFunction<Map<String, Object>> factory) {
+        List<Map<String, Object>> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(factory.apply(i));
+        }
+        return items;
+    }
+
+    /**
+     * Wysyła elementy porcjami do endpointu bulk i zwraca id utworzonych wierszy.
+     */
+    private List<Long> bulk(String path, List<Map<String, Object>> items) {
+        List<Long> ids = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += BULK_REQUEST_SIZE) {
+            List<Map<String, Object>> chunk = items.subList(from, Math.min(items.size(), from + BULK_REQUEST_SIZE));
+            ApiClient.Result result = client.post(path, chunk);
+            if (!result.success()) {
+                throw new IllegalStateException("Seeding " + path + " failed: " + result.body());
+            }
+            JsonNode data = result.body().path("data");
+            if (data.path("failed").asInt() > 0) {
+                throw new IllegalStateException("Seeding " + path + " rejected items: " + data.path("errors"));
+            }
+            for (JsonNode item : data.path("items")) {
+                ids.add(item.path("id").asLong());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Tworzy encje pojedynczymi żądaniami (endpointy bez wariantu bulk), równolegle.
+     */
+    private List<Long> createEach(int count, IntFunction<ApiClient.Result> request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SEED_PARALLELISM);
+        try {
+            List<Future<ApiClient.Result>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> request.apply(index)));
+            }
+            List<Long> ids = new ArrayList<>(count);
+            for (Future<ApiClient.Result> future : futures) {
+                ApiClient.Result result = future.get();
+                if (!result.success()) {
+                    throw new IllegalStateException("Seeding failed: " + result.body());
+                }
+                ids.add(result.body().path("data").path("id").asLong());
+            }
+            return ids;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
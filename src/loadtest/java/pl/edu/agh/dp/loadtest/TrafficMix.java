@@ -0,0 +1,89 @@
+package pl.edu.agh.dp.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Mieszany ruch odczyt/zapis na kontrolerach. Każda operacja ma nazwę endpointu
+ * (szablon ścieżki - klucz w raporcie) i wagę w swojej grupie (odczyty / zapisy).
+ */
+final class TrafficMix {
+
+    record Operation(String endpoint, int weight, BiFunction<ApiClient, Random, ApiClient.Result> call) {
+    }
+
+    /** Indeksy encji tworzonych w ruchu - poza zakresem seedowania, żeby kody były unikalne. */
+    private final AtomicInteger writeSequence = new AtomicInteger(10_000_000);
+
+    private final List<Operation> reads = new ArrayList<>();
+    private final List<Operation> writes = new ArrayList<>();
+    private final int readWeight;
+    private final int writeWeight;
+    private final double writeRatio;
+
+    TrafficMix(Seeder seeder, Seeder.SeedData data, double writeRatio) {
+        this.writeRatio = writeRatio;
+
+        List<Long> departments = data.departmentIds();
+        List<Long> employees = data.employeeIds();
+        List<Long> documents = data.documentIds();
+        List<Long> accounts = data.accountIds();
+
+        read("GET /api/employees/", 10, (c, r) -> c.get("/api/employees/?size=50"));
+        read("GET /api/employees/{id}", 20, (c, r) -> c.get("/api/employees/" + Seeder.pick(employees, r)));
+        read("GET /api/employees/{id}/chain", 5, (c, r) -> c.get("/api/employees/" + Seeder.pick(employees, r) + "/chain"));
+        read("GET /api/departments/{id}", 10, (c, r) -> c.get("/api/departments/" + Seeder.pick(departments, r)));
+        read("GET /api/departments/{id}/tree", 3, (c, r) -> c.get("/api/departments/" + Seeder.pick(departments, r) + "/tree"));
+        read("GET /api/documents/", 8, (c, r) -> c.get("/api/documents/?size=50"));
+        read("GET /api/documents/{id}", 15, (c, r) -> c.get("/api/documents/" + Seeder.pick(documents, r)));
+        read("GET /api/accounts/", 8, (c, r) -> c.get("/api/accounts/?size=50"));
+        read("GET /api/accounts/{id}", 12, (c, r) -> c.get("/api/accounts/" + Seeder.pick(accounts, r)));
+        read("GET /api/notifications/", 9, (c, r) -> c.get("/api/notifications/?size=50"));
+
+        write("POST /api/employees/", 3, (c, r) -> c.post("/api/employees/",
+                seeder.employee(writeSequence.incrementAndGet(), departments, employees, r)));
+        write("PUT /api/employees/{id}", 2, (c, r) -> {
+            Map<String, Object> update = new LinkedHashMap<>(seeder.employee(writeSequence.incrementAndGet(), departments, List.of(), r));
+            return c.put("/api/employees/" + Seeder.pick(employees, r), update);
+        });
+        write("POST /api/documents/report", 2, (c, r) -> c.post("/api/documents/report", seeder.report(writeSequence.incrementAndGet())));
+        write("POST /api/notifications/email", 3, (c, r) -> c.post("/api/notifications/email", seeder.email(writeSequence.incrementAndGet())));
+
+        this.readWeight = reads.stream().mapToInt(Operation::weight).sum();
+        this.writeWeight = writes.stream().mapToInt(Operation::weight).sum();
+    }
+
+    /**
+     * Losuje operację: z prawdopodobieństwem writeRatio zapis, w przeciwnym razie odczyt,
+     * w obrębie grupy proporcjonalnie do wag.
+     */
+    Operation next(Random random) {
+        return random.nextDouble() < writeRatio
+                ? pick(writes, writeWeight, random)
+                : pick(reads, readWeight, random);
+    }
+
+    private static Operation pick(List<Operation> operations, int totalWeight, Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private void read(String endpoint, int weight, BiFunction<ApiClient, Random, ApiClient.Result> call) {
+        reads.add(new Operation(endpoint, weight, call));
+    }
+
+    private void write(String endpoint, int weight, BiFunction<ApiClient, Random, ApiClient.Result> call) {
+        writes.add(new Operation(endpoint, weight, call));
+    }
+}
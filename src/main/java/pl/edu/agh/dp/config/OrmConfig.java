@@ -1,9 +1,25 @@
 package pl.edu.agh.dp.config;
 
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
 import pl.edu.agh.dp.core.api.Configuration;
 import pl.edu.agh.dp.core.api.Orm;
+import pl.edu.agh.dp.core.api.Session;
 import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.core.jdbc.ConnectionProvider;
+import pl.edu.agh.dp.core.jdbc.JdbcConnectionProvider;
 import pl.edu.agh.dp.entity.*;
+import pl.edu.agh.dp.orm.ConcurrencyLimitingConnectionProvider;
+import pl.edu.agh.dp.orm.MonthlyPartitions;
+import pl.edu.agh.dp.orm.OrmSessionFactory;
+import pl.edu.agh.dp.orm.PoolSettings;
+import pl.edu.agh.dp.orm.PooledConnectionProvider;
+import pl.edu.agh.dp.orm.SecondLevelCache;
+import pl.edu.agh.dp.orm.SqlMonitor;
+
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Konfiguracja ORM dla aplikacji demo.
@@ -12,7 +28,29 @@ import pl.edu.agh.dp.entity.*;
 @org.springframework.context.annotation.Configuration
 public class OrmConfig {
 
+    /** Tabele hierarchii Notification (TABLE_PER_CLASS) partycjonowane po created_at. */
+    public static final List<String> NOTIFICATION_TABLES =
+            List.of("notifications", "email_notifications", "sms_notifications", "push_notifications");
+
+    /** Tabele z kolumną version (optymistyczne blokowanie i ETag). */
+    private static final List<String> VERSIONED_TABLES = List.of("employees", "departments", "accounts");
+
+    /** Kolumna partycjonowania tabel powiadomień. */
+    public static final String NOTIFICATION_PARTITION_COLUMN = "created_at";
+
     private static SessionFactory sessionFactory;
+    private static PooledConnectionProvider connectionPool;
+    private static ConcurrencyLimitingConnectionProvider concurrencyLimiter;
+    private static SecondLevelCache entityCache;
+    private static volatile ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    /**
+     * Podpina rejestr obserwacji Micrometer z kontekstu Springa (z actuatorem - metryki
+     * orm.session / orm.transaction / orm.entity.load w /actuator/prometheus).
+     */
+    public OrmConfig(ObjectProvider<ObservationRegistry> observationRegistryProvider) {
+        observationRegistryProvider.ifAvailable(registry -> observationRegistry = registry);
+    }
 
     /**
      * Inicjalizuje i zwraca SessionFactory jako singleton.
@@ -21,10 +59,10 @@ public class OrmConfig {
     public static synchronized SessionFactory getSessionFactory() {
         if (sessionFactory == null) {
             // Pobierz konfigurację ze zmiennych środowiskowych lub użyj domyślnych
-            String dbUrl = System.getenv("DB_URL") != null ? System.getenv("DB_URL") : "jdbc:postgresql://localhost:5432/orm_demo";
-            String dbUser = System.getenv("DB_USER") != null ? System.getenv("DB_USER") : "orm_user";
-            String dbPassword = System.getenv("DB_PASSWORD") != null ? System.getenv("DB_PASSWORD") : "secret";
-            
+            String dbUrl = property("DB_URL", "jdbc:postgresql://localhost:5432/orm_demo");
+            String dbUser = property("DB_USER", "orm_user");
+            String dbPassword = property("DB_PASSWORD", "secret");
+
             Configuration config = Orm.configure()
                     .setProperty("db.url", dbUrl)
                     .setProperty("db.user", dbUser)
@@ -53,11 +91,247 @@ public class OrmConfig {
                             PushNotification.class
                     );
 
-            sessionFactory = config.buildSessionFactory();
+            // Fabryka z Configuration generuje schemat i persistery, ale każdą sesję
+            // otwiera na nowym połączeniu DriverManager - sesje aplikacji idą przez OrmSessionFactory
+            // (na puli albo, przy DB_POOL_ENABLED=false, bezpośrednio na JdbcConnectionProvider)
+            SessionFactory baseFactory = config.buildSessionFactory();
+            ConnectionProvider connectionProvider = new JdbcConnectionProvider(dbUrl, dbUser, dbPassword);
+            if (Boolean.parseBoolean(property("DB_POOL_ENABLED", "true"))) {
+                connectionPool = new PooledConnectionProvider(connectionProvider, poolSettings());
+                connectionProvider = connectionPool;
+            }
+            // Na wątkach wirtualnych liczba równoległych żądań nie jest ograniczona pulą wątków
+            // Tomcata - semafor przed providerem chroni PostgreSQL przed lawiną połączeń
+            int maxConcurrent = Integer.parseInt(property("DB_MAX_CONCURRENT",
+                    isVirtualThreadsEnabled() ? property("DB_POOL_MAX_SIZE", "10") : "0"));
+            if (maxConcurrent > 0) {
+                concurrencyLimiter = new ConcurrencyLimitingConnectionProvider(connectionProvider, maxConcurrent,
+                        Duration.ofMillis(Long.parseLong(property("DB_POOL_ACQUIRE_TIMEOUT_MS", "30000"))),
+                        isVirtualThreadsEnabled());
+                connectionProvider = concurrencyLimiter;
+            }
+            SqlMonitor sqlMonitor = new SqlMonitor(
+                    Duration.ofMillis(Long.parseLong(property("ORM_SLOW_QUERY_MS", "200"))));
+            sessionFactory = new OrmSessionFactory(connectionProvider, OrmSessionFactory.entityPersistersOf(baseFactory),
+                    sqlMonitor, () -> observationRegistry);
+            addVersionColumns(sessionFactory);
+            // przed serwisami - indeksy zakładane przez nie muszą powstać już na tabelach partycjonowanych
+            if (isNotificationPartitioningEnabled()) {
+                partitionNotificationTables(sessionFactory);
+            }
         }
         return sessionFactory;
     }
 
+    /**
+     * Dokłada kolumnę version do tabel z bazy sprzed wersjonowania. Generator schematu CoreORM
+     * (orm.schema.auto=create) zakłada tylko brakujące tabele i nie zmienia istniejących,
+     * a baza w compose.yaml żyje na trwałym wolumenie.
+     */
+    private static void addVersionColumns(SessionFactory factory) {
+        try (Session session = factory.openSession()) {
+            session.begin();
+            try {
+                for (String table : VERSIONED_TABLES) {
+                    session.getJdbcExecutor().executeStatement(
+                            "ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0");
+                }
+                session.commit();
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to add version columns: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Zamienia tabele powiadomień utworzone przez CoreORM na partycjonowane miesiącami created_at.
+     */
+    private static void partitionNotificationTables(SessionFactory factory) {
+        try (Session session = factory.openSession()) {
+            session.begin();
+            try {
+                for (String table : NOTIFICATION_TABLES) {
+                    MonthlyPartitions.partition(session, table, NOTIFICATION_PARTITION_COLUMN, getNotificationPartitionsAhead());
+                }
+                session.commit();
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to partition notification tables: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Zwraca pulę połączeń lub null, gdy pula jest wyłączona (DB_POOL_ENABLED=false).
+     */
+    public static synchronized PooledConnectionProvider getConnectionPool() {
+        getSessionFactory();
+        return connectionPool;
+    }
+
+    /**
+     * Zwraca limiter współbieżności lub null, gdy jest wyłączony (domyślnie włączony tylko
+     * przy VIRTUAL_THREADS_ENABLED=true; DB_MAX_CONCURRENT nadpisuje limit, 0 wyłącza).
+     */
+    public static synchronized ConcurrencyLimitingConnectionProvider getConcurrencyLimiter() {
+        getSessionFactory();
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Czy żądania MVC są obsługiwane na wątkach wirtualnych (spring.threads.virtual.enabled
+     * w application.properties czyta tę samą zmienną).
+     */
+    public static boolean isVirtualThreadsEnabled() {
+        return Boolean.parseBoolean(property("VIRTUAL_THREADS_ENABLED", "false"));
+    }
+
+    /**
+     * Tryb debug SQL (ORM_SQL_DEBUG) - statystyki SQL żądania w nagłówkach i w ApiResponse.
+     */
+    public static boolean isSqlDebugEnabled() {
+        return Boolean.parseBoolean(property("ORM_SQL_DEBUG", "false"));
+    }
+
+    /**
+     * Zwraca współdzielony cache drugiego poziomu (ORM_CACHE_ENABLED, ORM_CACHE_MAX_SIZE, ORM_CACHE_TTL_MS).
+     */
+    public static synchronized SecondLevelCache getEntityCache() {
+        if (entityCache == null) {
+            entityCache = new SecondLevelCache(
+                    Boolean.parseBoolean(property("ORM_CACHE_ENABLED", "true")),
+                    Integer.parseInt(property("ORM_CACHE_MAX_SIZE", "10000")),
+                    Duration.ofMillis(Long.parseLong(property("ORM_CACHE_TTL_MS", "300000"))));
+        }
+        return entityCache;
+    }
+
+    /**
+     * Domyślny rozmiar porcji JDBC batch dla operacji bulk create (DB_BULK_CHUNK_SIZE).
+     */
+    public static int getBulkChunkSize() {
+        return Integer.parseInt(property("DB_BULK_CHUNK_SIZE", "500"));
+    }
+
+    /**
+     * Czy wyszukiwanie dokumentów po fragmencie tytułu korzysta z indeksu trigramowego
+     * w pamięci (DOCUMENT_TITLE_INDEX_ENABLED) zamiast pełnego skanu LIKE '%...%'.
+     */
+    public static boolean isDocumentTitleIndexEnabled() {
+        return Boolean.parseBoolean(property("DOCUMENT_TITLE_INDEX_ENABLED", "false"));
+    }
+
+    /**
+     * Czy po starcie aplikacji przeliczyć rollup należności z faktur od zera
+     * (INVOICE_RECEIVABLES_REBUILD_ON_START) - potrzebne tylko po zmianach faktur poza aplikacją.
+     */
+    public static boolean isInvoiceReceivablesRebuildOnStart() {
+        return Boolean.parseBoolean(property("INVOICE_RECEIVABLES_REBUILD_ON_START", "false"));
+    }
+
+    /**
+     * Okres przeliczania tabeli podsumowań sald kont (ACCOUNT_SUMMARY_REFRESH_MS, domyślnie 0 - wyłącza
+     * odświeżanie w tle - tabela jest wtedy liczona przy pierwszym odczycie i na żądanie).
+     */
+    public static Duration getAccountSummaryRefreshInterval() {
+        return Duration.ofMillis(Long.parseLong(property("ACCOUNT_SUMMARY_REFRESH_MS", "0")));
+    }
+
+    /**
+     * Maksymalny wiek tabeli podsumowań sald przy odczycie source=summary (ACCOUNT_SUMMARY_MAX_AGE_MS,
+     * domyślnie minuta); starsza jest przeliczana przed odczytem. 0 - bez limitu (tylko pierwszy
+     * odczyt, odświeżanie w tle i POST /api/accounts/summary/refresh).
+     */
+    public static Duration getAccountSummaryMaxAge() {
+        return Duration.ofMillis(Long.parseLong(property("ACCOUNT_SUMMARY_MAX_AGE_MS", "60000")));
+    }
+
+    /**
+     * Liczba wątków wysyłki powiadomień w tle (NOTIFICATION_DISPATCH_THREADS, domyślnie 0 -
+     * wysyłka tylko na żądanie przez POST /api/notifications/dispatch).
+     */
+    public static int getNotificationDispatchThreads() {
+        return Integer.parseInt(property("NOTIFICATION_DISPATCH_THREADS", "0"));
+    }
+
+    /**
+     * Przerwa między przebiegami wątku wysyłki, gdy kolejka została opróżniona (NOTIFICATION_DISPATCH_INTERVAL_MS).
+     */
+    public static Duration getNotificationDispatchInterval() {
+        return Duration.ofMillis(Long.parseLong(property("NOTIFICATION_DISPATCH_INTERVAL_MS", "1000")));
+    }
+
+    /**
+     * Liczba powiadomień przejmowanych jedną transakcją (NOTIFICATION_DISPATCH_BATCH_SIZE).
+     */
+    public static int getNotificationDispatchBatchSize() {
+        return Integer.parseInt(property("NOTIFICATION_DISPATCH_BATCH_SIZE", "100"));
+    }
+
+    /**
+     * Limit wysyłki kanału na sekundę (NOTIFICATION_RATE_EMAIL / _SMS / _PUSH, 0 = bez limitu).
+     */
+    public static double getNotificationRatePerSecond(String channel) {
+        return Double.parseDouble(property("NOTIFICATION_RATE_" + channel, "0"));
+    }
+
+    /**
+     * Partycjonowanie tabel powiadomień po miesiącach created_at (NOTIFICATION_PARTITIONING_ENABLED).
+     */
+    public static boolean isNotificationPartitioningEnabled() {
+        return Boolean.parseBoolean(property("NOTIFICATION_PARTITIONING_ENABLED", "false"));
+    }
+
+    /**
+     * Liczba miesięcy naprzód, dla których partycje są zakładane z wyprzedzeniem.
+     */
+    public static int getNotificationPartitionsAhead() {
+        return Integer.parseInt(property("NOTIFICATION_PARTITIONS_AHEAD", "3"));
+    }
+
+    /**
+     * Retencja powiadomień w pełnych miesiącach (NOTIFICATION_RETENTION_MONTHS, 0 = bez retencji).
+     */
+    public static int getNotificationRetentionMonths() {
+        return Integer.parseInt(property("NOTIFICATION_RETENTION_MONTHS", "0"));
+    }
+
+    /**
+     * Co robić z partycją po retencji: drop (usunięcie) albo archive (schemat notification_archive).
+     */
+    public static String getNotificationRetentionMode() {
+        return property("NOTIFICATION_RETENTION_MODE", "drop");
+    }
+
+    /**
+     * Bufor zdarzeń na subskrybenta strumienia SSE powiadomień (NOTIFICATION_STREAM_BUFFER).
+     */
+    public static int getNotificationStreamBufferSize() {
+        return Integer.parseInt(property("NOTIFICATION_STREAM_BUFFER", "256"));
+    }
+
+    /**
+     * Polityka dla subskrybenta z pełnym buforem: drop (najstarsze zdarzenie) albo disconnect.
+     */
+    public static String getNotificationStreamSlowConsumerPolicy() {
+        return property("NOTIFICATION_STREAM_SLOW_CONSUMER", "drop");
+    }
+
+    /**
+     * Limit jednoczesnych subskrybentów strumienia (0 = bez limitu).
+     */
+    public static int getNotificationStreamMaxSubscribers() {
+        return Integer.parseInt(property("NOTIFICATION_STREAM_MAX_SUBSCRIBERS", "1000"));
+    }
+
+    /**
+     * Odstęp heartbeatu bezczynnego strumienia w ms - wykrywa zerwane połączenia (0 = wyłączony).
+     */
+    public static long getNotificationStreamHeartbeatMillis() {
+        return Long.parseLong(property("NOTIFICATION_STREAM_HEARTBEAT_MS", "15000"));
+    }
+
     /**
      * Zamyka SessionFactory - do użycia przy zamykaniu aplikacji.
      */
@@ -65,5 +339,41 @@ public class OrmConfig {
         if (sessionFactory != null) {
             sessionFactory = null;
         }
+        if (connectionPool != null) {
+            connectionPool.close();
+            connectionPool = null;
+        }
+        concurrencyLimiter = null;
+        observationRegistry = ObservationRegistry.NOOP;
+        if (entityCache != null) {
+            entityCache.clear();
+            entityCache = null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        shutdown();
+    }
+
+    private static PoolSettings poolSettings() {
+        return PoolSettings.builder()
+                .maxSize(Integer.parseInt(property("DB_POOL_MAX_SIZE", "10")))
+                .minIdle(Integer.parseInt(property("DB_POOL_MIN_IDLE", "2")))
+                .maxLifetime(Duration.ofMillis(Long.parseLong(property("DB_POOL_MAX_LIFETIME_MS", "1800000"))))
+                .leakDetectionThreshold(Duration.ofMillis(Long.parseLong(property("DB_POOL_LEAK_DETECTION_MS", "60000"))))
+                .acquireTimeout(Duration.ofMillis(Long.parseLong(property("DB_POOL_ACQUIRE_TIMEOUT_MS", "30000"))))
+                .build();
+    }
+
+    /**
+     * Odczytuje ustawienie z właściwości systemowej (-DDB_URL=...) lub zmiennej środowiskowej.
+     */
+    static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            value = System.getenv(name);
+        }
+        return value != null ? value : defaultValue;
     }
 }
@@ -0,0 +1,47 @@
+package pl.edu.agh.dp.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import pl.edu.agh.dp.dto.ApiResponse;
+import pl.edu.agh.dp.orm.SqlMonitor;
+import pl.edu.agh.dp.orm.SqlStats;
+
+import java.util.Locale;
+
+/**
+ * W trybie ORM_SQL_DEBUG dopisuje statystyki SQL żądania do odpowiedzi: nagłówki
+ * X-SQL-Statements / X-SQL-Rows / X-SQL-Time-Ms oraz pole {@code sql} w ApiResponse.
+ * Odpowiedzi strumieniowe (NDJSON) nie przechodzą przez tę ścieżkę.
+ */
+@RestControllerAdvice
+public class SqlStatisticsAdvice implements ResponseBodyAdvice<Object> {
+
+    private final boolean enabled = OrmConfig.isSqlDebugEnabled();
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStats stats = SqlMonitor.currentRequest();
+        if (stats == null) {
+            return body;
+        }
+        response.getHeaders().set("X-SQL-Statements", Long.toString(stats.getStatements()));
+        response.getHeaders().set("X-SQL-Rows", Long.toString(stats.getRows()));
+        response.getHeaders().set("X-SQL-Time-Ms", String.format(Locale.ROOT, "%.1f", stats.getTimeMillis()));
+        if (body instanceof ApiResponse<?> apiResponse) {
+            apiResponse.setSql(stats);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,41 @@
+package pl.edu.agh.dp.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import pl.edu.agh.dp.orm.SqlMonitor;
+import pl.edu.agh.dp.orm.SqlStats;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Otwiera zakres statystyk SQL dla każdego żądania HTTP i loguje (DEBUG) liczbę instrukcji,
+ * wierszy i czas w bazie. Nagłówki/metadane odpowiedzi dodaje {@link SqlStatisticsAdvice}.
+ */
+@Component
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlMonitor.beginRequest();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStats stats = SqlMonitor.endRequest();
+            if (stats != null && stats.getStatements() > 0 && log.isDebugEnabled()) {
+                log.debug("{} {} -> {} SQL statements ({} failed), {} rows, {} ms", request.getMethod(),
+                        request.getRequestURI(), stats.getStatements(), stats.getFailedStatements(), stats.getRows(),
+                        String.format(Locale.ROOT, "%.1f", stats.getTimeMillis()));
+            }
+        }
+    }
+}
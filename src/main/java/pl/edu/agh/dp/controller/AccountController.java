@@ -3,15 +3,20 @@ package pl.edu.agh.dp.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import pl.edu.agh.dp.dto.AccountDto;
 import pl.edu.agh.dp.dto.BankAccountDto;
 import pl.edu.agh.dp.dto.SavingsAccountDto;
 import pl.edu.agh.dp.dto.InvestmentAccountDto;
 import pl.edu.agh.dp.dto.ApiResponse;
+import pl.edu.agh.dp.dto.BalanceSummaryDto;
+import pl.edu.agh.dp.dto.CursorPage;
+import pl.edu.agh.dp.dto.MultiGetResultDto;
 import pl.edu.agh.dp.service.AccountService;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Kontroler REST dla Account (JOINED inheritance).
@@ -29,20 +34,82 @@ public class AccountController {
     }
 
     @GetMapping("/")
-    @Operation(summary = "Pobierz wszystkie konta", description = "Zwraca wszystkie typy kont (Bank, Savings, Investment)")
-    public ApiResponse<List<AccountDto>> getAllAccounts() {
+    @Operation(summary = "Pobierz wszystkie konta",
+               description = "Zwraca wszystkie typy kont (Account, Bank, Savings, Investment) jednym zapytaniem LEFT JOIN. Paginacja kursorowa (keyset po id): kolejną stronę pobiera się przekazując nextCursor z odpowiedzi. fields=a,b,c zwraca tylko wybrane pola (projekcja SQL bez ładowania relacji). ETag + If-None-Match: 304, gdy lista się nie zmieniła")
+    public ApiResponse<? extends List<?>> getAllAccounts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields,
+            WebRequest request) {
         try {
-            List<AccountDto> accounts = accountService.findAll();
-            return ApiResponse.success(accounts, "Found " + accounts.size() + " accounts");
+            if (request.checkNotModified(ETags.of("accounts", accountService.collectionVersionTag(), cursor, size, fields))) {
+                return null;
+            }
+            CursorPage<?> page = accountService.findPage(cursor, size, fields);
+            return ApiResponse.page(page, "Found " + page.getItems().size() + " accounts");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to fetch accounts: " + e.getMessage(), 500);
         }
     }
 
+    @GetMapping(value = "/", params = "ids")
+    @Operation(summary = "Pobierz wiele kont po ID (?ids=1,2,3)",
+               description = "Jedno zapytanie LEFT JOIN z WHERE id IN. Maksymalnie 500 id; brakujące id trafiają do missingIds, kolejność jak w żądaniu")
+    public ApiResponse<MultiGetResultDto<AccountDto>> getAccountsByIds(@RequestParam List<Long> ids) {
+        try {
+            MultiGetResultDto<AccountDto> result = accountService.findByIds(ids);
+            return ApiResponse.success(result, "Found " + result.getFound() + " of " + result.getRequested() + " accounts");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch accounts: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/summary")
+    @Operation(summary = "Agregat sald kont",
+               description = "Liczba kont oraz suma, średnia, minimum i maksimum sald pogrupowane po groupBy (currency, accountType, isActive; pusty = wszystkie konta razem). source=live liczy GROUP BY po tabelach hierarchii, source=summary zwija tabelę podsumowań, przeliczaną przed odczytem, gdy jest starsza niż ACCOUNT_SUMMARY_MAX_AGE_MS (domyślnie minuta)")
+    public ApiResponse<BalanceSummaryDto> getBalanceSummary(
+            @RequestParam(defaultValue = "currency") String groupBy,
+            @RequestParam(defaultValue = "live") String source) {
+        if (!"live".equals(source) && !"summary".equals(source)) {
+            return ApiResponse.error("source must be 'live' or 'summary'", 400);
+        }
+        try {
+            BalanceSummaryDto summary = accountService.summarizeBalances(groupBy, "summary".equals(source));
+            return ApiResponse.success(summary, "Found " + summary.getGroups().size() + " balance groups");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to summarize balances: " + e.getMessage(), 500);
+        }
+    }
+
+    @PostMapping("/summary/refresh")
+    @Operation(summary = "Przelicz tabelę podsumowań sald",
+               description = "Natychmiastowe przeliczenie poza cyklem odświeżania w tle (ACCOUNT_SUMMARY_REFRESH_MS)")
+    public ApiResponse<Integer> refreshBalanceSummary() {
+        try {
+            int groups = accountService.refreshBalanceSummary();
+            return ApiResponse.success(groups, "Balance summary refreshed (" + groups + " groups)");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to refresh balance summary: " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Pobierz konto po ID", description = "Automatycznie zwraca odpowiedni typ DTO (Bank, Savings, Investment)")
-    public ApiResponse<AccountDto> getAccountById(@PathVariable Long id) {
+    @Operation(summary = "Pobierz konto po ID", description = "Automatycznie zwraca odpowiedni typ DTO (Bank, Savings, Investment). ETag + If-None-Match: 304, gdy konto się nie zmieniło")
+    public ApiResponse<AccountDto> getAccountById(@PathVariable Long id, WebRequest request) {
         try {
+            Optional<String> version = accountService.findVersionTag(id);
+            if (version.isEmpty()) {
+                return ApiResponse.notFound("Account", id);
+            }
+            if (request.checkNotModified(ETags.of("account", id, version.get()))) {
+                return null;
+            }
             return accountService.findById(id)
                     .map(dto -> ApiResponse.success(dto, "Account found"))
                     .orElse(ApiResponse.notFound("Account", id));
@@ -253,11 +320,15 @@ public class AccountController {
     @GetMapping("/finder/by-currency")
     @Operation(summary = "Wyszukaj konta po walucie",
                description = "Demonstruje Finder eq() na klasie bazowej JOINED - polimorficzne wyszukiwanie wszystkich typów kont (Bank, Savings, Investment)")
-    public ApiResponse<List<AccountDto>> findAccountsByCurrency(@RequestParam String currency) {
+    public ApiResponse<? extends List<?>> findAccountsByCurrency(
+            @RequestParam String currency,
+            @RequestParam(required = false) String fields) {
         try {
-            List<AccountDto> accounts = accountService.findAccountsByCurrency(currency);
+            List<?> accounts = accountService.findAccountsByCurrency(currency, fields);
             return ApiResponse.success(accounts, 
                     "Finder eq() na Account (JOINED base): Found " + accounts.size() + " accounts with currency '" + currency + "'");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find accounts: " + e.getMessage(), 500);
         }
@@ -266,13 +337,16 @@ public class AccountController {
     @GetMapping("/finder/by-balance-between")
     @Operation(summary = "Wyszukaj konta z saldem w zakresie",
                description = "Demonstruje Finder between() na polu z klasy bazowej Account - zwraca wszystkie typy kont")
-    public ApiResponse<List<AccountDto>> findAccountsByBalanceBetween(
+    public ApiResponse<? extends List<?>> findAccountsByBalanceBetween(
             @RequestParam BigDecimal minBalance,
-            @RequestParam BigDecimal maxBalance) {
+            @RequestParam BigDecimal maxBalance,
+            @RequestParam(required = false) String fields) {
         try {
-            List<AccountDto> accounts = accountService.findAccountsByBalanceBetween(minBalance, maxBalance);
+            List<?> accounts = accountService.findAccountsByBalanceBetween(minBalance, maxBalance, fields);
             return ApiResponse.success(accounts, 
                     "Finder between() na Account (JOINED base): Found " + accounts.size() + " accounts with balance between " + minBalance + " and " + maxBalance);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find accounts: " + e.getMessage(), 500);
         }
@@ -281,13 +355,16 @@ public class AccountController {
     @GetMapping("/finder/active-by-currency-and-min-balance")
     @Operation(summary = "Wyszukaj aktywne konta po walucie i minimalnym saldzie",
                description = "Demonstruje Finder z wieloma warunkami (eq + gt + eq) na hierarchii JOINED")
-    public ApiResponse<List<AccountDto>> findActiveAccountsByCurrencyAndMinBalance(
+    public ApiResponse<? extends List<?>> findActiveAccountsByCurrencyAndMinBalance(
             @RequestParam String currency,
-            @RequestParam BigDecimal minBalance) {
+            @RequestParam BigDecimal minBalance,
+            @RequestParam(required = false) String fields) {
         try {
-            List<AccountDto> accounts = accountService.findActiveAccountsByCurrencyAndMinBalance(currency, minBalance);
+            List<?> accounts = accountService.findActiveAccountsByCurrencyAndMinBalance(currency, minBalance, fields);
             return ApiResponse.success(accounts, 
                     "Finder eq()+gt()+eq() na Account (JOINED): Found " + accounts.size() + " active " + currency + " accounts with balance > " + minBalance);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find accounts: " + e.getMessage(), 500);
         }
@@ -3,11 +3,15 @@ package pl.edu.agh.dp.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import pl.edu.agh.dp.dto.ApiResponse;
+import pl.edu.agh.dp.dto.CursorPage;
 import pl.edu.agh.dp.dto.DepartmentDto;
+import pl.edu.agh.dp.dto.DepartmentTreeDto;
 import pl.edu.agh.dp.service.DepartmentService;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Kontroler REST dla Department.
@@ -28,20 +32,36 @@ public class DepartmentController {
     }
 
     @GetMapping("/")
-    @Operation(summary = "Pobierz wszystkie działy")
-    public ApiResponse<List<DepartmentDto>> getAllDepartments() {
+    @Operation(summary = "Pobierz wszystkie działy",
+               description = "Paginacja kursorowa (keyset po id): kolejną stronę pobiera się przekazując nextCursor z odpowiedzi. ETag + If-None-Match: 304, gdy lista się nie zmieniła")
+    public ApiResponse<List<DepartmentDto>> getAllDepartments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
         try {
-            List<DepartmentDto> departments = departmentService.findAll();
-            return ApiResponse.success(departments, "Found " + departments.size() + " departments");
+            if (request.checkNotModified(ETags.of("departments", departmentService.collectionVersionTag(), cursor, size))) {
+                return null;
+            }
+            CursorPage<DepartmentDto> page = departmentService.findPage(cursor, size);
+            return ApiResponse.page(page, "Found " + page.getItems().size() + " departments");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to fetch departments: " + e.getMessage(), 500);
         }
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Pobierz dział po ID")
-    public ApiResponse<DepartmentDto> getDepartmentById(@PathVariable Long id) {
+    @Operation(summary = "Pobierz dział po ID", description = "ETag + If-None-Match: 304, gdy dział się nie zmienił")
+    public ApiResponse<DepartmentDto> getDepartmentById(@PathVariable Long id, WebRequest request) {
         try {
+            Optional<String> version = departmentService.findVersionTag(id);
+            if (version.isEmpty()) {
+                return ApiResponse.notFound("Department", id);
+            }
+            if (request.checkNotModified(ETags.of("department", id, version.get()))) {
+                return null;
+            }
             return departmentService.findById(id)
                     .map(dto -> ApiResponse.success(dto, "Department found"))
                     .orElse(ApiResponse.notFound("Department", id));
@@ -50,6 +70,23 @@ public class DepartmentController {
         }
     }
 
+    @GetMapping("/{id}/tree")
+    @Operation(summary = "Pobierz drzewo działu",
+               description = "Dział z poddziałami do głębokości maxDepth (domyślnie 10, maks. 50), ładowany jednym zapytaniem WITH RECURSIVE")
+    public ApiResponse<DepartmentTreeDto> getDepartmentTree(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer maxDepth) {
+        try {
+            return departmentService.getTree(id, maxDepth)
+                    .map(tree -> ApiResponse.success(tree, "Department tree found"))
+                    .orElse(ApiResponse.notFound("Department", id));
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch department tree: " + e.getMessage(), 500);
+        }
+    }
+
     @PostMapping("/")
     @Operation(summary = "Utwórz nowy dział")
     public ApiResponse<DepartmentDto> createDepartment(@RequestBody DepartmentDto dto) {
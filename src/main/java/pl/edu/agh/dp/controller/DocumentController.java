@@ -2,13 +2,21 @@ package pl.edu.agh.dp.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pl.edu.agh.dp.dto.ApiResponse;
+import pl.edu.agh.dp.dto.BulkResultDto;
+import pl.edu.agh.dp.dto.CursorPage;
 import pl.edu.agh.dp.dto.CurriculumDto;
 import pl.edu.agh.dp.dto.DocumentDto;
 import pl.edu.agh.dp.dto.InvoiceDto;
+import pl.edu.agh.dp.dto.InvoiceSummaryDto;
+import pl.edu.agh.dp.dto.MultiGetResultDto;
 import pl.edu.agh.dp.dto.ReportDto;
 import pl.edu.agh.dp.service.DocumentService;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -23,17 +31,46 @@ import java.util.List;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final JsonMapper jsonMapper;
 
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, JsonMapper jsonMapper) {
         this.documentService = documentService;
+        this.jsonMapper = jsonMapper;
     }
 
     @GetMapping("/")
-    @Operation(summary = "Pobierz wszystkie dokumenty", description = "Zwraca wszystkie typy dokumentów (Report, Invoice, Cirriculum)")
-    public ApiResponse<List<DocumentDto>> getAllDocuments() {
+    @Operation(summary = "Pobierz wszystkie dokumenty",
+               description = "Zwraca wszystkie typy dokumentów (Report, Invoice, Cirriculum). Paginacja kursorowa (keyset po id): kolejną stronę pobiera się przekazując nextCursor z odpowiedzi. fields=a,b,c zwraca tylko wybrane pola (projekcja SQL bez ładowania relacji)")
+    public ApiResponse<? extends List<?>> getAllDocuments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
         try {
-            List<DocumentDto> documents = documentService.findAll();
-            return ApiResponse.success(documents, "Found " + documents.size() + " documents");
+            CursorPage<?> page = documentService.findPage(cursor, size, fields);
+            return ApiResponse.page(page, "Found " + page.getItems().size() + " documents");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch documents: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping(value = "/", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Eksport wszystkich dokumentów (NDJSON)",
+               description = "Wariant strumieniowy dla Accept: application/x-ndjson - jeden dokument JSON na linię, czytany kursorem JDBC z fetch size; pamięć nie zależy od liczby wierszy")
+    public ResponseEntity<StreamingResponseBody> exportDocuments() {
+        return NdjsonResponses.stream(jsonMapper, DocumentDto.class, documentService::streamAll);
+    }
+
+    @GetMapping(value = "/", params = "ids")
+    @Operation(summary = "Pobierz wiele dokumentów po ID (?ids=1,2,3)",
+               description = "Jedno zapytanie IN; typ DTO wg DTYPE. Maksymalnie 500 id; brakujące id trafiają do missingIds, kolejność jak w żądaniu")
+    public ApiResponse<MultiGetResultDto<DocumentDto>> getDocumentsByIds(@RequestParam List<Long> ids) {
+        try {
+            MultiGetResultDto<DocumentDto> result = documentService.findByIds(ids);
+            return ApiResponse.success(result, "Found " + result.getFound() + " of " + result.getRequested() + " documents");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to fetch documents: " + e.getMessage(), 500);
         }
@@ -87,6 +124,22 @@ public class DocumentController {
         }
     }
 
+    @PostMapping("/report/bulk")
+    @Operation(summary = "Utwórz wiele raportów (bulk)",
+               description = "JDBC batch w jednej transakcji, porcje po chunkSize wierszy (domyślnie DB_BULK_CHUNK_SIZE); błędne elementy są pomijane i raportowane z indeksem")
+    public ApiResponse<BulkResultDto<ReportDto>> createReportsBulk(
+            @RequestBody List<ReportDto> dtos,
+            @RequestParam(required = false) Integer chunkSize) {
+        try {
+            BulkResultDto<ReportDto> result = documentService.createReportBulk(dtos, chunkSize);
+            return ApiResponse.success(result, "Created " + result.getCreated() + " of " + result.getRequested() + " reports");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to bulk create reports: " + e.getMessage(), 500);
+        }
+    }
+
     @PutMapping("/report/{id}")
     @Operation(summary = "Aktualizuj raport")
     public ApiResponse<ReportDto> updateReport(@PathVariable Long id, @RequestBody ReportDto dto) {
@@ -125,6 +178,18 @@ public class DocumentController {
         }
     }
 
+    @GetMapping("/invoice/summary")
+    @Operation(summary = "Podsumowanie należności z faktur",
+               description = "Liczba faktur, suma kwot i podatku - łącznie, po statusie płatności i po miesiącu terminu. Czytane z rollupu aktualizowanego przy każdym zapisie faktury, bez skanowania tabeli documents")
+    public ApiResponse<InvoiceSummaryDto> getInvoiceSummary() {
+        try {
+            InvoiceSummaryDto summary = documentService.invoiceSummary();
+            return ApiResponse.success(summary, "Summary of " + summary.getInvoiceCount() + " invoices");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch invoice summary: " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/invoice/{id}")
     @Operation(summary = "Pobierz fakturę po ID")
     public ApiResponse<InvoiceDto> getInvoiceById(@PathVariable Long id) {
@@ -148,6 +213,22 @@ public class DocumentController {
         }
     }
 
+    @PostMapping("/invoice/bulk")
+    @Operation(summary = "Utwórz wiele faktur (bulk)",
+               description = "JDBC batch w jednej transakcji, porcje po chunkSize wierszy (domyślnie DB_BULK_CHUNK_SIZE); błędne elementy są pomijane i raportowane z indeksem")
+    public ApiResponse<BulkResultDto<InvoiceDto>> createInvoicesBulk(
+            @RequestBody List<InvoiceDto> dtos,
+            @RequestParam(required = false) Integer chunkSize) {
+        try {
+            BulkResultDto<InvoiceDto> result = documentService.createInvoiceBulk(dtos, chunkSize);
+            return ApiResponse.success(result, "Created " + result.getCreated() + " of " + result.getRequested() + " invoices");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to bulk create invoices: " + e.getMessage(), 500);
+        }
+    }
+
     @PutMapping("/invoice/{id}")
     @Operation(summary = "Aktualizuj fakturę")
     public ApiResponse<InvoiceDto> updateInvoice(@PathVariable Long id, @RequestBody InvoiceDto dto) {
@@ -209,6 +290,22 @@ public class DocumentController {
         }
     }
 
+    @PostMapping("/cv/bulk")
+    @Operation(summary = "Utwórz wiele CV (bulk)",
+               description = "JDBC batch w jednej transakcji, porcje po chunkSize wierszy (domyślnie DB_BULK_CHUNK_SIZE); błędne elementy są pomijane i raportowane z indeksem")
+    public ApiResponse<BulkResultDto<CurriculumDto>> createCurriculaBulk(
+            @RequestBody List<CurriculumDto> dtos,
+            @RequestParam(required = false) Integer chunkSize) {
+        try {
+            BulkResultDto<CurriculumDto> result = documentService.createCirriculumBulk(dtos, chunkSize);
+            return ApiResponse.success(result, "Created " + result.getCreated() + " of " + result.getRequested() + " curricula");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to bulk create curricula: " + e.getMessage(), 500);
+        }
+    }
+
     @PutMapping("/cv/{id}")
     @Operation(summary = "Aktualizuj CV")
     public ApiResponse<CurriculumDto> updateCirriculum(@PathVariable Long id, @RequestBody CurriculumDto dto) {
@@ -239,11 +336,15 @@ public class DocumentController {
     @GetMapping("/finder/by-created-by")
     @Operation(summary = "Wyszukaj dokumenty po autorze",
                description = "Demonstruje Finder eq() na klasie bazowej SINGLE_TABLE - polimorficzne wyszukiwanie wszystkich typów dokumentów")
-    public ApiResponse<List<DocumentDto>> findDocumentsByCreatedBy(@RequestParam String createdBy) {
+    public ApiResponse<? extends List<?>> findDocumentsByCreatedBy(
+            @RequestParam String createdBy,
+            @RequestParam(required = false) String fields) {
         try {
-            List<DocumentDto> documents = documentService.findDocumentsByCreatedBy(createdBy);
+            List<?> documents = documentService.findDocumentsByCreatedBy(createdBy, fields);
             return ApiResponse.success(documents, 
                     "Finder eq() na Document (SINGLE_TABLE): Found " + documents.size() + " documents by '" + createdBy + "'");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find documents: " + e.getMessage(), 500);
         }
@@ -252,11 +353,15 @@ public class DocumentController {
     @GetMapping("/finder/by-title-like")
     @Operation(summary = "Wyszukaj dokumenty po fragmencie tytułu",
                description = "Demonstruje Finder like() na klasie bazowej - zwraca wszystkie typy (Report, Invoice, Curriculum)")
-    public ApiResponse<List<DocumentDto>> findDocumentsByTitleLike(@RequestParam String titlePattern) {
+    public ApiResponse<? extends List<?>> findDocumentsByTitleLike(
+            @RequestParam String titlePattern,
+            @RequestParam(required = false) String fields) {
         try {
-            List<DocumentDto> documents = documentService.findDocumentsByTitleLike(titlePattern);
+            List<?> documents = documentService.findDocumentsByTitleLike(titlePattern, fields);
             return ApiResponse.success(documents, 
                     "Finder like() na Document (SINGLE_TABLE): Found " + documents.size() + " documents with title containing '" + titlePattern + "'");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find documents: " + e.getMessage(), 500);
         }
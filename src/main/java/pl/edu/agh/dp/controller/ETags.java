@@ -0,0 +1,23 @@
+package pl.edu.agh.dp.controller;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Silne ETagi dla warunkowych GET (If-None-Match -> 304 Not Modified).
+ *
+ * Tag to skrót wersji zasobu z bazy i parametrów żądania, od których zależy treść
+ * odpowiedzi - niezmieniony zasób kosztuje jedno małe zapytanie, bez ładowania encji
+ * i serializacji.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Object... parts) {
+        return DigestUtils.md5DigestAsHex(Arrays.toString(parts).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -5,7 +5,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import pl.edu.agh.dp.dto.ApiResponse;
+import pl.edu.agh.dp.dto.BulkResultDto;
+import pl.edu.agh.dp.dto.CursorPage;
 import pl.edu.agh.dp.dto.EmployeeDto;
+import pl.edu.agh.dp.dto.MultiGetResultDto;
+import pl.edu.agh.dp.dto.ReportingLineDto;
 import pl.edu.agh.dp.service.EmployeeService;
 
 import java.math.BigDecimal;
@@ -32,11 +36,31 @@ public class EmployeeController {
     }
 
     @GetMapping("/")
-    @Operation(summary = "Pobierz wszystkich pracowników")
-    public ApiResponse<List<EmployeeDto>> getAllEmployees() {
+    @Operation(summary = "Pobierz wszystkich pracowników",
+               description = "Paginacja kursorowa (keyset po id): kolejną stronę pobiera się przekazując nextCursor z odpowiedzi. fields=a,b,c zwraca tylko wybrane pola (projekcja SQL bez ładowania relacji)")
+    public ApiResponse<? extends List<?>> getAllEmployees(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
         try {
-            List<EmployeeDto> employees = employeeService.findAll();
-            return ApiResponse.success(employees, "Found " + employees.size() + " employees");
+            CursorPage<?> page = employeeService.findPage(cursor, size, fields);
+            return ApiResponse.page(page, "Found " + page.getItems().size() + " employees");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch employees: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping(value = "/", params = "ids")
+    @Operation(summary = "Pobierz wielu pracowników po ID (?ids=1,2,3)",
+               description = "Jedno zapytanie IN, powiązania ładowane batchowo. Maksymalnie 500 id; brakujące id trafiają do missingIds, kolejność jak w żądaniu")
+    public ApiResponse<MultiGetResultDto<EmployeeDto>> getEmployeesByIds(@RequestParam List<Long> ids) {
+        try {
+            MultiGetResultDto<EmployeeDto> result = employeeService.findByIds(ids);
+            return ApiResponse.success(result, "Found " + result.getFound() + " of " + result.getRequested() + " employees");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to fetch employees: " + e.getMessage(), 500);
         }
@@ -65,6 +89,22 @@ public class EmployeeController {
         }
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Utwórz wielu pracowników (bulk)",
+               description = "JDBC batch w jednej transakcji, porcje po chunkSize wierszy (domyślnie DB_BULK_CHUNK_SIZE); managerowie i działy rozwiązywane jednym zapytaniem na porcję, błędne elementy są pomijane i raportowane z indeksem")
+    public ApiResponse<BulkResultDto<EmployeeDto>> createEmployeesBulk(
+            @RequestBody List<EmployeeDto> dtos,
+            @RequestParam(required = false) Integer chunkSize) {
+        try {
+            BulkResultDto<EmployeeDto> result = employeeService.createBulk(dtos, chunkSize);
+            return ApiResponse.success(result, "Created " + result.getCreated() + " of " + result.getRequested() + " employees");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to bulk create employees: " + e.getMessage(), 500);
+        }
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Aktualizuj pracownika")
     public ApiResponse<EmployeeDto> updateEmployee(@PathVariable Long id, @RequestBody EmployeeDto dto) {
@@ -128,6 +168,41 @@ public class EmployeeController {
         }
     }
 
+    @GetMapping("/{id}/chain")
+    @Operation(summary = "Pobierz łańcuch managerów",
+               description = "Wszyscy managerowie aż do korzenia (level 1 = bezpośredni), jednym zapytaniem WITH RECURSIVE; maxDepth domyślnie 20, maks. 100")
+    public ApiResponse<List<ReportingLineDto>> getManagementChain(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer maxDepth) {
+        try {
+            return employeeService.getManagementChain(id, maxDepth)
+                    .map(chain -> ApiResponse.success(chain, "Found " + chain.size() + " managers"))
+                    .orElse(ApiResponse.notFound("Employee", id));
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch management chain: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/{id}/reports")
+    @Operation(summary = "Pobierz podwładnych (bezpośrednich lub pośrednich)",
+               description = "transitive=true zwraca wszystkich pośrednich podwładnych do głębokości maxDepth (domyślnie 20, maks. 100)")
+    public ApiResponse<List<ReportingLineDto>> getReports(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean transitive,
+            @RequestParam(required = false) Integer maxDepth) {
+        try {
+            return employeeService.getReports(id, transitive, maxDepth)
+                    .map(reports -> ApiResponse.success(reports, "Found " + reports.size() + " reports"))
+                    .orElse(ApiResponse.notFound("Employee", id));
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch reports: " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/{id}/manager")
     @Operation(summary = "Pobierz managera pracownika", 
                description = "Demonstruje @ManyToOne self-reference: pobiera Employee będącego managerem")
@@ -212,10 +287,14 @@ public class EmployeeController {
     @GetMapping("/finder/by-position")
     @Operation(summary = "Wyszukaj pracowników po stanowisku",
                description = "Demonstruje Finder z warunkiem eq() - dokładne dopasowanie pola 'position'")
-    public ApiResponse<List<EmployeeDto>> findByPosition(@RequestParam String position) {
+    public ApiResponse<? extends List<?>> findByPosition(
+            @RequestParam String position,
+            @RequestParam(required = false) String fields) {
         try {
-            List<EmployeeDto> employees = employeeService.findByPosition(position);
+            List<?> employees = employeeService.findByPosition(position, fields);
             return ApiResponse.success(employees, "Finder eq(): Found " + employees.size() + " employees with position '" + position + "'");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find employees by position: " + e.getMessage(), 500);
         }
@@ -224,10 +303,14 @@ public class EmployeeController {
     @GetMapping("/finder/by-salary-greater-than")
     @Operation(summary = "Wyszukaj pracowników z pensją większą niż podana",
                description = "Demonstruje Finder z warunkami gt() i orderDesc() - wyszukiwanie z sortowaniem malejącym")
-    public ApiResponse<List<EmployeeDto>> findBySalaryGreaterThan(@RequestParam BigDecimal minSalary) {
+    public ApiResponse<? extends List<?>> findBySalaryGreaterThan(
+            @RequestParam BigDecimal minSalary,
+            @RequestParam(required = false) String fields) {
         try {
-            List<EmployeeDto> employees = employeeService.findBySalaryGreaterThan(minSalary);
+            List<?> employees = employeeService.findBySalaryGreaterThan(minSalary, fields);
             return ApiResponse.success(employees, "Finder gt() + orderDesc(): Found " + employees.size() + " employees with salary > " + minSalary);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find employees by salary: " + e.getMessage(), 500);
         }
@@ -236,10 +319,14 @@ public class EmployeeController {
     @GetMapping("/finder/by-lastname-like")
     @Operation(summary = "Wyszukaj pracowników po fragmencie nazwiska",
                description = "Demonstruje Finder z warunkiem like() - wyszukiwanie wzorcowe (pattern matching)")
-    public ApiResponse<List<EmployeeDto>> findByLastNameLike(@RequestParam String pattern) {
+    public ApiResponse<? extends List<?>> findByLastNameLike(
+            @RequestParam String pattern,
+            @RequestParam(required = false) String fields) {
         try {
-            List<EmployeeDto> employees = employeeService.findByLastNameLike(pattern);
+            List<?> employees = employeeService.findByLastNameLike(pattern, fields);
             return ApiResponse.success(employees, "Finder like(): Found " + employees.size() + " employees with lastName containing '" + pattern + "'");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find employees by lastName pattern: " + e.getMessage(), 500);
         }
@@ -248,17 +335,20 @@ public class EmployeeController {
     @GetMapping("/finder/by-salary-between")
     @Operation(summary = "Wyszukaj pracowników z pensją w zakresie",
                description = "Demonstruje Finder z warunkiem between() oraz paginacją (limit, offset)")
-    public ApiResponse<List<EmployeeDto>> findBySalaryBetween(
+    public ApiResponse<? extends List<?>> findBySalaryBetween(
             @RequestParam BigDecimal minSalary,
             @RequestParam BigDecimal maxSalary,
             @RequestParam(defaultValue = "10") int limit,
-            @RequestParam(defaultValue = "0") int offset) {
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) String fields) {
         try {
-            List<EmployeeDto> employees = employeeService.findBySalaryBetween(minSalary, maxSalary, limit, offset);
+            List<?> employees = employeeService.findBySalaryBetween(minSalary, maxSalary, limit, offset, fields);
             return ApiResponse.success(employees, 
                     "Finder between() + limit() + offset(): Found " + employees.size() + 
                     " employees with salary between " + minSalary + " and " + maxSalary +
                     " (page: limit=" + limit + ", offset=" + offset + ")");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find employees by salary range: " + e.getMessage(), 500);
         }
@@ -267,14 +357,17 @@ public class EmployeeController {
     @GetMapping("/finder/by-position-and-hired-after")
     @Operation(summary = "Wyszukaj pracowników po stanowisku i dacie zatrudnienia",
                description = "Demonstruje Finder z wieloma warunkami: eq() + gt() - złożone zapytania")
-    public ApiResponse<List<EmployeeDto>> findByPositionAndHiredAfter(
+    public ApiResponse<? extends List<?>> findByPositionAndHiredAfter(
             @RequestParam String position,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hireDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hireDate,
+            @RequestParam(required = false) String fields) {
         try {
-            List<EmployeeDto> employees = employeeService.findByPositionAndHiredAfter(position, hireDate);
+            List<?> employees = employeeService.findByPositionAndHiredAfter(position, hireDate, fields);
             return ApiResponse.success(employees, 
                     "Finder eq() + gt(): Found " + employees.size() + 
                     " employees with position '" + position + "' hired after " + hireDate);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to find employees by position and hire date: " + e.getMessage(), 500);
         }
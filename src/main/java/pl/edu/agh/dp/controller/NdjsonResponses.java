@@ -0,0 +1,52 @@
+package pl.edu.agh.dp.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Odpowiedzi NDJSON (application/x-ndjson) - jeden obiekt JSON na linię.
+ *
+ * Serwis przekazuje kolejne DTO do consumera w trakcie iteracji kursora JDBC,
+ * a każde DTO jest od razu serializowane do strumienia odpowiedzi.
+ */
+final class NdjsonResponses {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * @param type     typ bazowy DTO (jak element listy w odpowiedzi JSON - zachowuje pole typu)
+     * @param exporter metoda serwisu strumieniująca DTO do consumera
+     */
+    static <T> ResponseEntity<StreamingResponseBody> stream(JsonMapper jsonMapper, Class<T> type,
+                                                            Function<Consumer<T>, Long> exporter) {
+        ObjectWriter writer = jsonMapper.writerFor(type);
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+            exporter.apply(item -> {
+                try {
+                    buffered.write(writer.writeValueAsBytes(item));
+                    buffered.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            buffered.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -2,15 +2,38 @@ package pl.edu.agh.dp.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pl.edu.agh.dp.dto.ApiResponse;
+import pl.edu.agh.dp.dto.BulkResultDto;
+import pl.edu.agh.dp.dto.CursorPage;
+import pl.edu.agh.dp.dto.DispatchResultDto;
+import pl.edu.agh.dp.dto.DispatchStatsDto;
 import pl.edu.agh.dp.dto.NotificationDto;
+import pl.edu.agh.dp.dto.NotificationPartitionDto;
+import pl.edu.agh.dp.dto.NotificationStreamStatsDto;
+import pl.edu.agh.dp.dto.PartitionMaintenanceDto;
+import pl.edu.agh.dp.dto.MarkReadRequestDto;
+import pl.edu.agh.dp.dto.MultiGetResultDto;
 import pl.edu.agh.dp.dto.EmailNotificationDto;
 import pl.edu.agh.dp.dto.SmsNotificationDto;
 import pl.edu.agh.dp.dto.PushNotificationDto;
+import pl.edu.agh.dp.dto.UnreadCountDto;
+import pl.edu.agh.dp.service.NotificationDispatcher;
+import pl.edu.agh.dp.service.NotificationEventBus;
+import pl.edu.agh.dp.service.NotificationRetentionService;
 import pl.edu.agh.dp.service.NotificationService;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Kontroler REST dla Notification (TABLE_PER_CLASS inheritance).
@@ -22,22 +45,89 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationRetentionService retentionService;
+    private final NotificationEventBus eventBus;
+    private final JsonMapper jsonMapper;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, NotificationDispatcher notificationDispatcher,
+                                  NotificationRetentionService retentionService, NotificationEventBus eventBus,
+                                  JsonMapper jsonMapper) {
         this.notificationService = notificationService;
+        this.notificationDispatcher = notificationDispatcher;
+        this.retentionService = retentionService;
+        this.eventBus = eventBus;
+        this.jsonMapper = jsonMapper;
     }
 
     @GetMapping("/")
-    @Operation(summary = "Pobierz wszystkie powiadomienia", description = "Zwraca wszystkie typy powiadomień (Email, SMS, Push)")
-    public ApiResponse<List<NotificationDto>> getAllNotifications() {
+    @Operation(summary = "Pobierz wszystkie powiadomienia",
+               description = "Zwraca wszystkie typy powiadomień (Email, SMS, Push). Paginacja kursorowa (keyset po id): kolejną stronę pobiera się przekazując nextCursor z odpowiedzi")
+    public ApiResponse<List<NotificationDto>> getAllNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<NotificationDto> notifications = notificationService.findAll();
-            return ApiResponse.success(notifications, "Found " + notifications.size() + " notifications");
+            CursorPage<NotificationDto> page = notificationService.findPage(cursor, size);
+            return ApiResponse.page(page, "Found " + page.getItems().size() + " notifications");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
         } catch (Exception e) {
             return ApiResponse.error("Failed to fetch notifications: " + e.getMessage(), 500);
         }
     }
 
+    @GetMapping(value = "/", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Eksport wszystkich powiadomień (NDJSON)",
+               description = "Wariant strumieniowy dla Accept: application/x-ndjson - jedno powiadomienie JSON na linię, czytane kursorem JDBC z fetch size; pamięć nie zależy od liczby wierszy")
+    public ResponseEntity<StreamingResponseBody> exportNotifications() {
+        return NdjsonResponses.stream(jsonMapper, NotificationDto.class, notificationService::streamAll);
+    }
+
+    @GetMapping("/unread-count")
+    @Operation(summary = "Liczba nieprzeczytanych powiadomień",
+               description = "Dla adresata (email, numer telefonu lub token urządzenia) albo wszystkich adresatów, łącznie i per kanał. Liczniki w pamięci - bez zapytania do bazy")
+    public ApiResponse<UnreadCountDto> getUnreadCount(@RequestParam(required = false) String recipient) {
+        try {
+            UnreadCountDto count = notificationService.unreadCount(recipient);
+            return ApiResponse.success(count, count.getTotal() + " unread notifications");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to count unread notifications: " + e.getMessage(), 500);
+        }
+    }
+
+    @PostMapping("/mark-read")
+    @Operation(summary = "Oznacz powiadomienia jako przeczytane (zbiorczo)",
+               description = "Wszystkie powiadomienia adresata (recipient) i/lub wskazane emailIds, smsIds, pushIds - jeden UPDATE na tabelę kanału")
+    public ApiResponse<Map<String, Integer>> markRead(@RequestBody MarkReadRequestDto request) {
+        try {
+            Map<String, Integer> marked = notificationService.markRead(request);
+            int total = marked.values().stream().mapToInt(Integer::intValue).sum();
+            return ApiResponse.success(marked, "Marked " + total + " notifications as read");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to mark notifications as read: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/finder/created-between")
+    @Operation(summary = "Wyszukaj powiadomienia po dacie utworzenia",
+               description = "Finder gte() + lt() na createdAt w zakresie [from, to), od najstarszych. Przy partycjonowaniu zapytanie czyta tylko partycje miesięcy z zakresu")
+    public ApiResponse<List<NotificationDto>> findCreatedBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            List<NotificationDto> notifications = notificationService.findCreatedBetween(from, to, limit);
+            return ApiResponse.success(notifications,
+                    "Found " + notifications.size() + " notifications created between " + from + " and " + to);
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to find notifications by creation date: " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Pobierz powiadomienie po ID", description = "Automatycznie zwraca odpowiedni typ DTO (Email, SMS, Push)")
     public ApiResponse<NotificationDto> getNotificationById(@PathVariable Long id) {
@@ -63,6 +153,20 @@ public class NotificationController {
         }
     }
 
+    @GetMapping(value = "/email", params = "ids")
+    @Operation(summary = "Pobierz wiele powiadomień email po ID (?ids=1,2,3)",
+               description = "Jedno zapytanie IN do tabeli podklasy (id w TABLE_PER_CLASS są unikalne tylko w obrębie typu). Maksymalnie 500 id; brakujące id trafiają do missingIds, kolejność jak w żądaniu")
+    public ApiResponse<MultiGetResultDto<EmailNotificationDto>> getEmailsByIds(@RequestParam List<Long> ids) {
+        try {
+            MultiGetResultDto<EmailNotificationDto> result = notificationService.findEmailsByIds(ids);
+            return ApiResponse.success(result, "Found " + result.getFound() + " of " + result.getRequested() + " email notifications");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch email notifications: " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/email/{id}")
     @Operation(summary = "Pobierz powiadomienie email po ID")
     public ApiResponse<EmailNotificationDto> getEmailById(@PathVariable Long id) {
@@ -86,6 +190,22 @@ public class NotificationController {
         }
     }
 
+    @PostMapping("/email/bulk")
+    @Operation(summary = "Utwórz wiele powiadomień Email (bulk)",
+               description = "JDBC batch w jednej transakcji, porcje po chunkSize wierszy (domyślnie DB_BULK_CHUNK_SIZE); błędne elementy są pomijane i raportowane z indeksem")
+    public ApiResponse<BulkResultDto<EmailNotificationDto>> createEmailNotificationsBulk(
+            @RequestBody List<EmailNotificationDto> dtos,
+            @RequestParam(required = false) Integer chunkSize) {
+        try {
+            BulkResultDto<EmailNotificationDto> result = notificationService.createEmailBulk(dtos, chunkSize);
+            return ApiResponse.success(result, "Created " + result.getCreated() + " of " + result.getRequested() + " email notifications");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to bulk create email notifications: " + e.getMessage(), 500);
+        }
+    }
+
     @PutMapping("/email/{id}")
     @Operation(summary = "Aktualizuj powiadomienie email")
     public ApiResponse<EmailNotificationDto> updateEmailNotification(@PathVariable Long id, @RequestBody EmailNotificationDto dto) {
@@ -124,6 +244,20 @@ public class NotificationController {
         }
     }
 
+    @GetMapping(value = "/sms", params = "ids")
+    @Operation(summary = "Pobierz wiele powiadomień SMS po ID (?ids=1,2,3)",
+               description = "Jedno zapytanie IN do tabeli podklasy (id w TABLE_PER_CLASS są unikalne tylko w obrębie typu). Maksymalnie 500 id; brakujące id trafiają do missingIds, kolejność jak w żądaniu")
+    public ApiResponse<MultiGetResultDto<SmsNotificationDto>> getSmsByIds(@RequestParam List<Long> ids) {
+        try {
+            MultiGetResultDto<SmsNotificationDto> result = notificationService.findSmsByIds(ids);
+            return ApiResponse.success(result, "Found " + result.getFound() + " of " + result.getRequested() + " SMS notifications");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch SMS notifications: " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/sms/{id}")
     @Operation(summary = "Pobierz powiadomienie SMS po ID")
     public ApiResponse<SmsNotificationDto> getSmsById(@PathVariable Long id) {
@@ -147,6 +281,22 @@ public class NotificationController {
         }
     }
 
+    @PostMapping("/sms/bulk")
+    @Operation(summary = "Utwórz wiele powiadomień SMS (bulk)",
+               description = "JDBC batch w jednej transakcji, porcje po chunkSize wierszy (domyślnie DB_BULK_CHUNK_SIZE); błędne elementy są pomijane i raportowane z indeksem")
+    public ApiResponse<BulkResultDto<SmsNotificationDto>> createSmsNotificationsBulk(
+            @RequestBody List<SmsNotificationDto> dtos,
+            @RequestParam(required = false) Integer chunkSize) {
+        try {
+            BulkResultDto<SmsNotificationDto> result = notificationService.createSmsBulk(dtos, chunkSize);
+            return ApiResponse.success(result, "Created " + result.getCreated() + " of " + result.getRequested() + " SMS notifications");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to bulk create SMS notifications: " + e.getMessage(), 500);
+        }
+    }
+
     @PutMapping("/sms/{id}")
     @Operation(summary = "Aktualizuj powiadomienie SMS")
     public ApiResponse<SmsNotificationDto> updateSmsNotification(@PathVariable Long id, @RequestBody SmsNotificationDto dto) {
@@ -185,6 +335,20 @@ public class NotificationController {
         }
     }
 
+    @GetMapping(value = "/push", params = "ids")
+    @Operation(summary = "Pobierz wiele powiadomień push po ID (?ids=1,2,3)",
+               description = "Jedno zapytanie IN do tabeli podklasy (id w TABLE_PER_CLASS są unikalne tylko w obrębie typu). Maksymalnie 500 id; brakujące id trafiają do missingIds, kolejność jak w żądaniu")
+    public ApiResponse<MultiGetResultDto<PushNotificationDto>> getPushByIds(@RequestParam List<Long> ids) {
+        try {
+            MultiGetResultDto<PushNotificationDto> result = notificationService.findPushByIds(ids);
+            return ApiResponse.success(result, "Found " + result.getFound() + " of " + result.getRequested() + " push notifications");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch push notifications: " + e.getMessage(), 500);
+        }
+    }
+
     @GetMapping("/push/{id}")
     @Operation(summary = "Pobierz powiadomienie push po ID")
     public ApiResponse<PushNotificationDto> getPushById(@PathVariable Long id) {
@@ -208,6 +372,22 @@ public class NotificationController {
         }
     }
 
+    @PostMapping("/push/bulk")
+    @Operation(summary = "Utwórz wiele powiadomień Push (bulk)",
+               description = "JDBC batch w jednej transakcji, porcje po chunkSize wierszy (domyślnie DB_BULK_CHUNK_SIZE); błędne elementy są pomijane i raportowane z indeksem")
+    public ApiResponse<BulkResultDto<PushNotificationDto>> createPushNotificationsBulk(
+            @RequestBody List<PushNotificationDto> dtos,
+            @RequestParam(required = false) Integer chunkSize) {
+        try {
+            BulkResultDto<PushNotificationDto> result = notificationService.createPushBulk(dtos, chunkSize);
+            return ApiResponse.success(result, "Created " + result.getCreated() + " of " + result.getRequested() + " push notifications");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to bulk create push notifications: " + e.getMessage(), 500);
+        }
+    }
+
     @PutMapping("/push/{id}")
     @Operation(summary = "Aktualizuj powiadomienie push")
     public ApiResponse<PushNotificationDto> updatePushNotification(@PathVariable Long id, @RequestBody PushNotificationDto dto) {
@@ -245,4 +425,109 @@ public class NotificationController {
             return ApiResponse.error("Failed to create notification: " + e.getMessage(), 400);
         }
     }
+
+    // ==================== DISPATCH ====================
+
+    @PostMapping("/dispatch")
+    @Operation(summary = "Wyślij oczekujące powiadomienia",
+               description = "Jeden przebieg wysyłki PENDING przez nadawców kanałów (porcje SELECT ... FOR UPDATE SKIP LOCKED, status SENT/FAILED zapisywany zbiorczo). Wątki w tle: NOTIFICATION_DISPATCH_THREADS")
+    public ApiResponse<List<DispatchResultDto>> dispatchPending() {
+        try {
+            List<DispatchResultDto> results = notificationDispatcher.dispatchOnce();
+            int sent = results.stream().mapToInt(DispatchResultDto::getSent).sum();
+            return ApiResponse.success(results, "Sent " + sent + " notifications");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to dispatch notifications: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/dispatch/stats")
+    @Operation(summary = "Stan kolejek wysyłki",
+               description = "Per kanał: liczba PENDING (queueDepth), wiek najstarszego PENDING (lagSeconds), limit i dostępne żetony oraz liczniki sent/failed/expired tej instancji")
+    public ApiResponse<List<DispatchStatsDto>> getDispatchStats() {
+        try {
+            return ApiResponse.success(notificationDispatcher.stats(), "Notification dispatch statistics");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch dispatch statistics: " + e.getMessage(), 500);
+        }
+    }
+
+    // ==================== PARTITIONS ====================
+
+    @GetMapping("/partitions")
+    @Operation(summary = "Partycje tabel powiadomień",
+               description = "Partycje miesięczne (created_at) wszystkich tabel hierarchii z szacowaną liczbą wierszy. Wymaga NOTIFICATION_PARTITIONING_ENABLED=true")
+    public ApiResponse<List<NotificationPartitionDto>> getPartitions() {
+        try {
+            List<NotificationPartitionDto> partitions = retentionService.partitions();
+            return ApiResponse.success(partitions, "Found " + partitions.size() + " notification partitions");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to list notification partitions: " + e.getMessage(), 500);
+        }
+    }
+
+    @PostMapping("/partitions/maintenance")
+    @Operation(summary = "Utrzymanie partycji i retencja",
+               description = "Zakłada partycje na kolejne miesiące i usuwa (drop) albo archiwizuje (archive) całe partycje starsze niż NOTIFICATION_RETENTION_MONTHS. W tle co godzinę")
+    public ApiResponse<PartitionMaintenanceDto> runPartitionMaintenance() {
+        try {
+            PartitionMaintenanceDto result = retentionService.runMaintenance();
+            return ApiResponse.success(result, "Created " + result.getCreatedPartitions() + " partitions, removed "
+                    + (result.getDropped().size() + result.getArchived().size()) + " by retention");
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.error(e.getMessage(), 400);
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to maintain notification partitions: " + e.getMessage(), 500);
+        }
+    }
+
+    // ==================== STREAM ====================
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Strumień nowych i zmienionych powiadomień (SSE)",
+               description = "Zdarzenia created/updated z NotificationDto w polu data, opcjonalnie tylko dla adresata (recipient). Ograniczony bufor na klienta - wolny klient traci najstarsze zdarzenia albo jest rozłączany (NOTIFICATION_STREAM_SLOW_CONSUMER)")
+    public ResponseEntity<SseEmitter> streamNotifications(@RequestParam(required = false) String recipient) {
+        SseEmitter emitter = new SseEmitter();
+        ObjectWriter writer = jsonMapper.writerFor(NotificationDto.class);
+        NotificationEventBus.Subscription subscription;
+        try {
+            subscription = eventBus.subscribe(recipient, new NotificationEventBus.Sink() {
+                @Override
+                public void send(NotificationEventBus.Event event) throws Exception {
+                    if (event.type() == NotificationEventBus.EventType.HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                        return;
+                    }
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(event.id()))
+                            .name(event.type().eventName())
+                            .data(writer.writeValueAsString(event.notification())));
+                }
+
+                @Override
+                public void close() {
+                    emitter.complete();
+                }
+            });
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/stream/stats")
+    @Operation(summary = "Stan strumienia powiadomień",
+               description = "Liczba subskrybentów SSE, rozmiar bufora i polityka wolnych klientów oraz liczniki zdarzeń opublikowanych, dostarczonych i odrzuconych w tej instancji")
+    public ApiResponse<NotificationStreamStatsDto> getStreamStats() {
+        try {
+            return ApiResponse.success(eventBus.stats(), "Notification stream statistics");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch notification stream statistics: " + e.getMessage(), 500);
+        }
+    }
 }
@@ -0,0 +1,76 @@
+package pl.edu.agh.dp.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.dto.ApiResponse;
+import pl.edu.agh.dp.orm.CacheStats;
+import pl.edu.agh.dp.orm.ConcurrencyLimitStats;
+import pl.edu.agh.dp.orm.ConcurrencyLimitingConnectionProvider;
+import pl.edu.agh.dp.orm.PoolStats;
+import pl.edu.agh.dp.orm.PooledConnectionProvider;
+
+/**
+ * Kontroler REST z diagnostyką warstwy ORM (pula połączeń, limiter współbieżności, cache drugiego poziomu).
+ */
+@RestController
+@RequestMapping("/api/orm")
+@Tag(name = "ORM", description = "Diagnostyka warstwy ORM")
+public class OrmController {
+
+    @GetMapping("/pool")
+    @Operation(summary = "Statystyki puli połączeń",
+               description = "Nasycenie puli (active/max), liczba oczekujących wątków, czasy oczekiwania na połączenie, timeouty i wykryte wycieki")
+    public ApiResponse<PoolStats> getPoolStats() {
+        try {
+            PooledConnectionProvider pool = OrmConfig.getConnectionPool();
+            if (pool == null) {
+                return ApiResponse.error("Connection pool is disabled (DB_POOL_ENABLED=false)", 404);
+            }
+            return ApiResponse.success(pool.getStats(), "Connection pool statistics");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch pool statistics: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/concurrency")
+    @Operation(summary = "Statystyki limitera współbieżności",
+               description = "Tryb wątków (wirtualne/platformowe), zajęte zezwolenia, liczba czekających wątków i czasy oczekiwania przed pobraniem połączenia")
+    public ApiResponse<ConcurrencyLimitStats> getConcurrencyStats() {
+        try {
+            ConcurrencyLimitingConnectionProvider limiter = OrmConfig.getConcurrencyLimiter();
+            if (limiter == null) {
+                return ApiResponse.error("Concurrency limiter is disabled (VIRTUAL_THREADS_ENABLED=false, DB_MAX_CONCURRENT not set)", 404);
+            }
+            return ApiResponse.success(limiter.getStats(), "Concurrency limiter statistics");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch concurrency statistics: " + e.getMessage(), 500);
+        }
+    }
+
+    @GetMapping("/cache")
+    @Operation(summary = "Statystyki cache drugiego poziomu",
+               description = "Rozmiar, trafienia/chybienia, współczynnik trafień, wyrzucenia LRU, wygaśnięcia TTL i unieważnienia cache Department/Employee")
+    public ApiResponse<CacheStats> getCacheStats() {
+        try {
+            return ApiResponse.success(OrmConfig.getEntityCache().getStats(), "Entity cache statistics");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to fetch cache statistics: " + e.getMessage(), 500);
+        }
+    }
+
+    @DeleteMapping("/cache")
+    @Operation(summary = "Wyczyść cache drugiego poziomu", description = "Unieważnia wszystkie wpisy (np. po zmianach w bazie poza aplikacją)")
+    public ApiResponse<CacheStats> clearCache() {
+        try {
+            OrmConfig.getEntityCache().clear();
+            return ApiResponse.success(OrmConfig.getEntityCache().getStats(), "Entity cache cleared");
+        } catch (Exception e) {
+            return ApiResponse.error("Failed to clear cache: " + e.getMessage(), 500);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package pl.edu.agh.dp.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import pl.edu.agh.dp.orm.SqlStats;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Generyczna odpowiedź API.
@@ -23,6 +26,14 @@ public class ApiResponse<T> {
     private LocalDateTime timestamp;
     private int statusCode;
 
+    /** Kursor kolejnej strony (tylko dla list paginowanych, null na ostatniej stronie). */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    /** Statystyki SQL żądania (tylko w trybie ORM_SQL_DEBUG). */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private SqlStats sql;
+
     /**
      * Tworzy odpowiedź sukcesu z danymi.
      */
@@ -49,6 +60,20 @@ public class ApiResponse<T> {
                 .build();
     }
 
+    /**
+     * Tworzy odpowiedź sukcesu dla strony wyników paginacji kursorowej.
+     */
+    public static <T> ApiResponse<List<T>> page(CursorPage<T> page, String message) {
+        return ApiResponse.<List<T>>builder()
+                .success(true)
+                .message(message)
+                .data(page.getItems())
+                .timestamp(LocalDateTime.now())
+                .statusCode(200)
+                .nextCursor(page.getNextCursor())
+                .build();
+    }
+
     /**
      * Tworzy odpowiedź sukcesu dla operacji tworzenia.
      */
@@ -0,0 +1,34 @@
+package pl.edu.agh.dp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Jedna grupa agregatu sald kont. Wymiary spoza {@code groupBy} są pomijane w odpowiedzi.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceGroupDto {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String currency;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String accountType;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean isActive;
+
+    private long accountCount;
+    private BigDecimal totalBalance;
+    private BigDecimal averageBalance;
+    private BigDecimal minBalance;
+    private BigDecimal maxBalance;
+}
@@ -0,0 +1,31 @@
+package pl.edu.agh.dp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Agregat sald kont pogrupowany po wybranych wymiarach.
+ *
+ * {@code source} mówi, czy wynik policzono na żywo (GROUP BY po tabelach hierarchii),
+ * czy z tabeli podsumowań - wtedy {@code refreshedAt} to chwila jej ostatniego przeliczenia.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSummaryDto {
+
+    private String source;
+    private List<String> groupBy;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime refreshedAt;
+
+    private List<BalanceGroupDto> groups;
+}
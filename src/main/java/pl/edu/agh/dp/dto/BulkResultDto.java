@@ -0,0 +1,35 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Wynik operacji bulk create: utworzone elementy oraz błędy per element.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResultDto<T> {
+
+    private int requested;
+    private int created;
+    private int failed;
+    private List<T> items;
+    private List<ItemError> errors;
+
+    /**
+     * Błąd pojedynczego elementu (index = pozycja w tablicy żądania).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError {
+        private int index;
+        private String message;
+    }
+}
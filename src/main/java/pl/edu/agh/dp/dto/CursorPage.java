@@ -0,0 +1,89 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Strona wyników paginacji kursorowej (keyset po id).
+ *
+ * Kursor jest nieprzezroczysty dla klienta - to zakodowany Base64 klucz ostatniego
+ * zwróconego wiersza. Kolejna strona to {@code WHERE id > :ostatnieId ORDER BY id LIMIT :size + 1},
+ * więc koszt zapytania nie zależy od numeru strony (w przeciwieństwie do OFFSET).
+ */
+@Value
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    List<T> items;
+    String nextCursor;
+
+    /**
+     * Buduje stronę z wyniku zapytania pobranego z limitem {@code size + 1}.
+     * Nadmiarowy wiersz oznacza, że istnieje kolejna strona.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int size,
+                                          Function<E, Key> keyOf,
+                                          Function<List<E>, List<T>> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<E> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? keyOf.apply(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(mapper.apply(page), nextCursor);
+    }
+
+    /**
+     * Normalizuje rozmiar strony do zakresu 1..MAX_SIZE.
+     */
+    public static int clampSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Klucz kursora: id wiersza oraz opcjonalny rank typu (dla hierarchii TABLE_PER_CLASS,
+     * gdzie id nie są unikalne między tabelami).
+     */
+    @Value
+    public static class Key {
+        long id;
+        int rank;
+
+        public static Key of(long id) {
+            return new Key(id, 0);
+        }
+
+        public static Key of(long id, int rank) {
+            return new Key(id, rank);
+        }
+
+        public String encode() {
+            String raw = id + ":" + rank;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Dekoduje kursor; null/pusty oznacza pierwszą stronę.
+         *
+         * @throws IllegalArgumentException dla niepoprawnego kursora
+         */
+        public static Key decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                return new Key(Long.parseLong(raw.substring(0, separator)), Integer.parseInt(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+    }
+}
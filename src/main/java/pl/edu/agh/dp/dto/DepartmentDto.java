@@ -14,7 +14,7 @@ import java.util.stream.Collectors;
  * Demonstruje mapowanie hierarchii (parent/children) w DTO.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class DepartmentDto {
@@ -79,6 +79,17 @@ public class DepartmentDto {
         return builder.build();
     }
 
+    /**
+     * Głęboka kopia DTO (wpis cache drugiego poziomu nie jest współdzielony z wywołującym).
+     */
+    public DepartmentDto copy() {
+        return toBuilder()
+                .subDepartments(subDepartments == null ? null : subDepartments.stream()
+                        .map(sub -> new DepartmentSummaryDto(sub.getId(), sub.getName(), sub.getCode()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
     /**
      * Konwertuje DTO na nową encję Department (bez relacji).
      */
@@ -0,0 +1,34 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO węzła drzewa działów (GET /api/departments/{id}/tree).
+ * Całe poddrzewo jest ładowane jednym zapytaniem WITH RECURSIVE i składane w pamięci.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentTreeDto {
+
+    private Long id;
+    private String name;
+    private String code;
+    private String description;
+    private Long parentDepartmentId;
+    private int depth;
+    private long employeeCount;
+
+    /** true, gdy węzeł na granicy maxDepth ma poddziały, które nie zostały zwrócone. */
+    private boolean truncated;
+
+    @Builder.Default
+    private List<DepartmentTreeDto> children = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Wynik przebiegu wysyłki jednego kanału: ile powiadomień PENDING przejęto i z jakim skutkiem.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DispatchResultDto {
+
+    private String channel;
+    private int batches;
+    private int claimed;
+    private int sent;
+    private int failed;
+    private int expired;
+    /** Przebieg kanału zakończył się na wyczerpanym limicie (reszta kolejki czeka na żetony). */
+    private boolean rateLimited;
+}
@@ -0,0 +1,28 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Migawka kolejki wysyłki jednego kanału: głębokość i opóźnienie kolejki PENDING,
+ * stan limitu przepustowości oraz liczniki od startu instancji.
+ */
+@Value
+@Builder
+public class DispatchStatsDto {
+
+    String channel;
+
+    long queueDepth;
+    /** Wiek najstarszego powiadomienia PENDING (created_at) w sekundach; 0 dla pustej kolejki. */
+    double lagSeconds;
+
+    /** Limit wysyłki na sekundę; 0 = bez limitu. */
+    double ratePerSecond;
+    double availableTokens;
+
+    long sent;
+    long failed;
+    long expired;
+    long rateLimitedRounds;
+}
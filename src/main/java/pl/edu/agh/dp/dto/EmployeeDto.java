@@ -17,7 +17,7 @@ import java.util.stream.Collectors;
  * Demonstruje mapowanie między encją ORM a obiektem transferowym.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class EmployeeDto {
@@ -109,6 +109,20 @@ public class EmployeeDto {
         return builder.build();
     }
 
+    /**
+     * Głęboka kopia DTO (wpis cache drugiego poziomu nie jest współdzielony z wywołującym).
+     */
+    public EmployeeDto copy() {
+        return toBuilder()
+                .subordinates(subordinates == null ? null : subordinates.stream()
+                        .map(sub -> new SubordinateInfo(sub.getId(), sub.getFullName(), sub.getPosition()))
+                        .collect(Collectors.toList()))
+                .accessibleDocuments(accessibleDocuments == null ? null : accessibleDocuments.stream()
+                        .map(doc -> new DocumentAccessInfo(doc.getId(), doc.getTitle(), doc.getDocumentType()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
     /**
      * Konwertuje DTO na nową encję Employee (bez relacji).
      */
@@ -0,0 +1,37 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Podsumowanie należności z faktur: sumy całkowite oraz podziały po statusie płatności
+ * i po miesiącu terminu płatności ({@code yyyy-MM}). Brak statusu lub terminu to klucz null.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSummaryDto {
+
+    private long invoiceCount;
+    private BigDecimal totalAmount;
+    private BigDecimal taxAmount;
+    private List<Bucket> byPaymentStatus;
+    private List<Bucket> byDueMonth;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private String key;
+        private long invoiceCount;
+        private BigDecimal totalAmount;
+        private BigDecimal taxAmount;
+    }
+}
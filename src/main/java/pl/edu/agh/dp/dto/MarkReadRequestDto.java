@@ -0,0 +1,27 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Żądanie zbiorczego oznaczenia powiadomień jako przeczytane.
+ *
+ * Id są podawane osobno dla każdego kanału (tabele TABLE_PER_CLASS mają niezależne sekwencje).
+ * Sam {@code recipient} oznacza wszystkie powiadomienia adresata we wszystkich kanałach;
+ * razem z listami id zawęża je do tego adresata.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkReadRequestDto {
+
+    private String recipient;
+    private List<Long> emailIds;
+    private List<Long> smsIds;
+    private List<Long> pushIds;
+}
@@ -0,0 +1,70 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Wynik multi-get ({@code ?ids=1,2,3}): znalezione elementy w kolejności z żądania
+ * oraz id, których nie ma w bazie.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetResultDto<T> {
+
+    /** Limit id w jednym żądaniu - mieści się w jednym zapytaniu IN (SqlSupport.IN_BATCH_SIZE). */
+    public static final int MAX_IDS = 500;
+
+    private int requested;
+    private int found;
+    private List<T> items;
+    private List<Long> missingIds;
+
+    /**
+     * Usuwa duplikaty (zachowując kolejność pierwszego wystąpienia) i sprawdza limit.
+     *
+     * @throws IllegalArgumentException dla pustej listy, null lub więcej niż MAX_IDS id
+     */
+    public static List<Long> distinctIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("ids must not be empty");
+        }
+        LinkedHashSet<Long> distinct = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("ids must not contain empty values");
+            }
+            distinct.add(id);
+        }
+        if (distinct.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Too many ids: " + distinct.size() + " (max " + MAX_IDS + ")");
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * Układa wiersze w kolejności {@code ids} i zbiera brakujące id.
+     */
+    public static <E, T> MultiGetResultDto<T> of(List<Long> ids, Map<Long, E> rowsById, Function<E, T> mapper) {
+        List<T> items = new ArrayList<>(rowsById.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            E row = rowsById.get(id);
+            if (row != null) {
+                items.add(mapper.apply(row));
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MultiGetResultDto<>(ids.size(), items.size(), items, missing);
+    }
+}
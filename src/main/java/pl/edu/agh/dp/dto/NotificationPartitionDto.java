@@ -0,0 +1,21 @@
+package pl.edu.agh.dp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Partycja miesięczna tabeli powiadomień.
+ */
+@Value
+@Builder
+public class NotificationPartitionDto {
+
+    String table;
+    String partition;
+    /** Miesiąc partycji (RRRR-MM); brak dla partycji domyślnej (created_at = NULL). */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    String month;
+    /** Liczba wierszy ze statystyk planera (po ANALYZE/autovacuum), bez skanowania partycji. */
+    long estimatedRows;
+}
@@ -0,0 +1,23 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Stan szyny zdarzeń strumienia powiadomień w tej instancji; liczniki od startu aplikacji.
+ */
+@Value
+@Builder
+public class NotificationStreamStatsDto {
+
+    int subscribers;
+    int bufferSize;
+    String slowConsumerPolicy;
+
+    long published;
+    long delivered;
+    /** Zdarzenia odrzucone z pełnych buforów (polityka drop). */
+    long dropped;
+    /** Subskrypcje rozłączone przez szynę - błąd wysyłki albo polityka disconnect (bez anulowań przez klienta). */
+    long disconnected;
+}
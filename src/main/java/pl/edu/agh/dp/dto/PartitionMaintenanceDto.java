@@ -0,0 +1,28 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Wynik przebiegu utrzymania partycji powiadomień: nowe partycje naprzód i partycje usunięte
+ * albo przeniesione do archiwum przez politykę retencji.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartitionMaintenanceDto {
+
+    private int createdPartitions;
+    /** Retencja w miesiącach; 0 = bez retencji. */
+    private int retentionMonths;
+    private String retentionMode;
+    private List<String> dropped;
+    private List<String> archived;
+    /** Błędy tabel / partycji pominiętych w tym przebiegu (pozostałe zostały obsłużone). */
+    private List<String> failures;
+}
@@ -0,0 +1,26 @@
+package pl.edu.agh.dp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Uproszczone DTO pracownika w linii raportowania (łańcuch managerów / podwładni).
+ * Level to odległość od pracownika, dla którego wykonano zapytanie (1 = bezpośredni).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportingLineDto {
+
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String employeeCode;
+    private String position;
+    private Long managerId;
+    private Long departmentId;
+    private int level;
+}
@@ -0,0 +1,26 @@
+package pl.edu.agh.dp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Liczba nieprzeczytanych powiadomień adresata (albo wszystkich adresatów, gdy recipient jest pusty)
+ * łącznie i per kanał (EMAIL, SMS, PUSH).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCountDto {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String recipient;
+
+    private long total;
+    private Map<String, Long> byChannel;
+}
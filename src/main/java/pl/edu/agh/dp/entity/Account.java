@@ -42,4 +42,8 @@ public class Account {
 
     @Column(defaultValue = "true")
     private Boolean isActive;
+
+    /** Licznik zmian konta (ETag dla GET /api/accounts). */
+    @Column(defaultValue = "0")
+    private Long version = 0L;
 }
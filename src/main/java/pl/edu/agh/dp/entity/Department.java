@@ -31,6 +31,10 @@ public class Department {
 
     private String description;
 
+    /** Wersja wiersza podbijana przy każdej aktualizacji - źródło ETagu działu i listy działów. */
+    @Column(defaultValue = "0")
+    private Long version = 0L;
+
     // ==================== ONE-TO-MANY ====================
     @OneToMany(mappedBy = "department")
     @JoinColumn(joinColumns = {"employees"})
@@ -47,6 +47,10 @@ public class Employee {
     @Column(nullable = true)
     private String position;
 
+    /** Licznik zmian pracownika - wchodzi w ETag listy działów (employeeCount w DepartmentDto). */
+    @Column(defaultValue = "0")
+    private Long version = 0L;
+
     // ==================== SELF-REFERENCE ====================
     @OneToMany(mappedBy = "manager")
     @JoinColumn(joinColumns = {"subordinates"}, nullable = true)
@@ -0,0 +1,25 @@
+package pl.edu.agh.dp.orm;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Migawka stanu cache drugiego poziomu - trafienia, chybienia i usunięcia wpisów.
+ */
+@Value
+@Builder
+public class CacheStats {
+
+    boolean enabled;
+    int maxSize;
+    long ttlMillis;
+    int size;
+
+    long hits;
+    long misses;
+    double hitRatio;
+    long puts;
+    long evictions;
+    long expirations;
+    long invalidations;
+}
@@ -0,0 +1,23 @@
+package pl.edu.agh.dp.orm;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Migawka stanu limitera współbieżności przed ConnectionProvider.
+ */
+@Value
+@Builder
+public class ConcurrencyLimitStats {
+
+    boolean virtualThreads;
+    int maxConcurrent;
+    int inUse;
+    int waiting;
+
+    long acquisitions;
+    long timeouts;
+
+    double averageWaitMillis;
+    double maxWaitMillis;
+}
@@ -0,0 +1,156 @@
+package pl.edu.agh.dp.orm;
+
+import pl.edu.agh.dp.core.jdbc.ConnectionProvider;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ogranicza liczbę połączeń wypożyczonych jednocześnie z delegata (pula lub JdbcConnectionProvider).
+ *
+ * Przy obsłudze żądań na wątkach wirtualnych liczba równoległych wywołań nie jest już
+ * ograniczona pulą wątków Tomcata - bez limitu tysiące wątków otwierałyby połączenia
+ * do PostgreSQL (albo tłoczyły się na locku puli). Uczciwy semafor kolejkuje nadmiarowe
+ * wątki FIFO; czekający wątek wirtualny jest parkowany i nie blokuje wątku nośnego.
+ * Zezwolenie wraca przy {@code close()} połączenia.
+ */
+public class ConcurrencyLimitingConnectionProvider implements ConnectionProvider {
+
+    private final ConnectionProvider delegate;
+    private final int maxConcurrent;
+    private final Duration acquireTimeout;
+    private final boolean virtualThreads;
+    private final Semaphore permits;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConcurrencyLimitingConnectionProvider(ConnectionProvider delegate, int maxConcurrent,
+                                                 Duration acquireTimeout, boolean virtualThreads) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        this.delegate = delegate;
+        this.maxConcurrent = maxConcurrent;
+        this.acquireTimeout = acquireTimeout;
+        this.virtualThreads = virtualThreads;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    @Override
+    public Connection getConnection() {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new RuntimeException("Database concurrency limit reached: no permit within "
+                        + acquireTimeout.toMillis() + " ms (max=" + maxConcurrent + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a database permit", e);
+        }
+
+        long waited = System.nanoTime() - start;
+        acquisitions.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        Connection connection;
+        try {
+            connection = delegate.getConnection();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PermitHandle(connection));
+    }
+
+    public ConcurrencyLimitStats getStats() {
+        long count = acquisitions.sum();
+        return ConcurrencyLimitStats.builder()
+                .virtualThreads(virtualThreads)
+                .maxConcurrent(maxConcurrent)
+                .inUse(maxConcurrent - permits.availablePermits())
+                .waiting(permits.getQueueLength())
+                .acquisitions(count)
+                .timeouts(timeouts.sum())
+                .averageWaitMillis(count == 0 ? 0.0 : totalWaitNanos.sum() / (double) count / 1_000_000.0)
+                .maxWaitMillis(maxWaitNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    /**
+     * Proxy zwalniające zezwolenie dokładnie raz, przy pierwszym {@code close()}.
+     */
+    private final class PermitHandle implements InvocationHandler {
+        private final Connection target;
+        private boolean released;
+
+        private PermitHandle(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (released) {
+                        return null;
+                    }
+                    released = true;
+                    try {
+                        target.close();
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Limited[" + target + "]";
+                }
+                // zamknięte połączenie odpowiada na sprawdzenia stanu jak JDBC, zamiast rzucać
+                case "isClosed" -> {
+                    return released ? Boolean.TRUE : forward(method, args);
+                }
+                case "isValid" -> {
+                    return released ? Boolean.FALSE : forward(method, args);
+                }
+                default -> {
+                    return forward(method, args);
+                }
+            }
+        }
+
+        private Object forward(Method method, Object[] args) throws Throwable {
+            if (released) {
+                throw new SQLException("Connection has already been closed");
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package pl.edu.agh.dp.orm;
+
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.core.jdbc.JdbcExecutor;
+import pl.edu.agh.dp.core.jdbc.JdbcExecutorImpl;
+import pl.edu.agh.dp.core.persister.RowMapper;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JdbcExecutor CoreORM z dostępem do połączenia sesji.
+ *
+ * {@code JdbcExecutorImpl} nie udostępnia swojego Connection, a operacje takie jak
+ * kursor z fetch size czy batch INSERT wymagają bezpośredniego JDBC na połączeniu
+ * (i transakcji) bieżącej sesji.
+ *
+ * Przekazuje też instrukcje SQL wysłane przez sesję (z liczbą wierszy i czasem) do {@link SqlMonitor}.
+ */
+public class ConnectionAwareJdbcExecutor extends JdbcExecutorImpl {
+
+    private final Connection connection;
+    private final SqlMonitor monitor;
+
+    public ConnectionAwareJdbcExecutor(Connection connection, SqlMonitor monitor) {
+        super(connection);
+        this.connection = connection;
+        this.monitor = monitor;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Rejestruje instrukcję wykonaną bezpośrednio na połączeniu (poza metodami executora);
+     * {@code failed} - instrukcja zakończyła się błędem.
+     */
+    public void recordStatement(String sql, Object[] params, long rows, long nanos, boolean failed) {
+        monitor.record(sql, params, rows, nanos, failed);
+    }
+
+    // Rejestracja w finally - instrukcja zakończona błędem też trafia do statystyk (z flagą failed).
+
+    @Override
+    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) {
+        long start = System.nanoTime();
+        List<T> result = null;
+        try {
+            result = super.query(sql, mapper, params);
+            return result;
+        } finally {
+            recordStatement(sql, params, result != null ? result.size() : 0, System.nanoTime() - start, result == null);
+        }
+    }
+
+    @Override
+    public <T> Optional<T> queryOne(String sql, RowMapper<T> mapper, Object... params) {
+        long start = System.nanoTime();
+        Optional<T> result = null;
+        try {
+            result = super.queryOne(sql, mapper, params);
+            return result;
+        } finally {
+            recordStatement(sql, params, result != null && result.isPresent() ? 1 : 0, System.nanoTime() - start,
+                    result == null);
+        }
+    }
+
+    @Override
+    public int update(String sql, Object... params) {
+        long start = System.nanoTime();
+        int rows = 0;
+        boolean failed = true;
+        try {
+            rows = super.update(sql, params);
+            failed = false;
+            return rows;
+        } finally {
+            recordStatement(sql, params, rows, System.nanoTime() - start, failed);
+        }
+    }
+
+    @Override
+    public Long insert(String sql, Object... params) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Long id = super.insert(sql, params);
+            failed = false;
+            return id;
+        } finally {
+            recordStatement(sql, params, failed ? 0 : 1, System.nanoTime() - start, failed);
+        }
+    }
+
+    @Override
+    public Long insert(String sql, String idColumn, Object... params) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Long id = super.insert(sql, idColumn, params);
+            failed = false;
+            return id;
+        } finally {
+            recordStatement(sql, params, failed ? 0 : 1, System.nanoTime() - start, failed);
+        }
+    }
+
+    @Override
+    public void executeStatement(String sql) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            super.executeStatement(sql);
+            failed = false;
+        } finally {
+            recordStatement(sql, null, 0, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Zwraca executor sesji otwartej przez {@link OrmSessionFactory}.
+     */
+    public static ConnectionAwareJdbcExecutor of(Session session) {
+        JdbcExecutor executor = session.getJdbcExecutor();
+        if (executor instanceof ConnectionAwareJdbcExecutor connectionAware) {
+            return connectionAware;
+        }
+        throw new IllegalStateException("Session was not opened by OrmSessionFactory - JDBC connection is not accessible");
+    }
+
+    /**
+     * Zwraca połączenie sesji otwartej przez {@link OrmSessionFactory}.
+     */
+    public static Connection connectionOf(Session session) {
+        return of(session).getConnection();
+    }
+}
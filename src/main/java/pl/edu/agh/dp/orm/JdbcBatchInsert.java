@@ -0,0 +1,107 @@
+package pl.edu.agh.dp.orm;
+
+import pl.edu.agh.dp.core.api.Session;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Wstawianie wierszy przez JDBC batch na połączeniu (i w transakcji) sesji CoreORM.
+ *
+ * Porcja jest wysyłana jednym executeBatch. Gdy batch się nie powiedzie (np. naruszenie
+ * unikalności w jednym wierszu), porcja jest wycofywana do savepointu i wstawiana wiersz
+ * po wierszu z osobnymi savepointami, żeby wskazać błędne elementy bez przerywania importu.
+ */
+public final class JdbcBatchInsert {
+
+    /**
+     * Ustawia parametry INSERT dla jednego elementu.
+     */
+    @FunctionalInterface
+    public interface ParameterBinder<T> {
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
+    private JdbcBatchInsert() {
+    }
+
+    /**
+     * Wstawia porcję elementów i przypisuje im wygenerowane id.
+     *
+     * @return komunikaty błędów wg indeksu elementu w porcji (pusta mapa = wszystkie wstawione)
+     */
+    public static <T> Map<Integer, String> insertChunk(Session session, String sql, List<T> chunk,
+                                                       ParameterBinder<T> binder, BiConsumer<T, Long> idSetter) {
+        Map<Integer, String> errors = new LinkedHashMap<>();
+        if (chunk.isEmpty()) {
+            return errors;
+        }
+        ConnectionAwareJdbcExecutor executor = ConnectionAwareJdbcExecutor.of(session);
+        Connection connection = executor.getConnection();
+        try (PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"})) {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                for (T item : chunk) {
+                    binder.bind(ps, item);
+                    ps.addBatch();
+                }
+                long start = System.nanoTime();
+                boolean failed = true;
+                try {
+                    ps.executeBatch();
+                    failed = false;
+                } finally {
+                    executor.recordStatement(sql, null, failed ? 0 : chunk.size(), System.nanoTime() - start, failed);
+                }
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < chunk.size()) {
+                        idSetter.accept(chunk.get(i++), keys.getLong(1));
+                    }
+                }
+                connection.releaseSavepoint(savepoint);
+                return errors;
+            } catch (SQLException batchFailure) {
+                connection.rollback(savepoint);
+                ps.clearBatch();
+            }
+
+            // Batch odrzucony - ponów wiersz po wierszu, żeby wskazać błędne elementy
+            for (int i = 0; i < chunk.size(); i++) {
+                T item = chunk.get(i);
+                Savepoint rowSavepoint = connection.setSavepoint();
+                try {
+                    binder.bind(ps, item);
+                    long start = System.nanoTime();
+                    int rows = 0;
+                    boolean failed = true;
+                    try {
+                        rows = ps.executeUpdate();
+                        failed = false;
+                    } finally {
+                        executor.recordStatement(sql, null, rows, System.nanoTime() - start, failed);
+                    }
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            idSetter.accept(item, keys.getLong(1));
+                        }
+                    }
+                    connection.releaseSavepoint(rowSavepoint);
+                } catch (SQLException e) {
+                    connection.rollback(rowSavepoint);
+                    errors.put(i, e.getMessage());
+                }
+            }
+            return errors;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to execute batch insert: " + e.getMessage(), e);
+        }
+    }
+}
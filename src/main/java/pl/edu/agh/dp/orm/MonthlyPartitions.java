@@ -0,0 +1,184 @@
+package pl.edu.agh.dp.orm;
+
+import pl.edu.agh.dp.core.api.Session;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Natywne partycjonowanie PostgreSQL po miesiącach kolumny czasu (PARTITION BY RANGE).
+ *
+ * CoreORM tworzy zwykłe tabele, więc {@link #partition} zamienia istniejącą tabelę na partycjonowaną
+ * z tymi samymi kolumnami i przenosi wiersze. Partycja miesiąca nazywa się {@code tabela_pRRRR_MM},
+ * wiersze z NULL w kolumnie czasu albo z miesiąca bez partycji trafiają do {@code tabela_default}
+ * (zakładana później partycja przejmuje wiersze swojego miesiąca z default). Klucz główny nie jest przenoszony
+ * (w tabeli partycjonowanej musiałby zawierać kolumnę czasu) - id zostaje pod zwykłym indeksem.
+ *
+ * Metody działają w transakcji sesji wywołującego.
+ */
+public final class MonthlyPartitions {
+
+    private static final Pattern MONTH_SUFFIX = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+    private MonthlyPartitions() {
+    }
+
+    /**
+     * Partycja tabeli; {@code month} = null dla partycji domyślnej.
+     */
+    public record Partition(String table, String name, YearMonth month, long estimatedRows) {
+    }
+
+    public static boolean isPartitioned(Session session, String table) {
+        return session.getJdbcExecutor().queryOne(
+                "SELECT 1 AS partitioned FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid"
+                        + " WHERE c.relname = ? AND c.relnamespace = 'public'::regnamespace",
+                rs -> true, table).isPresent();
+    }
+
+    /**
+     * Zamienia tabelę na partycjonowaną po miesiącach {@code column}: partycje obejmują miesiące
+     * z istniejącymi danymi oraz {@code monthsAhead} miesięcy naprzód.
+     *
+     * @return false, gdy tabela już była partycjonowana
+     */
+    public static boolean partition(Session session, String table, String column, int monthsAhead) {
+        if (isPartitioned(session, table)) {
+            return false;
+        }
+        String legacy = table + "_unpartitioned";
+        session.getJdbcExecutor().executeStatement("ALTER TABLE " + table + " RENAME TO " + legacy);
+        session.getJdbcExecutor().executeStatement("CREATE TABLE " + table + " (LIKE " + legacy
+                + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (" + column + ")");
+        session.getJdbcExecutor().executeStatement("CREATE TABLE " + table + "_default PARTITION OF " + table + " DEFAULT");
+
+        YearMonth current = YearMonth.now();
+        YearMonth first = session.getJdbcExecutor().queryOne("SELECT min(" + column + ") AS first FROM " + legacy,
+                        rs -> Optional.ofNullable(SqlSupport.getLocalDateTime(rs, "first")))
+                .flatMap(value -> value)
+                .map(YearMonth::from)
+                .orElse(current);
+        YearMonth last = session.getJdbcExecutor().queryOne("SELECT max(" + column + ") AS last FROM " + legacy,
+                        rs -> Optional.ofNullable(SqlSupport.getLocalDateTime(rs, "last")))
+                .flatMap(value -> value)
+                .map(YearMonth::from)
+                .orElse(current);
+        YearMonth ahead = current.plusMonths(monthsAhead);
+        ensureMonths(session, table, column, first.isBefore(current) ? first : current, last.isAfter(ahead) ? last : ahead);
+
+        session.getJdbcExecutor().executeStatement("CREATE INDEX " + table + "_id_idx ON " + table + " (id)");
+        session.getJdbcExecutor().executeStatement("CREATE INDEX " + table + "_" + column + "_idx ON " + table + " (" + column + ")");
+        session.getJdbcExecutor().update("INSERT INTO " + table + " SELECT * FROM " + legacy);
+        moveOwnedSequences(session, legacy, table);
+        session.getJdbcExecutor().executeStatement("DROP TABLE " + legacy);
+        return true;
+    }
+
+    /**
+     * Sekwencje kolumn BIGSERIAL (id tabel CoreORM) należą do starej tabeli, a LIKE ... INCLUDING DEFAULTS
+     * kopiuje tylko ich nextval() - bez zmiany właściciela DROP starej tabeli się nie powiedzie.
+     */
+    private static void moveOwnedSequences(Session session, String from, String to) {
+        session.getJdbcExecutor().query("SELECT a.attname AS column_name, pg_get_serial_sequence(?, a.attname) AS seq"
+                                + " FROM pg_attribute a WHERE a.attrelid = ?::regclass AND a.attnum > 0 AND NOT a.attisdropped",
+                        rs -> new String[]{rs.getString("column_name"), rs.getString("seq")}, from, from)
+                .stream()
+                .filter(column -> column[1] != null)
+                .forEach(column -> session.getJdbcExecutor().executeStatement(
+                        "ALTER SEQUENCE " + column[1] + " OWNED BY " + to + "." + column[0]));
+    }
+
+    /**
+     * Zakłada brakujące partycje miesięcy {@code from}..{@code to} (włącznie).
+     *
+     * PostgreSQL odrzuca {@code PARTITION OF}, gdy partycja domyślna ma już wiersze z zakresu nowej
+     * partycji, więc partycja powstaje jako osobna tabela, przejmuje te wiersze z default
+     * i dopiero wtedy jest dołączana (ATTACH PARTITION).
+     *
+     * @return liczba nowych partycji
+     */
+    public static int ensureMonths(Session session, String table, String column, YearMonth from, YearMonth to) {
+        List<String> existing = list(session, table).stream().map(Partition::name).toList();
+        int created = 0;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            String name = partitionName(table, month);
+            if (existing.contains(name)) {
+                continue;
+            }
+            String start = "'" + month.atDay(1) + "'";
+            String end = "'" + month.plusMonths(1).atDay(1) + "'";
+            session.getJdbcExecutor().executeStatement("CREATE TABLE " + name + " (LIKE " + table
+                    + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            session.getJdbcExecutor().update("WITH moved AS (DELETE FROM " + table + "_default WHERE " + column + " >= " + start
+                    + " AND " + column + " < " + end + " RETURNING *) INSERT INTO " + name + " SELECT * FROM moved");
+            session.getJdbcExecutor().executeStatement("ALTER TABLE " + table + " ATTACH PARTITION " + name
+                    + " FOR VALUES FROM (" + start + ") TO (" + end + ")");
+            created++;
+        }
+        return created;
+    }
+
+    /**
+     * Miesiące wierszy, które trafiły do partycji domyślnej mimo niepustej kolumny czasu
+     * (miesiąc bez partycji, np. createdAt podany przez klienta daleko w przeszłości lub przyszłości).
+     */
+    public static List<YearMonth> monthsInDefault(Session session, String table, String column) {
+        return session.getJdbcExecutor().query("SELECT DISTINCT to_char(" + column + ", 'YYYY-MM') AS month FROM "
+                        + table + "_default WHERE " + column + " IS NOT NULL ORDER BY 1",
+                rs -> YearMonth.parse(rs.getString("month")));
+    }
+
+    /**
+     * Partycje tabeli z szacowaną liczbą wierszy (statystyki planera, bez skanowania).
+     */
+    public static List<Partition> list(Session session, String table) {
+        List<Partition> partitions = new ArrayList<>();
+        session.getJdbcExecutor().query(
+                "SELECT c.relname AS name, GREATEST(c.reltuples, 0)::bigint AS estimated_rows FROM pg_inherits i"
+                        + " JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent"
+                        + " WHERE p.relname = ? AND p.relnamespace = 'public'::regnamespace ORDER BY c.relname",
+                rs -> new Partition(table, rs.getString("name"), monthOf(rs.getString("name")), rs.getLong("estimated_rows")),
+                table).forEach(partitions::add);
+        return partitions;
+    }
+
+    public static void drop(Session session, Partition partition) {
+        session.getJdbcExecutor().executeStatement("DROP TABLE " + partition.name());
+    }
+
+    /**
+     * Odłącza partycję i przenosi ją do schematu {@code schema} (poza public, więc przetrwa
+     * odtworzenie schematu przez CoreORM). Nazwa zajęta w archiwum dostaje sufiks z czasem archiwizacji.
+     *
+     * @return kwalifikowana nazwa tabeli w archiwum
+     */
+    public static String archive(Session session, Partition partition, String schema) {
+        session.getJdbcExecutor().executeStatement("ALTER TABLE " + partition.table() + " DETACH PARTITION " + partition.name());
+        session.getJdbcExecutor().executeStatement("CREATE SCHEMA IF NOT EXISTS " + schema);
+        String name = partition.name();
+        boolean taken = session.getJdbcExecutor().queryOne("SELECT to_regclass(?) IS NOT NULL AS taken",
+                rs -> rs.getBoolean("taken"), schema + "." + name).orElse(false);
+        if (taken) {
+            name = name + "_" + System.currentTimeMillis();
+            session.getJdbcExecutor().executeStatement("ALTER TABLE " + partition.name() + " RENAME TO " + name);
+        }
+        session.getJdbcExecutor().executeStatement("ALTER TABLE " + name + " SET SCHEMA " + schema);
+        return schema + "." + name;
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return String.format(Locale.ROOT, "%s_p%04d_%02d", table, month.getYear(), month.getMonthValue());
+    }
+
+    private static YearMonth monthOf(String partitionName) {
+        Matcher matcher = MONTH_SUFFIX.matcher(partitionName);
+        return matcher.find()
+                ? YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)))
+                : null;
+    }
+}
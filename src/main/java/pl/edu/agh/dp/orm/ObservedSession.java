@@ -0,0 +1,207 @@
+package pl.edu.agh.dp.orm;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.core.finder.Finder;
+import pl.edu.agh.dp.core.finder.QuerySpec;
+import pl.edu.agh.dp.core.jdbc.JdbcExecutor;
+import pl.edu.agh.dp.core.persister.EntityPersister;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sesja CoreORM z obserwacjami Micrometer (przy actuatorze - timery w /actuator/prometheus):
+ *
+ * - {@code orm.session} - czas od otwarcia do zamknięcia sesji,
+ * - {@code orm.transaction} - czas transakcji z tagiem outcome (commit / rollback / none,
+ *   gdy sesja tylko czytała i została zamknięta bez commit),
+ * - {@code orm.entity.load} - find/findAll/findBy z tagiem typu encji.
+ *
+ * Sesje i transakcje mają tag {@code caller} - metodę serwisu, która otworzyła sesję,
+ * więc commity i rollbacki można porównywać per metoda.
+ */
+class ObservedSession implements Session {
+
+    static final String SESSION = "orm.session";
+    static final String TRANSACTION = "orm.transaction";
+    static final String ENTITY_LOAD = "orm.entity.load";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final String SERVICE_PACKAGE = "pl.edu.agh.dp.service.";
+
+    private final Session delegate;
+    private final ObservationRegistry registry;
+    private final String caller;
+    private final Observation sessionObservation;
+    private Observation transaction;
+
+    /**
+     * Sesja z OrmSessionFactory ma już rozpoczętą transakcję - obserwacja transakcji startuje od razu.
+     */
+    ObservedSession(Session delegate, ObservationRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.caller = callerOf();
+        this.sessionObservation = Observation.start(SESSION, registry)
+                .lowCardinalityKeyValue("caller", caller);
+        startTransaction();
+    }
+
+    // ==================== TRANSACTIONS ====================
+
+    @Override
+    public void begin() {
+        delegate.begin();
+        if (transaction == null) {
+            startTransaction();
+        }
+    }
+
+    @Override
+    public void commit() {
+        try {
+            delegate.commit();
+            endTransaction("commit");
+        } catch (RuntimeException e) {
+            if (transaction != null) {
+                transaction.error(e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void rollback() {
+        try {
+            delegate.rollback();
+        } finally {
+            endTransaction("rollback");
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            endTransaction("none");
+            sessionObservation.stop();
+        }
+    }
+
+    private void startTransaction() {
+        transaction = Observation.start(TRANSACTION, registry)
+                .lowCardinalityKeyValue("caller", caller);
+    }
+
+    private void endTransaction(String outcome) {
+        if (transaction != null) {
+            transaction.lowCardinalityKeyValue("outcome", outcome).stop();
+            transaction = null;
+        }
+    }
+
+    // ==================== ENTITY LOADS ====================
+
+    @Override
+    public <T> T find(Class<T> entityClass, Object id) {
+        return observeLoad(entityClass, "find", () -> delegate.find(entityClass, id));
+    }
+
+    @Override
+    public <T> List<T> findAll(Class<T> entityClass) {
+        return observeLoad(entityClass, "findAll", () -> delegate.findAll(entityClass));
+    }
+
+    @Override
+    public <T> List<T> findBy(QuerySpec<T> spec) {
+        return observeLoad(spec.getEntityType(), "findBy", () -> delegate.findBy(spec));
+    }
+
+    private <R> R observeLoad(Class<?> entityClass, String operation, Supplier<R> load) {
+        if (registry.isNoop()) {
+            return load.get();
+        }
+        return Observation.createNotStarted(ENTITY_LOAD, registry)
+                .lowCardinalityKeyValues(KeyValues.of("entity", entityClass.getSimpleName(), "operation", operation))
+                .observe(load);
+    }
+
+    // ==================== DELEGATION ====================
+
+    @Override
+    public <T> void save(T entity) {
+        delegate.save(entity);
+    }
+
+    /**
+     * Finder wykonuje zapytanie przez {@link #findBy}, więc też jest obserwowany.
+     */
+    @Override
+    public <T> Finder<T> finder(Class<T> entityClass) {
+        return new Finder<>(this, entityClass);
+    }
+
+    @Override
+    public <T> void delete(T entity) {
+        delegate.delete(entity);
+    }
+
+    @Override
+    public <T> void update(T entity) {
+        delegate.update(entity);
+    }
+
+    @Override
+    public <T> void load(T entity, String relationName) {
+        delegate.load(entity, relationName);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public JdbcExecutor getJdbcExecutor() {
+        return delegate.getJdbcExecutor();
+    }
+
+    @Override
+    public Map<Class<?>, EntityPersister> getEntityPersisters() {
+        return delegate.getEntityPersisters();
+    }
+
+    /**
+     * Pierwsza ramka z pakietu serwisów, np. {@code EmployeeService.findById}
+     * (lambdy {@code lambda$findById$3} są sprowadzane do nazwy metody).
+     */
+    private static String callerOf() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(SERVICE_PACKAGE))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName().substring(SERVICE_PACKAGE.length());
+                    int nested = className.indexOf('$');
+                    if (nested >= 0) {
+                        className = className.substring(0, nested);
+                    }
+                    String method = frame.getMethodName();
+                    if (method.startsWith("lambda$")) {
+                        int end = method.indexOf('$', "lambda$".length());
+                        method = end > 0 ? method.substring("lambda$".length(), end) : method;
+                    }
+                    return className + "." + method;
+                })
+                .orElse("other"));
+    }
+}
@@ -0,0 +1,67 @@
+package pl.edu.agh.dp.orm;
+
+import io.micrometer.observation.ObservationRegistry;
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.core.api.SessionImpl;
+import pl.edu.agh.dp.core.jdbc.ConnectionProvider;
+import pl.edu.agh.dp.core.persister.EntityPersister;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * SessionFactory otwierająca sesje CoreORM na połączeniach z dowolnego ConnectionProvider.
+ *
+ * {@code Configuration.buildSessionFactory()} zawsze używa {@code JdbcConnectionProvider}
+ * (nowe połączenie DriverManager na każdą sesję), dlatego OrmConfig buduje tę fabrykę
+ * z persisterów fabryki bazowej i podpiętej puli połączeń.
+ */
+public class OrmSessionFactory implements SessionFactory {
+
+    private final ConnectionProvider connectionProvider;
+    private final Map<Class<?>, EntityPersister> entityPersisters;
+    private final SqlMonitor sqlMonitor;
+    private final Supplier<ObservationRegistry> observationRegistry;
+
+    /**
+     * @param observationRegistry rejestr obserwacji Micrometer, pobierany przy każdym otwarciu sesji
+     *                            (kontekst Springa może go ustawić po zbudowaniu fabryki)
+     */
+    public OrmSessionFactory(ConnectionProvider connectionProvider, Map<Class<?>, EntityPersister> entityPersisters,
+                             SqlMonitor sqlMonitor, Supplier<ObservationRegistry> observationRegistry) {
+        this.connectionProvider = connectionProvider;
+        this.entityPersisters = entityPersisters;
+        this.sqlMonitor = sqlMonitor;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Session openSession() {
+        Connection connection = connectionProvider.getConnection();
+        try {
+            Session session = new SessionImpl(new ConnectionAwareJdbcExecutor(connection, sqlMonitor), entityPersisters);
+            session.begin();
+            ObservationRegistry registry = observationRegistry.get();
+            return registry.isNoop() ? session : new ObservedSession(session, registry);
+        } catch (RuntimeException e) {
+            try {
+                connection.close();
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Pobiera mapę persisterów z fabryki zbudowanej przez {@code Configuration}.
+     */
+    public static Map<Class<?>, EntityPersister> entityPersistersOf(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.getEntityPersisters();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package pl.edu.agh.dp.orm;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Parametry puli połączeń {@link PooledConnectionProvider}.
+ *
+ * Wartość zerowa {@code leakDetectionThreshold} wyłącza wykrywanie wycieków,
+ * a zerowa {@code maxLifetime} wyłącza wymianę "starych" połączeń.
+ */
+@Value
+@Builder
+public class PoolSettings {
+
+    @Builder.Default
+    int maxSize = 10;
+
+    @Builder.Default
+    int minIdle = 2;
+
+    @Builder.Default
+    Duration maxLifetime = Duration.ofMinutes(30);
+
+    @Builder.Default
+    Duration leakDetectionThreshold = Duration.ZERO;
+
+    @Builder.Default
+    Duration acquireTimeout = Duration.ofSeconds(30);
+
+    @Builder.Default
+    Duration housekeepingPeriod = Duration.ofSeconds(30);
+}
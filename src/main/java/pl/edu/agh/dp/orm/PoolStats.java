@@ -0,0 +1,29 @@
+package pl.edu.agh.dp.orm;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Migawka stanu puli połączeń - nasycenie i czasy oczekiwania na połączenie.
+ */
+@Value
+@Builder
+public class PoolStats {
+
+    int maxSize;
+    int minIdle;
+    int total;
+    int active;
+    int idle;
+    int pending;
+    double saturation;
+
+    long acquisitions;
+    long timeouts;
+    long leaksDetected;
+    long connectionsCreated;
+    long connectionsClosed;
+
+    double averageWaitMillis;
+    double maxWaitMillis;
+}
@@ -0,0 +1,487 @@
+package pl.edu.agh.dp.orm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.edu.agh.dp.core.jdbc.ConnectionProvider;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pula połączeń JDBC dla CoreORM.
+ *
+ * Fizyczne połączenia tworzy delegat (np. {@code JdbcConnectionProvider}), a sesje
+ * dostają logiczne proxy - {@code close()} oddaje połączenie do puli zamiast
+ * zamykać je w PostgreSQL. Pula:
+ * - ma górny limit połączeń i czeka na wolne połączenie maksymalnie {@code acquireTimeout},
+ * - przy starcie i w tle utrzymuje {@code minIdle} gotowych połączeń,
+ * - wymienia połączenia starsze niż {@code maxLifetime},
+ * - loguje połączenia trzymane dłużej niż {@code leakDetectionThreshold} (ze stosem wywołań).
+ */
+public class PooledConnectionProvider implements ConnectionProvider, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledConnectionProvider.class);
+
+    /** Połączenie użyte niedawno nie jest ponownie walidowane (oszczędza round trip). */
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final ConnectionProvider physicalProvider;
+    private final PoolSettings settings;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private int total;
+    private int pending;
+    private boolean closed;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsClosed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final ScheduledExecutorService housekeeper;
+
+    public PooledConnectionProvider(ConnectionProvider physicalProvider, PoolSettings settings) {
+        if (settings.getMaxSize() < 1) {
+            throw new IllegalArgumentException("Pool maxSize must be at least 1");
+        }
+        if (settings.getMinIdle() > settings.getMaxSize()) {
+            throw new IllegalArgumentException("Pool minIdle cannot exceed maxSize");
+        }
+        this.physicalProvider = physicalProvider;
+        this.settings = settings;
+
+        fillToMinIdle();
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "orm-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = settings.getHousekeepingPeriod().toMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() {
+        long start = System.nanoTime();
+        long deadline = start + settings.getAcquireTimeout().toNanos();
+
+        while (true) {
+            PooledConnection candidate;
+            lock.lock();
+            try {
+                ensureOpen();
+                pending++;
+                try {
+                    while (idle.isEmpty() && total >= settings.getMaxSize()) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            timeouts.increment();
+                            throw new RuntimeException("Connection pool exhausted: no connection available within "
+                                    + settings.getAcquireTimeout().toMillis() + " ms (active=" + borrowed.size()
+                                    + ", max=" + settings.getMaxSize() + ")");
+                        }
+                        available.awaitNanos(remaining);
+                        ensureOpen();
+                    }
+                } finally {
+                    pending--;
+                }
+                candidate = idle.pollFirst();
+                if (candidate == null) {
+                    total++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a pooled connection", e);
+            } finally {
+                lock.unlock();
+            }
+
+            if (candidate == null) {
+                candidate = createReserved();
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+            return checkout(candidate, start);
+        }
+    }
+
+    /**
+     * Zwraca aktualne statystyki puli.
+     */
+    public PoolStats getStats() {
+        int idleCount;
+        int totalCount;
+        int pendingCount;
+        lock.lock();
+        try {
+            idleCount = idle.size();
+            totalCount = total;
+            pendingCount = pending;
+        } finally {
+            lock.unlock();
+        }
+        int active = borrowed.size();
+        long count = acquisitions.sum();
+        return PoolStats.builder()
+                .maxSize(settings.getMaxSize())
+                .minIdle(settings.getMinIdle())
+                .total(totalCount)
+                .active(active)
+                .idle(idleCount)
+                .pending(pendingCount)
+                .saturation((double) active / settings.getMaxSize())
+                .acquisitions(count)
+                .timeouts(timeouts.sum())
+                .leaksDetected(leaksDetected.sum())
+                .connectionsCreated(connectionsCreated.sum())
+                .connectionsClosed(connectionsClosed.sum())
+                .averageWaitMillis(count == 0 ? 0.0 : totalWaitNanos.sum() / (double) count / 1_000_000.0)
+                .maxWaitMillis(maxWaitNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    public PoolSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Zamyka pulę: wolne połączenia są zamykane od razu, wypożyczone - przy zwrocie.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        toClose.forEach(this::closePhysical);
+    }
+
+    // ==================== CHECKOUT / RELEASE ====================
+
+    private Connection checkout(PooledConnection pooled, long requestedAt) {
+        long now = System.nanoTime();
+        pooled.borrowedAt = now;
+        pooled.leakReported = false;
+        pooled.acquiredAt = settings.getLeakDetectionThreshold().isZero()
+                ? null
+                : new Throwable("Connection acquired here");
+        borrowed.add(pooled);
+
+        long waited = now - requestedAt;
+        acquisitions.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        return pooled.newHandle();
+    }
+
+    private void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        if (pooled.leakReported) {
+            log.info("Previously reported connection leak was returned after {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.borrowedAt));
+        }
+        if (!resetState(pooled) || isExpired(pooled)) {
+            discard(pooled);
+            return;
+        }
+        pooled.lastUsed = System.nanoTime();
+
+        lock.lock();
+        try {
+            if (!closed) {
+                idle.addFirst(pooled);
+                available.signal();
+                return;
+            }
+            total--;
+        } finally {
+            lock.unlock();
+        }
+        closePhysical(pooled);
+    }
+
+    /**
+     * Przywraca połączenie do stanu "jak nowe" - niezatwierdzona transakcja jest wycofywana.
+     */
+    private boolean resetState(PooledConnection pooled) {
+        try {
+            Connection physical = pooled.physical;
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            log.warn("Discarding pooled connection that failed to reset: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // ==================== PHYSICAL CONNECTIONS ====================
+
+    /**
+     * Tworzy fizyczne połączenie na miejscu zarezerwowanym wcześniej w {@code total}.
+     */
+    private PooledConnection createReserved() {
+        try {
+            Connection physical = physicalProvider.getConnection();
+            connectionsCreated.increment();
+            return new PooledConnection(physical);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (isExpired(pooled)) {
+            return false;
+        }
+        if (System.nanoTime() - pooled.lastUsed < VALIDATION_BYPASS_NANOS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled) {
+        long maxLifetime = settings.getMaxLifetime().toNanos();
+        return maxLifetime > 0 && System.nanoTime() - pooled.createdAt > maxLifetime;
+    }
+
+    private void discard(PooledConnection pooled) {
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        closePhysical(pooled);
+    }
+
+    private void closePhysical(PooledConnection pooled) {
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            log.debug("Error closing physical connection: {}", e.getMessage());
+        }
+        connectionsClosed.increment();
+    }
+
+    // ==================== HOUSEKEEPING ====================
+
+    private void housekeep() {
+        try {
+            retireExpiredIdle();
+            detectLeaks();
+            fillToMinIdle();
+        } catch (RuntimeException e) {
+            log.warn("Connection pool housekeeping failed: {}", e.getMessage());
+        }
+    }
+
+    private void retireExpiredIdle() {
+        List<PooledConnection> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<PooledConnection> it = idle.iterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                if (isExpired(pooled)) {
+                    it.remove();
+                    total--;
+                    expired.add(pooled);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        expired.forEach(this::closePhysical);
+    }
+
+    private void detectLeaks() {
+        long threshold = settings.getLeakDetectionThreshold().toNanos();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (PooledConnection pooled : borrowed) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > threshold) {
+                pooled.leakReported = true;
+                leaksDetected.increment();
+                log.warn("Possible connection leak: connection held for {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(now - pooled.borrowedAt), pooled.acquiredAt);
+            }
+        }
+    }
+
+    private void fillToMinIdle() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || idle.size() >= settings.getMinIdle() || total >= settings.getMaxSize()) {
+                    return;
+                }
+                total++;
+            } finally {
+                lock.unlock();
+            }
+
+            PooledConnection created;
+            try {
+                created = createReserved();
+            } catch (RuntimeException e) {
+                log.warn("Could not warm up connection pool: {}", e.getMessage());
+                return;
+            }
+
+            lock.lock();
+            try {
+                if (!closed) {
+                    idle.addLast(created);
+                    available.signal();
+                    continue;
+                }
+                total--;
+            } finally {
+                lock.unlock();
+            }
+            closePhysical(created);
+            return;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Connection pool is closed");
+        }
+    }
+
+    // ==================== POOLED CONNECTION ====================
+
+    /**
+     * Fizyczne połączenie wraz z metadanymi puli.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final long createdAt = System.nanoTime();
+        private volatile long lastUsed = createdAt;
+        private volatile long borrowedAt;
+        private volatile boolean leakReported;
+        private volatile Throwable acquiredAt;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Każde wypożyczenie dostaje własne proxy, więc referencja zachowana po
+         * {@code close()} nie może przypadkiem użyć połączenia innej sesji.
+         */
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        private Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed || pooled.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + pooled.physical + "]";
+                }
+                default -> {
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package pl.edu.agh.dp.orm;
+
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.core.finder.Condition;
+import pl.edu.agh.dp.core.finder.QuerySpec;
+import pl.edu.agh.dp.core.finder.Sort;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Projekcja pól (sparse fieldset) dla parametru {@code fields=} endpointów listowych.
+ *
+ * Każde pole DTO ma przypisane wyrażenie SQL, więc zapytanie wybiera tylko żądane kolumny
+ * zamiast całych encji. Warunki, sortowanie i limit bierze z QuerySpec zbudowanego Finderem,
+ * dzięki czemu serwis buduje zapytanie raz dla obu ścieżek (pełne DTO / projekcja).
+ * Pola z relacji (kolekcje) ładuje osobne zapytanie IN - tylko gdy są żądane.
+ */
+public final class Projection {
+
+    /** Pole zawsze zwracane - klucz kursora i wierszy relacji. */
+    public static final String ID = "id";
+
+    /**
+     * Ładuje wartość pola relacji dla listy id (brak klucza w wyniku = null).
+     */
+    @FunctionalInterface
+    public interface AssociationLoader {
+        Map<Long, Object> load(Session session, Collection<Long> ids);
+    }
+
+    private final String table;
+    private final String alias;
+    private final Map<String, String> columns;
+    private final Map<String, AssociationLoader> associations;
+
+    private Projection(Builder builder) {
+        this.table = builder.table;
+        this.alias = builder.alias;
+        this.columns = builder.columns;
+        this.associations = builder.associations;
+    }
+
+    public static Builder builder(String table, String alias) {
+        return new Builder(table, alias);
+    }
+
+    /**
+     * Parsuje parametr {@code fields=a,b,c}.
+     *
+     * @return null dla pustego parametru (pełne DTO)
+     * @throws IllegalArgumentException dla nieznanego pola
+     */
+    public Selection select(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        requested.add(ID);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!columns.containsKey(name) && !associations.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', allowed: "
+                        + String.join(", ", allowedFields()));
+            }
+            requested.add(name);
+        }
+        return new Selection(new ArrayList<>(requested));
+    }
+
+    private List<String> allowedFields() {
+        List<String> allowed = new ArrayList<>(columns.keySet());
+        allowed.addAll(associations.keySet());
+        return allowed;
+    }
+
+    /**
+     * Id wiersza projekcji (klucz kursora).
+     */
+    public static long idOf(Map<String, Object> row) {
+        return ((Number) row.get(ID)).longValue();
+    }
+
+    /**
+     * Wybrane pola - wykonuje zapytanie projekcji.
+     */
+    public final class Selection {
+
+        private final List<String> fields;
+
+        private Selection(List<String> fields) {
+            this.fields = fields;
+        }
+
+        public List<String> getFields() {
+            return fields;
+        }
+
+        /**
+         * Wykonuje zapytanie z warunkami, sortowaniem, limitem i offsetem ze {@code spec}.
+         * Wiersze to mapy pole -> wartość w kolejności z parametru fields.
+         */
+        public List<Map<String, Object>> list(Session session, QuerySpec<?> spec) {
+            List<String> selected = new ArrayList<>();
+            List<String> requestedAssociations = new ArrayList<>();
+            for (String field : fields) {
+                if (columns.containsKey(field)) {
+                    selected.add(columns.get(field) + " AS \"" + field + "\"");
+                } else {
+                    requestedAssociations.add(field);
+                }
+            }
+
+            StringBuilder sql = new StringBuilder("SELECT ")
+                    .append(String.join(", ", selected))
+                    .append(" FROM ").append(table).append(' ').append(alias);
+            List<Object> params = new ArrayList<>();
+            if (spec.hasConditions()) {
+                List<String> where = new ArrayList<>();
+                for (Condition condition : spec.getConditions()) {
+                    String field = alias + "." + condition.getField();
+                    where.add(condition.toSql(alias).replace(field, column(condition.getField())));
+                    params.addAll(condition.getParams());
+                }
+                sql.append(" WHERE ").append(String.join(" AND ", where));
+            }
+            if (spec.hasSorting()) {
+                List<String> orderBy = new ArrayList<>();
+                for (Sort sort : spec.getSortings()) {
+                    orderBy.add(column(sort.getField()) + " " + sort.getDirection().name());
+                }
+                sql.append(" ORDER BY ").append(String.join(", ", orderBy));
+            }
+            if (spec.hasLimit()) {
+                sql.append(" LIMIT ").append(spec.getLimitValue());
+            }
+            if (spec.hasOffset()) {
+                sql.append(" OFFSET ").append(spec.getOffsetValue());
+            }
+
+            List<Map<String, Object>> rows = session.getJdbcExecutor().query(sql.toString(), this::mapRow, params.toArray());
+            if (!requestedAssociations.isEmpty() && !rows.isEmpty()) {
+                Map<Long, Map<String, Object>> rowsById = new HashMap<>();
+                for (Map<String, Object> row : rows) {
+                    rowsById.put(idOf(row), row);
+                }
+                for (String association : requestedAssociations) {
+                    Map<Long, Object> values = associations.get(association).load(session, rowsById.keySet());
+                    rowsById.forEach((id, row) -> row.put(association, values.get(id)));
+                }
+            }
+            return rows;
+        }
+
+        private String column(String field) {
+            String column = columns.get(field);
+            if (column == null) {
+                throw new IllegalStateException("Field '" + field + "' has no column in projection of " + table);
+            }
+            return column;
+        }
+
+        private Map<String, Object> mapRow(ResultSet rs) throws SQLException {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                if (columns.containsKey(field)) {
+                    row.put(field, toJavaValue(rs.getObject(field)));
+                } else {
+                    row.put(field, null);
+                }
+            }
+            return row;
+        }
+    }
+
+    /**
+     * Typy java.sql.* na java.time (tak jak w encjach i DTO).
+     */
+    private static Object toJavaValue(Object value) {
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return value;
+    }
+
+    public static final class Builder {
+
+        private final String table;
+        private final String alias;
+        private final Map<String, String> columns = new LinkedHashMap<>();
+        private final Map<String, AssociationLoader> associations = new LinkedHashMap<>();
+
+        private Builder(String table, String alias) {
+            this.table = table;
+            this.alias = alias;
+        }
+
+        /**
+         * Pole mapowane na kolumnę tabeli projekcji ({@code alias.column}).
+         */
+        public Builder column(String field, String column) {
+            return expression(field, alias + "." + column);
+        }
+
+        /**
+         * Pole mapowane na dowolne wyrażenie SQL (np. podzapytanie skalarne po kluczu obcym).
+         */
+        public Builder expression(String field, String sql) {
+            columns.put(field, sql);
+            return this;
+        }
+
+        /**
+         * Pole relacji ładowane osobnym zapytaniem tylko wtedy, gdy jest żądane.
+         */
+        public Builder association(String field, AssociationLoader loader) {
+            associations.put(field, loader);
+            return this;
+        }
+
+        public Projection build() {
+            if (!columns.containsKey(ID)) {
+                throw new IllegalStateException("Projection of " + table + " must map the '" + ID + "' field");
+            }
+            return new Projection(this);
+        }
+    }
+}
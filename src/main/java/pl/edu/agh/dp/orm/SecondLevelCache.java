@@ -0,0 +1,162 @@
+package pl.edu.agh.dp.orm;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Współdzielony cache drugiego poziomu (ponad sesjami CoreORM) kluczowany (klasa encji, id).
+ *
+ * Rozmiar jest ograniczony globalnie z usuwaniem LRU (LinkedHashMap w porządku dostępu),
+ * a każdy wpis wygasa po TTL. Cache przechowuje odłączone migawki (DTO), nie encje sesji -
+ * i to kopie: wywołujący dostaje własną kopię, więc zmiana zwróconego DTO nie zmienia wpisu.
+ * Migawki służą tylko do odczytu; relacji w zapisie nie ustawia się z cache, tylko z encji sesji.
+ *
+ * Unieważnianie działa per wpis (klasa encji, id): serwisy po zapisie unieważniają wpisy
+ * zależne od zmienionych wierszy. Każdy region ma wersję - wynik ładowania rozpoczętego przed
+ * unieważnieniem nie trafia do cache, więc równoległy odczyt nie przywróci starej wartości.
+ */
+public class SecondLevelCache {
+
+    private record Key(Class<?> region, Object id) {
+    }
+
+    private record Entry(Object value, long expiresAtNanos) {
+    }
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Key, Entry> entries;
+    private final Map<Class<?>, AtomicLong> regionVersions = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public SecondLevelCache(boolean enabled, int maxSize, Duration ttl) {
+        this.enabled = enabled && maxSize > 0;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > SecondLevelCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Zwraca wartość z cache albo ładuje ją przez {@code loader} i zapamiętuje.
+     * Wynik null (brak encji) nie jest zapamiętywany. {@code copy} tworzy niezależną kopię
+     * wartości - przy zapamiętaniu i przy każdym trafieniu.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Class<?> region, Object id, Supplier<T> loader, UnaryOperator<T> copy) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Key key = new Key(region, id);
+        long version;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.expiresAtNanos() < 0) {
+                    hits.increment();
+                    return copy.apply((T) entry.value());
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+            misses.increment();
+            version = versionOf(region).get();
+        }
+
+        T value = loader.get();
+        if (value != null) {
+            synchronized (this) {
+                if (versionOf(region).get() == version) {
+                    entries.put(key, new Entry(copy.apply(value), System.nanoTime() + ttlNanos));
+                    puts.increment();
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Unieważnia pojedynczy wpis.
+     */
+    public synchronized void invalidate(Class<?> region, Object id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        versionOf(region).incrementAndGet();
+        if (entries.remove(new Key(region, id)) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Unieważnia wszystkie wpisy regionu.
+     */
+    public synchronized void invalidateAll(Class<?> region) {
+        if (!enabled) {
+            return;
+        }
+        versionOf(region).incrementAndGet();
+        Iterator<Key> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().region() == region) {
+                it.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        regionVersions.values().forEach(AtomicLong::incrementAndGet);
+        invalidations.add(entries.size());
+        entries.clear();
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return CacheStats.builder()
+                .enabled(enabled)
+                .maxSize(maxSize)
+                .ttlMillis(ttlNanos / 1_000_000)
+                .size(size)
+                .hits(hitCount)
+                .misses(misses.sum())
+                .hitRatio(lookups == 0 ? 0.0 : (double) hitCount / lookups)
+                .puts(puts.sum())
+                .evictions(evictions.sum())
+                .expirations(expirations.sum())
+                .invalidations(invalidations.sum())
+                .build();
+    }
+
+    private AtomicLong versionOf(Class<?> region) {
+        return regionVersions.computeIfAbsent(region, r -> new AtomicLong());
+    }
+}
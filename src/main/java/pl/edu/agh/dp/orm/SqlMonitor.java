@@ -0,0 +1,108 @@
+package pl.edu.agh.dp.orm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Monitor instrukcji SQL wykonywanych przez sesje (instalowany przez OrmConfig w OrmSessionFactory).
+ *
+ * - zlicza instrukcje, wiersze i czas w ramach bieżącego żądania HTTP (ThreadLocal,
+ *   zakres ustawia filtr webowy przez {@link #beginRequest()} / {@link #endRequest()}),
+ * - loguje instrukcje wolniejsze niż {@code slowQueryThreshold} - wartości parametrów
+ *   są redagowane (tylko typy), żeby dane osobowe nie trafiały do logów.
+ */
+public class SqlMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMonitor.class);
+
+    private static final ThreadLocal<RequestStats> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private final long slowQueryThresholdNanos;
+
+    /**
+     * @param slowQueryThreshold próg logowania wolnych instrukcji; zero lub mniej wyłącza log
+     */
+    public SqlMonitor(Duration slowQueryThreshold) {
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+    }
+
+    /**
+     * Rejestruje wykonaną instrukcję; {@code failed} - instrukcja zakończyła się błędem
+     * (liczy się do statystyk razem z czasem do błędu).
+     */
+    public void record(String sql, Object[] params, long rows, long nanos, boolean failed) {
+        RequestStats stats = CURRENT_REQUEST.get();
+        if (stats != null) {
+            stats.statements++;
+            if (failed) {
+                stats.failedStatements++;
+            }
+            stats.rows += rows;
+            stats.nanos += nanos;
+        }
+        if (slowQueryThresholdNanos > 0 && nanos >= slowQueryThresholdNanos) {
+            log.warn("Slow {}SQL ({} ms, {} rows): {} params={}", failed ? "failed " : "",
+                    String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0), rows, sql, redact(params));
+        }
+    }
+
+    // ==================== REQUEST SCOPE ====================
+
+    /**
+     * Rozpoczyna zbieranie statystyk dla żądania obsługiwanego przez bieżący wątek.
+     */
+    public static void beginRequest() {
+        CURRENT_REQUEST.set(new RequestStats());
+    }
+
+    /**
+     * Statystyki bieżącego żądania lub null, gdy wątek nie obsługuje żądania.
+     */
+    public static SqlStats currentRequest() {
+        RequestStats stats = CURRENT_REQUEST.get();
+        return stats == null ? null : stats.snapshot();
+    }
+
+    /**
+     * Kończy zbieranie i zwraca statystyki żądania.
+     */
+    public static SqlStats endRequest() {
+        RequestStats stats = CURRENT_REQUEST.get();
+        CURRENT_REQUEST.remove();
+        return stats == null ? null : stats.snapshot();
+    }
+
+    /**
+     * Zamienia wartości parametrów na ich typy, np. {@code [Long, String, null]}.
+     */
+    static String redact(Object[] params) {
+        if (params == null) {
+            return "[]";
+        }
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (Object param : params) {
+            joiner.add(param == null ? "null" : param.getClass().getSimpleName());
+        }
+        return joiner.toString();
+    }
+
+    private static final class RequestStats {
+        long statements;
+        long failedStatements;
+        long rows;
+        long nanos;
+
+        SqlStats snapshot() {
+            return SqlStats.builder()
+                    .statements(statements)
+                    .failedStatements(failedStatements)
+                    .rows(rows)
+                    .timeMillis(nanos / 1_000_000.0)
+                    .build();
+        }
+    }
+}
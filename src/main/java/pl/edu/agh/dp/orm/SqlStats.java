@@ -0,0 +1,18 @@
+package pl.edu.agh.dp.orm;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Migawka statystyk SQL jednego żądania HTTP (liczba instrukcji, w tym zakończonych błędem,
+ * wierszy i czas w bazie).
+ */
+@Value
+@Builder
+public class SqlStats {
+
+    long statements;
+    long failedStatements;
+    long rows;
+    double timeMillis;
+}
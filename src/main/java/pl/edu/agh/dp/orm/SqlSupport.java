@@ -0,0 +1,141 @@
+package pl.edu.agh.dp.orm;
+
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.core.persister.RowMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Pomocnicze metody do zapytań SQL wykonywanych obok Findera CoreORM
+ * (listy IN, odczyt kluczy obcych, strumieniowanie wyników).
+ */
+public final class SqlSupport {
+
+    /** Maksymalna liczba parametrów w jednej liście IN. */
+    public static final int IN_BATCH_SIZE = 500;
+
+    private SqlSupport() {
+    }
+
+    /**
+     * Zwraca listę placeholderów "?, ?, ?" dla klauzuli IN.
+     */
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Dzieli wartości na porcje o rozmiarze {@link #IN_BATCH_SIZE}.
+     */
+    public static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> all = new ArrayList<>(values);
+        List<List<T>> result = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_BATCH_SIZE) {
+            result.add(all.subList(from, Math.min(from + IN_BATCH_SIZE, all.size())));
+        }
+        return result;
+    }
+
+    /**
+     * Ładuje encje po ID zapytaniami {@code id IN (...)} (po jednym na porcję).
+     */
+    public static <T> List<T> findByIds(Session session, Class<T> entityClass, Collection<Long> ids) {
+        List<T> result = new ArrayList<>();
+        for (List<Long> chunk : chunks(ids)) {
+            result.addAll(session.finder(entityClass).in("id", chunk).list());
+        }
+        return result;
+    }
+
+    /**
+     * Atomowo podbija kolumnę {@code version} wiersza i blokuje go do końca transakcji,
+     * więc równoległe aktualizacje dostają kolejne wersje (ETag nie wraca do starej wartości).
+     * Nową wartość trzeba ustawić w encji przed session.update(), bo UPDATE ORM zapisuje wszystkie kolumny.
+     *
+     * @return nowa wersja albo empty, gdy wiersza nie ma
+     */
+    public static Optional<Long> incrementVersion(Session session, String table, Long id) {
+        return session.getJdbcExecutor().queryOne(
+                "UPDATE " + table + " SET version = COALESCE(version, 0) + 1 WHERE id = ? RETURNING version",
+                rs -> rs.getLong("version"), id);
+    }
+
+    /**
+     * Odczytuje kolumnę liczbową jako Long, zwracając null dla SQL NULL.
+     */
+    public static Long getLong(ResultSet rs, String column) throws SQLException {
+        Object value = rs.getObject(column);
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    /**
+     * Odczytuje kolumnę czasu jako LocalDateTime (null dla SQL NULL). CoreORM zakłada kolumny
+     * LocalDateTime jako TIMESTAMP WITH TIME ZONE, a sterownik nie zwraca ich przez
+     * {@code getObject(column, LocalDateTime.class)} - odczyt idzie przez Timestamp w strefie JVM,
+     * tak jak zapisuje je CoreORM.
+     */
+    public static LocalDateTime getLocalDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value == null ? null : value.toLocalDateTime();
+    }
+
+    /**
+     * Strumieniuje wynik zapytania kursorem po stronie serwera: sterownik pobiera po
+     * {@code fetchSize} wierszy, a każdy zmapowany wiersz trafia od razu do consumera,
+     * więc pamięć nie zależy od liczby wierszy.
+     *
+     * PostgreSQL używa kursora tylko przy autoCommit=false - sesja musi mieć otwartą transakcję.
+     * Czas instrukcji w {@link SqlMonitor} to wykonanie i pobieranie wierszy, bez czasu consumera;
+     * błąd consumera nie oznacza instrukcji jako nieudanej.
+     *
+     * @return liczba przetworzonych wierszy
+     */
+    public static <T> long forEachRow(Session session, String sql, int fetchSize,
+                                      RowMapper<T> mapper, Consumer<? super T> consumer, Object... params) {
+        ConnectionAwareJdbcExecutor executor = ConnectionAwareJdbcExecutor.of(session);
+        Connection connection = executor.getConnection();
+        long start = System.nanoTime();
+        // czas konsumenta (zapis odpowiedzi do klienta) nie jest czasem bazy
+        long consumerNanos = 0;
+        long count = 0;
+        boolean failed = false;
+        try (PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    T row = mapper.mapRow(rs);
+                    long consumerStart = System.nanoTime();
+                    consumer.accept(row);
+                    consumerNanos += System.nanoTime() - consumerStart;
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            failed = true;
+            throw new RuntimeException("Failed to stream query results: " + e.getMessage(), e);
+        } finally {
+            executor.recordStatement(sql, params, count, System.nanoTime() - start - consumerNanos, failed);
+        }
+    }
+}
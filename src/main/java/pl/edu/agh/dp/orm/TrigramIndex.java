@@ -0,0 +1,142 @@
+package pl.edu.agh.dp.orm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indeks trigramowy w pamięci: tekst wiersza -> zbiór id, dla wyszukiwania podciągów.
+ *
+ * Przecięcie list trigramów wzorca jest nadzbiorem trafień (trigramy mogą wystąpić w innym
+ * miejscu tekstu), więc wynik jest zawężany dokładnym {@code contains} na zapamiętanym tekście -
+ * ta sama semantyka co LIKE '%x%', z rozróżnianiem wielkości liter. Wzorzec krótszy niż trigram
+ * nie ma postingów - wtedy {@link #search} zwraca null i wyszukiwanie musi przejść do SQL.
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    private final Map<Long, String> texts = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Dodaje lub podmienia tekst wiersza (null usuwa wiersz z indeksu).
+     */
+    public void put(long id, String text) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            if (text == null) {
+                return;
+            }
+            texts.put(id, text);
+            for (String gram : grams(text)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            texts.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Id wierszy, których tekst zawiera {@code substring}.
+     *
+     * @return null, gdy wzorzec jest krótszy niż trigram (indeks nie zawęża wyniku)
+     */
+    public Set<Long> search(String substring) {
+        Set<String> grams = grams(substring);
+        if (grams.isEmpty()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Set.of();
+                }
+                lists.add(ids);
+            }
+            // przecięcie od najkrótszej listy - koszt zależy od najrzadszego trigramu
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>();
+            for (Long id : lists.get(0)) {
+                if (containsInAll(lists, id) && texts.get(id).contains(substring)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean containsInAll(List<Set<Long>> lists, Long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeUnlocked(long id) {
+        String previous = texts.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
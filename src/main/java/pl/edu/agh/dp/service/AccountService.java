@@ -1,15 +1,33 @@
 package pl.edu.agh.dp.service;
 
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import pl.edu.agh.dp.core.api.Session;
 import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.core.finder.Finder;
 import pl.edu.agh.dp.config.OrmConfig;
 import pl.edu.agh.dp.dto.*;
 import pl.edu.agh.dp.entity.*;
+import pl.edu.agh.dp.orm.Projection;
+import pl.edu.agh.dp.orm.SqlSupport;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -18,10 +36,67 @@ import java.util.stream.Collectors;
 @Service
 public class AccountService {
 
+    private static final Logger log = LoggerFactory.getLogger(AccountService.class);
+
+    /**
+     * Pola dostępne w {@code fields=}: kolumny tabeli accounts, typ konta wg tabeli podklasy
+     * z pasującym wierszem, a pola podklas jako podzapytania skalarne po kluczu głównym -
+     * tabele podklas są czytane tylko dla żądanych pól.
+     */
+    private static final Projection FIELDS = Projection.builder("accounts", "a")
+            .column("id", "id")
+            .expression("accountType", "CASE"
+                    + " WHEN EXISTS (SELECT 1 FROM bank_accounts b WHERE b.id = a.id) THEN 'BANK'"
+                    + " WHEN EXISTS (SELECT 1 FROM savings_accounts s WHERE s.id = a.id) THEN 'SAVINGS'"
+                    + " WHEN EXISTS (SELECT 1 FROM investment_accounts i WHERE i.id = a.id) THEN 'INVESTMENT'"
+                    + " ELSE 'ACCOUNT' END")
+            .column("accountNumber", "account_number")
+            .column("accountName", "account_name")
+            .column("balance", "balance")
+            .column("openDate", "open_date")
+            .column("currency", "currency")
+            .column("isActive", "is_active")
+            .expression("bankName", subclassColumn("bank_accounts", "bank_name"))
+            .expression("iban", subclassColumn("bank_accounts", "iban"))
+            .expression("swift", subclassColumn("bank_accounts", "swift"))
+            .expression("branchCode", subclassColumn("bank_accounts", "branch_code"))
+            .expression("hasDebitCard", subclassColumn("bank_accounts", "has_debit_card"))
+            .expression("hasOnlineBanking", subclassColumn("bank_accounts", "has_online_banking"))
+            .expression("interestRate", subclassColumn("savings_accounts", "interest_rate"))
+            .expression("minimumBalance", subclassColumn("savings_accounts", "minimum_balance"))
+            .expression("withdrawalLimit", subclassColumn("savings_accounts", "withdrawal_limit"))
+            .expression("hasAutomaticTransfer", subclassColumn("savings_accounts", "has_automatic_transfer"))
+            .expression("savingsGoal", subclassColumn("savings_accounts", "savings_goal"))
+            .expression("riskLevel", subclassColumn("investment_accounts", "risk_level"))
+            .expression("portfolioType", subclassColumn("investment_accounts", "portfolio_type"))
+            .expression("managementFee", subclassColumn("investment_accounts", "management_fee"))
+            .expression("hasBrokerAccess", subclassColumn("investment_accounts", "has_broker_access"))
+            .expression("investmentStrategy", subclassColumn("investment_accounts", "investment_strategy"))
+            .expression("minimumInvestment", subclassColumn("investment_accounts", "minimum_investment"))
+            .build();
+
+    private static String subclassColumn(String table, String column) {
+        return "(SELECT sub." + column + " FROM " + table + " sub WHERE sub.id = a.id)";
+    }
+
     private final SessionFactory sessionFactory;
+    private final ScheduledExecutorService summaryRefresher;
+    private final Object summaryLock = new Object();
+    private final Duration summaryMaxAge;
+    /** System.nanoTime() ostatniego przeliczenia tabeli podsumowań w tej instancji; null - jeszcze nie liczona. */
+    private volatile Long summaryRefreshedAt;
 
     public AccountService() {
         this.sessionFactory = OrmConfig.getSessionFactory();
+        this.summaryMaxAge = OrmConfig.getAccountSummaryMaxAge();
+        this.summaryRefresher = startSummaryRefresher(OrmConfig.getAccountSummaryRefreshInterval());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (summaryRefresher != null) {
+            summaryRefresher.shutdownNow();
+        }
     }
 
     public AccountDto create(AccountDto dto) {
@@ -119,22 +194,371 @@ public class AccountService {
         }
     }
 
-    public List<AccountDto> findAll() {
+    // ==================== ETAG ====================
+
+    /**
+     * Agregat listy kont: INSERT podnosi max(id), DELETE zmniejsza count, UPDATE podbija sumę wersji.
+     */
+    private static final String COLLECTION_TAG_QUERY =
+            "SELECT count(*) AS cnt, COALESCE(max(id), 0) AS max_id, COALESCE(sum(version), 0) AS versions FROM accounts";
+
+    /**
+     * Wersja konta do ETagu - aktualizacje podklas też podbijają version w tabeli accounts.
+     *
+     * @return empty, gdy konta nie ma
+     */
+    public Optional<String> findVersionTag(Long id) {
         try (Session session = sessionFactory.openSession()) {
-            List<AccountDto> result = new ArrayList<>();
-            
-            List<BankAccount> bankAccounts = session.findAll(BankAccount.class);
-            List<SavingsAccount> savingsAccounts = session.findAll(SavingsAccount.class);
-            List<InvestmentAccount> investmentAccounts = session.findAll(InvestmentAccount.class);
-            
-            bankAccounts.forEach(a -> result.add(BankAccountDto.fromEntity(a)));
-            savingsAccounts.forEach(a -> result.add(SavingsAccountDto.fromEntity(a)));
-            investmentAccounts.forEach(a -> result.add(InvestmentAccountDto.fromEntity(a)));
-            
-            return result;
+            return session.getJdbcExecutor().queryOne("SELECT version FROM accounts WHERE id = ?",
+                    rs -> Long.toString(rs.getLong("version")), id);
+        }
+    }
+
+    /**
+     * Wersja listy kont do ETagu.
+     */
+    public String collectionVersionTag() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.getJdbcExecutor().queryOne(COLLECTION_TAG_QUERY,
+                    rs -> rs.getLong("cnt") + ":" + rs.getLong("max_id") + ":" + rs.getBigDecimal("versions"))
+                    .orElseThrow();
+        }
+    }
+
+    // ==================== BALANCE SUMMARY ====================
+
+    /**
+     * Wymiary agregatu sald: nazwa w {@code groupBy}, wyrażenie w zapytaniu na żywo
+     * i kolumna tabeli podsumowań.
+     */
+    private enum BalanceDimension {
+        CURRENCY("currency", "a.currency", "currency"),
+        ACCOUNT_TYPE("accountType", "CASE"
+                + " WHEN b.id IS NOT NULL THEN 'BANK'"
+                + " WHEN s.id IS NOT NULL THEN 'SAVINGS'"
+                + " WHEN i.id IS NOT NULL THEN 'INVESTMENT'"
+                + " ELSE 'ACCOUNT' END", "account_type"),
+        IS_ACTIVE("isActive", "a.is_active", "is_active");
+
+        private final String field;
+        private final String liveExpression;
+        private final String summaryColumn;
+
+        BalanceDimension(String field, String liveExpression, String summaryColumn) {
+            this.field = field;
+            this.liveExpression = liveExpression;
+            this.summaryColumn = summaryColumn;
+        }
+
+        static List<BalanceDimension> parse(String groupBy) {
+            List<BalanceDimension> dimensions = new ArrayList<>();
+            for (String name : groupBy.split(",")) {
+                String field = name.trim();
+                if (field.isEmpty()) {
+                    continue;
+                }
+                BalanceDimension dimension = Arrays.stream(values())
+                        .filter(d -> d.field.equals(field))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown groupBy dimension '" + field
+                                + "', allowed: currency, accountType, isActive"));
+                if (!dimensions.contains(dimension)) {
+                    dimensions.add(dimension);
+                }
+            }
+            return dimensions;
         }
     }
 
+    private static final String SUMMARY_TABLE = "account_balance_summary";
+
+    /**
+     * Tabela podsumowań trzyma najdrobniejsze ziarno (waluta x typ x aktywność); grubsze grupowania
+     * są z niej zwijane. Zwykła tabela zamiast widoku zmaterializowanego: przeliczenie DELETE + INSERT
+     * w jednej transakcji nie blokuje czytelników (REFRESH MATERIALIZED VIEW bez CONCURRENTLY blokuje,
+     * a CONCURRENTLY wymaga indeksu unikalnego), a wiersze niosą refreshed_at. Tabelę tworzy
+     * refreshBalanceSummary (IF NOT EXISTS), więc odtwarza się też po schema.auto=drop-create.
+     */
+    private static final String SUMMARY_DDL = "CREATE TABLE IF NOT EXISTS " + SUMMARY_TABLE + " ("
+            + "currency VARCHAR(255), "
+            + "account_type VARCHAR(32) NOT NULL, "
+            + "is_active BOOLEAN, "
+            + "account_count BIGINT NOT NULL, "
+            + "balance_count BIGINT NOT NULL, "
+            + "total_balance NUMERIC, "
+            + "min_balance NUMERIC, "
+            + "max_balance NUMERIC, "
+            + "refreshed_at TIMESTAMP NOT NULL)";
+
+    private static final String HIERARCHY_JOINS = " LEFT JOIN bank_accounts b ON b.id = a.id"
+            + " LEFT JOIN savings_accounts s ON s.id = a.id"
+            + " LEFT JOIN investment_accounts i ON i.id = a.id";
+
+    private static final String SUMMARY_REFRESH = "INSERT INTO " + SUMMARY_TABLE
+            + " (currency, account_type, is_active, account_count, balance_count, total_balance, min_balance, max_balance, refreshed_at)"
+            + " SELECT " + BalanceDimension.CURRENCY.liveExpression
+            + ", " + BalanceDimension.ACCOUNT_TYPE.liveExpression
+            + ", " + BalanceDimension.IS_ACTIVE.liveExpression
+            + ", count(*), count(a.balance), sum(a.balance), min(a.balance), max(a.balance), ?"
+            + " FROM accounts a" + HIERARCHY_JOINS
+            + " GROUP BY 1, 2, 3";
+
+    /**
+     * Suma, średnia, minimum i maksimum sald pogrupowane po wymiarach z {@code groupBy}
+     * (lista po przecinku z currency, accountType, isActive; pusta = jedna grupa dla wszystkich kont).
+     *
+     * @param fromSummary true - zwinięcie tabeli podsumowań zamiast GROUP BY po tabelach hierarchii;
+     *                    tabela starsza niż ACCOUNT_SUMMARY_MAX_AGE_MS jest najpierw przeliczana
+     * @throws IllegalArgumentException dla nieznanego wymiaru
+     */
+    public BalanceSummaryDto summarizeBalances(String groupBy, boolean fromSummary) {
+        List<BalanceDimension> dimensions = BalanceDimension.parse(groupBy);
+        if (fromSummary && isSummaryStale()) {
+            synchronized (summaryLock) {
+                if (isSummaryStale()) {
+                    refreshBalanceSummary();
+                }
+            }
+        }
+        try (Session session = sessionFactory.openSession()) {
+            List<BalanceGroupDto> groups = session.getJdbcExecutor().query(
+                    fromSummary ? summaryQuery(dimensions) : liveQuery(dimensions),
+                    rs -> mapBalanceGroup(rs, dimensions));
+            LocalDateTime refreshedAt = fromSummary
+                    ? session.getJdbcExecutor().queryOne("SELECT max(refreshed_at) AS refreshed_at FROM " + SUMMARY_TABLE,
+                            rs -> rs.getTimestamp("refreshed_at")).map(Timestamp::toLocalDateTime).orElse(null)
+                    : null;
+            return BalanceSummaryDto.builder()
+                    .source(fromSummary ? "summary" : "live")
+                    .groupBy(dimensions.stream().map(d -> d.field).collect(Collectors.toList()))
+                    .refreshedAt(refreshedAt)
+                    .groups(groups)
+                    .build();
+        }
+    }
+
+    /**
+     * Przelicza tabelę podsumowań w jednej transakcji. Blokada EXCLUSIVE szereguje równoległe
+     * przeliczenia (także z innych instancji), a czytelnicy do commitu widzą poprzednią zawartość.
+     *
+     * @return liczba grup w tabeli po przeliczeniu
+     */
+    public int refreshBalanceSummary() {
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                session.getJdbcExecutor().executeStatement(SUMMARY_DDL);
+                session.getJdbcExecutor().executeStatement("LOCK TABLE " + SUMMARY_TABLE + " IN EXCLUSIVE MODE");
+                session.getJdbcExecutor().update("DELETE FROM " + SUMMARY_TABLE);
+                int groups = session.getJdbcExecutor().update(SUMMARY_REFRESH, Timestamp.valueOf(LocalDateTime.now()));
+                session.commit();
+                summaryRefreshedAt = System.nanoTime();
+                return groups;
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to refresh account balance summary: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Tabela jeszcze nieliczona w tej instancji albo starsza niż ACCOUNT_SUMMARY_MAX_AGE_MS.
+     */
+    private boolean isSummaryStale() {
+        Long refreshedAt = summaryRefreshedAt;
+        return refreshedAt == null
+                || (summaryMaxAge.isPositive() && System.nanoTime() - refreshedAt > summaryMaxAge.toNanos());
+    }
+
+    private static String liveQuery(List<BalanceDimension> dimensions) {
+        List<String> keys = new ArrayList<>();
+        List<String> selected = new ArrayList<>();
+        for (BalanceDimension dimension : dimensions) {
+            keys.add(dimension.liveExpression);
+            selected.add(dimension.liveExpression + " AS " + dimension.summaryColumn);
+        }
+        selected.add("count(*) AS account_count");
+        selected.add("sum(a.balance) AS total_balance");
+        // ta sama postać średniej co przy zwijaniu podsumowań - oba źródła dają identyczny wynik
+        selected.add("sum(a.balance) / NULLIF(count(a.balance), 0) AS average_balance");
+        selected.add("min(a.balance) AS min_balance");
+        selected.add("max(a.balance) AS max_balance");
+        String from = " FROM accounts a" + (dimensions.contains(BalanceDimension.ACCOUNT_TYPE) ? HIERARCHY_JOINS : "");
+        return groupedSelect(selected, from, keys);
+    }
+
+    private static String summaryQuery(List<BalanceDimension> dimensions) {
+        List<String> keys = new ArrayList<>();
+        List<String> selected = new ArrayList<>();
+        for (BalanceDimension dimension : dimensions) {
+            keys.add(dimension.summaryColumn);
+            selected.add(dimension.summaryColumn);
+        }
+        selected.add("COALESCE(sum(account_count), 0) AS account_count");
+        selected.add("sum(total_balance) AS total_balance");
+        selected.add("sum(total_balance) / NULLIF(sum(balance_count), 0) AS average_balance");
+        selected.add("min(min_balance) AS min_balance");
+        selected.add("max(max_balance) AS max_balance");
+        return groupedSelect(selected, " FROM " + SUMMARY_TABLE, keys);
+    }
+
+    private static String groupedSelect(List<String> selected, String from, List<String> keys) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", selected)).append(from);
+        if (!keys.isEmpty()) {
+            sql.append(" GROUP BY ").append(String.join(", ", keys))
+                    .append(" ORDER BY ").append(String.join(", ", keys));
+        }
+        return sql.toString();
+    }
+
+    private static BalanceGroupDto mapBalanceGroup(ResultSet rs, List<BalanceDimension> dimensions) throws SQLException {
+        BalanceGroupDto.BalanceGroupDtoBuilder group = BalanceGroupDto.builder()
+                .accountCount(rs.getLong("account_count"))
+                .totalBalance(rs.getBigDecimal("total_balance"))
+                .averageBalance(rs.getBigDecimal("average_balance"))
+                .minBalance(rs.getBigDecimal("min_balance"))
+                .maxBalance(rs.getBigDecimal("max_balance"));
+        for (BalanceDimension dimension : dimensions) {
+            switch (dimension) {
+                case CURRENCY -> group.currency(rs.getString("currency"));
+                case ACCOUNT_TYPE -> group.accountType(rs.getString("account_type"));
+                case IS_ACTIVE -> group.isActive((Boolean) rs.getObject("is_active"));
+            }
+        }
+        return group.build();
+    }
+
+    private ScheduledExecutorService startSummaryRefresher(Duration interval) {
+        if (interval.isZero() || interval.isNegative()) {
+            return null;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-summary-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = interval.toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                refreshBalanceSummary();
+            } catch (RuntimeException e) {
+                // wyjątek zatrzymałby kolejne uruchomienia - następna próba po kolejnym okresie
+                log.warn("Account balance summary refresh failed: {}", e.getMessage());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    // ==================== POLYMORPHIC READ ====================
+
+    /**
+     * Wszystkie kolumny hierarchii JOINED w jednym zapytaniu: accounts LEFT JOIN tabele podklas.
+     * Typ wiersza wynika z tego, która tabela podklasy ma dopasowany wiersz.
+     */
+    private static final String POLYMORPHIC_SELECT =
+            "SELECT a.id, a.account_number, a.account_name, a.balance, a.open_date, a.currency, a.is_active, "
+                    + "b.id AS bank_id, b.bank_name, b.iban, b.swift, b.branch_code, b.has_debit_card, b.has_online_banking, "
+                    + "s.id AS savings_id, s.interest_rate, s.minimum_balance, s.withdrawal_limit, s.has_automatic_transfer, s.savings_goal, "
+                    + "i.id AS investment_id, i.risk_level, i.portfolio_type, i.management_fee, i.has_broker_access, "
+                    + "i.investment_strategy, i.minimum_investment "
+                    + "FROM accounts a "
+                    + "LEFT JOIN bank_accounts b ON b.id = a.id "
+                    + "LEFT JOIN savings_accounts s ON s.id = a.id "
+                    + "LEFT JOIN investment_accounts i ON i.id = a.id";
+
+    /**
+     * Multi-get kont dowolnego typu: jedno zapytanie LEFT JOIN z {@code WHERE a.id IN (...)}
+     * zamiast osobnego find() na każde id.
+     */
+    public MultiGetResultDto<AccountDto> findByIds(List<Long> ids) {
+        List<Long> distinct = MultiGetResultDto.distinctIds(ids);
+        try (Session session = sessionFactory.openSession()) {
+            Map<Long, Account> byId = new HashMap<>();
+            for (List<Long> chunk : SqlSupport.chunks(distinct)) {
+                List<Account> accounts = session.getJdbcExecutor().query(
+                        POLYMORPHIC_SELECT + " WHERE a.id IN (" + SqlSupport.placeholders(chunk.size()) + ")",
+                        AccountService::mapAccountRow, chunk.toArray());
+                for (Account account : accounts) {
+                    byId.put(account.getId(), account);
+                }
+            }
+            return MultiGetResultDto.of(distinct, byId, AccountDto::fromEntity);
+        }
+    }
+
+    /**
+     * Pobiera stronę kont wszystkich typów (keyset po id) jednym zapytaniem LEFT JOIN.
+     * Z {@code fields} zwraca wiersze projekcji (tylko żądane kolumny).
+     */
+    public CursorPage<?> findPage(String cursor, Integer size, String fields) {
+        CursorPage.Key after = CursorPage.Key.decode(cursor);
+        int pageSize = CursorPage.clampSize(size);
+        Projection.Selection selection = FIELDS.select(fields);
+        try (Session session = sessionFactory.openSession()) {
+            if (selection != null) {
+                Finder<Account> finder = session.finder(Account.class);
+                if (after != null) {
+                    finder.gt("id", after.getId());
+                }
+                finder.orderAsc("id").limit(pageSize + 1);
+                return CursorPage.of(selection.list(session, finder.getSpec()), pageSize,
+                        row -> CursorPage.Key.of(Projection.idOf(row)), page -> page);
+            }
+            List<Account> accounts = after == null
+                    ? session.getJdbcExecutor().query(POLYMORPHIC_SELECT + " ORDER BY a.id LIMIT ?",
+                            AccountService::mapAccountRow, pageSize + 1)
+                    : session.getJdbcExecutor().query(POLYMORPHIC_SELECT + " WHERE a.id > ? ORDER BY a.id LIMIT ?",
+                            AccountService::mapAccountRow, after.getId(), pageSize + 1);
+            return CursorPage.of(accounts, pageSize, a -> CursorPage.Key.of(a.getId()), page -> page.stream()
+                    .map(AccountDto::fromEntity)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Mapuje wiersz POLYMORPHIC_SELECT na encję właściwej podklasy.
+     */
+    private static Account mapAccountRow(ResultSet rs) throws SQLException {
+        Account account;
+        if (rs.getObject("bank_id") != null) {
+            BankAccount bank = new BankAccount();
+            bank.setBankName(rs.getString("bank_name"));
+            bank.setIban(rs.getString("iban"));
+            bank.setSwift(rs.getString("swift"));
+            bank.setBranchCode(rs.getString("branch_code"));
+            bank.setHasDebitCard(rs.getObject("has_debit_card", Boolean.class));
+            bank.setHasOnlineBanking(rs.getObject("has_online_banking", Boolean.class));
+            account = bank;
+        } else if (rs.getObject("savings_id") != null) {
+            SavingsAccount savings = new SavingsAccount();
+            savings.setInterestRate(rs.getBigDecimal("interest_rate"));
+            savings.setMinimumBalance(rs.getBigDecimal("minimum_balance"));
+            savings.setWithdrawalLimit(rs.getObject("withdrawal_limit", Integer.class));
+            savings.setHasAutomaticTransfer(rs.getObject("has_automatic_transfer", Boolean.class));
+            savings.setSavingsGoal(rs.getString("savings_goal"));
+            account = savings;
+        } else if (rs.getObject("investment_id") != null) {
+            InvestmentAccount investment = new InvestmentAccount();
+            investment.setRiskLevel(rs.getString("risk_level"));
+            investment.setPortfolioType(rs.getString("portfolio_type"));
+            investment.setManagementFee(rs.getBigDecimal("management_fee"));
+            investment.setHasBrokerAccess(rs.getObject("has_broker_access", Boolean.class));
+            investment.setInvestmentStrategy(rs.getString("investment_strategy"));
+            investment.setMinimumInvestment(rs.getBigDecimal("minimum_investment"));
+            account = investment;
+        } else {
+            account = new Account();
+        }
+        account.setId(rs.getLong("id"));
+        account.setAccountNumber(rs.getString("account_number"));
+        account.setAccountName(rs.getString("account_name"));
+        account.setBalance(rs.getBigDecimal("balance"));
+        account.setOpenDate(rs.getObject("open_date", LocalDate.class));
+        account.setCurrency(rs.getString("currency"));
+        account.setIsActive(rs.getObject("is_active", Boolean.class));
+        return account;
+    }
+
     public List<BankAccountDto> findAllBankAccounts() {
         try (Session session = sessionFactory.openSession()) {
             return session.findAll(BankAccount.class).stream()
@@ -163,8 +587,13 @@ public class AccountService {
         try (Session session = sessionFactory.openSession()) {
             session.begin();
             try {
+                Optional<Long> version = SqlSupport.incrementVersion(session, "accounts", id);
+                if (version.isEmpty()) {
+                    return Optional.empty();
+                }
                 BankAccount updated = (BankAccount) dto.toEntity();
                 updated.setId(id);
+                updated.setVersion(version.get());
                 session.update(updated);
                 session.commit();
                 return Optional.of(BankAccountDto.fromEntity(updated));
@@ -179,8 +608,13 @@ public class AccountService {
         try (Session session = sessionFactory.openSession()) {
             session.begin();
             try {
+                Optional<Long> version = SqlSupport.incrementVersion(session, "accounts", id);
+                if (version.isEmpty()) {
+                    return Optional.empty();
+                }
                 SavingsAccount updated = (SavingsAccount) dto.toEntity();
                 updated.setId(id);
+                updated.setVersion(version.get());
                 session.update(updated);
                 session.commit();
                 return Optional.of(SavingsAccountDto.fromEntity(updated));
@@ -195,8 +629,13 @@ public class AccountService {
         try (Session session = sessionFactory.openSession()) {
             session.begin();
             try {
+                Optional<Long> version = SqlSupport.incrementVersion(session, "accounts", id);
+                if (version.isEmpty()) {
+                    return Optional.empty();
+                }
                 InvestmentAccount updated = (InvestmentAccount) dto.toEntity();
                 updated.setId(id);
+                updated.setVersion(version.get());
                 session.update(updated);
                 session.commit();
                 return Optional.of(InvestmentAccountDto.fromEntity(updated));
@@ -267,14 +706,17 @@ public class AccountService {
      * Wyszukuje wszystkie konta po walucie (pole z klasy bazowej Account).
      * Demonstruje Finder na klasie bazowej JOINED - zwraca polimorficznie wszystkie typy kont.
      */
-    public List<AccountDto> findAccountsByCurrency(String currency) {
+    public List<?> findAccountsByCurrency(String currency, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Account> accounts = session.finder(Account.class)
+            Finder<Account> finder = session.finder(Account.class)
                     .eq("currency", currency)
-                    .orderAsc("accountName")
-                    .list();
-            
-            return accounts.stream()
+                    .orderAsc("accountName");
+
+            if (selection != null) {
+                return selection.list(session, finder.getSpec());
+            }
+            return finder.list().stream()
                     .map(AccountDto::fromEntity)
                     .collect(Collectors.toList());
         }
@@ -301,14 +743,17 @@ public class AccountService {
      * Wyszukuje konta z saldem w podanym zakresie.
      * Demonstruje Finder between() na polu z klasy bazowej Account.
      */
-    public List<AccountDto> findAccountsByBalanceBetween(java.math.BigDecimal minBalance, java.math.BigDecimal maxBalance) {
+    public List<?> findAccountsByBalanceBetween(java.math.BigDecimal minBalance, java.math.BigDecimal maxBalance, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Account> accounts = session.finder(Account.class)
+            Finder<Account> finder = session.finder(Account.class)
                     .between("balance", minBalance, maxBalance)
-                    .orderAsc("balance")
-                    .list();
-            
-            return accounts.stream()
+                    .orderAsc("balance");
+
+            if (selection != null) {
+                return selection.list(session, finder.getSpec());
+            }
+            return finder.list().stream()
                     .map(AccountDto::fromEntity)
                     .collect(Collectors.toList());
         }
@@ -318,16 +763,19 @@ public class AccountService {
      * Wyszukuje aktywne konta po walucie i minimalnym saldzie.
      * Demonstruje Finder z wieloma warunkami (eq + gt + eq) na hierarchii JOINED.
      */
-    public List<AccountDto> findActiveAccountsByCurrencyAndMinBalance(String currency, java.math.BigDecimal minBalance) {
+    public List<?> findActiveAccountsByCurrencyAndMinBalance(String currency, java.math.BigDecimal minBalance, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Account> accounts = session.finder(Account.class)
+            Finder<Account> finder = session.finder(Account.class)
                     .eq("currency", currency)
                     .gt("balance", minBalance)
                     .eq("isActive", true)
-                    .orderDesc("balance")
-                    .list();
-            
-            return accounts.stream()
+                    .orderDesc("balance");
+
+            if (selection != null) {
+                return selection.list(session, finder.getSpec());
+            }
+            return finder.list().stream()
                     .map(AccountDto::fromEntity)
                     .collect(Collectors.toList());
         }
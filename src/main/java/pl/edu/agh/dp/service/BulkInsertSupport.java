@@ -0,0 +1,119 @@
+package pl.edu.agh.dp.service;
+
+import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.dto.BulkResultDto;
+import pl.edu.agh.dp.orm.JdbcBatchInsert;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Wspólny przebieg bulk create: podział żądania na porcje, walidacja i rozwiązanie
+ * referencji dla całej porcji, JDBC batch INSERT oraz zebranie błędów per element.
+ */
+final class BulkInsertSupport {
+
+    static final int MAX_ITEMS = 10_000;
+    static final int MAX_CHUNK_SIZE = 5_000;
+
+    private BulkInsertSupport() {
+    }
+
+    /**
+     * Zamienia porcję żądań na encje. Element odrzucony przez walidację ma wartość null
+     * na swojej pozycji, a powód trafia do {@code reject} (indeks w porcji, komunikat).
+     */
+    @FunctionalInterface
+    interface ChunkMapper<S, E> {
+        List<E> map(List<S> chunk, BiConsumer<Integer, String> reject);
+    }
+
+    /**
+     * Normalizuje rozmiar porcji (domyślnie DB_BULK_CHUNK_SIZE).
+     */
+    static int chunkSize(Integer requested) {
+        int size = requested != null ? requested : OrmConfig.getBulkChunkSize();
+        return Math.max(1, Math.min(size, MAX_CHUNK_SIZE));
+    }
+
+    static void checkRequestSize(List<?> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Bulk request must contain at least one item");
+        }
+        if (requests.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("Bulk request exceeds " + MAX_ITEMS + " items");
+        }
+    }
+
+    static <S, E, D> BulkResultDto<D> insert(Session session, List<S> requests, int chunkSize, String sql,
+                                             ChunkMapper<S, E> mapper,
+                                             JdbcBatchInsert.ParameterBinder<E> binder,
+                                             BiConsumer<E, Long> idSetter,
+                                             Function<E, D> toDto) {
+        List<D> created = new ArrayList<>();
+        List<BulkResultDto.ItemError> errors = new ArrayList<>();
+
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            int offset = from;
+            List<S> chunk = requests.subList(from, Math.min(from + chunkSize, requests.size()));
+            List<E> entities = mapper.map(chunk, (i, message) -> errors.add(new BulkResultDto.ItemError(offset + i, message)));
+
+            List<E> valid = new ArrayList<>();
+            List<Integer> validIndexes = new ArrayList<>();
+            for (int i = 0; i < entities.size(); i++) {
+                if (entities.get(i) != null) {
+                    valid.add(entities.get(i));
+                    validIndexes.add(offset + i);
+                }
+            }
+
+            Map<Integer, String> failures = JdbcBatchInsert.insertChunk(session, sql, valid, binder, idSetter);
+            for (int j = 0; j < valid.size(); j++) {
+                String failure = failures.get(j);
+                if (failure != null) {
+                    errors.add(new BulkResultDto.ItemError(validIndexes.get(j), failure));
+                } else {
+                    created.add(toDto.apply(valid.get(j)));
+                }
+            }
+        }
+
+        errors.sort(Comparator.comparingInt(BulkResultDto.ItemError::getIndex));
+        return BulkResultDto.<D>builder()
+                .requested(requests.size())
+                .created(created.size())
+                .failed(errors.size())
+                .items(created)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Prosty mapper dla encji bez referencji: walidacja wymaganych pól i konwersja DTO.
+     */
+    static <S, E> ChunkMapper<S, E> validating(Function<S, String> validator, Function<S, E> converter) {
+        return (chunk, reject) -> {
+            List<E> result = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                S request = chunk.get(i);
+                String error = request == null ? "Item is null" : validator.apply(request);
+                if (error != null) {
+                    reject.accept(i, error);
+                    result.add(null);
+                } else {
+                    result.add(converter.apply(request));
+                }
+            }
+            return result;
+        };
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,42 @@
+package pl.edu.agh.dp.service;
+
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.orm.SecondLevelCache;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wpisy cache drugiego poziomu do unieważnienia po zapisie.
+ *
+ * Serwis zbiera klucze w transakcji - przed zmianą relacji, póki stare wartości kluczy
+ * obcych są jeszcze w bazie - a po commit unieważnia tylko te wpisy zamiast całych regionów.
+ */
+final class CacheKeys {
+
+    private final Map<Class<?>, Set<Long>> keys = new LinkedHashMap<>();
+
+    CacheKeys add(Class<?> region, Long id) {
+        if (id != null) {
+            keys.computeIfAbsent(region, r -> new LinkedHashSet<>()).add(id);
+        }
+        return this;
+    }
+
+    /**
+     * Dodaje id z wyniku zapytania (pierwsza kolumna, NULL pomijane).
+     */
+    CacheKeys addQuery(Session session, Class<?> region, String sql, Object... params) {
+        session.getJdbcExecutor().query(sql, rs -> {
+            long id = rs.getLong(1);
+            return rs.wasNull() ? null : id;
+        }, params).forEach(id -> add(region, id));
+        return this;
+    }
+
+    void invalidate(SecondLevelCache cache) {
+        keys.forEach((region, ids) -> ids.forEach(id -> cache.invalidate(region, id)));
+    }
+}
@@ -0,0 +1,89 @@
+package pl.edu.agh.dp.service;
+
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.dto.DepartmentDto;
+import pl.edu.agh.dp.entity.Department;
+import pl.edu.agh.dp.orm.SqlSupport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wsadowe składanie DepartmentDto (rodzic, liczba pracowników, poddziały).
+ *
+ * DepartmentDto.fromEntity wymaga session.load() rodzica i leniwych kolekcji employees
+ * i subDepartments dla każdego działu. Tu trzy zapytania IN na całą listę wypełniają
+ * te pola bez dotykania relacji encji - pracownicy są tylko liczeni, nie ładowani.
+ */
+final class DepartmentAssociationLoader {
+
+    private DepartmentAssociationLoader() {
+    }
+
+    record Parent(Long id, String name) {
+    }
+
+    static List<DepartmentDto> toDtos(Session session, List<Department> departments) {
+        if (departments.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = departments.stream().map(Department::getId).toList();
+
+        // 1. Rodzic (id i nazwa) - self-join po parent_department_fkey
+        Map<Long, Parent> parents = new HashMap<>();
+        for (List<Long> chunk : SqlSupport.chunks(ids)) {
+            session.getJdbcExecutor().query(
+                    "SELECT d.id, p.id AS parent_id, p.name AS parent_name FROM departments d "
+                            + "JOIN departments p ON p.id = d.parent_department_fkey "
+                            + "WHERE d.id IN (" + SqlSupport.placeholders(chunk.size()) + ")",
+                    rs -> Map.entry(rs.getLong("id"), new Parent(rs.getLong("parent_id"), rs.getString("parent_name"))),
+                    chunk.toArray()
+            ).forEach(entry -> parents.put(entry.getKey(), entry.getValue()));
+        }
+
+        // 2. Liczba pracowników
+        Map<Long, Integer> employeeCounts = new HashMap<>();
+        for (List<Long> chunk : SqlSupport.chunks(ids)) {
+            session.getJdbcExecutor().query(
+                    "SELECT department_fkey, count(*) AS employee_count FROM employees WHERE department_fkey IN ("
+                            + SqlSupport.placeholders(chunk.size()) + ") GROUP BY department_fkey",
+                    rs -> Map.entry(rs.getLong("department_fkey"), rs.getInt("employee_count")),
+                    chunk.toArray()
+            ).forEach(entry -> employeeCounts.put(entry.getKey(), entry.getValue()));
+        }
+
+        // 3. Poddziały jako DepartmentSummaryDto
+        Map<Long, List<DepartmentDto.DepartmentSummaryDto>> subDepartments = new HashMap<>();
+        for (List<Long> chunk : SqlSupport.chunks(ids)) {
+            session.getJdbcExecutor().query(
+                    "SELECT parent_department_fkey, id, name, code FROM departments WHERE parent_department_fkey IN ("
+                            + SqlSupport.placeholders(chunk.size()) + ") ORDER BY id",
+                    rs -> Map.entry(rs.getLong("parent_department_fkey"), DepartmentDto.DepartmentSummaryDto.builder()
+                            .id(rs.getLong("id"))
+                            .name(rs.getString("name"))
+                            .code(rs.getString("code"))
+                            .build()),
+                    chunk.toArray()
+            ).forEach(entry -> subDepartments.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(entry.getValue()));
+        }
+
+        // Złożenie DTO - te same pola co fromEntity (subDepartments null, gdy brak poddziałów)
+        List<DepartmentDto> dtos = new ArrayList<>(departments.size());
+        for (Department department : departments) {
+            Parent parent = parents.get(department.getId());
+            dtos.add(DepartmentDto.builder()
+                    .id(department.getId())
+                    .name(department.getName())
+                    .code(department.getCode())
+                    .description(department.getDescription())
+                    .parentDepartmentId(parent != null ? parent.id() : null)
+                    .parentDepartmentName(parent != null ? parent.name() : null)
+                    .employeeCount(employeeCounts.getOrDefault(department.getId(), 0))
+                    .subDepartments(subDepartments.get(department.getId()))
+                    .build());
+        }
+        return dtos;
+    }
+}
@@ -3,13 +3,20 @@ package pl.edu.agh.dp.service;
 import org.springframework.stereotype.Service;
 import pl.edu.agh.dp.core.api.Session;
 import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.core.finder.Finder;
 import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.dto.CursorPage;
 import pl.edu.agh.dp.dto.DepartmentDto;
+import pl.edu.agh.dp.dto.DepartmentTreeDto;
 import pl.edu.agh.dp.entity.Department;
+import pl.edu.agh.dp.entity.Employee;
+import pl.edu.agh.dp.orm.SecondLevelCache;
+import pl.edu.agh.dp.orm.SqlSupport;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Serwis dla operacji na Department.
@@ -17,14 +24,20 @@ import java.util.stream.Collectors;
  * Demonstruje:
  * - One-to-Many relationships (employees)
  * - Self-referencing hierarchy (parent/sub departments)
+ * - Recursive CTE (całe poddrzewo jednym zapytaniem)
  */
 @Service
 public class DepartmentService {
 
+    public static final int DEFAULT_TREE_DEPTH = 10;
+    public static final int MAX_TREE_DEPTH = 50;
+
     private final SessionFactory sessionFactory;
+    private final SecondLevelCache cache;
 
     public DepartmentService() {
         this.sessionFactory = OrmConfig.getSessionFactory();
+        this.cache = OrmConfig.getEntityCache();
     }
 
     public DepartmentDto create(DepartmentDto dto) {
@@ -42,6 +55,8 @@ public class DepartmentService {
 
                 session.save(department);
                 session.commit();
+                // subDepartments rodzica w DTO
+                cache.invalidate(Department.class, dto.getParentDepartmentId());
                 return DepartmentDto.fromEntity(department);
             } catch (Exception e) {
                 session.rollback();
@@ -51,22 +66,112 @@ public class DepartmentService {
     }
 
     public Optional<DepartmentDto> findById(Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            Department department = session.find(Department.class, id);
-            session.load(department, "parentDepartment");
-            return Optional.ofNullable(department).map(DepartmentDto::fromEntity);
+        return Optional.ofNullable(cache.get(Department.class, id, () -> {
+            try (Session session = sessionFactory.openSession()) {
+                return loadDto(session, id);
+            }
+        }, DepartmentDto::copy));
+    }
+
+    // ==================== SECOND-LEVEL CACHE ====================
+
+    /**
+     * Ładuje DTO działu w podanej sesji (loader wpisu cache dla regionu Department).
+     */
+    private static DepartmentDto loadDto(Session session, Long id) {
+        Department department = session.find(Department.class, id);
+        if (department == null) {
+            return null;
         }
+        return DepartmentAssociationLoader.toDtos(session, List.of(department)).get(0);
+    }
+
+    /**
+     * Wpisy zależne od działu: on sam, rodzic i poddziały (subDepartments, parentDepartmentName)
+     * oraz pracownicy działu (departmentName). Zbierane przed zapisem zmieniającym relacje.
+     */
+    private static CacheKeys departmentKeys(Session session, Long id) {
+        return new CacheKeys()
+                .add(Department.class, id)
+                .addQuery(session, Department.class, "SELECT parent_department_fkey FROM departments WHERE id = ?"
+                        + " UNION ALL SELECT id FROM departments WHERE parent_department_fkey = ?", id, id)
+                .addQuery(session, Employee.class, "SELECT id FROM employees WHERE department_fkey = ?", id);
+    }
+
+    /**
+     * Podbija wersję działu (ETag) przed session.update().
+     */
+    private static void bumpVersion(Session session, Department department) {
+        SqlSupport.incrementVersion(session, "departments", department.getId()).ifPresent(department::setVersion);
     }
 
-    public List<DepartmentDto> findAll() {
+    /**
+     * Pobiera stronę działów (keyset po id); relacje strony stałą liczbą zapytań IN.
+     */
+    public CursorPage<DepartmentDto> findPage(String cursor, Integer size) {
+        CursorPage.Key after = CursorPage.Key.decode(cursor);
+        int pageSize = CursorPage.clampSize(size);
         try (Session session = sessionFactory.openSession()) {
-            List<Department> departments = session.findAll(Department.class);
-            for (Department department : departments) {
-                session.load(department, "parentDepartment");
+            Finder<Department> finder = session.finder(Department.class);
+            if (after != null) {
+                finder.gt("id", after.getId());
             }
-            return departments.stream()
-                    .map(DepartmentDto::fromEntity)
-                    .collect(Collectors.toList());
+            List<Department> departments = finder.orderAsc("id").limit(pageSize + 1).list();
+            return CursorPage.of(departments, pageSize, d -> CursorPage.Key.of(d.getId()),
+                    page -> DepartmentAssociationLoader.toDtos(session, page));
+        }
+    }
+
+    // ==================== ETAG ====================
+
+    /**
+     * Wszystko, od czego zależy DepartmentDto: wersja działu i rodzica (parentDepartmentName),
+     * id i wersje poddziałów (subDepartments) oraz liczba pracowników.
+     */
+    private static final String VERSION_TAG_QUERY =
+            "SELECT d.version, "
+                    + "(SELECT p.version FROM departments p WHERE p.id = d.parent_department_fkey) AS parent_version, "
+                    + "(SELECT string_agg(c.id || '.' || COALESCE(c.version, 0), ',' ORDER BY c.id) "
+                    + "FROM departments c WHERE c.parent_department_fkey = d.id) AS children, "
+                    + "(SELECT count(*) FROM employees e WHERE e.department_fkey = d.id) AS employee_count "
+                    + "FROM departments d WHERE d.id = ?";
+
+    /**
+     * Agregat listy działów: każdy INSERT podnosi max(id), DELETE zmniejsza count, a UPDATE
+     * podbija wersję - więc zmiana dowolnego działu lub przypisania pracownika zmienia wynik.
+     */
+    private static final String COLLECTION_TAG_QUERY =
+            "SELECT d.cnt, d.max_id, d.versions, e.cnt AS employee_cnt, e.max_id AS employee_max_id, "
+                    + "e.versions AS employee_versions FROM "
+                    + "(SELECT count(*) AS cnt, COALESCE(max(id), 0) AS max_id, COALESCE(sum(version), 0) AS versions "
+                    + "FROM departments) d, "
+                    + "(SELECT count(*) AS cnt, COALESCE(max(id), 0) AS max_id, COALESCE(sum(version), 0) AS versions "
+                    + "FROM employees) e";
+
+    /**
+     * Wersja reprezentacji działu do ETagu (jedno małe zapytanie, bez ładowania encji).
+     *
+     * @return empty, gdy działu nie ma
+     */
+    public Optional<String> findVersionTag(Long id) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.getJdbcExecutor().queryOne(VERSION_TAG_QUERY,
+                    rs -> rs.getLong("version") + ":" + rs.getLong("parent_version") + ":"
+                            + rs.getString("children") + ":" + rs.getLong("employee_count"),
+                    id);
+        }
+    }
+
+    /**
+     * Wersja listy działów do ETagu.
+     */
+    public String collectionVersionTag() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.getJdbcExecutor().queryOne(COLLECTION_TAG_QUERY,
+                    rs -> rs.getLong("cnt") + ":" + rs.getLong("max_id") + ":" + rs.getBigDecimal("versions") + "/"
+                            + rs.getLong("employee_cnt") + ":" + rs.getLong("employee_max_id") + ":"
+                            + rs.getBigDecimal("employee_versions"))
+                    .orElseThrow();
         }
     }
 
@@ -83,8 +188,12 @@ public class DepartmentService {
                 existing.setCode(dto.getCode());
                 existing.setDescription(dto.getDescription());
 
+                bumpVersion(session, existing);
+                CacheKeys keys = departmentKeys(session, id);
+
                 session.update(existing);
                 session.commit();
+                keys.invalidate(cache);
 
                 return Optional.of(DepartmentDto.fromEntity(existing));
             } catch (Exception e) {
@@ -102,8 +211,10 @@ public class DepartmentService {
                 if (department == null) {
                     return false;
                 }
+                CacheKeys keys = departmentKeys(session, id);
                 session.delete(department);
                 session.commit();
+                keys.invalidate(cache);
                 return true;
             } catch (Exception e) {
                 session.rollback();
@@ -121,13 +232,17 @@ public class DepartmentService {
                     return Optional.empty();
                 }
 
+                CacheKeys keys = departmentKeys(session, departmentId);
                 Department parent = session.find(Department.class, parentId);
                 if (parent != null) {
                     department.setParentDepartment(parent);
+                    bumpVersion(session, department);
                     session.update(department);
+                    keys.add(Department.class, parentId);
                 }
 
                 session.commit();
+                keys.invalidate(cache);
                 return Optional.of(DepartmentDto.fromEntity(department));
             } catch (Exception e) {
                 session.rollback();
@@ -135,4 +250,73 @@ public class DepartmentService {
             }
         }
     }
+
+    // ==================== HIERARCHY (RECURSIVE CTE) ====================
+
+    /**
+     * Poddrzewo działu do głębokości maxDepth. Ścieżka (path) chroni przed cyklem
+     * w parent_department_fkey; has_children pozwala oznaczyć obcięte węzły.
+     */
+    private static final String TREE_QUERY =
+            "WITH RECURSIVE tree AS ("
+                    + " SELECT d.id, d.name, d.code, d.description, d.parent_department_fkey, 0 AS depth, ARRAY[d.id] AS path"
+                    + " FROM departments d WHERE d.id = ?"
+                    + " UNION ALL"
+                    + " SELECT c.id, c.name, c.code, c.description, c.parent_department_fkey, t.depth + 1, t.path || c.id"
+                    + " FROM departments c JOIN tree t ON c.parent_department_fkey = t.id"
+                    + " WHERE t.depth < ? AND NOT c.id = ANY(t.path)"
+                    + ")"
+                    + " SELECT t.id, t.name, t.code, t.description, t.parent_department_fkey, t.depth,"
+                    + " (SELECT COUNT(*) FROM employees e WHERE e.department_fkey = t.id) AS employee_count,"
+                    + " EXISTS (SELECT 1 FROM departments s WHERE s.parent_department_fkey = t.id) AS has_children"
+                    + " FROM tree t ORDER BY t.depth, t.id";
+
+    /**
+     * Pobiera drzewo działu (dział + poddziały do głębokości maxDepth) jednym zapytaniem
+     * WITH RECURSIVE i składa zagnieżdżone DTO w pamięci w czasie O(n).
+     *
+     * @throws IllegalArgumentException gdy maxDepth jest poza zakresem 0..MAX_TREE_DEPTH
+     */
+    public Optional<DepartmentTreeDto> getTree(Long id, Integer maxDepth) {
+        int depth = maxDepth != null ? maxDepth : DEFAULT_TREE_DEPTH;
+        if (depth < 0 || depth > MAX_TREE_DEPTH) {
+            throw new IllegalArgumentException("maxDepth must be between 0 and " + MAX_TREE_DEPTH);
+        }
+        try (Session session = sessionFactory.openSession()) {
+            List<DepartmentTreeDto> nodes = session.getJdbcExecutor().query(TREE_QUERY, rs -> {
+                int nodeDepth = rs.getInt("depth");
+                return DepartmentTreeDto.builder()
+                        .id(rs.getLong("id"))
+                        .name(rs.getString("name"))
+                        .code(rs.getString("code"))
+                        .description(rs.getString("description"))
+                        .parentDepartmentId(SqlSupport.getLong(rs, "parent_department_fkey"))
+                        .depth(nodeDepth)
+                        .employeeCount(rs.getLong("employee_count"))
+                        .truncated(nodeDepth == depth && rs.getBoolean("has_children"))
+                        .build();
+            }, id, depth);
+            return Optional.ofNullable(assembleTree(nodes));
+        }
+    }
+
+    /**
+     * Składa drzewo z wierszy posortowanych po głębokości - rodzic zawsze poprzedza dzieci.
+     */
+    private static DepartmentTreeDto assembleTree(List<DepartmentTreeDto> nodes) {
+        if (nodes.isEmpty()) {
+            return null;
+        }
+        Map<Long, DepartmentTreeDto> nodesById = new HashMap<>();
+        for (DepartmentTreeDto node : nodes) {
+            nodesById.put(node.getId(), node);
+            if (node.getDepth() > 0) {
+                DepartmentTreeDto parent = nodesById.get(node.getParentDepartmentId());
+                if (parent != null) {
+                    parent.getChildren().add(node);
+                }
+            }
+        }
+        return nodes.get(0);
+    }
 }
@@ -1,20 +1,40 @@
 package pl.edu.agh.dp.service;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import pl.edu.agh.dp.core.api.Session;
 import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.core.finder.Finder;
 import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.dto.BulkResultDto;
+import pl.edu.agh.dp.dto.CursorPage;
 import pl.edu.agh.dp.dto.CurriculumDto;
 import pl.edu.agh.dp.dto.DocumentDto;
 import pl.edu.agh.dp.dto.InvoiceDto;
+import pl.edu.agh.dp.dto.InvoiceSummaryDto;
+import pl.edu.agh.dp.dto.MultiGetResultDto;
 import pl.edu.agh.dp.dto.ReportDto;
 import pl.edu.agh.dp.entity.Curriculum;
 import pl.edu.agh.dp.entity.Document;
+import pl.edu.agh.dp.entity.Employee;
 import pl.edu.agh.dp.entity.Invoice;
 import pl.edu.agh.dp.entity.Report;
+import pl.edu.agh.dp.orm.Projection;
+import pl.edu.agh.dp.orm.SecondLevelCache;
+import pl.edu.agh.dp.orm.SqlSupport;
+import pl.edu.agh.dp.orm.TrigramIndex;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -23,10 +43,46 @@ import java.util.stream.Collectors;
 @Service
 public class DocumentService {
 
+    /** Liczba wierszy pobieranych przez kursor JDBC w jednej porcji przy eksporcie. */
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Pola dostępne w {@code fields=}: kolumny tabeli documents (SINGLE_TABLE), więc także
+     * pola podklas (null dla innych typów), a documentType to wartość DTYPE.
+     */
+    private static final Projection FIELDS = Projection.builder("documents", "d")
+            .column("id", "id")
+            .column("documentType", "DTYPE")
+            .column("title", "title")
+            .column("createdDate", "created_date")
+            .column("createdBy", "created_by")
+            .column("content", "content")
+            .column("reportType", "report_type")
+            .column("periodStart", "period_start")
+            .column("periodEnd", "period_end")
+            .column("status", "status")
+            .column("invoiceNumber", "invoice_number")
+            .column("issueDate", "issue_date")
+            .column("dueDate", "due_date")
+            .column("totalAmount", "total_amount")
+            .column("taxAmount", "tax_amount")
+            .column("paymentStatus", "payment_status")
+            .column("name", "name")
+            .column("surname", "surname")
+            .column("creationDate", "creation_date")
+            .build();
+
     private final SessionFactory sessionFactory;
+    private final SecondLevelCache cache;
+    /** Indeks trigramowy tytułów; null, gdy wyłączony (DOCUMENT_TITLE_INDEX_ENABLED). */
+    private final TrigramIndex titleIndex;
 
     public DocumentService() {
         this.sessionFactory = OrmConfig.getSessionFactory();
+        this.cache = OrmConfig.getEntityCache();
+        this.titleIndex = OrmConfig.isDocumentTitleIndexEnabled() ? new TrigramIndex() : null;
+        ensureReceivables();
+        rebuildTitleIndex();
     }
 
     public DocumentDto create(DocumentDto dto) {
@@ -35,7 +91,11 @@ public class DocumentService {
             try {
                 Document document = dto.toEntity();
                 session.save(document);
+                if (document instanceof Invoice) {
+                    updateReceivables(session, Optional.empty(), InvoiceReceivables.Contribution.of(document));
+                }
                 session.commit();
+                indexTitle(document.getId(), document.getTitle());
                 return DocumentDto.fromEntity(document);
             } catch (Exception e) {
                 session.rollback();
@@ -51,6 +111,7 @@ public class DocumentService {
                 Report document = (Report) dto.toEntity();
                 session.save(document);
                 session.commit();
+                indexTitle(document.getId(), document.getTitle());
                 return ReportDto.fromEntity(document);
             } catch (Exception e) {
                 session.rollback();
@@ -65,7 +126,9 @@ public class DocumentService {
             try {
                 Invoice document = (Invoice) dto.toEntity();
                 session.save(document);
+                updateReceivables(session, Optional.empty(), InvoiceReceivables.Contribution.of(document));
                 session.commit();
+                indexTitle(document.getId(), document.getTitle());
                 return InvoiceDto.fromEntity(document);
             } catch (Exception e) {
                 session.rollback();
@@ -81,6 +144,7 @@ public class DocumentService {
                 Curriculum document = (Curriculum) dto.toEntity();
                 session.save(document);
                 session.commit();
+                indexTitle(document.getId(), document.getTitle());
                 return CurriculumDto.fromEntity(document);
             } catch (Exception e) {
                 session.rollback();
@@ -103,6 +167,20 @@ public class DocumentService {
         }
     }
 
+    /**
+     * Multi-get dokumentów: jedno zapytanie IN po tabeli SINGLE_TABLE, DTO wg DTYPE.
+     */
+    public MultiGetResultDto<DocumentDto> findByIds(List<Long> ids) {
+        List<Long> distinct = MultiGetResultDto.distinctIds(ids);
+        try (Session session = sessionFactory.openSession()) {
+            Map<Long, Document> byId = new HashMap<>();
+            for (Document document : SqlSupport.findByIds(session, Document.class, distinct)) {
+                byId.put(document.getId(), document);
+            }
+            return MultiGetResultDto.of(distinct, byId, DocumentDto::fromEntity);
+        }
+    }
+
     public Optional<ReportDto> findReportById(Long id) {
         try (Session session = sessionFactory.openSession()) {
             Report document = session.find(Report.class, id);
@@ -124,18 +202,90 @@ public class DocumentService {
         }
     }
 
-    public List<DocumentDto> findAll() {
+    /**
+     * Pobiera stronę dokumentów wszystkich typów (keyset po id).
+     * Z {@code fields} zwraca wiersze projekcji bez ładowania encji i relacji.
+     */
+    public CursorPage<?> findPage(String cursor, Integer size, String fields) {
+        CursorPage.Key after = CursorPage.Key.decode(cursor);
+        int pageSize = CursorPage.clampSize(size);
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Document> documents = session.findAll(Document.class);
-            for (Document document : documents) {
-                document.getAuthorizedEmployees().size();
+            Finder<Document> finder = session.finder(Document.class);
+            if (after != null) {
+                finder.gt("id", after.getId());
             }
-            return documents.stream()
-                    .map(DocumentDto::fromEntity)
-                    .collect(Collectors.toList());
+            finder.orderAsc("id").limit(pageSize + 1);
+            if (selection != null) {
+                return CursorPage.of(selection.list(session, finder.getSpec()), pageSize,
+                        row -> CursorPage.Key.of(Projection.idOf(row)), page -> page);
+            }
+            List<Document> documents = finder.list();
+            return CursorPage.of(documents, pageSize, d -> CursorPage.Key.of(d.getId()), page -> {
+                for (Document document : page) {
+                    document.getAuthorizedEmployees().size();
+                }
+                return page.stream()
+                        .map(DocumentDto::fromEntity)
+                        .collect(Collectors.toList());
+            });
+        }
+    }
+
+    /**
+     * Strumieniuje wszystkie dokumenty (eksport NDJSON) kursorem JDBC z fetch size.
+     * Wiersze są mapowane bezpośrednio z ResultSet i przekazywane do consumera pojedynczo,
+     * bez budowania list encji i DTO.
+     *
+     * @return liczba wyeksportowanych dokumentów
+     */
+    public long streamAll(Consumer<? super DocumentDto> consumer) {
+        try (Session session = sessionFactory.openSession()) {
+            return SqlSupport.forEachRow(session, "SELECT * FROM documents ORDER BY id", EXPORT_FETCH_SIZE,
+                    rs -> DocumentDto.fromEntity(mapDocumentRow(rs)), consumer);
         }
     }
 
+    /**
+     * Mapuje wiersz tabeli documents (SINGLE_TABLE) na encję wg kolumny DTYPE.
+     */
+    private static Document mapDocumentRow(ResultSet rs) throws SQLException {
+        String type = rs.getString("DTYPE");
+        Document document;
+        if ("INVOICE".equals(type)) {
+            Invoice invoice = new Invoice();
+            invoice.setInvoiceNumber(rs.getString("invoice_number"));
+            invoice.setIssueDate(rs.getObject("issue_date", LocalDate.class));
+            invoice.setDueDate(rs.getObject("due_date", LocalDate.class));
+            invoice.setTotalAmount(rs.getBigDecimal("total_amount"));
+            invoice.setTaxAmount(rs.getBigDecimal("tax_amount"));
+            invoice.setPaymentStatus(rs.getString("payment_status"));
+            document = invoice;
+        } else if ("REPORT".equals(type)) {
+            document = new Report();
+        } else if ("CV".equals(type)) {
+            Curriculum cv = new Curriculum();
+            cv.setName(rs.getString("name"));
+            cv.setSurname(rs.getString("surname"));
+            cv.setCreationDate(rs.getObject("creation_date", LocalDate.class));
+            document = cv;
+        } else {
+            document = new Document();
+        }
+        if (document instanceof Report report) {
+            report.setReportType(rs.getString("report_type"));
+            report.setPeriodStart(rs.getObject("period_start", LocalDate.class));
+            report.setPeriodEnd(rs.getObject("period_end", LocalDate.class));
+            report.setStatus(rs.getString("status"));
+        }
+        document.setId(rs.getLong("id"));
+        document.setTitle(rs.getString("title"));
+        document.setCreatedDate(rs.getObject("created_date", LocalDate.class));
+        document.setCreatedBy(rs.getString("created_by"));
+        document.setContent(rs.getString("content"));
+        return document;
+    }
+
     /**
      * Pobiera wszystkie raporty włącznie z fakturami - zwraca polimorficzne DTO.
      */
@@ -174,8 +324,13 @@ public class DocumentService {
             try {
                 Report updated = (Report) dto.toEntity();
                 updated.setId(id);
+                CacheKeys keys = employeeKeys(session, id);
+                Optional<InvoiceReceivables.Contribution> before = InvoiceReceivables.contribution(session, id, true);
                 session.update(updated);
+                updateReceivables(session, before, InvoiceReceivables.Contribution.of(updated));
                 session.commit();
+                keys.invalidate(cache);
+                indexTitle(id, updated.getTitle());
                 return Optional.of(ReportDto.fromEntity(updated));
             } catch (Exception e) {
                 session.rollback();
@@ -190,8 +345,13 @@ public class DocumentService {
             try {
                 Invoice updated = (Invoice) dto.toEntity();
                 updated.setId(id);
+                CacheKeys keys = employeeKeys(session, id);
+                Optional<InvoiceReceivables.Contribution> before = InvoiceReceivables.contribution(session, id, true);
                 session.update(updated);
+                updateReceivables(session, before, InvoiceReceivables.Contribution.of(updated));
                 session.commit();
+                keys.invalidate(cache);
+                indexTitle(id, updated.getTitle());
                 return Optional.of(InvoiceDto.fromEntity(updated));
             } catch (Exception e) {
                 session.rollback();
@@ -206,8 +366,11 @@ public class DocumentService {
             try {
                 Curriculum updated = (Curriculum) dto.toEntity();
                 updated.setId(id);
+                CacheKeys keys = employeeKeys(session, id);
                 session.update(updated);
                 session.commit();
+                keys.invalidate(cache);
+                indexTitle(id, updated.getTitle());
                 return Optional.of(CurriculumDto.fromEntity(updated));
             } catch (Exception e) {
                 session.rollback();
@@ -224,8 +387,13 @@ public class DocumentService {
                 if (document == null) {
                     return false;
                 }
+                CacheKeys keys = employeeKeys(session, id);
+                Optional<InvoiceReceivables.Contribution> before = InvoiceReceivables.contribution(session, id, true);
                 session.delete(document);
+                updateReceivables(session, before, Optional.empty());
                 session.commit();
+                keys.invalidate(cache);
+                unindexTitle(id);
                 return true;
             } catch (Exception e) {
                 session.rollback();
@@ -242,8 +410,13 @@ public class DocumentService {
                 if (document == null) {
                     return false;
                 }
+                CacheKeys keys = employeeKeys(session, id);
+                Optional<InvoiceReceivables.Contribution> before = InvoiceReceivables.contribution(session, id, true);
                 session.delete(document);
+                updateReceivables(session, before, Optional.empty());
                 session.commit();
+                keys.invalidate(cache);
+                unindexTitle(id);
                 return true;
             } catch (Exception e) {
                 session.rollback();
@@ -260,8 +433,11 @@ public class DocumentService {
                 if (document == null) {
                     return false;
                 }
+                CacheKeys keys = employeeKeys(session, id);
                 session.delete(document);
                 session.commit();
+                keys.invalidate(cache);
+                unindexTitle(id);
                 return true;
             } catch (Exception e) {
                 session.rollback();
@@ -270,20 +446,125 @@ public class DocumentService {
         }
     }
 
+    // ==================== BULK CREATE ====================
+
+    /**
+     * Jeden INSERT dla całej hierarchii SINGLE_TABLE - kolumny innych podklas pozostają NULL.
+     */
+    private static final String DOCUMENT_INSERT =
+            "INSERT INTO documents (DTYPE, title, created_date, created_by, content, "
+                    + "report_type, period_start, period_end, status, "
+                    + "invoice_number, issue_date, due_date, total_amount, tax_amount, payment_status, "
+                    + "name, surname, creation_date) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public BulkResultDto<ReportDto> createReportBulk(List<ReportDto> dtos, Integer chunkSize) {
+        return createBulk("reports", dtos, chunkSize);
+    }
+
+    public BulkResultDto<InvoiceDto> createInvoiceBulk(List<InvoiceDto> dtos, Integer chunkSize) {
+        return createBulk("invoices", dtos, chunkSize);
+    }
+
+    public BulkResultDto<CurriculumDto> createCirriculumBulk(List<CurriculumDto> dtos, Integer chunkSize) {
+        return createBulk("curricula", dtos, chunkSize);
+    }
+
+    /**
+     * Tworzy wiele dokumentów w jednej transakcji (JDBC batch po {@code chunkSize} wierszy).
+     * Typ DTO wyniku odpowiada typowi żądania, bo DocumentDto.fromEntity wybiera DTO wg klasy encji.
+     */
+    @SuppressWarnings("unchecked")
+    private <D extends DocumentDto> BulkResultDto<D> createBulk(String label, List<D> dtos, Integer chunkSize) {
+        BulkInsertSupport.checkRequestSize(dtos);
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                BulkResultDto<D> result = BulkInsertSupport.insert(session, dtos, BulkInsertSupport.chunkSize(chunkSize),
+                        DOCUMENT_INSERT,
+                        BulkInsertSupport.validating(dto -> null, dto -> applyDefaults(dto.toEntity())),
+                        DocumentService::bindDocument,
+                        Document::setId,
+                        document -> (D) DocumentDto.fromEntity(document));
+                InvoiceReceivables.Delta receivables = new InvoiceReceivables.Delta();
+                for (D created : result.getItems()) {
+                    if (created instanceof InvoiceDto invoice) {
+                        receivables.add(InvoiceReceivables.Contribution.of(invoice.getPaymentStatus(), invoice.getDueDate(),
+                                invoice.getTotalAmount(), invoice.getTaxAmount()));
+                    }
+                }
+                receivables.flush(session);
+                session.commit();
+                result.getItems().forEach(created -> indexTitle(created.getId(), created.getTitle()));
+                return result;
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to bulk create " + label + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Uzupełnia wartości domyślne kolumn (@Column(defaultValue)) - INSERT batch podaje wszystkie kolumny.
+     */
+    private static Document applyDefaults(Document document) {
+        if (document instanceof Invoice invoice && invoice.getPaymentStatus() == null) {
+            invoice.setPaymentStatus("PENDING");
+        }
+        return document;
+    }
+
+    private static void bindDocument(PreparedStatement ps, Document document) throws SQLException {
+        Report report = document instanceof Report r ? r : null;
+        Invoice invoice = document instanceof Invoice i ? i : null;
+        Curriculum cv = document instanceof Curriculum c ? c : null;
+
+        ps.setObject(1, invoice != null ? "INVOICE" : report != null ? "REPORT" : cv != null ? "CV" : "DOCUMENT");
+        ps.setObject(2, document.getTitle());
+        ps.setObject(3, document.getCreatedDate());
+        ps.setObject(4, document.getCreatedBy());
+        ps.setObject(5, document.getContent());
+        ps.setObject(6, report != null ? report.getReportType() : null);
+        ps.setObject(7, report != null ? report.getPeriodStart() : null);
+        ps.setObject(8, report != null ? report.getPeriodEnd() : null);
+        ps.setObject(9, report != null ? report.getStatus() : null);
+        ps.setObject(10, invoice != null ? invoice.getInvoiceNumber() : null);
+        ps.setObject(11, invoice != null ? invoice.getIssueDate() : null);
+        ps.setObject(12, invoice != null ? invoice.getDueDate() : null);
+        ps.setObject(13, invoice != null ? invoice.getTotalAmount() : null);
+        ps.setObject(14, invoice != null ? invoice.getTaxAmount() : null);
+        ps.setObject(15, invoice != null ? invoice.getPaymentStatus() : null);
+        ps.setObject(16, cv != null ? cv.getName() : null);
+        ps.setObject(17, cv != null ? cv.getSurname() : null);
+        ps.setObject(18, cv != null ? cv.getCreationDate() : null);
+    }
+
+    /**
+     * Tytuły dokumentów są częścią EmployeeDto (accessibleDocuments) trzymanego w cache -
+     * unieważniani są pracownicy z dostępem do dokumentu.
+     */
+    private static CacheKeys employeeKeys(Session session, Long documentId) {
+        return new CacheKeys().addQuery(session, Employee.class,
+                "SELECT authorized_employees_fkey FROM employees_documents WHERE documents_fkey = ?", documentId);
+    }
+
     // ==================== FINDER API DEMONSTRATION (SINGLE_TABLE INHERITANCE) ====================
 
     /**
      * Wyszukuje wszystkie dokumenty po autorze (pole z klasy bazowej Document).
      * Demonstruje Finder na klasie bazowej SINGLE_TABLE - zwraca polimorficznie wszystkie typy.
      */
-    public List<DocumentDto> findDocumentsByCreatedBy(String createdBy) {
+    public List<?> findDocumentsByCreatedBy(String createdBy, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Document> documents = session.finder(Document.class)
+            Finder<Document> finder = session.finder(Document.class)
                     .eq("createdBy", createdBy)
-                    .orderDesc("createdDate")
-                    .list();
-            
-            return documents.stream()
+                    .orderDesc("createdDate");
+
+            if (selection != null) {
+                return selection.list(session, finder.getSpec());
+            }
+            return finder.list().stream()
                     .map(DocumentDto::fromEntity)
                     .collect(Collectors.toList());
         }
@@ -349,17 +630,136 @@ public class DocumentService {
     /**
      * Wyszukuje dokumenty po tytule (LIKE) - polimorficzne wyszukiwanie.
      * Demonstruje Finder like() na klasie bazowej zwracający wszystkie typy dokumentów.
+     * Przy włączonym indeksie trigramowym zapytanie dostaje warunek id IN (trafienia z indeksu).
      */
-    public List<DocumentDto> findDocumentsByTitleLike(String titlePattern) {
+    public List<?> findDocumentsByTitleLike(String titlePattern, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Document> documents = session.finder(Document.class)
-                    .like("title", "%" + titlePattern + "%")
-                    .orderAsc("title")
-                    .list();
-            
-            return documents.stream()
+            Finder<Document> finder = session.finder(Document.class);
+            Set<Long> candidates = titleCandidates(titlePattern);
+            if (candidates != null) {
+                if (candidates.isEmpty()) {
+                    return List.of();
+                }
+                // indeks wskazał trafienia - LIKE tylko weryfikuje je po kluczu głównym
+                finder.in("id", candidates);
+            }
+            finder.like("title", "%" + titlePattern + "%")
+                    .orderAsc("title");
+
+            if (selection != null) {
+                return selection.list(session, finder.getSpec());
+            }
+            return finder.list().stream()
                     .map(DocumentDto::fromEntity)
                     .collect(Collectors.toList());
         }
     }
+
+    // ==================== INVOICE RECEIVABLES ====================
+
+    /**
+     * Podsumowanie należności z faktur z utrzymywanego rollupu (bez skanowania faktur).
+     */
+    public InvoiceSummaryDto invoiceSummary() {
+        try (Session session = sessionFactory.openSession()) {
+            return InvoiceReceivables.summary(session);
+        }
+    }
+
+    /**
+     * Zakłada tabelę rollupu przy pierwszym uruchomieniu (i wypełnia ją z documents). Istniejąca
+     * tabela jest aktualna - każdy zapis faktury poprawia ją w swojej transakcji - więc start
+     * aplikacji nie blokuje tabeli documents.
+     */
+    private void ensureReceivables() {
+        inTransaction("create invoice receivables", InvoiceReceivables::ensureTable);
+    }
+
+    /**
+     * Pełne przeliczenie rollupu po starcie aplikacji, gdy włączone (INVOICE_RECEIVABLES_REBUILD_ON_START) -
+     * np. po zmianie faktur poza aplikacją. Na czas przeliczenia wstrzymuje zapisy dokumentów.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildReceivablesOnStart() {
+        if (OrmConfig.isInvoiceReceivablesRebuildOnStart()) {
+            inTransaction("rebuild invoice receivables", InvoiceReceivables::rebuild);
+        }
+    }
+
+    private void inTransaction(String action, Consumer<Session> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                work.accept(session);
+                session.commit();
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to " + action + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Odejmuje wkład dokumentu sprzed zapisu i dodaje wkład po zapisie (w tej samej transakcji).
+     * Stan sprzed zapisu jest czytany z bazy (z blokadą wiersza), stan po zapisie - z encji:
+     * CoreORM wysyła INSERT/UPDATE/DELETE dopiero przy commit, więc odczyt z bazy widziałby
+     * jeszcze stary wiersz (a nowy dokument nie ma jeszcze id).
+     */
+    private static void updateReceivables(Session session, Optional<InvoiceReceivables.Contribution> before,
+                                          Optional<InvoiceReceivables.Contribution> after) {
+        InvoiceReceivables.Delta delta = new InvoiceReceivables.Delta();
+        before.ifPresent(delta::subtract);
+        after.ifPresent(delta::add);
+        delta.flush(session);
+    }
+
+    // ==================== TITLE INDEX ====================
+
+    /**
+     * Trafienia z indeksu tytułów albo null, gdy zapytanie musi przeszukać tabelę: indeks jest
+     * wyłączony, wzorzec zawiera znaki wieloznaczne LIKE lub jest krótszy niż trigram, albo
+     * trafień jest więcej niż mieści jedna porcja IN (indeks mało selektywny).
+     */
+    private Set<Long> titleCandidates(String titlePattern) {
+        if (titleIndex == null || titlePattern.contains("%") || titlePattern.contains("_") || titlePattern.contains("\\")) {
+            return null;
+        }
+        Set<Long> candidates = titleIndex.search(titlePattern);
+        return candidates != null && candidates.size() <= SqlSupport.IN_BATCH_SIZE ? candidates : null;
+    }
+
+    private void indexTitle(Long id, String title) {
+        if (titleIndex != null) {
+            titleIndex.put(id, title);
+        }
+    }
+
+    private void unindexTitle(Long id) {
+        if (titleIndex != null) {
+            titleIndex.remove(id);
+        }
+    }
+
+    /**
+     * Wypełnia indeks tytułów przy starcie - kursorem, bez ładowania encji.
+     */
+    private void rebuildTitleIndex() {
+        if (titleIndex == null) {
+            return;
+        }
+        titleIndex.clear();
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                SqlSupport.forEachRow(session, "SELECT id, title FROM documents", EXPORT_FETCH_SIZE,
+                        rs -> Map.entry(rs.getLong("id"), Optional.ofNullable(rs.getString("title"))),
+                        row -> row.getValue().ifPresent(title -> titleIndex.put(row.getKey(), title)));
+                session.commit();
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to build document title index: " + e.getMessage(), e);
+            }
+        }
+    }
 }
@@ -0,0 +1,202 @@
+package pl.edu.agh.dp.service;
+
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.dto.EmployeeDto;
+import pl.edu.agh.dp.entity.Department;
+import pl.edu.agh.dp.entity.Document;
+import pl.edu.agh.dp.entity.Employee;
+import pl.edu.agh.dp.orm.SqlSupport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Wsadowe ładowanie relacji Employee (manager, department, subordinates, documents).
+ *
+ * Zamiast session.load() i leniwych kolekcji dla każdego wiersza (4+ zapytań na pracownika)
+ * wykonuje stałą liczbę zapytań IN dla całej listy i ustawia relacje w encjach,
+ * więc EmployeeDto.fromEntity nie dotyka już bazy.
+ */
+final class EmployeeAssociationLoader {
+
+    private EmployeeAssociationLoader() {
+    }
+
+    record ForeignKeys(Long id, Long managerId, Long departmentId) {
+    }
+
+    record Link(Long ownerId, Long targetId) {
+    }
+
+    static void loadAssociations(Session session, List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Employee> employeesById = new HashMap<>();
+        for (Employee employee : employees) {
+            employeesById.put(employee.getId(), employee);
+        }
+        Set<Long> ids = employeesById.keySet();
+
+        // 1. Klucze obce manager/department
+        Map<Long, ForeignKeys> foreignKeys = new HashMap<>();
+        for (List<Long> chunk : SqlSupport.chunks(ids)) {
+            session.getJdbcExecutor().query(
+                    "SELECT id, manager_fkey, department_fkey FROM employees WHERE id IN (" + SqlSupport.placeholders(chunk.size()) + ")",
+                    rs -> new ForeignKeys(SqlSupport.getLong(rs, "id"),
+                            SqlSupport.getLong(rs, "manager_fkey"),
+                            SqlSupport.getLong(rs, "department_fkey")),
+                    chunk.toArray()
+            ).forEach(fk -> foreignKeys.put(fk.id(), fk));
+        }
+
+        // 2. Podwładni (self-reference po manager_fkey)
+        List<Link> subordinateLinks = new ArrayList<>();
+        for (List<Long> chunk : SqlSupport.chunks(ids)) {
+            subordinateLinks.addAll(session.getJdbcExecutor().query(
+                    "SELECT manager_fkey, id FROM employees WHERE manager_fkey IN (" + SqlSupport.placeholders(chunk.size()) + ") ORDER BY id",
+                    rs -> new Link(SqlSupport.getLong(rs, "manager_fkey"), SqlSupport.getLong(rs, "id")),
+                    chunk.toArray()));
+        }
+
+        // 3. Brakujący pracownicy (managerowie i podwładni spoza listy) - jednym zapytaniem
+        Set<Long> missingEmployees = new LinkedHashSet<>();
+        foreignKeys.values().stream()
+                .map(ForeignKeys::managerId)
+                .filter(Objects::nonNull)
+                .forEach(missingEmployees::add);
+        subordinateLinks.forEach(link -> missingEmployees.add(link.targetId()));
+        missingEmployees.removeAll(ids);
+        for (Employee loaded : SqlSupport.findByIds(session, Employee.class, missingEmployees)) {
+            employeesById.putIfAbsent(loaded.getId(), loaded);
+        }
+
+        // 4. Działy
+        Set<Long> departmentIds = new HashSet<>();
+        foreignKeys.values().stream()
+                .map(ForeignKeys::departmentId)
+                .filter(Objects::nonNull)
+                .forEach(departmentIds::add);
+        Map<Long, Department> departmentsById = new HashMap<>();
+        for (Department department : SqlSupport.findByIds(session, Department.class, departmentIds)) {
+            departmentsById.put(department.getId(), department);
+        }
+
+        // 5. Dokumenty (many-to-many przez employees_documents)
+        List<Link> documentLinks = new ArrayList<>();
+        for (List<Long> chunk : SqlSupport.chunks(ids)) {
+            documentLinks.addAll(session.getJdbcExecutor().query(
+                    "SELECT authorized_employees_fkey, documents_fkey FROM employees_documents WHERE authorized_employees_fkey IN ("
+                            + SqlSupport.placeholders(chunk.size()) + ")",
+                    rs -> new Link(SqlSupport.getLong(rs, "authorized_employees_fkey"), SqlSupport.getLong(rs, "documents_fkey")),
+                    chunk.toArray()));
+        }
+        Set<Long> documentIds = new HashSet<>();
+        documentLinks.forEach(link -> documentIds.add(link.targetId()));
+        Map<Long, Document> documentsById = new HashMap<>();
+        for (Document document : SqlSupport.findByIds(session, Document.class, documentIds)) {
+            documentsById.put(document.getId(), document);
+        }
+
+        // Złożenie relacji w pamięci
+        Map<Long, List<Employee>> subordinatesByManager = new HashMap<>();
+        for (Link link : subordinateLinks) {
+            Employee subordinate = employeesById.get(link.targetId());
+            if (subordinate != null) {
+                subordinatesByManager.computeIfAbsent(link.ownerId(), k -> new ArrayList<>()).add(subordinate);
+            }
+        }
+        Map<Long, List<Document>> documentsByEmployee = new HashMap<>();
+        for (Link link : documentLinks) {
+            Document document = documentsById.get(link.targetId());
+            if (document != null) {
+                documentsByEmployee.computeIfAbsent(link.ownerId(), k -> new ArrayList<>()).add(document);
+            }
+        }
+
+        for (Employee employee : employees) {
+            ForeignKeys fk = foreignKeys.get(employee.getId());
+            employee.setManager(fk == null || fk.managerId() == null ? null : employeesById.get(fk.managerId()));
+            employee.setDepartment(fk == null || fk.departmentId() == null ? null : departmentsById.get(fk.departmentId()));
+            employee.setSubordinates(subordinatesByManager.getOrDefault(employee.getId(), new ArrayList<>()));
+            employee.setDocuments(documentsByEmployee.getOrDefault(employee.getId(), new ArrayList<>()));
+        }
+    }
+
+    // ==================== PROJECTION (fields=) ====================
+
+    /**
+     * Podwładni jako SubordinateInfo - jedno zapytanie IN po manager_fkey, bez ładowania encji.
+     */
+    static Map<Long, Object> subordinateInfos(Session session, Collection<Long> managerIds) {
+        Map<Long, Object> result = new HashMap<>();
+        for (List<Long> chunk : SqlSupport.chunks(managerIds)) {
+            session.getJdbcExecutor().query(
+                    "SELECT manager_fkey, id, first_name, last_name, position FROM employees WHERE manager_fkey IN ("
+                            + SqlSupport.placeholders(chunk.size()) + ") ORDER BY id",
+                    rs -> {
+                        Long managerId = SqlSupport.getLong(rs, "manager_fkey");
+                        EmployeeDto.SubordinateInfo info = new EmployeeDto.SubordinateInfo(
+                                rs.getLong("id"),
+                                rs.getString("first_name") + " " + rs.getString("last_name"),
+                                rs.getString("position"));
+                        return Map.entry(managerId, info);
+                    },
+                    chunk.toArray()
+            ).forEach(entry -> addTo(result, entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Dokumenty pracowników jako DocumentAccessInfo - jedno zapytanie IN przez employees_documents.
+     */
+    static Map<Long, Object> documentAccessInfos(Session session, Collection<Long> employeeIds) {
+        Map<Long, Object> result = new HashMap<>();
+        for (List<Long> chunk : SqlSupport.chunks(employeeIds)) {
+            session.getJdbcExecutor().query(
+                    "SELECT ed.authorized_employees_fkey, d.id, d.title, d.DTYPE FROM employees_documents ed "
+                            + "JOIN documents d ON d.id = ed.documents_fkey "
+                            + "WHERE ed.authorized_employees_fkey IN (" + SqlSupport.placeholders(chunk.size()) + ")",
+                    rs -> {
+                        Long employeeId = SqlSupport.getLong(rs, "authorized_employees_fkey");
+                        EmployeeDto.DocumentAccessInfo info = new EmployeeDto.DocumentAccessInfo(
+                                rs.getLong("id"),
+                                rs.getString("title"),
+                                documentClassName(rs.getString("DTYPE")));
+                        return Map.entry(employeeId, info);
+                    },
+                    chunk.toArray()
+            ).forEach(entry -> addTo(result, entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addTo(Map<Long, Object> result, Long ownerId, Object value) {
+        ((List<Object>) result.computeIfAbsent(ownerId, k -> new ArrayList<>())).add(value);
+    }
+
+    /**
+     * Nazwa klasy encji dla wartości DTYPE - tak jak documentType w EmployeeDto.fromEntity.
+     */
+    private static String documentClassName(String discriminator) {
+        if (discriminator == null) {
+            return Document.class.getSimpleName();
+        }
+        return switch (discriminator) {
+            case "REPORT" -> "Report";
+            case "INVOICE" -> "Invoice";
+            case "CV" -> "Curriculum";
+            default -> Document.class.getSimpleName();
+        };
+    }
+}
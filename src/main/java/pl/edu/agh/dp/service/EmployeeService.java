@@ -3,17 +3,30 @@ package pl.edu.agh.dp.service;
 import org.springframework.stereotype.Service;
 import pl.edu.agh.dp.core.api.Session;
 import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.core.finder.Finder;
 import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.dto.BulkResultDto;
+import pl.edu.agh.dp.dto.CursorPage;
 import pl.edu.agh.dp.dto.EmployeeDto;
+import pl.edu.agh.dp.dto.MultiGetResultDto;
+import pl.edu.agh.dp.dto.ReportingLineDto;
 import pl.edu.agh.dp.entity.Department;
 import pl.edu.agh.dp.entity.Document;
 import pl.edu.agh.dp.entity.Employee;
+import pl.edu.agh.dp.orm.Projection;
+import pl.edu.agh.dp.orm.SecondLevelCache;
+import pl.edu.agh.dp.orm.SqlSupport;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -26,10 +39,38 @@ import java.util.stream.Collectors;
 @Service
 public class EmployeeService {
 
+    public static final int DEFAULT_HIERARCHY_DEPTH = 20;
+    public static final int MAX_HIERARCHY_DEPTH = 100;
+
+    /**
+     * Pola dostępne w {@code fields=}: kolumny tabeli employees, nazwy działu i managera
+     * jako podzapytania skalarne, a kolekcje relacji osobnym zapytaniem IN tylko na żądanie.
+     */
+    private static final Projection FIELDS = Projection.builder("employees", "e")
+            .column("id", "id")
+            .column("firstName", "first_name")
+            .column("lastName", "last_name")
+            .column("email", "email")
+            .column("phone", "phone")
+            .column("employeeCode", "employee_code")
+            .column("hireDate", "hire_date")
+            .column("salary", "salary")
+            .column("position", "position")
+            .column("departmentId", "department_fkey")
+            .expression("departmentName", "(SELECT d.name FROM departments d WHERE d.id = e.department_fkey)")
+            .column("managerId", "manager_fkey")
+            .expression("managerName",
+                    "(SELECT m.first_name || ' ' || m.last_name FROM employees m WHERE m.id = e.manager_fkey)")
+            .association("subordinates", EmployeeAssociationLoader::subordinateInfos)
+            .association("accessibleDocuments", EmployeeAssociationLoader::documentAccessInfos)
+            .build();
+
     private final SessionFactory sessionFactory;
+    private final SecondLevelCache cache;
 
     public EmployeeService() {
         this.sessionFactory = OrmConfig.getSessionFactory();
+        this.cache = OrmConfig.getEntityCache();
     }
 
     public EmployeeDto create(EmployeeDto dto) {
@@ -48,6 +89,11 @@ public class EmployeeService {
                 }
                 session.save(employee);
                 session.commit();
+                // nowy pracownik zmienia subordinates managera i employeeCount działu
+                new CacheKeys()
+                        .add(Employee.class, employee.getManager() != null ? employee.getManager().getId() : null)
+                        .add(Department.class, employee.getDepartment() != null ? employee.getDepartment().getId() : null)
+                        .invalidate(cache);
                 return EmployeeDto.fromEntity(employee);
             } catch (Exception e) {
                 session.rollback();
@@ -56,28 +102,187 @@ public class EmployeeService {
         }
     }
 
+    // ==================== BULK CREATE ====================
+
+    private static final String EMPLOYEE_INSERT =
+            "INSERT INTO employees (first_name, last_name, email, phone, employee_code, hire_date, salary, position, "
+                    + "manager_fkey, department_fkey, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    /**
+     * Tworzy wielu pracowników w jednej transakcji (JDBC batch po {@code chunkSize} wierszy).
+     * Managerowie i działy są rozwiązywane jednym zapytaniem IN na porcję; błędne elementy
+     * są pomijane i raportowane z indeksem w żądaniu.
+     */
+    public BulkResultDto<EmployeeDto> createBulk(List<EmployeeDto> dtos, Integer chunkSize) {
+        BulkInsertSupport.checkRequestSize(dtos);
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                BulkResultDto<EmployeeDto> result = BulkInsertSupport.insert(session, dtos,
+                        BulkInsertSupport.chunkSize(chunkSize), EMPLOYEE_INSERT,
+                        (chunk, reject) -> mapEmployeeChunk(session, chunk, reject),
+                        (ps, e) -> {
+                            ps.setObject(1, e.getFirstName());
+                            ps.setObject(2, e.getLastName());
+                            ps.setObject(3, e.getEmail());
+                            ps.setObject(4, e.getPhone());
+                            ps.setObject(5, e.getEmployeeCode());
+                            ps.setObject(6, e.getHireDate());
+                            ps.setObject(7, e.getSalary());
+                            ps.setObject(8, e.getPosition());
+                            ps.setObject(9, e.getManager() != null ? e.getManager().getId() : null);
+                            ps.setObject(10, e.getDepartment() != null ? e.getDepartment().getId() : null);
+                        },
+                        Employee::setId,
+                        EmployeeDto::fromEntity);
+                session.commit();
+                CacheKeys keys = new CacheKeys();
+                for (EmployeeDto created : result.getItems()) {
+                    keys.add(Employee.class, created.getManagerId()).add(Department.class, created.getDepartmentId());
+                }
+                keys.invalidate(cache);
+                return result;
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to bulk create employees: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private List<Employee> mapEmployeeChunk(Session session, List<EmployeeDto> chunk, BiConsumer<Integer, String> reject) {
+        Set<Long> managerIds = new HashSet<>();
+        Set<Long> departmentIds = new HashSet<>();
+        for (EmployeeDto dto : chunk) {
+            if (dto != null && dto.getManagerId() != null) {
+                managerIds.add(dto.getManagerId());
+            }
+            if (dto != null && dto.getDepartmentId() != null) {
+                departmentIds.add(dto.getDepartmentId());
+            }
+        }
+        Map<Long, Employee> managers = new HashMap<>();
+        SqlSupport.findByIds(session, Employee.class, managerIds).forEach(m -> managers.put(m.getId(), m));
+        Map<Long, Department> departments = new HashMap<>();
+        SqlSupport.findByIds(session, Department.class, departmentIds).forEach(d -> departments.put(d.getId(), d));
+
+        List<Employee> result = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            EmployeeDto dto = chunk.get(i);
+            String error = validateForCreate(dto);
+            if (error == null && dto.getManagerId() != null && !managers.containsKey(dto.getManagerId())) {
+                error = "Manager not found: " + dto.getManagerId();
+            }
+            if (error == null && dto.getDepartmentId() != null && !departments.containsKey(dto.getDepartmentId())) {
+                error = "Department not found: " + dto.getDepartmentId();
+            }
+            if (error != null) {
+                reject.accept(i, error);
+                result.add(null);
+                continue;
+            }
+            Employee employee = dto.toEntity();
+            employee.setManager(dto.getManagerId() != null ? managers.get(dto.getManagerId()) : null);
+            employee.setDepartment(dto.getDepartmentId() != null ? departments.get(dto.getDepartmentId()) : null);
+            result.add(employee);
+        }
+        return result;
+    }
+
+    private static String validateForCreate(EmployeeDto dto) {
+        if (dto == null) {
+            return "Item is null";
+        }
+        if (BulkInsertSupport.isBlank(dto.getFirstName())) {
+            return "firstName is required";
+        }
+        if (BulkInsertSupport.isBlank(dto.getLastName())) {
+            return "lastName is required";
+        }
+        if (BulkInsertSupport.isBlank(dto.getEmployeeCode())) {
+            return "employeeCode is required";
+        }
+        return null;
+    }
+
     public Optional<EmployeeDto> findById(Long id) {
+        return Optional.ofNullable(cache.get(Employee.class, id, () -> {
+            try (Session session = sessionFactory.openSession()) {
+                return loadDto(session, id);
+            }
+        }, EmployeeDto::copy));
+    }
+
+    /**
+     * Multi-get: pobiera pracowników jednym zapytaniem IN, a powiązania dociąga
+     * batch loaderem (bez N+1). Wynik w kolejności id z żądania.
+     */
+    public MultiGetResultDto<EmployeeDto> findByIds(List<Long> ids) {
+        List<Long> distinct = MultiGetResultDto.distinctIds(ids);
         try (Session session = sessionFactory.openSession()) {
-            Employee employee = session.find(Employee.class, id);
-            session.load(employee, "manager");
-            session.load(employee, "department");
-            return Optional.ofNullable(employee).map(EmployeeDto::fromEntity);
+            List<EmployeeDto> dtos = toDtos(session, SqlSupport.findByIds(session, Employee.class, distinct));
+            Map<Long, EmployeeDto> byId = new HashMap<>();
+            for (EmployeeDto dto : dtos) {
+                byId.put(dto.getId(), dto);
+            }
+            return MultiGetResultDto.of(distinct, byId, dto -> dto);
         }
     }
 
-    public List<EmployeeDto> findAll() {
+    // ==================== SECOND-LEVEL CACHE ====================
+
+    /**
+     * Ładuje DTO pracownika w podanej sesji (loader wpisu cache dla regionu Employee).
+     */
+    private static EmployeeDto loadDto(Session session, Long id) {
+        Employee employee = session.find(Employee.class, id);
+        if (employee == null) {
+            return null;
+        }
+        session.load(employee, "manager");
+        session.load(employee, "department");
+        return EmployeeDto.fromEntity(employee);
+    }
+
+    /**
+     * Wpisy zależne od pracownika: on sam, manager i podwładni (subordinates, managerName)
+     * oraz dział (employeeCount). Zbierane przed zapisem zmieniającym relacje.
+     */
+    private static CacheKeys employeeKeys(Session session, Long id) {
+        return new CacheKeys()
+                .add(Employee.class, id)
+                .addQuery(session, Employee.class, "SELECT manager_fkey FROM employees WHERE id = ?"
+                        + " UNION ALL SELECT id FROM employees WHERE manager_fkey = ?", id, id)
+                .addQuery(session, Department.class, "SELECT department_fkey FROM employees WHERE id = ?", id);
+    }
+
+    /**
+     * Podbija wersję pracownika przed session.update() - suma wersji pracowników
+     * wchodzi w ETag listy działów.
+     */
+    private static void bumpVersion(Session session, Employee employee) {
+        SqlSupport.incrementVersion(session, "employees", employee.getId()).ifPresent(employee::setVersion);
+    }
+
+    /**
+     * Pobiera stronę pracowników (keyset po id).
+     * Z {@code fields} zwraca wiersze projekcji zamiast pełnych EmployeeDto.
+     */
+    public CursorPage<?> findPage(String cursor, Integer size, String fields) {
+        CursorPage.Key after = CursorPage.Key.decode(cursor);
+        int pageSize = CursorPage.clampSize(size);
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Employee> employees = session.findAll(Employee.class);
-            
-            // WORKAROUND: Wymuś załadowanie wszystkich pól w sesji
-            // (trigger lazy loading przed zamknięciem sesji)
-            List<EmployeeDto> result = new ArrayList<>();
-            for (Employee e : employees) {
-                session.load(e, "manager");
-                session.load(e, "department");
-                result.add(EmployeeDto.fromEntity(e));
+            Finder<Employee> finder = session.finder(Employee.class);
+            if (after != null) {
+                finder.gt("id", after.getId());
+            }
+            finder.orderAsc("id").limit(pageSize + 1);
+            if (selection != null) {
+                return CursorPage.of(selection.list(session, finder.getSpec()), pageSize,
+                        row -> CursorPage.Key.of(Projection.idOf(row)), page -> page);
             }
-            return result;
+            List<Employee> employees = finder.list();
+            return CursorPage.of(employees, pageSize, e -> CursorPage.Key.of(e.getId()), page -> toDtos(session, page));
         }
     }
 
@@ -99,8 +304,12 @@ public class EmployeeService {
                 existing.setSalary(dto.getSalary());
                 existing.setPosition(dto.getPosition());
 
+                bumpVersion(session, existing);
+                CacheKeys keys = employeeKeys(session, id);
+
                 session.update(existing);
                 session.commit();
+                keys.invalidate(cache);
 
                 return Optional.of(EmployeeDto.fromEntity(existing));
             } catch (Exception e) {
@@ -118,8 +327,10 @@ public class EmployeeService {
                 if (employee == null) {
                     return false;
                 }
+                CacheKeys keys = employeeKeys(session, id);
                 session.delete(employee);
                 session.commit();
+                keys.invalidate(cache);
                 return true;
             } catch (Exception e) {
                 session.rollback();
@@ -137,13 +348,17 @@ public class EmployeeService {
                     return Optional.empty();
                 }
 
+                CacheKeys keys = employeeKeys(session, employeeId);
                 Department department = session.find(Department.class, departmentId);
                 if (department != null) {
                     employee.setDepartment(department);
+                    bumpVersion(session, employee);
                     session.update(employee);
+                    keys.add(Department.class, departmentId);
                 }
 
                 session.commit();
+                keys.invalidate(cache);
                 return Optional.of(EmployeeDto.fromEntity(employee));
             } catch (Exception e) {
                 session.rollback();
@@ -161,12 +376,16 @@ public class EmployeeService {
                     return Optional.empty();
                 }
 
+                CacheKeys keys = employeeKeys(session, employeeId);
                 Employee manager = session.find(Employee.class, managerId);
                 if (manager != null) {
                     employee.setManager(manager);
+                    bumpVersion(session, employee);
                     session.update(employee);
+                    keys.add(Employee.class, managerId);
                 }
                 session.commit();
+                keys.invalidate(cache);
                 return Optional.of(EmployeeDto.fromEntity(employee));
             } catch (Exception e) {
                 session.rollback();
@@ -222,9 +441,12 @@ public class EmployeeService {
                     return Optional.empty();
                 }
 
+                CacheKeys keys = employeeKeys(session, employeeId);
                 employee.setManager(null);
+                bumpVersion(session, employee);
                 session.update(employee);
                 session.commit();
+                keys.invalidate(cache);
                 return Optional.of(EmployeeDto.fromEntity(employee));
             } catch (Exception e) {
                 session.rollback();
@@ -249,6 +471,78 @@ public class EmployeeService {
         }
     }
 
+    // ==================== REPORTING LINE (RECURSIVE CTE) ====================
+
+    private static final String MANAGEMENT_CHAIN_QUERY =
+            "WITH RECURSIVE chain AS ("
+                    + " SELECT e.id, e.first_name, e.last_name, e.employee_code, e.position, e.manager_fkey, e.department_fkey,"
+                    + " 0 AS level, ARRAY[e.id] AS path FROM employees e WHERE e.id = ?"
+                    + " UNION ALL"
+                    + " SELECT m.id, m.first_name, m.last_name, m.employee_code, m.position, m.manager_fkey, m.department_fkey,"
+                    + " c.level + 1, c.path || m.id FROM employees m JOIN chain c ON m.id = c.manager_fkey"
+                    + " WHERE c.level < ? AND NOT m.id = ANY(c.path)"
+                    + ") SELECT * FROM chain ORDER BY level";
+
+    private static final String REPORTS_QUERY =
+            "WITH RECURSIVE reports AS ("
+                    + " SELECT e.id, e.first_name, e.last_name, e.employee_code, e.position, e.manager_fkey, e.department_fkey,"
+                    + " 0 AS level, ARRAY[e.id] AS path FROM employees e WHERE e.id = ?"
+                    + " UNION ALL"
+                    + " SELECT r.id, r.first_name, r.last_name, r.employee_code, r.position, r.manager_fkey, r.department_fkey,"
+                    + " p.level + 1, p.path || r.id FROM employees r JOIN reports p ON r.manager_fkey = p.id"
+                    + " WHERE p.level < ? AND NOT r.id = ANY(p.path)"
+                    + ") SELECT * FROM reports ORDER BY level, id";
+
+    /**
+     * Pobiera wszystkich managerów pracownika aż do korzenia (level 1 = bezpośredni manager)
+     * jednym zapytaniem WITH RECURSIVE. Ścieżka odwiedzonych id chroni przed cyklem w manager_fkey.
+     *
+     * @return Optional.empty(), gdy pracownik nie istnieje
+     */
+    public Optional<List<ReportingLineDto>> getManagementChain(Long employeeId, Integer maxDepth) {
+        return queryReportingLine(MANAGEMENT_CHAIN_QUERY, employeeId, hierarchyDepth(maxDepth));
+    }
+
+    /**
+     * Pobiera podwładnych pracownika: bezpośrednich albo (transitive) wszystkich pośrednich
+     * do głębokości maxDepth, posortowanych po poziomie.
+     *
+     * @return Optional.empty(), gdy pracownik nie istnieje
+     */
+    public Optional<List<ReportingLineDto>> getReports(Long employeeId, boolean transitive, Integer maxDepth) {
+        return queryReportingLine(REPORTS_QUERY, employeeId, transitive ? hierarchyDepth(maxDepth) : 1);
+    }
+
+    private static int hierarchyDepth(Integer maxDepth) {
+        int depth = maxDepth != null ? maxDepth : DEFAULT_HIERARCHY_DEPTH;
+        if (depth < 1 || depth > MAX_HIERARCHY_DEPTH) {
+            throw new IllegalArgumentException("maxDepth must be between 1 and " + MAX_HIERARCHY_DEPTH);
+        }
+        return depth;
+    }
+
+    /**
+     * Wiersz level 0 to sam pracownik - potwierdza jego istnienie i nie trafia do wyniku.
+     */
+    private Optional<List<ReportingLineDto>> queryReportingLine(String sql, Long employeeId, int depth) {
+        try (Session session = sessionFactory.openSession()) {
+            List<ReportingLineDto> rows = session.getJdbcExecutor().query(sql, rs -> ReportingLineDto.builder()
+                    .id(rs.getLong("id"))
+                    .firstName(rs.getString("first_name"))
+                    .lastName(rs.getString("last_name"))
+                    .employeeCode(rs.getString("employee_code"))
+                    .position(rs.getString("position"))
+                    .managerId(SqlSupport.getLong(rs, "manager_fkey"))
+                    .departmentId(SqlSupport.getLong(rs, "department_fkey"))
+                    .level(rs.getInt("level"))
+                    .build(), employeeId, depth);
+            if (rows.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(new ArrayList<>(rows.subList(1, rows.size())));
+        }
+    }
+
     // ==================== MANY-TO-MANY DEMONSTRATION ====================
 
     /**
@@ -275,8 +569,11 @@ public class EmployeeService {
                     employee.getDocuments().add(document);
                 }
 
+                bumpVersion(session, employee);
+
                 session.update(employee);
                 session.commit();
+                cache.invalidate(Employee.class, employeeId);
                 return Optional.of(EmployeeDto.fromEntity(employee));
             } catch (Exception e) {
                 session.rollback();
@@ -310,8 +607,11 @@ public class EmployeeService {
                     employee.getDocuments().removeIf(d -> d.getId().equals(documentId));
                 }
 
+                bumpVersion(session, employee);
+
                 session.update(employee);
                 session.commit();
+                cache.invalidate(Employee.class, employeeId);
 
                 return Optional.of(EmployeeDto.fromEntity(employee));
             } catch (Exception e) {
@@ -347,15 +647,13 @@ public class EmployeeService {
      * Wyszukuje pracowników po stanowisku (position).
      * Demonstruje Finder z warunkiem eq() - dokładne dopasowanie.
      */
-    public List<EmployeeDto> findByPosition(String position) {
+    public List<?> findByPosition(String position, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Employee> employees = session.finder(Employee.class)
-                    .eq("position", position)
-                    .list();
-            
-            return employees.stream()
-                    .map(EmployeeDto::fromEntity)
-                    .collect(Collectors.toList());
+            Finder<Employee> finder = session.finder(Employee.class)
+                    .eq("position", position);
+
+            return list(session, finder, selection);
         }
     }
 
@@ -363,16 +661,14 @@ public class EmployeeService {
      * Wyszukuje pracowników z pensją większą niż podana wartość.
      * Demonstruje Finder z warunkiem gt() oraz sortowaniem orderDesc().
      */
-    public List<EmployeeDto> findBySalaryGreaterThan(BigDecimal minSalary) {
+    public List<?> findBySalaryGreaterThan(BigDecimal minSalary, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Employee> employees = session.finder(Employee.class)
+            Finder<Employee> finder = session.finder(Employee.class)
                     .gt("salary", minSalary)
-                    .orderDesc("salary")
-                    .list();
-            
-            return employees.stream()
-                    .map(EmployeeDto::fromEntity)
-                    .collect(Collectors.toList());
+                    .orderDesc("salary");
+
+            return list(session, finder, selection);
         }
     }
 
@@ -380,16 +676,14 @@ public class EmployeeService {
      * Wyszukuje pracowników po fragmencie nazwiska (LIKE).
      * Demonstruje Finder z warunkiem like() - wyszukiwanie wzorcowe.
      */
-    public List<EmployeeDto> findByLastNameLike(String pattern) {
+    public List<?> findByLastNameLike(String pattern, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Employee> employees = session.finder(Employee.class)
+            Finder<Employee> finder = session.finder(Employee.class)
                     .like("lastName", "%" + pattern + "%")
-                    .orderAsc("lastName")
-                    .list();
-            
-            return employees.stream()
-                    .map(EmployeeDto::fromEntity)
-                    .collect(Collectors.toList());
+                    .orderAsc("lastName");
+
+            return list(session, finder, selection);
         }
     }
 
@@ -397,18 +691,16 @@ public class EmployeeService {
      * Wyszukuje pracowników z pensją w podanym zakresie.
      * Demonstruje Finder z warunkiem between() oraz paginacją (limit, offset).
      */
-    public List<EmployeeDto> findBySalaryBetween(BigDecimal minSalary, BigDecimal maxSalary, int limit, int offset) {
+    public List<?> findBySalaryBetween(BigDecimal minSalary, BigDecimal maxSalary, int limit, int offset, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Employee> employees = session.finder(Employee.class)
+            Finder<Employee> finder = session.finder(Employee.class)
                     .between("salary", minSalary, maxSalary)
                     .orderAsc("salary")
                     .limit(limit)
-                    .offset(offset)
-                    .list();
-            
-            return employees.stream()
-                    .map(EmployeeDto::fromEntity)
-                    .collect(Collectors.toList());
+                    .offset(offset);
+
+            return list(session, finder, selection);
         }
     }
 
@@ -416,17 +708,38 @@ public class EmployeeService {
      * Wyszukuje pracowników zatrudnionych po danej dacie na określonym stanowisku.
      * Demonstruje Finder z wieloma warunkami (eq + gt) - złożone zapytania.
      */
-    public List<EmployeeDto> findByPositionAndHiredAfter(String position, LocalDate hireDate) {
+    public List<?> findByPositionAndHiredAfter(String position, LocalDate hireDate, String fields) {
+        Projection.Selection selection = FIELDS.select(fields);
         try (Session session = sessionFactory.openSession()) {
-            List<Employee> employees = session.finder(Employee.class)
+            Finder<Employee> finder = session.finder(Employee.class)
                     .eq("position", position)
                     .gt("hireDate", hireDate)
-                    .orderDesc("hireDate")
-                    .list();
-            
-            return employees.stream()
-                    .map(EmployeeDto::fromEntity)
-                    .collect(Collectors.toList());
+                    .orderDesc("hireDate");
+
+            return list(session, finder, selection);
+        }
+    }
+
+    /**
+     * Wykonuje finder jako pełne DTO (z relacjami) albo jako projekcję pól {@code fields=}.
+     */
+    private List<?> list(Session session, Finder<Employee> finder, Projection.Selection selection) {
+        if (selection != null) {
+            return selection.list(session, finder.getSpec());
+        }
+        return toDtos(session, finder.list());
+    }
+
+    /**
+     * Mapuje listę pracowników na DTO po wsadowym załadowaniu relacji
+     * (stała liczba zapytań IN zamiast N+1 przy EmployeeDto.fromEntity).
+     */
+    private List<EmployeeDto> toDtos(Session session, List<Employee> employees) {
+        EmployeeAssociationLoader.loadAssociations(session, employees);
+        List<EmployeeDto> result = new ArrayList<>(employees.size());
+        for (Employee e : employees) {
+            result.add(EmployeeDto.fromEntity(e));
         }
+        return result;
     }
 }
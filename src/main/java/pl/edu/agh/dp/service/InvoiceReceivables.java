@@ -0,0 +1,223 @@
+package pl.edu.agh.dp.service;
+
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.dto.InvoiceSummaryDto;
+import pl.edu.agh.dp.entity.Document;
+import pl.edu.agh.dp.entity.Invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Utrzymywany przyrostowo rollup należności z faktur (tabela invoice_receivables).
+ *
+ * Wiersz to grupa (status płatności, miesiąc terminu) z liczbą faktur i sumami kwot.
+ * Zapisy faktur odejmują wkład wiersza sprzed zmiany i dodają wkład po zmianie w tej samej
+ * transakcji, więc podsumowanie czyta tylko kilka wierszy grup zamiast skanować faktury.
+ * Brak statusu / terminu jest zapisywany jako pusty klucz (kolumny klucza głównego nie mogą być NULL).
+ */
+final class InvoiceReceivables {
+
+    private static final String TABLE = "invoice_receivables";
+
+    private static final String DDL = "CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+            + "payment_status VARCHAR(255) NOT NULL, "
+            + "due_month VARCHAR(7) NOT NULL, "
+            + "invoice_count BIGINT NOT NULL, "
+            + "total_amount NUMERIC NOT NULL, "
+            + "tax_amount NUMERIC NOT NULL, "
+            + "PRIMARY KEY (payment_status, due_month))";
+
+    private static final String REBUILD = "INSERT INTO " + TABLE
+            + " (payment_status, due_month, invoice_count, total_amount, tax_amount)"
+            + " SELECT COALESCE(payment_status, ''), COALESCE(to_char(due_date, 'YYYY-MM'), ''),"
+            + " count(*), COALESCE(sum(total_amount), 0), COALESCE(sum(tax_amount), 0)"
+            + " FROM documents WHERE DTYPE = 'INVOICE' GROUP BY 1, 2";
+
+    private static final String UPSERT = "INSERT INTO " + TABLE
+            + " (payment_status, due_month, invoice_count, total_amount, tax_amount) VALUES (?, ?, ?, ?, ?)"
+            + " ON CONFLICT (payment_status, due_month) DO UPDATE SET"
+            + " invoice_count = " + TABLE + ".invoice_count + EXCLUDED.invoice_count,"
+            + " total_amount = " + TABLE + ".total_amount + EXCLUDED.total_amount,"
+            + " tax_amount = " + TABLE + ".tax_amount + EXCLUDED.tax_amount";
+
+    private static final String CONTRIBUTION = "SELECT payment_status, due_date, total_amount, tax_amount"
+            + " FROM documents WHERE id = ? AND DTYPE = 'INVOICE'";
+
+    private InvoiceReceivables() {
+    }
+
+    /**
+     * Klucz grupy rollupu.
+     */
+    record Key(String paymentStatus, String dueMonth) {
+
+        private static final Comparator<Key> ORDER =
+                Comparator.comparing(Key::paymentStatus).thenComparing(Key::dueMonth);
+    }
+
+    /**
+     * Wkład jednej faktury do rollupu.
+     */
+    record Contribution(Key key, BigDecimal totalAmount, BigDecimal taxAmount) {
+
+        static Contribution of(String paymentStatus, LocalDate dueDate, BigDecimal totalAmount, BigDecimal taxAmount) {
+            return new Contribution(
+                    new Key(paymentStatus != null ? paymentStatus : "", dueDate != null ? dueDate.toString().substring(0, 7) : ""),
+                    totalAmount != null ? totalAmount : BigDecimal.ZERO,
+                    taxAmount != null ? taxAmount : BigDecimal.ZERO);
+        }
+
+        /**
+         * Wkład dokumentu w stanie, w jakim zostanie zapisany (CoreORM wstawia i aktualizuje
+         * wszystkie kolumny, więc brak statusu to NULL w bazie). Dokument inny niż faktura - brak wkładu.
+         */
+        static Optional<Contribution> of(Document document) {
+            return document instanceof Invoice invoice
+                    ? Optional.of(of(invoice.getPaymentStatus(), invoice.getDueDate(), invoice.getTotalAmount(), invoice.getTaxAmount()))
+                    : Optional.empty();
+        }
+    }
+
+    /**
+     * Zakłada tabelę, jeśli jej nie ma - nowa tabela jest od razu wypełniana z documents.
+     */
+    static void ensureTable(Session session) {
+        boolean exists = session.getJdbcExecutor().queryOne("SELECT to_regclass(?) IS NOT NULL AS present",
+                rs -> rs.getBoolean("present"), TABLE).orElse(false);
+        if (!exists) {
+            rebuild(session);
+        }
+    }
+
+    /**
+     * Zakłada tabelę i przelicza ją od zera z tabeli documents.
+     * Blokada SHARE na documents wstrzymuje na ten czas zapisy dokumentów.
+     */
+    static void rebuild(Session session) {
+        session.getJdbcExecutor().executeStatement(DDL);
+        session.getJdbcExecutor().executeStatement("LOCK TABLE documents IN SHARE MODE");
+        session.getJdbcExecutor().executeStatement("LOCK TABLE " + TABLE + " IN EXCLUSIVE MODE");
+        session.getJdbcExecutor().update("DELETE FROM " + TABLE);
+        session.getJdbcExecutor().update(REBUILD);
+    }
+
+    /**
+     * Aktualny wkład dokumentu; empty, gdy dokument nie istnieje albo nie jest fakturą.
+     *
+     * @param lock true - blokuje wiersz do końca transakcji (odczyt przed zmianą)
+     */
+    static Optional<Contribution> contribution(Session session, Long documentId, boolean lock) {
+        return session.getJdbcExecutor().queryOne(CONTRIBUTION + (lock ? " FOR UPDATE" : ""),
+                rs -> Contribution.of(rs.getString("payment_status"),
+                        rs.getObject("due_date", LocalDate.class),
+                        rs.getBigDecimal("total_amount"),
+                        rs.getBigDecimal("tax_amount")),
+                documentId);
+    }
+
+    /**
+     * Zmiany rollupu zebrane w ramach jednej transakcji.
+     */
+    static final class Delta {
+
+        private final Map<Key, Change> changes = new TreeMap<>(Key.ORDER);
+
+        Delta add(Contribution contribution) {
+            return apply(contribution, BigDecimal.ONE);
+        }
+
+        Delta subtract(Contribution contribution) {
+            return apply(contribution, BigDecimal.ONE.negate());
+        }
+
+        private Delta apply(Contribution contribution, BigDecimal sign) {
+            Change change = changes.computeIfAbsent(contribution.key(), k -> new Change());
+            change.count += sign.signum();
+            change.totalAmount = change.totalAmount.add(contribution.totalAmount().multiply(sign));
+            change.taxAmount = change.taxAmount.add(contribution.taxAmount().multiply(sign));
+            return this;
+        }
+
+        /**
+         * Zapisuje zmiany jednym UPSERT-em na grupę. Grupy są aktualizowane w stałej kolejności
+         * kluczy, żeby dwie transakcje przenoszące faktury między tymi samymi grupami się nie zakleszczyły.
+         */
+        void flush(Session session) {
+            changes.forEach((key, change) -> {
+                if (change.isEmpty()) {
+                    return;
+                }
+                session.getJdbcExecutor().update(UPSERT, key.paymentStatus(), key.dueMonth(),
+                        change.count, change.totalAmount, change.taxAmount);
+                if (change.count < 0) {
+                    session.getJdbcExecutor().update("DELETE FROM " + TABLE
+                                    + " WHERE payment_status = ? AND due_month = ? AND invoice_count = 0",
+                            key.paymentStatus(), key.dueMonth());
+                }
+            });
+        }
+    }
+
+    private static final class Change {
+
+        private long count;
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+        private BigDecimal taxAmount = BigDecimal.ZERO;
+
+        boolean isEmpty() {
+            return count == 0 && totalAmount.signum() == 0 && taxAmount.signum() == 0;
+        }
+    }
+
+    /**
+     * Podsumowanie z tabeli rollupu - koszt zależy od liczby grup, nie od liczby faktur.
+     */
+    static InvoiceSummaryDto summary(Session session) {
+        List<Row> rows = session.getJdbcExecutor().query(
+                "SELECT payment_status, due_month, invoice_count, total_amount, tax_amount FROM " + TABLE,
+                rs -> new Row(new Key(rs.getString("payment_status"), rs.getString("due_month")),
+                        rs.getLong("invoice_count"), rs.getBigDecimal("total_amount"), rs.getBigDecimal("tax_amount")));
+
+        Row total = new Row(null, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+        for (Row row : rows) {
+            total = total.plus(row);
+        }
+        return InvoiceSummaryDto.builder()
+                .invoiceCount(total.count())
+                .totalAmount(total.totalAmount())
+                .taxAmount(total.taxAmount())
+                .byPaymentStatus(buckets(rows, Key::paymentStatus))
+                .byDueMonth(buckets(rows, Key::dueMonth))
+                .build();
+    }
+
+    private record Row(Key key, long count, BigDecimal totalAmount, BigDecimal taxAmount) {
+
+        Row plus(Row other) {
+            return new Row(key, count + other.count, totalAmount.add(other.totalAmount), taxAmount.add(other.taxAmount));
+        }
+    }
+
+    private static List<InvoiceSummaryDto.Bucket> buckets(List<Row> rows, Function<Key, String> dimension) {
+        Map<String, Row> byKey = new TreeMap<>();
+        for (Row row : rows) {
+            byKey.merge(dimension.apply(row.key()), row, Row::plus);
+        }
+        List<InvoiceSummaryDto.Bucket> buckets = new ArrayList<>();
+        byKey.forEach((key, row) -> buckets.add(InvoiceSummaryDto.Bucket.builder()
+                .key(key.isEmpty() ? null : key)
+                .invoiceCount(row.count())
+                .totalAmount(row.totalAmount())
+                .taxAmount(row.taxAmount())
+                .build()));
+        return buckets;
+    }
+}
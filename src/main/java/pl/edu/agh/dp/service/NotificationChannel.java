@@ -0,0 +1,83 @@
+package pl.edu.agh.dp.service;
+
+import pl.edu.agh.dp.core.persister.RowMapper;
+import pl.edu.agh.dp.entity.EmailNotification;
+import pl.edu.agh.dp.entity.Notification;
+import pl.edu.agh.dp.entity.PushNotification;
+import pl.edu.agh.dp.entity.SmsNotification;
+
+/**
+ * Kanał wysyłki powiadomień - jedna tabela hierarchii TABLE_PER_CLASS.
+ * Bazowa tabela notifications nie ma kanału, więc nie jest wysyłana.
+ *
+ * Kolejność stałych to priorytet kanałów w przebiegu wysyłki: push (krótkie TTL) przed SMS,
+ * masowy email na końcu. {@code claimOrder} ustala priorytet wierszy w obrębie kanału.
+ */
+public enum NotificationChannel {
+
+    PUSH("push_notifications", "device_token", NotificationService::mapPushRow,
+            "is_silent IS TRUE, created_at + time_to_live * INTERVAL '1 second' NULLS LAST, id",
+            "time_to_live IS NOT NULL AND created_at + time_to_live * INTERVAL '1 second' < LOCALTIMESTAMP"),
+    SMS("sms_notifications", "phone_number", NotificationService::mapSmsRow, "id", null),
+    EMAIL("email_notifications", "recipient_email", NotificationService::mapEmailRow, "id", null);
+
+    private final String table;
+    private final String recipientColumn;
+    private final RowMapper<? extends Notification> rowMapper;
+    private final String claimOrder;
+    private final String expiredCondition;
+
+    NotificationChannel(String table, String recipientColumn, RowMapper<? extends Notification> rowMapper,
+                        String claimOrder, String expiredCondition) {
+        this.table = table;
+        this.recipientColumn = recipientColumn;
+        this.rowMapper = rowMapper;
+        this.claimOrder = claimOrder;
+        this.expiredCondition = expiredCondition;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Kolumna adresata: email, numer telefonu albo token urządzenia.
+     */
+    String getRecipientColumn() {
+        return recipientColumn;
+    }
+
+    RowMapper<? extends Notification> getRowMapper() {
+        return rowMapper;
+    }
+
+    /**
+     * ORDER BY przejmowania porcji: push - najpierw widoczne, potem najbliższy koniec TTL.
+     */
+    String getClaimOrder() {
+        return claimOrder;
+    }
+
+    /**
+     * Warunek SQL wygaśnięcia wiersza PENDING albo null, gdy kanał nie ma TTL.
+     */
+    String getExpiredCondition() {
+        return expiredCondition;
+    }
+
+    /**
+     * Kanał encji albo null dla bazowego Notification (bez adresata).
+     */
+    static NotificationChannel of(Notification notification) {
+        if (notification instanceof PushNotification) {
+            return PUSH;
+        }
+        if (notification instanceof SmsNotification) {
+            return SMS;
+        }
+        if (notification instanceof EmailNotification) {
+            return EMAIL;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,411 @@
+package pl.edu.agh.dp.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.dto.DispatchResultDto;
+import pl.edu.agh.dp.dto.DispatchStatsDto;
+import pl.edu.agh.dp.entity.Notification;
+import pl.edu.agh.dp.entity.PushNotification;
+import pl.edu.agh.dp.orm.SqlSupport;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wysyłka powiadomień PENDING przez nadawców kanałów.
+ *
+ * Porcja jest przejmowana w transakcji przez {@code SELECT ... FOR UPDATE SKIP LOCKED}, więc
+ * równoległe wątki i instancje aplikacji dzielą się wierszami bez czekania na siebie. Wyniki
+ * porcji są zapisywane najwyżej dwoma UPDATE (SENT z sent_at, FAILED) w tej samej transakcji.
+ * Przerwana transakcja zwalnia blokady i wiersze wracają do puli PENDING - wysyłka jest
+ * "co najmniej raz", więc nadawcy powinni tolerować powtórzenia.
+ *
+ * Kolejką kanału jest zbiór jego wierszy PENDING (trwały i wspólny dla instancji), przejmowany
+ * w kolejności priorytetu kanału. W procesie każdy kanał ma kubełek żetonów: porcja jest
+ * przejmowana tylko w rozmiarze dostępnych żetonów, więc nadmiar czeka w bazie, a nie w pamięci.
+ * Push z minionym TTL (created_at + time_to_live sekund) dostaje status EXPIRED zamiast wysyłki.
+ *
+ * Z actuatorem głębokość i opóźnienie kolejki oraz dostępne żetony kanału są też gauge'ami
+ * Micrometer (notification.queue.depth / notification.queue.lag / notification.rate.tokens).
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    static final String PENDING = "PENDING";
+    static final String SENT = "SENT";
+    static final String FAILED = "FAILED";
+    static final String EXPIRED = "EXPIRED";
+
+    /** Porcje jednego kanału w przebiegu - kanał z dużą kolejką nie zagłodzi pozostałych. */
+    private static final int MAX_BATCHES_PER_ROUND = 10;
+
+    /** Jak długo gauge'e kolejki używają ostatniego odczytu - scrape nie odpytuje tabel dla każdego gauge'a. */
+    private static final long QUEUE_STATS_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private record BatchOutcome(int claimed, int sent, int failed, int expired) {
+    }
+
+    private record QueueStats(long depth, double lagSeconds, long readAt) {
+    }
+
+    /**
+     * Nadawca, limit i liczniki kanału w tej instancji.
+     */
+    private static final class ChannelState {
+
+        private final NotificationSender sender;
+        private final double ratePerSecond;
+        /** null - kanał bez limitu. */
+        private final TokenBucket bucket;
+
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder expired = new LongAdder();
+        private final LongAdder rateLimitedRounds = new LongAdder();
+        private volatile QueueStats queue;
+
+        private ChannelState(NotificationSender sender, double ratePerSecond) {
+            this.sender = sender;
+            this.ratePerSecond = ratePerSecond;
+            this.bucket = ratePerSecond > 0 ? new TokenBucket(ratePerSecond) : null;
+        }
+
+        int acquire(int max) {
+            return bucket != null ? bucket.tryAcquire(max) : max;
+        }
+
+        void release(int count) {
+            if (bucket != null && count > 0) {
+                bucket.release(count);
+            }
+        }
+
+        double availableTokens() {
+            return bucket != null ? bucket.available() : 0;
+        }
+    }
+
+    private final SessionFactory sessionFactory;
+    private final Map<NotificationChannel, ChannelState> channels = new EnumMap<>(NotificationChannel.class);
+    private final int batchSize;
+    private final ScheduledExecutorService workers;
+
+    public NotificationDispatcher(ObjectProvider<NotificationSender> registeredSenders,
+                                  ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.sessionFactory = OrmConfig.getSessionFactory();
+        Map<NotificationChannel, NotificationSender> senders = new EnumMap<>(NotificationChannel.class);
+        registeredSenders.orderedStream().forEach(sender -> senders.putIfAbsent(sender.channel(), sender));
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            channels.put(channel, new ChannelState(
+                    senders.getOrDefault(channel, new StubNotificationSender(channel)),
+                    OrmConfig.getNotificationRatePerSecond(channel.name())));
+        }
+        // ids porcji trafiają do jednego IN w UPDATE statusu
+        this.batchSize = Math.max(1, Math.min(OrmConfig.getNotificationDispatchBatchSize(), SqlSupport.IN_BATCH_SIZE));
+        createPendingIndexes();
+        meterRegistryProvider.ifAvailable(this::registerGauges);
+        this.workers = startWorkers(OrmConfig.getNotificationDispatchThreads(), OrmConfig.getNotificationDispatchInterval());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Jeden przebieg po wszystkich kanałach w kolejności priorytetu: każdy kanał jest opróżniany
+     * porcjami (do MAX_BATCHES_PER_ROUND porcji na przebieg albo do wyczerpania żetonów).
+     */
+    public List<DispatchResultDto> dispatchOnce() {
+        List<DispatchResultDto> results = new ArrayList<>();
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            results.add(drain(channel));
+        }
+        return results;
+    }
+
+    private DispatchResultDto drain(NotificationChannel channel) {
+        ChannelState state = channels.get(channel);
+        int expired = expireStale(channel);
+        int batches = 0;
+        int claimed = 0;
+        int sent = 0;
+        int failed = 0;
+        boolean rateLimited = false;
+        while (batches < MAX_BATCHES_PER_ROUND) {
+            int limit = state.acquire(batchSize);
+            if (limit == 0) {
+                rateLimited = true;
+                state.rateLimitedRounds.increment();
+                break;
+            }
+            BatchOutcome outcome;
+            try {
+                outcome = dispatchBatch(channel, state.sender, limit);
+            } catch (RuntimeException e) {
+                state.release(limit);
+                throw e;
+            }
+            // żetony zużywa tylko faktyczna próba wysyłki
+            state.release(limit - outcome.sent() - outcome.failed());
+            if (outcome.claimed() == 0) {
+                break;
+            }
+            batches++;
+            claimed += outcome.claimed();
+            sent += outcome.sent();
+            failed += outcome.failed();
+            expired += outcome.expired();
+            if (outcome.claimed() < limit) {
+                break;
+            }
+        }
+        state.sent.add(sent);
+        state.failed.add(failed);
+        state.expired.add(expired);
+        return DispatchResultDto.builder()
+                .channel(channel.name())
+                .batches(batches)
+                .claimed(claimed)
+                .sent(sent)
+                .failed(failed)
+                .expired(expired)
+                .rateLimited(rateLimited)
+                .build();
+    }
+
+    private BatchOutcome dispatchBatch(NotificationChannel channel, NotificationSender sender, int limit) {
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                List<? extends Notification> batch = session.getJdbcExecutor().query(
+                        "SELECT * FROM " + channel.getTable() + " WHERE status = ? ORDER BY " + channel.getClaimOrder()
+                                + " LIMIT ? FOR UPDATE SKIP LOCKED",
+                        channel.getRowMapper(), PENDING, limit);
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> sentIds = new ArrayList<>();
+                List<Long> failedIds = new ArrayList<>();
+                List<Long> expiredIds = new ArrayList<>();
+                for (Notification notification : batch) {
+                    if (isExpired(notification, now)) {
+                        expiredIds.add(notification.getId());
+                        continue;
+                    }
+                    try {
+                        sender.send(notification);
+                        sentIds.add(notification.getId());
+                    } catch (Exception e) {
+                        log.warn("Sending {} notification {} failed: {}", channel, notification.getId(), e.getMessage());
+                        failedIds.add(notification.getId());
+                    }
+                }
+                markStatus(session, channel, sentIds, SENT, Timestamp.valueOf(LocalDateTime.now()));
+                markStatus(session, channel, failedIds, FAILED, null);
+                markStatus(session, channel, expiredIds, EXPIRED, null);
+                session.commit();
+                return new BatchOutcome(batch.size(), sentIds.size(), failedIds.size(), expiredIds.size());
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to dispatch " + channel + " notifications: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * TTL mógł minąć między przejęciem porcji a wysyłką (albo przed nią, gdy kanał czekał na żetony).
+     */
+    private static boolean isExpired(Notification notification, LocalDateTime now) {
+        return notification instanceof PushNotification push
+                && push.getTimeToLive() != null
+                && push.getCreatedAt() != null
+                && push.getCreatedAt().plusSeconds(push.getTimeToLive()).isBefore(now);
+    }
+
+    /**
+     * Oznacza jako EXPIRED przeterminowane wiersze PENDING kanału (jednym UPDATE, bez żetonów).
+     * SKIP LOCKED - wiersze przejęte przez inny wątek sprawdzi on sam przed wysyłką.
+     */
+    private int expireStale(NotificationChannel channel) {
+        if (channel.getExpiredCondition() == null) {
+            return 0;
+        }
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                int expired = session.getJdbcExecutor().update("UPDATE " + channel.getTable() + " SET status = ?"
+                                + " WHERE id IN (SELECT id FROM " + channel.getTable() + " WHERE status = ? AND "
+                                + channel.getExpiredCondition() + " LIMIT ? FOR UPDATE SKIP LOCKED)",
+                        EXPIRED, PENDING, SqlSupport.IN_BATCH_SIZE);
+                session.commit();
+                return expired;
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to expire " + channel + " notifications: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // ==================== STATS ====================
+
+    /**
+     * Głębokość i opóźnienie kolejek liczone zapytaniem (indeks częściowy PENDING) oraz liczniki instancji.
+     */
+    public List<DispatchStatsDto> stats() {
+        List<DispatchStatsDto> stats = new ArrayList<>();
+        try (Session session = sessionFactory.openSession()) {
+            for (NotificationChannel channel : NotificationChannel.values()) {
+                ChannelState state = channels.get(channel);
+                QueueStats queue = readQueueStats(session, channel);
+                stats.add(DispatchStatsDto.builder()
+                        .channel(channel.name())
+                        .queueDepth(queue.depth())
+                        .lagSeconds(queue.lagSeconds())
+                        .ratePerSecond(state.ratePerSecond)
+                        .availableTokens(state.availableTokens())
+                        .sent(state.sent.sum())
+                        .failed(state.failed.sum())
+                        .expired(state.expired.sum())
+                        .rateLimitedRounds(state.rateLimitedRounds.sum())
+                        .build());
+            }
+        }
+        return stats;
+    }
+
+    private void registerGauges(MeterRegistry registry) {
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            ChannelState state = channels.get(channel);
+            String tag = channel.name().toLowerCase();
+            Gauge.builder("notification.queue.depth", this, dispatcher -> dispatcher.cachedQueueStats(channel).depth())
+                    .description("PENDING notifications waiting for dispatch")
+                    .tag("channel", tag)
+                    .register(registry);
+            Gauge.builder("notification.queue.lag", this, dispatcher -> dispatcher.cachedQueueStats(channel).lagSeconds())
+                    .description("Age of the oldest PENDING notification")
+                    .baseUnit("seconds")
+                    .tag("channel", tag)
+                    .register(registry);
+            Gauge.builder("notification.rate.tokens", state, ChannelState::availableTokens)
+                    .description("Tokens left in the channel rate limit (0 when unlimited)")
+                    .tag("channel", tag)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Odczyt kolejki dla gauge'y - świeży najwyżej sprzed QUEUE_STATS_TTL_NANOS (jeden odczyt na kanał na scrape).
+     */
+    private QueueStats cachedQueueStats(NotificationChannel channel) {
+        ChannelState state = channels.get(channel);
+        QueueStats queue = state.queue;
+        if (queue == null || System.nanoTime() - queue.readAt() > QUEUE_STATS_TTL_NANOS) {
+            try (Session session = sessionFactory.openSession()) {
+                queue = readQueueStats(session, channel);
+            }
+            state.queue = queue;
+        }
+        return queue;
+    }
+
+    private static QueueStats readQueueStats(Session session, NotificationChannel channel) {
+        LocalDateTime now = LocalDateTime.now();
+        return session.getJdbcExecutor().queryOne(
+                        "SELECT count(*) AS depth, min(created_at) AS oldest FROM " + channel.getTable() + " WHERE status = ?",
+                        rs -> {
+                            LocalDateTime oldest = SqlSupport.getLocalDateTime(rs, "oldest");
+                            return new QueueStats(rs.getLong("depth"),
+                                    oldest != null ? Math.max(0, Duration.between(oldest, now).toMillis() / 1000d) : 0,
+                                    System.nanoTime());
+                        }, PENDING)
+                .orElseThrow();
+    }
+
+    private static void markStatus(Session session, NotificationChannel channel, List<Long> ids, String status, Timestamp sentAt) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(status);
+        if (sentAt != null) {
+            params.add(sentAt);
+        }
+        params.addAll(ids);
+        session.getJdbcExecutor().update("UPDATE " + channel.getTable() + " SET status = ?"
+                + (sentAt != null ? ", sent_at = ?" : "")
+                + " WHERE id IN (" + SqlSupport.placeholders(ids.size()) + ")", params.toArray());
+    }
+
+    /**
+     * Indeks częściowy po id dla wierszy PENDING - przejęcie porcji nie skanuje wysłanej historii.
+     */
+    private void createPendingIndexes() {
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                for (NotificationChannel channel : NotificationChannel.values()) {
+                    session.getJdbcExecutor().executeStatement("CREATE INDEX IF NOT EXISTS " + channel.getTable()
+                            + "_pending_idx ON " + channel.getTable() + " (id) WHERE status = '" + PENDING + "'");
+                }
+                session.commit();
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to create notification dispatch indexes: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private ScheduledExecutorService startWorkers(int threads, Duration interval) {
+        if (threads <= 0) {
+            return null;
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatch-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, interval.toMillis());
+        for (int i = 0; i < threads; i++) {
+            // rozłożenie startów - wątki nie odpytują tabel w tej samej chwili
+            executor.scheduleWithFixedDelay(this::runWorker, period * i / threads, period, TimeUnit.MILLISECONDS);
+        }
+        return executor;
+    }
+
+    /**
+     * Przebiegi bez przerwy, dopóki któryś kanał wyczerpuje limit porcji; przerwa dopiero przy pustej kolejce.
+     */
+    private void runWorker() {
+        try {
+            boolean backlog;
+            do {
+                backlog = dispatchOnce().stream().anyMatch(result -> result.getBatches() == MAX_BATCHES_PER_ROUND);
+            } while (backlog && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            // wyjątek zatrzymałby kolejne uruchomienia tego wątku
+            log.warn("Notification dispatch failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package pl.edu.agh.dp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.dto.EmailNotificationDto;
+import pl.edu.agh.dp.dto.NotificationDto;
+import pl.edu.agh.dp.dto.NotificationStreamStatsDto;
+import pl.edu.agh.dp.dto.PushNotificationDto;
+import pl.edu.agh.dp.dto.SmsNotificationDto;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Szyna zdarzeń powiadomień w procesie: NotificationService publikuje utworzone i zmienione
+ * powiadomienia po zatwierdzeniu transakcji, a szyna rozsyła je do subskrybentów (strumień SSE).
+ *
+ * Publikacja nie blokuje zapisu: zdarzenie trafia do ograniczonego bufora każdego subskrybenta,
+ * a dostarcza je osobny wątek wirtualny subskrybenta, więc wolny klient blokuje tylko siebie.
+ * Pełny bufor (klient nie nadąża) obsługuje polityka NOTIFICATION_STREAM_SLOW_CONSUMER: drop -
+ * odrzucenie najstarszego zdarzenia z bufora, disconnect - rozłączenie klienta. Zdarzenia nie są
+ * trwałe: klient po ponownym połączeniu nie dostaje tego, co ominął (Last-Event-ID nie jest wspierany),
+ * a zapisy innych instancji aplikacji nie są widoczne.
+ */
+@Service
+public class NotificationEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationEventBus.class);
+
+    public enum EventType {
+        CREATED, UPDATED, HEARTBEAT;
+
+        /** Nazwa zdarzenia SSE (pole {@code event:}). */
+        public String eventName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public enum SlowConsumerPolicy {
+        DROP, DISCONNECT;
+
+        static SlowConsumerPolicy parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown NOTIFICATION_STREAM_SLOW_CONSUMER '" + value
+                        + "', allowed: drop, disconnect", e);
+            }
+        }
+    }
+
+    /**
+     * Zdarzenie z numerem kolejnym w tej instancji; {@code notification} = null dla HEARTBEAT.
+     */
+    public record Event(long id, EventType type, NotificationDto notification) {
+    }
+
+    /**
+     * Odbiorca zdarzeń subskrybenta (np. połączenie SSE). Wyjątek z {@link #send} rozłącza subskrybenta.
+     */
+    public interface Sink {
+
+        void send(Event event) throws Exception;
+
+        /** Wywoływane raz, na końcu subskrypcji: anulowanie, wolny klient, błąd wysyłki albo zamknięcie aplikacji. */
+        void close();
+    }
+
+    public interface Subscription {
+
+        void cancel();
+    }
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /** Zajęte miejsca subskrybentów - rezerwowane CAS-em przed dodaniem, zwalniane w Subscriber.close. */
+    private final AtomicInteger activeSubscribers = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final SlowConsumerPolicy policy;
+    private final ExecutorService delivery;
+    private final ScheduledExecutorService heartbeat;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+
+    public NotificationEventBus() {
+        this(OrmConfig.getNotificationStreamBufferSize(), OrmConfig.getNotificationStreamMaxSubscribers(),
+                SlowConsumerPolicy.parse(OrmConfig.getNotificationStreamSlowConsumerPolicy()),
+                OrmConfig.getNotificationStreamHeartbeatMillis());
+    }
+
+    NotificationEventBus(int bufferSize, int maxSubscribers, SlowConsumerPolicy policy, long heartbeatMillis) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.policy = policy;
+        this.delivery = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("notification-stream-", 0).factory());
+        this.heartbeat = startHeartbeat(heartbeatMillis);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.close(false));
+        delivery.shutdownNow();
+    }
+
+    /**
+     * Rejestruje subskrybenta; {@code recipient} (email, numer telefonu, token urządzenia) zawęża
+     * strumień do powiadomień adresata, null - wszystkie.
+     *
+     * @throws IllegalStateException gdy osiągnięto NOTIFICATION_STREAM_MAX_SUBSCRIBERS
+     */
+    public Subscription subscribe(String recipient, Sink sink) {
+        if (!reserveSlot()) {
+            throw new IllegalStateException("Too many notification stream subscribers (max " + maxSubscribers + ")");
+        }
+        Subscriber subscriber = new Subscriber(recipient == null || recipient.isBlank() ? null : recipient, sink);
+        subscribers.add(subscriber);
+        return () -> subscriber.close(false);
+    }
+
+    /**
+     * Zajmuje miejsce subskrybenta; sprawdzenie limitu i zajęcie są jedną operacją, więc równoległe
+     * subscribe nie przekroczą NOTIFICATION_STREAM_MAX_SUBSCRIBERS.
+     */
+    private boolean reserveSlot() {
+        while (true) {
+            int active = activeSubscribers.get();
+            if (maxSubscribers > 0 && active >= maxSubscribers) {
+                return false;
+            }
+            if (activeSubscribers.compareAndSet(active, active + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Publikuje zdarzenie wszystkim pasującym subskrybentom; nie czeka na dostarczenie.
+     */
+    void publish(EventType type, NotificationDto notification) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Event event = new Event(sequence.incrementAndGet(), type, notification);
+        published.increment();
+        String recipient = recipientOf(notification);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.recipient == null || subscriber.recipient.equals(recipient)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    public NotificationStreamStatsDto stats() {
+        return NotificationStreamStatsDto.builder()
+                .subscribers(activeSubscribers.get())
+                .bufferSize(bufferSize)
+                .slowConsumerPolicy(policy.name())
+                .published(published.sum())
+                .delivered(delivered.sum())
+                .dropped(dropped.sum())
+                .disconnected(disconnected.sum())
+                .build();
+    }
+
+    /**
+     * Adresat powiadomienia wg kanału; null dla bazowego Notification.
+     */
+    static String recipientOf(NotificationDto notification) {
+        if (notification instanceof EmailNotificationDto email) {
+            return email.getRecipientEmail();
+        }
+        if (notification instanceof SmsNotificationDto sms) {
+            return sms.getPhoneNumber();
+        }
+        if (notification instanceof PushNotificationDto push) {
+            return push.getDeviceToken();
+        }
+        return null;
+    }
+
+    /**
+     * Subskrybent z własnym buforem. Co najwyżej jeden wątek naraz opróżnia bufor ({@code draining}),
+     * więc zdarzenia trafiają do odbiorcy po kolei i bez równoległych zapisów do połączenia.
+     */
+    private final class Subscriber {
+
+        private final String recipient;
+        private final Sink sink;
+        private final BlockingQueue<Event> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(String recipient, Sink sink) {
+            this.recipient = recipient;
+            this.sink = sink;
+        }
+
+        private void offer(Event event) {
+            if (closed.get()) {
+                return;
+            }
+            while (!buffer.offer(event)) {
+                if (policy == SlowConsumerPolicy.DISCONNECT) {
+                    log.debug("Disconnecting slow notification stream subscriber (buffer of {} events full)", bufferSize);
+                    close(true);
+                    return;
+                }
+                if (buffer.poll() != null) {
+                    dropped.increment();
+                }
+            }
+            scheduleDrain();
+        }
+
+        /**
+         * Heartbeat tylko przy pustym buforze - przy zaległościach połączenie i tak jest sprawdzane wysyłką.
+         */
+        private void heartbeat() {
+            if (!closed.get() && buffer.isEmpty() && buffer.offer(new Event(0, EventType.HEARTBEAT, null))) {
+                scheduleDrain();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    delivery.execute(this::drain);
+                } catch (RuntimeException e) {
+                    // executor zamknięty - aplikacja się zatrzymuje
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                Event event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    try {
+                        sink.send(event);
+                        if (event.type() != EventType.HEARTBEAT) {
+                            delivered.increment();
+                        }
+                    } catch (Exception e) {
+                        log.debug("Notification stream subscriber disconnected: {}", e.getMessage());
+                        close(true);
+                    }
+                }
+                draining.set(false);
+                // zdarzenie dodane po ostatnim poll, a przed zwolnieniem flagi - opróżnia ten sam wątek
+            } while (!closed.get() && !buffer.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        /**
+         * @param disconnect rozłączenie przez szynę (polityka disconnect albo błąd wysyłki); anulowanie
+         *                   przez klienta i zamknięcie aplikacji nie są liczone w {@code disconnected}
+         */
+        private void close(boolean disconnect) {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                activeSubscribers.decrementAndGet();
+                buffer.clear();
+                if (disconnect) {
+                    disconnected.increment();
+                }
+                sink.close();
+            }
+        }
+    }
+
+    private ScheduledExecutorService startHeartbeat(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            return null;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> subscribers.forEach(Subscriber::heartbeat),
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return executor;
+    }
+}
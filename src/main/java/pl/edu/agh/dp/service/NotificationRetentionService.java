@@ -0,0 +1,215 @@
+package pl.edu.agh.dp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.dto.NotificationPartitionDto;
+import pl.edu.agh.dp.dto.PartitionMaintenanceDto;
+import pl.edu.agh.dp.orm.MonthlyPartitions;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Utrzymanie partycji miesięcznych tabel powiadomień (NOTIFICATION_PARTITIONING_ENABLED).
+ *
+ * Przebieg zakłada partycje na bieżący i kolejne miesiące, a partycje starsze niż retencja
+ * usuwa (DROP TABLE) albo odłącza i przenosi do schematu archiwum - w obu przypadkach bez
+ * DELETE wiersz po wierszu, więc bez martwych krotek i VACUUM. Przebieg działa przy starcie
+ * i potem co godzinę w tle; każda partycja to osobna, krótka transakcja. Błąd jednej tabeli
+ * lub partycji trafia do wyniku przebiegu i nie zatrzymuje pozostałych.
+ */
+@Service
+public class NotificationRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    static final String DROP = "drop";
+    static final String ARCHIVE = "archive";
+
+    /** Schemat poza public - CoreORM (orm.schema.auto=create) odtwarza przy starcie tylko public. */
+    private static final String ARCHIVE_SCHEMA = "notification_archive";
+
+    private static final long MAINTENANCE_INTERVAL_MINUTES = 60;
+
+    private final SessionFactory sessionFactory;
+    private final NotificationService notificationService;
+    private final ScheduledExecutorService maintenance;
+
+    public NotificationRetentionService(NotificationService notificationService) {
+        this.sessionFactory = OrmConfig.getSessionFactory();
+        this.notificationService = notificationService;
+        this.maintenance = OrmConfig.isNotificationPartitioningEnabled() ? startMaintenance() : null;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+    }
+
+    /**
+     * Partycje wszystkich tabel powiadomień.
+     *
+     * @throws IllegalArgumentException gdy partycjonowanie jest wyłączone
+     */
+    public List<NotificationPartitionDto> partitions() {
+        requireEnabled();
+        try (Session session = sessionFactory.openSession()) {
+            List<NotificationPartitionDto> partitions = new ArrayList<>();
+            for (String table : OrmConfig.NOTIFICATION_TABLES) {
+                for (MonthlyPartitions.Partition partition : MonthlyPartitions.list(session, table)) {
+                    partitions.add(NotificationPartitionDto.builder()
+                            .table(partition.table())
+                            .partition(partition.name())
+                            .month(partition.month() != null ? partition.month().toString() : null)
+                            .estimatedRows(partition.estimatedRows())
+                            .build());
+                }
+            }
+            return partitions;
+        }
+    }
+
+    /**
+     * Jeden przebieg utrzymania: partycje naprzód oraz dla miesięcy, których wiersze leżą
+     * w partycji domyślnej, potem retencja.
+     *
+     * @throws IllegalArgumentException gdy partycjonowanie jest wyłączone albo tryb retencji jest nieznany
+     */
+    public synchronized PartitionMaintenanceDto runMaintenance() {
+        requireEnabled();
+        int retentionMonths = OrmConfig.getNotificationRetentionMonths();
+        String mode = OrmConfig.getNotificationRetentionMode().toLowerCase(Locale.ROOT);
+        if (!DROP.equals(mode) && !ARCHIVE.equals(mode)) {
+            throw new IllegalArgumentException("Unknown NOTIFICATION_RETENTION_MODE '" + mode + "', allowed: drop, archive");
+        }
+
+        YearMonth current = YearMonth.now();
+        YearMonth ahead = current.plusMonths(OrmConfig.getNotificationPartitionsAhead());
+        int created = 0;
+        List<String> failures = new ArrayList<>();
+        for (String table : OrmConfig.NOTIFICATION_TABLES) {
+            try {
+                created += inTransaction("create partitions of " + table, session -> ensurePartitions(session, table, current, ahead));
+            } catch (RuntimeException e) {
+                failures.add(e.getMessage());
+            }
+        }
+
+        List<String> dropped = new ArrayList<>();
+        List<String> archived = new ArrayList<>();
+        if (retentionMonths > 0) {
+            YearMonth cutoff = current.minusMonths(retentionMonths);
+            for (MonthlyPartitions.Partition partition : expiredPartitions(cutoff)) {
+                try {
+                    if (ARCHIVE.equals(mode)) {
+                        archived.add(inTransaction("archive partition " + partition.name(),
+                                session -> MonthlyPartitions.archive(session, partition, ARCHIVE_SCHEMA)));
+                    } else {
+                        inTransaction("drop partition " + partition.name(), session -> {
+                            MonthlyPartitions.drop(session, partition);
+                            return null;
+                        });
+                        dropped.add(partition.name());
+                    }
+                } catch (RuntimeException e) {
+                    failures.add(e.getMessage());
+                }
+            }
+        }
+        if (!dropped.isEmpty() || !archived.isEmpty()) {
+            // usunięte wiersze mogły być nieprzeczytane - liczniki w pamięci od nowa z bazy
+            notificationService.rebuildUnreadCounts();
+        }
+
+        return PartitionMaintenanceDto.builder()
+                .createdPartitions(created)
+                .retentionMonths(retentionMonths)
+                .retentionMode(mode)
+                .dropped(dropped)
+                .archived(archived)
+                .failures(failures)
+                .build();
+    }
+
+    /**
+     * Partycje bieżącego i kolejnych miesięcy oraz miesięcy wierszy z partycji domyślnej
+     * (createdAt klienta spoza zakresu) - te wiersze są przenoszone do nowych partycji.
+     */
+    private static int ensurePartitions(Session session, String table, YearMonth current, YearMonth ahead) {
+        String column = OrmConfig.NOTIFICATION_PARTITION_COLUMN;
+        int created = MonthlyPartitions.ensureMonths(session, table, column, current, ahead);
+        for (YearMonth month : MonthlyPartitions.monthsInDefault(session, table, column)) {
+            created += MonthlyPartitions.ensureMonths(session, table, column, month, month);
+        }
+        return created;
+    }
+
+    /**
+     * Partycje miesięcy przed {@code cutoff}; partycja domyślna (created_at = NULL) nie podlega retencji.
+     */
+    private List<MonthlyPartitions.Partition> expiredPartitions(YearMonth cutoff) {
+        try (Session session = sessionFactory.openSession()) {
+            List<MonthlyPartitions.Partition> expired = new ArrayList<>();
+            for (String table : OrmConfig.NOTIFICATION_TABLES) {
+                MonthlyPartitions.list(session, table).stream()
+                        .filter(partition -> partition.month() != null && partition.month().isBefore(cutoff))
+                        .forEach(expired::add);
+            }
+            return expired;
+        }
+    }
+
+    private <T> T inTransaction(String action, Function<Session, T> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                T result = work.apply(session);
+                session.commit();
+                return result;
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to " + action + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void requireEnabled() {
+        if (!OrmConfig.isNotificationPartitioningEnabled()) {
+            throw new IllegalArgumentException("Notification partitioning is disabled (NOTIFICATION_PARTITIONING_ENABLED=false)");
+        }
+    }
+
+    private ScheduledExecutorService startMaintenance() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-partition-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                PartitionMaintenanceDto result = runMaintenance();
+                if (result.getCreatedPartitions() > 0 || !result.getDropped().isEmpty() || !result.getArchived().isEmpty()) {
+                    log.info("Notification partitions: {} created, dropped {}, archived {}",
+                            result.getCreatedPartitions(), result.getDropped(), result.getArchived());
+                }
+                result.getFailures().forEach(failure -> log.warn("Notification partition maintenance: {}", failure));
+            } catch (RuntimeException e) {
+                log.warn("Notification partition maintenance failed: {}", e.getMessage());
+            }
+        }, 0, MAINTENANCE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+        return executor;
+    }
+}
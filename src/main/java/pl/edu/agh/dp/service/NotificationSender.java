@@ -0,0 +1,18 @@
+package pl.edu.agh.dp.service;
+
+import pl.edu.agh.dp.entity.Notification;
+
+/**
+ * Wysyłka powiadomień jednego kanału. Implementacje rejestrowane jako beany Springa zastępują
+ * zaślepkę {@link StubNotificationSender} dla swojego kanału.
+ *
+ * Dispatcher przekazuje encję podklasy odpowiadającą kanałowi (np. EmailNotification dla EMAIL).
+ * Wyjątek oznacza nieudaną wysyłkę tego powiadomienia (status FAILED); pozostałe z porcji
+ * są wysyłane dalej.
+ */
+public interface NotificationSender {
+
+    NotificationChannel channel();
+
+    void send(Notification notification) throws Exception;
+}
@@ -3,19 +3,38 @@ package pl.edu.agh.dp.service;
 import org.springframework.stereotype.Service;
 import pl.edu.agh.dp.core.api.Session;
 import pl.edu.agh.dp.core.api.SessionFactory;
+import pl.edu.agh.dp.core.finder.Finder;
 import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.dto.BulkResultDto;
+import pl.edu.agh.dp.dto.CursorPage;
+import pl.edu.agh.dp.dto.MarkReadRequestDto;
+import pl.edu.agh.dp.dto.MultiGetResultDto;
 import pl.edu.agh.dp.dto.NotificationDto;
 import pl.edu.agh.dp.dto.EmailNotificationDto;
 import pl.edu.agh.dp.dto.SmsNotificationDto;
 import pl.edu.agh.dp.dto.PushNotificationDto;
+import pl.edu.agh.dp.dto.UnreadCountDto;
 import pl.edu.agh.dp.entity.Notification;
 import pl.edu.agh.dp.entity.EmailNotification;
 import pl.edu.agh.dp.entity.SmsNotification;
 import pl.edu.agh.dp.entity.PushNotification;
+import pl.edu.agh.dp.orm.JdbcBatchInsert;
+import pl.edu.agh.dp.orm.SqlSupport;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,20 +43,32 @@ import java.util.stream.Collectors;
 @Service
 public class NotificationService {
 
+    /** Liczba tabel hierarchii: notifications, email_notifications, sms_notifications, push_notifications. */
+    private static final int NOTIFICATION_TABLES = 4;
+
+    /** Liczba wierszy pobieranych przez kursor JDBC w jednej porcji przy eksporcie. */
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private final SessionFactory sessionFactory;
+    private final UnreadCounter unread = new UnreadCounter();
+    private final NotificationEventBus events;
 
-    public NotificationService() {
+    public NotificationService(NotificationEventBus events) {
         this.sessionFactory = OrmConfig.getSessionFactory();
+        this.events = events;
+        rebuildUnreadCounts();
     }
 
     public NotificationDto create(NotificationDto dto) {
         try (Session session = sessionFactory.openSession()) {
             session.begin();
             try {
-                Notification notification = dto.toEntity();
+                Notification notification = stampCreatedAt(dto.toEntity());
                 session.save(notification);
                 session.commit();
-                return NotificationDto.fromEntity(notification);
+                NotificationDto created = NotificationDto.fromEntity(notification);
+                countUnread(created);
+                return published(NotificationEventBus.EventType.CREATED, created);
             } catch (Exception e) {
                 session.rollback();
                 throw new RuntimeException("Failed to create notification: " + e.getMessage(), e);
@@ -49,10 +80,12 @@ public class NotificationService {
         try (Session session = sessionFactory.openSession()) {
             session.begin();
             try {
-                EmailNotification notification = (EmailNotification) dto.toEntity();
+                EmailNotification notification = stampCreatedAt((EmailNotification) dto.toEntity());
                 session.save(notification);
                 session.commit();
-                return EmailNotificationDto.fromEntity(notification);
+                EmailNotificationDto created = EmailNotificationDto.fromEntity(notification);
+                countUnread(created);
+                return published(NotificationEventBus.EventType.CREATED, created);
             } catch (Exception e) {
                 session.rollback();
                 throw new RuntimeException("Failed to create email notification: " + e.getMessage(), e);
@@ -64,10 +97,12 @@ public class NotificationService {
         try (Session session = sessionFactory.openSession()) {
             session.begin();
             try {
-                SmsNotification notification = (SmsNotification) dto.toEntity();
+                SmsNotification notification = stampCreatedAt((SmsNotification) dto.toEntity());
                 session.save(notification);
                 session.commit();
-                return SmsNotificationDto.fromEntity(notification);
+                SmsNotificationDto created = SmsNotificationDto.fromEntity(notification);
+                countUnread(created);
+                return published(NotificationEventBus.EventType.CREATED, created);
             } catch (Exception e) {
                 session.rollback();
                 throw new RuntimeException("Failed to create SMS notification: " + e.getMessage(), e);
@@ -79,10 +114,12 @@ public class NotificationService {
         try (Session session = sessionFactory.openSession()) {
             session.begin();
             try {
-                PushNotification notification = (PushNotification) dto.toEntity();
+                PushNotification notification = stampCreatedAt((PushNotification) dto.toEntity());
                 session.save(notification);
                 session.commit();
-                return PushNotificationDto.fromEntity(notification);
+                PushNotificationDto created = PushNotificationDto.fromEntity(notification);
+                countUnread(created);
+                return published(NotificationEventBus.EventType.CREATED, created);
             } catch (Exception e) {
                 session.rollback();
                 throw new RuntimeException("Failed to create push notification: " + e.getMessage(), e);
@@ -127,18 +164,331 @@ public class NotificationService {
         }
     }
 
-    public List<NotificationDto> findAll() {
+    // ==================== BULK CREATE ====================
+
+    private static final String COMMON_COLUMNS = "title, message, created_at, sent_at, is_read, status";
+
+    private static final String EMAIL_INSERT = "INSERT INTO email_notifications (" + COMMON_COLUMNS
+            + ", recipient_email, subject, sender_email, cc_emails, bcc_emails, is_html, attachments)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SMS_INSERT = "INSERT INTO sms_notifications (" + COMMON_COLUMNS
+            + ", phone_number, sender_number, carrier, delivery_report, message_parts)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String PUSH_INSERT = "INSERT INTO push_notifications (" + COMMON_COLUMNS
+            + ", device_token, platform, category, action_url, image_url, badge_count, is_silent, time_to_live)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Tworzy wiele powiadomień email w jednej transakcji (JDBC batch po {@code chunkSize} wierszy).
+     */
+    public BulkResultDto<EmailNotificationDto> createEmailBulk(List<EmailNotificationDto> dtos, Integer chunkSize) {
+        return createBulk("email notifications", dtos, chunkSize, EMAIL_INSERT,
+                BulkInsertSupport.validating(
+                        dto -> validateRequired(dto, dto.getRecipientEmail(), "recipientEmail"),
+                        dto -> applyDefaults((EmailNotification) dto.toEntity())),
+                (ps, n) -> {
+                    bindCommon(ps, n);
+                    ps.setObject(7, n.getRecipientEmail());
+                    ps.setObject(8, n.getSubject());
+                    ps.setObject(9, n.getSenderEmail());
+                    ps.setObject(10, n.getCcEmails());
+                    ps.setObject(11, n.getBccEmails());
+                    ps.setObject(12, n.getIsHtml());
+                    ps.setObject(13, n.getAttachments());
+                },
+                EmailNotificationDto::fromEntity);
+    }
+
+    /**
+     * Tworzy wiele powiadomień SMS w jednej transakcji (JDBC batch po {@code chunkSize} wierszy).
+     */
+    public BulkResultDto<SmsNotificationDto> createSmsBulk(List<SmsNotificationDto> dtos, Integer chunkSize) {
+        return createBulk("SMS notifications", dtos, chunkSize, SMS_INSERT,
+                BulkInsertSupport.validating(
+                        dto -> validateRequired(dto, dto.getPhoneNumber(), "phoneNumber"),
+                        dto -> applyDefaults((SmsNotification) dto.toEntity())),
+                (ps, n) -> {
+                    bindCommon(ps, n);
+                    ps.setObject(7, n.getPhoneNumber());
+                    ps.setObject(8, n.getSenderNumber());
+                    ps.setObject(9, n.getCarrier());
+                    ps.setObject(10, n.getDeliveryReport());
+                    ps.setObject(11, n.getMessageParts());
+                },
+                SmsNotificationDto::fromEntity);
+    }
+
+    /**
+     * Tworzy wiele powiadomień push w jednej transakcji (JDBC batch po {@code chunkSize} wierszy).
+     */
+    public BulkResultDto<PushNotificationDto> createPushBulk(List<PushNotificationDto> dtos, Integer chunkSize) {
+        return createBulk("push notifications", dtos, chunkSize, PUSH_INSERT,
+                BulkInsertSupport.validating(
+                        dto -> validateRequired(dto, dto.getDeviceToken(), "deviceToken"),
+                        dto -> applyDefaults((PushNotification) dto.toEntity())),
+                (ps, n) -> {
+                    bindCommon(ps, n);
+                    ps.setObject(7, n.getDeviceToken());
+                    ps.setObject(8, n.getPlatform());
+                    ps.setObject(9, n.getCategory());
+                    ps.setObject(10, n.getActionUrl());
+                    ps.setObject(11, n.getImageUrl());
+                    ps.setObject(12, n.getBadgeCount());
+                    ps.setObject(13, n.getIsSilent());
+                    ps.setObject(14, n.getTimeToLive());
+                },
+                PushNotificationDto::fromEntity);
+    }
+
+    private <S, E extends Notification, D> BulkResultDto<D> createBulk(String label, List<S> dtos, Integer chunkSize, String sql,
+                                                                      BulkInsertSupport.ChunkMapper<S, E> mapper,
+                                                                      JdbcBatchInsert.ParameterBinder<E> binder,
+                                                                      Function<E, D> toDto) {
+        BulkInsertSupport.checkRequestSize(dtos);
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                BulkResultDto<D> result = BulkInsertSupport.insert(session, dtos, BulkInsertSupport.chunkSize(chunkSize),
+                        sql, mapper, binder, Notification::setId, toDto);
+                session.commit();
+                result.getItems().forEach(this::countUnread);
+                result.getItems().forEach(item -> published(NotificationEventBus.EventType.CREATED, (NotificationDto) item));
+                return result;
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to bulk create " + label + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Sprawdza kolumny NOT NULL: title oraz wymagane pole kanału (adres/numer/token).
+     */
+    private static String validateRequired(NotificationDto dto, String channelValue, String channelField) {
+        if (BulkInsertSupport.isBlank(dto.getTitle())) {
+            return "title is required";
+        }
+        if (BulkInsertSupport.isBlank(channelValue)) {
+            return channelField + " is required";
+        }
+        return null;
+    }
+
+    /**
+     * Uzupełnia wartości domyślne kolumn (@Column(defaultValue)) - INSERT batch podaje wszystkie kolumny,
+     * więc DEFAULT z bazy nie zadziała dla przekazanego NULL.
+     */
+    private static <N extends Notification> N applyDefaults(N notification) {
+        stampCreatedAt(notification);
+        if (notification.getIsRead() == null) {
+            notification.setIsRead(false);
+        }
+        if (notification.getStatus() == null) {
+            notification.setStatus("PENDING");
+        }
+        if (notification instanceof EmailNotification email && email.getIsHtml() == null) {
+            email.setIsHtml(false);
+        }
+        if (notification instanceof PushNotification push && push.getIsSilent() == null) {
+            push.setIsSilent(false);
+        }
+        return notification;
+    }
+
+    /**
+     * Czas utworzenia nadawany przez serwer, gdy klient go nie podał - wiersz z NULL trafiłby do
+     * partycji domyślnej i nie podlegałby retencji (NOTIFICATION_PARTITIONING_ENABLED).
+     */
+    private static <N extends Notification> N stampCreatedAt(N notification) {
+        if (notification.getCreatedAt() == null) {
+            notification.setCreatedAt(LocalDateTime.now());
+        }
+        return notification;
+    }
+
+    private static void bindCommon(PreparedStatement ps, Notification n) throws SQLException {
+        ps.setObject(1, n.getTitle());
+        ps.setObject(2, n.getMessage());
+        ps.setObject(3, n.getCreatedAt());
+        ps.setObject(4, n.getSentAt());
+        ps.setObject(5, n.getIsRead());
+        ps.setObject(6, n.getStatus());
+    }
+
+    // ==================== MULTI-GET ====================
+
+    /**
+     * Multi-get po typie: w TABLE_PER_CLASS ten sam id może istnieć w kilku tabelach,
+     * więc id są jednoznaczne tylko w obrębie jednej podklasy - jedno zapytanie IN na tabelę.
+     */
+    public MultiGetResultDto<EmailNotificationDto> findEmailsByIds(List<Long> ids) {
+        return findByIds(EmailNotification.class, ids, EmailNotificationDto::fromEntity);
+    }
+
+    public MultiGetResultDto<SmsNotificationDto> findSmsByIds(List<Long> ids) {
+        return findByIds(SmsNotification.class, ids, SmsNotificationDto::fromEntity);
+    }
+
+    public MultiGetResultDto<PushNotificationDto> findPushByIds(List<Long> ids) {
+        return findByIds(PushNotification.class, ids, PushNotificationDto::fromEntity);
+    }
+
+    private <E extends Notification, D> MultiGetResultDto<D> findByIds(Class<E> entityClass, List<Long> ids,
+                                                                     Function<E, D> mapper) {
+        List<Long> distinct = MultiGetResultDto.distinctIds(ids);
         try (Session session = sessionFactory.openSession()) {
-            List<NotificationDto> result = new ArrayList<>();
+            Map<Long, E> byId = new HashMap<>();
+            for (E notification : SqlSupport.findByIds(session, entityClass, distinct)) {
+                byId.put(notification.getId(), notification);
+            }
+            return MultiGetResultDto.of(distinct, byId, mapper);
+        }
+    }
 
-            List<Notification> notifications = session.findAll(Notification.class);
+    /**
+     * Pobiera stronę powiadomień wszystkich typów.
+     *
+     * W TABLE_PER_CLASS każda tabela ma własną sekwencję id, więc ten sam id może wystąpić
+     * w kilku tabelach. Kursor to para (id, rank typu), a zapytanie pobiera zapas
+     * 2 * NOTIFICATION_TABLES wierszy: na odrzucenie już zwróconych wierszy z id z kursora
+     * oraz niekompletnej grupy o największym id na końcu wyniku.
+     */
+    public CursorPage<NotificationDto> findPage(String cursor, Integer size) {
+        CursorPage.Key after = CursorPage.Key.decode(cursor);
+        int pageSize = CursorPage.clampSize(size);
+        int limit = pageSize + 1 + 2 * NOTIFICATION_TABLES;
+        try (Session session = sessionFactory.openSession()) {
+            Finder<Notification> finder = session.finder(Notification.class);
+            if (after != null) {
+                finder.gte("id", after.getId());
+            }
+            List<Notification> notifications = new ArrayList<>(finder.orderAsc("id").limit(limit).list());
+
+            if (notifications.size() == limit) {
+                long tailId = notifications.get(notifications.size() - 1).getId();
+                notifications.removeIf(n -> n.getId() == tailId);
+            }
+            if (after != null) {
+                notifications.removeIf(n -> n.getId() == after.getId() && typeRank(n) <= after.getRank());
+            }
+            notifications.sort(Comparator.comparing(Notification::getId).thenComparingInt(NotificationService::typeRank));
 
-            notifications.forEach(notification -> result.add(NotificationDto.fromEntity(notification)));
+            return CursorPage.of(notifications, pageSize, n -> CursorPage.Key.of(n.getId(), typeRank(n)), page -> page.stream()
+                    .map(NotificationDto::fromEntity)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Kolejność typów dla wierszy o tym samym id (część klucza kursora).
+     */
+    private static int typeRank(Notification notification) {
+        if (notification instanceof EmailNotification) {
+            return 1;
+        } else if (notification instanceof SmsNotification) {
+            return 2;
+        } else if (notification instanceof PushNotification) {
+            return 3;
+        }
+        return 0;
+    }
 
-            return result;
+    /**
+     * Powiadomienia wszystkich typów z created_at w [{@code from}, {@code to}), od najstarszych.
+     * Warunek zakresu na kolumnie partycjonowania pozwala PostgreSQL pominąć partycje miesięcy
+     * spoza zakresu (partition pruning), gdy tabele są partycjonowane.
+     *
+     * @throws IllegalArgumentException gdy zakres jest pusty
+     */
+    public List<NotificationDto> findCreatedBetween(LocalDateTime from, LocalDateTime to, Integer limit) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        try (Session session = sessionFactory.openSession()) {
+            return session.finder(Notification.class)
+                    .gte("createdAt", from)
+                    .lt("createdAt", to)
+                    .orderAsc("createdAt")
+                    .limit(CursorPage.clampSize(limit))
+                    .list().stream()
+                    .map(NotificationDto::fromEntity)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Strumieniuje wszystkie powiadomienia (eksport NDJSON) kursorem JDBC z fetch size.
+     * Tabele TABLE_PER_CLASS są czytane kolejno, każda własnym kursorem, a wiersze
+     * trafiają do consumera pojedynczo, bez budowania list encji i DTO.
+     *
+     * @return liczba wyeksportowanych powiadomień
+     */
+    public long streamAll(Consumer<? super NotificationDto> consumer) {
+        try (Session session = sessionFactory.openSession()) {
+            long count = 0;
+            count += SqlSupport.forEachRow(session, "SELECT * FROM notifications ORDER BY id", EXPORT_FETCH_SIZE,
+                    rs -> NotificationDto.fromEntity(fillCommonFields(new Notification(), rs)), consumer);
+            count += SqlSupport.forEachRow(session, "SELECT * FROM email_notifications ORDER BY id", EXPORT_FETCH_SIZE,
+                    rs -> NotificationDto.fromEntity(mapEmailRow(rs)), consumer);
+            count += SqlSupport.forEachRow(session, "SELECT * FROM sms_notifications ORDER BY id", EXPORT_FETCH_SIZE,
+                    rs -> NotificationDto.fromEntity(mapSmsRow(rs)), consumer);
+            count += SqlSupport.forEachRow(session, "SELECT * FROM push_notifications ORDER BY id", EXPORT_FETCH_SIZE,
+                    rs -> NotificationDto.fromEntity(mapPushRow(rs)), consumer);
+            return count;
         }
     }
 
+    static EmailNotification mapEmailRow(ResultSet rs) throws SQLException {
+        EmailNotification email = fillCommonFields(new EmailNotification(), rs);
+        email.setRecipientEmail(rs.getString("recipient_email"));
+        email.setSubject(rs.getString("subject"));
+        email.setSenderEmail(rs.getString("sender_email"));
+        email.setCcEmails(rs.getString("cc_emails"));
+        email.setBccEmails(rs.getString("bcc_emails"));
+        email.setIsHtml(rs.getObject("is_html", Boolean.class));
+        email.setAttachments(rs.getString("attachments"));
+        return email;
+    }
+
+    static SmsNotification mapSmsRow(ResultSet rs) throws SQLException {
+        SmsNotification sms = fillCommonFields(new SmsNotification(), rs);
+        sms.setPhoneNumber(rs.getString("phone_number"));
+        sms.setSenderNumber(rs.getString("sender_number"));
+        sms.setCarrier(rs.getString("carrier"));
+        sms.setDeliveryReport(rs.getObject("delivery_report", Boolean.class));
+        sms.setMessageParts(rs.getObject("message_parts", Integer.class));
+        return sms;
+    }
+
+    static PushNotification mapPushRow(ResultSet rs) throws SQLException {
+        PushNotification push = fillCommonFields(new PushNotification(), rs);
+        push.setDeviceToken(rs.getString("device_token"));
+        push.setPlatform(rs.getString("platform"));
+        push.setCategory(rs.getString("category"));
+        push.setActionUrl(rs.getString("action_url"));
+        push.setImageUrl(rs.getString("image_url"));
+        push.setBadgeCount(rs.getObject("badge_count", Integer.class));
+        push.setIsSilent(rs.getObject("is_silent", Boolean.class));
+        push.setTimeToLive(rs.getObject("time_to_live", Integer.class));
+        return push;
+    }
+
+    /**
+     * Wypełnia kolumny wspólne dla wszystkich tabel hierarchii Notification.
+     */
+    private static <N extends Notification> N fillCommonFields(N notification, ResultSet rs) throws SQLException {
+        notification.setId(rs.getLong("id"));
+        notification.setTitle(rs.getString("title"));
+        notification.setMessage(rs.getString("message"));
+        notification.setCreatedAt(SqlSupport.getLocalDateTime(rs, "created_at"));
+        notification.setSentAt(SqlSupport.getLocalDateTime(rs, "sent_at"));
+        notification.setIsRead(rs.getObject("is_read", Boolean.class));
+        notification.setStatus(rs.getString("status"));
+        return notification;
+    }
+
     public List<EmailNotificationDto> findAllEmails() {
         try (Session session = sessionFactory.openSession()) {
             return session.findAll(EmailNotification.class).stream()
@@ -169,9 +519,16 @@ public class NotificationService {
             try {
                 EmailNotification updated = (EmailNotification) dto.toEntity();
                 updated.setId(id);
+                Optional<LockedRow> before = lockRow(session, NotificationChannel.EMAIL, id);
+                if (before.isEmpty()) {
+                    return Optional.empty();
+                }
+                keepCreatedAt(updated, before.get());
                 session.update(updated);
                 session.commit();
-                return Optional.of(EmailNotificationDto.fromEntity(updated));
+                EmailNotificationDto result = EmailNotificationDto.fromEntity(updated);
+                moveUnread(NotificationChannel.EMAIL, before.get().unread(), unreadRecipient(result));
+                return Optional.of(published(NotificationEventBus.EventType.UPDATED, result));
             } catch (Exception e) {
                 session.rollback();
                 throw new RuntimeException("Failed to update email notification: " + e.getMessage(), e);
@@ -185,9 +542,16 @@ public class NotificationService {
             try {
                 SmsNotification updated = (SmsNotification) dto.toEntity();
                 updated.setId(id);
+                Optional<LockedRow> before = lockRow(session, NotificationChannel.SMS, id);
+                if (before.isEmpty()) {
+                    return Optional.empty();
+                }
+                keepCreatedAt(updated, before.get());
                 session.update(updated);
                 session.commit();
-                return Optional.of(SmsNotificationDto.fromEntity(updated));
+                SmsNotificationDto result = SmsNotificationDto.fromEntity(updated);
+                moveUnread(NotificationChannel.SMS, before.get().unread(), unreadRecipient(result));
+                return Optional.of(published(NotificationEventBus.EventType.UPDATED, result));
             } catch (Exception e) {
                 session.rollback();
                 throw new RuntimeException("Failed to update SMS notification: " + e.getMessage(), e);
@@ -201,9 +565,16 @@ public class NotificationService {
             try {
                 PushNotification updated = (PushNotification) dto.toEntity();
                 updated.setId(id);
+                Optional<LockedRow> before = lockRow(session, NotificationChannel.PUSH, id);
+                if (before.isEmpty()) {
+                    return Optional.empty();
+                }
+                keepCreatedAt(updated, before.get());
                 session.update(updated);
                 session.commit();
-                return Optional.of(PushNotificationDto.fromEntity(updated));
+                PushNotificationDto result = PushNotificationDto.fromEntity(updated);
+                moveUnread(NotificationChannel.PUSH, before.get().unread(), unreadRecipient(result));
+                return Optional.of(published(NotificationEventBus.EventType.UPDATED, result));
             } catch (Exception e) {
                 session.rollback();
                 throw new RuntimeException("Failed to update push notification: " + e.getMessage(), e);
@@ -219,8 +590,10 @@ public class NotificationService {
                 if (notification == null) {
                     return false;
                 }
+                Optional<String> before = lockRow(session, NotificationChannel.EMAIL, id).flatMap(LockedRow::unread);
                 session.delete(notification);
                 session.commit();
+                before.ifPresent(recipient -> unread.add(NotificationChannel.EMAIL, recipient, -1));
                 return true;
             } catch (Exception e) {
                 session.rollback();
@@ -237,8 +610,10 @@ public class NotificationService {
                 if (notification == null) {
                     return false;
                 }
+                Optional<String> before = lockRow(session, NotificationChannel.SMS, id).flatMap(LockedRow::unread);
                 session.delete(notification);
                 session.commit();
+                before.ifPresent(recipient -> unread.add(NotificationChannel.SMS, recipient, -1));
                 return true;
             } catch (Exception e) {
                 session.rollback();
@@ -255,8 +630,10 @@ public class NotificationService {
                 if (notification == null) {
                     return false;
                 }
+                Optional<String> before = lockRow(session, NotificationChannel.PUSH, id).flatMap(LockedRow::unread);
                 session.delete(notification);
                 session.commit();
+                before.ifPresent(recipient -> unread.add(NotificationChannel.PUSH, recipient, -1));
                 return true;
             } catch (Exception e) {
                 session.rollback();
@@ -264,4 +641,196 @@ public class NotificationService {
             }
         }
     }
+
+    // ==================== UNREAD COUNTS ====================
+
+    /**
+     * Liczba nieprzeczytanych powiadomień adresata (albo wszystkich, gdy {@code recipient} jest pusty)
+     * z liczników w pamięci - bez zapytania do bazy. Bazowe Notification nie ma adresata i nie jest liczone.
+     */
+    public UnreadCountDto unreadCount(String recipient) {
+        boolean all = recipient == null || recipient.isBlank();
+        Map<String, Long> byChannel = new LinkedHashMap<>();
+        long total = 0;
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            long count = all ? unread.total(channel) : unread.count(channel, recipient);
+            byChannel.put(channel.name(), count);
+            total += count;
+        }
+        return UnreadCountDto.builder()
+                .recipient(all ? null : recipient)
+                .total(total)
+                .byChannel(byChannel)
+                .build();
+    }
+
+    /**
+     * Oznacza powiadomienia jako przeczytane jednym UPDATE na tabelę kanału
+     * ({@code RETURNING} zmienionych wierszy koryguje liczniki i trafia do strumienia zdarzeń).
+     *
+     * @return liczba oznaczonych powiadomień per kanał
+     * @throws IllegalArgumentException gdy żądanie nie wskazuje adresata ani id
+     */
+    public Map<String, Integer> markRead(MarkReadRequestDto request) {
+        Map<NotificationChannel, List<Long>> ids = new EnumMap<>(NotificationChannel.class);
+        if (request.getEmailIds() != null) {
+            ids.put(NotificationChannel.EMAIL, request.getEmailIds());
+        }
+        if (request.getSmsIds() != null) {
+            ids.put(NotificationChannel.SMS, request.getSmsIds());
+        }
+        if (request.getPushIds() != null) {
+            ids.put(NotificationChannel.PUSH, request.getPushIds());
+        }
+        String recipient = request.getRecipient() == null || request.getRecipient().isBlank() ? null : request.getRecipient();
+        if (recipient == null && ids.isEmpty()) {
+            throw new IllegalArgumentException("Provide recipient or notification ids to mark as read");
+        }
+        for (List<Long> channelIds : ids.values()) {
+            if (channelIds.size() > SqlSupport.IN_BATCH_SIZE) {
+                throw new IllegalArgumentException("At most " + SqlSupport.IN_BATCH_SIZE + " ids per channel");
+            }
+        }
+        // bez list id - wszystkie kanały adresata
+        List<NotificationChannel> channels = ids.isEmpty()
+                ? List.of(NotificationChannel.values())
+                : new ArrayList<>(ids.keySet());
+
+        Map<NotificationChannel, List<NotificationDto>> marked = new EnumMap<>(NotificationChannel.class);
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                for (NotificationChannel channel : channels) {
+                    List<Long> channelIds = ids.get(channel);
+                    if (channelIds != null && channelIds.isEmpty()) {
+                        continue;
+                    }
+                    StringBuilder sql = new StringBuilder("UPDATE ").append(channel.getTable())
+                            .append(" SET is_read = true WHERE is_read IS NOT TRUE");
+                    List<Object> params = new ArrayList<>();
+                    if (recipient != null) {
+                        sql.append(" AND ").append(channel.getRecipientColumn()).append(" = ?");
+                        params.add(recipient);
+                    }
+                    if (channelIds != null) {
+                        sql.append(" AND id IN (").append(SqlSupport.placeholders(channelIds.size())).append(')');
+                        params.addAll(channelIds);
+                    }
+                    sql.append(" RETURNING *");
+                    marked.put(channel, session.getJdbcExecutor().query(sql.toString(),
+                            rs -> NotificationDto.fromEntity(channel.getRowMapper().mapRow(rs)), params.toArray()));
+                }
+                session.commit();
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to mark notifications as read: " + e.getMessage(), e);
+            }
+        }
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        marked.forEach((channel, notifications) -> {
+            for (NotificationDto notification : notifications) {
+                unread.add(channel, NotificationEventBus.recipientOf(notification), -1);
+                published(NotificationEventBus.EventType.UPDATED, notification);
+            }
+            result.put(channel.name(), notifications.size());
+        });
+        return result;
+    }
+
+    /**
+     * Przekazuje zatwierdzoną zmianę do strumienia SSE (po commit - subskrybenci nie zobaczą wycofanych zapisów).
+     */
+    private <D extends NotificationDto> D published(NotificationEventBus.EventType type, D notification) {
+        events.publish(type, notification);
+        return notification;
+    }
+
+    /**
+     * Wiersz sprzed zmiany: adresat, jeśli powiadomienie jest nieprzeczytane (null - przeczytane), i created_at.
+     */
+    private record LockedRow(String unreadRecipient, LocalDateTime createdAt) {
+
+        Optional<String> unread() {
+            return Optional.ofNullable(unreadRecipient);
+        }
+    }
+
+    /**
+     * Czyta i blokuje do końca transakcji wiersz sprzed zmiany (empty - brak wiersza).
+     */
+    private static Optional<LockedRow> lockRow(Session session, NotificationChannel channel, Long id) {
+        return session.getJdbcExecutor().queryOne("SELECT " + channel.getRecipientColumn() + " AS recipient,"
+                        + " is_read IS NOT TRUE AS unread, created_at FROM " + channel.getTable() + " WHERE id = ? FOR UPDATE",
+                rs -> new LockedRow(rs.getBoolean("unread") ? rs.getString("recipient") : null,
+                        SqlSupport.getLocalDateTime(rs, "created_at")), id);
+    }
+
+    /**
+     * UPDATE CoreORM zapisuje wszystkie kolumny - bez createdAt w DTO zostaje zapisana wartość
+     * (NULL zgubiłby datę i przeniósł wiersz do partycji domyślnej).
+     */
+    private static void keepCreatedAt(Notification updated, LockedRow before) {
+        if (updated.getCreatedAt() == null) {
+            updated.setCreatedAt(before.createdAt());
+        }
+    }
+
+    /**
+     * Adresat zapisywanego powiadomienia, jeśli jest nieprzeczytane. Stan po zapisie pochodzi z encji,
+     * nie z bazy: CoreORM wysyła INSERT/UPDATE dopiero przy commit (a nowy wiersz nie ma wcześniej id).
+     * Encja trafia do bazy ze wszystkimi kolumnami, więc brak isRead to NULL - nieprzeczytane.
+     */
+    private static Optional<String> unreadRecipient(NotificationDto notification) {
+        return Boolean.TRUE.equals(notification.getIsRead())
+                ? Optional.empty()
+                : Optional.ofNullable(NotificationEventBus.recipientOf(notification));
+    }
+
+    private void moveUnread(NotificationChannel channel, Optional<String> before, Optional<String> after) {
+        before.ifPresent(recipient -> unread.add(channel, recipient, -1));
+        after.ifPresent(recipient -> unread.add(channel, recipient, 1));
+    }
+
+    /**
+     * Liczy utworzone powiadomienie (create i bulk create - wartości domyślne są już w DTO).
+     * Bazowe Notification nie ma kanału ani adresata.
+     */
+    private void countUnread(Object created) {
+        if (!(created instanceof NotificationDto dto)) {
+            return;
+        }
+        NotificationChannel channel = dto instanceof EmailNotificationDto ? NotificationChannel.EMAIL
+                : dto instanceof SmsNotificationDto ? NotificationChannel.SMS
+                : dto instanceof PushNotificationDto ? NotificationChannel.PUSH
+                : null;
+        if (channel != null) {
+            unreadRecipient(dto).ifPresent(recipient -> unread.add(channel, recipient, 1));
+        }
+    }
+
+    /**
+     * Przelicza liczniki z bazy (start aplikacji) i zakłada indeksy częściowe nieprzeczytanych po adresacie.
+     */
+    void rebuildUnreadCounts() {
+        unread.clear();
+        try (Session session = sessionFactory.openSession()) {
+            session.begin();
+            try {
+                for (NotificationChannel channel : NotificationChannel.values()) {
+                    session.getJdbcExecutor().executeStatement("CREATE INDEX IF NOT EXISTS " + channel.getTable()
+                            + "_unread_idx ON " + channel.getTable() + " (" + channel.getRecipientColumn() + ")"
+                            + " WHERE is_read IS NOT TRUE");
+                    session.getJdbcExecutor().query("SELECT " + channel.getRecipientColumn() + " AS recipient, count(*) AS unread"
+                                    + " FROM " + channel.getTable() + " WHERE is_read IS NOT TRUE GROUP BY 1",
+                            rs -> Map.entry(rs.getString("recipient"), rs.getLong("unread")))
+                            .forEach(row -> unread.add(channel, row.getKey(), row.getValue()));
+                }
+                session.commit();
+            } catch (Exception e) {
+                session.rollback();
+                throw new RuntimeException("Failed to rebuild unread notification counts: " + e.getMessage(), e);
+            }
+        }
+    }
 }
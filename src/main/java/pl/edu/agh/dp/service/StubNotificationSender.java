@@ -0,0 +1,38 @@
+package pl.edu.agh.dp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.edu.agh.dp.entity.Notification;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lokalna zaślepka kanału: nic nie wysyła, tylko loguje (DEBUG) i liczy powiadomienia.
+ * Używana dla kanałów bez zarejestrowanego {@link NotificationSender} - w testach i lokalnie.
+ */
+public class StubNotificationSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(StubNotificationSender.class);
+
+    private final NotificationChannel channel;
+    private final LongAdder sent = new LongAdder();
+
+    public StubNotificationSender(NotificationChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public NotificationChannel channel() {
+        return channel;
+    }
+
+    @Override
+    public void send(Notification notification) {
+        log.debug("Stub {} sender: notification {} '{}'", channel, notification.getId(), notification.getTitle());
+        sent.increment();
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+}
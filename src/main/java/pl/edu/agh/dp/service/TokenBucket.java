@@ -0,0 +1,61 @@
+package pl.edu.agh.dp.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Kubełek żetonów: {@code ratePerSecond} żetonów na sekundę, pojemność = jedna sekunda ruchu
+ * (najmniej 1 żeton), więc po przestoju kanał może wysłać najwyżej sekundowy zryw.
+ */
+final class TokenBucket {
+
+    private final LongSupplier nanoClock;
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond) {
+        this(ratePerSecond, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock źródło czasu w nanosekundach (testy podstawiają własny zegar)
+     */
+    TokenBucket(double ratePerSecond, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.ratePerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = Math.max(1d, ratePerSecond);
+        this.tokens = capacity;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Pobiera do {@code max} całych żetonów bez czekania.
+     *
+     * @return liczba przyznanych żetonów (0, gdy kubełek jest pusty)
+     */
+    synchronized int tryAcquire(int max) {
+        refill();
+        int granted = (int) Math.min(max, Math.floor(tokens));
+        tokens -= granted;
+        return granted;
+    }
+
+    /**
+     * Zwraca niewykorzystane żetony (np. gdy przejęto mniej wierszy niż przyznano).
+     */
+    synchronized void release(int count) {
+        tokens = Math.min(capacity, tokens + count);
+    }
+
+    synchronized double available() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerNano);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,58 @@
+package pl.edu.agh.dp.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Liczniki nieprzeczytanych powiadomień per (kanał, adresat) w pamięci instancji.
+ *
+ * Odczyt licznika adresata i sumy kanału nie dotyka bazy. Serwis przelicza liczniki z bazy
+ * przy starcie i koryguje je po zatwierdzeniu zapisów; zapisy z innych instancji nie są widoczne
+ * do ich restartu.
+ */
+final class UnreadCounter {
+
+    private record Key(NotificationChannel channel, String recipient) {
+    }
+
+    private final Map<Key, Long> counts = new ConcurrentHashMap<>();
+    private final Map<NotificationChannel, LongAdder> totals = new EnumMap<>(NotificationChannel.class);
+
+    UnreadCounter() {
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            totals.put(channel, new LongAdder());
+        }
+    }
+
+    void clear() {
+        counts.clear();
+        totals.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * Zmienia licznik adresata o {@code delta}; licznik nie schodzi poniżej zera, a zerowy jest usuwany.
+     */
+    void add(NotificationChannel channel, String recipient, long delta) {
+        if (recipient == null || delta == 0) {
+            return;
+        }
+        long[] applied = new long[1];
+        counts.compute(new Key(channel, recipient), (key, current) -> {
+            long before = current != null ? current : 0;
+            long after = Math.max(0, before + delta);
+            applied[0] = after - before;
+            return after > 0 ? after : null;
+        });
+        totals.get(channel).add(applied[0]);
+    }
+
+    long count(NotificationChannel channel, String recipient) {
+        return counts.getOrDefault(new Key(channel, recipient), 0L);
+    }
+
+    long total(NotificationChannel channel) {
+        return totals.get(channel).sum();
+    }
+}
@@ -0,0 +1,67 @@
+package pl.edu.agh.dp.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageTest {
+
+    @Test
+    void keyRoundTripsThroughCursor() {
+        CursorPage.Key key = CursorPage.Key.of(123_456_789_012L, 3);
+
+        assertThat(CursorPage.Key.decode(key.encode())).isEqualTo(key);
+    }
+
+    @Test
+    void missingCursorMeansFirstPage() {
+        assertThat(CursorPage.Key.decode(null)).isNull();
+        assertThat(CursorPage.Key.decode("  ")).isNull();
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        assertThatThrownBy(() -> CursorPage.Key.decode("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+        assertThatThrownBy(() -> CursorPage.Key.decode(encode("42")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPage.Key.decode(encode("42:x")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CursorPage.Key.decode(encode("1 OR 1=1:0")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void extraRowProducesNextCursorFromLastReturnedRow() {
+        CursorPage<String> page = CursorPage.of(List.of(1L, 2L, 3L), 2, CursorPage.Key::of,
+                rows -> rows.stream().map(String::valueOf).toList());
+
+        assertThat(page.getItems()).containsExactly("1", "2");
+        assertThat(CursorPage.Key.decode(page.getNextCursor())).isEqualTo(CursorPage.Key.of(2L));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorPage<Long> page = CursorPage.of(List.of(1L, 2L), 2, CursorPage.Key::of, rows -> rows);
+
+        assertThat(page.getItems()).containsExactly(1L, 2L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        assertThat(CursorPage.clampSize(null)).isEqualTo(CursorPage.DEFAULT_SIZE);
+        assertThat(CursorPage.clampSize(0)).isEqualTo(CursorPage.DEFAULT_SIZE);
+        assertThat(CursorPage.clampSize(10_000)).isEqualTo(CursorPage.MAX_SIZE);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
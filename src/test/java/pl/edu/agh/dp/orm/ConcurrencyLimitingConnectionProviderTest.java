@@ -0,0 +1,52 @@
+package pl.edu.agh.dp.orm;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitingConnectionProviderTest {
+
+    private final Connection physical = mock(Connection.class);
+    private final ConcurrencyLimitingConnectionProvider provider =
+            new ConcurrencyLimitingConnectionProvider(() -> physical, 1, Duration.ofMillis(50), false);
+
+    @Test
+    void closedHandleAnswersStateChecksAndRejectsOtherCalls() throws SQLException {
+        when(physical.isValid(1)).thenReturn(true);
+        Connection connection = provider.getConnection();
+        assertThat(connection.isClosed()).isFalse();
+        assertThat(connection.isValid(1)).isTrue();
+
+        connection.close();
+        connection.close();
+
+        assertThat(connection.isClosed()).isTrue();
+        assertThat(connection.isValid(1)).isFalse();
+        assertThatThrownBy(connection::createStatement).isInstanceOf(SQLException.class);
+        verify(physical, times(1)).close();
+        assertThat(provider.getStats().getInUse()).isZero();
+    }
+
+    @Test
+    void permitIsHeldUntilClose() throws SQLException {
+        Connection connection = provider.getConnection();
+
+        assertThatThrownBy(provider::getConnection)
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Database concurrency limit reached");
+        assertThat(provider.getStats().getTimeouts()).isEqualTo(1);
+
+        connection.close();
+        provider.getConnection().close();
+        assertThat(provider.getStats().getAcquisitions()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,82 @@
+package pl.edu.agh.dp.orm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.core.api.Session;
+
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonthlyPartitionsTest {
+
+    private static final String TABLE = "monthly_partitions_test";
+
+    private Session session;
+
+    @BeforeEach
+    void createTable() {
+        // DDL w transakcji PostgreSQL - rollback po teście nie zostawia tabel
+        session = OrmConfig.getSessionFactory().openSession();
+        session.begin();
+        // jak tabele CoreORM: id BIGSERIAL z kluczem głównym
+        session.getJdbcExecutor().executeStatement("CREATE TABLE " + TABLE
+                + " (id BIGSERIAL PRIMARY KEY, created_at TIMESTAMP WITH TIME ZONE)");
+        session.getJdbcExecutor().update("INSERT INTO " + TABLE + " (created_at) VALUES (now()), (NULL)");
+        assertThat(MonthlyPartitions.partition(session, TABLE, "created_at", 1)).isTrue();
+    }
+
+    @AfterEach
+    void dropTable() {
+        session.rollback();
+        session.close();
+    }
+
+    @Test
+    void conversionKeepsRowsAndIdSequence() {
+        assertThat(MonthlyPartitions.isPartitioned(session, TABLE)).isTrue();
+        assertThat(MonthlyPartitions.partition(session, TABLE, "created_at", 1)).isFalse();
+        assertThat(ids(TABLE)).isEqualTo(3);
+        assertThat(ids(TABLE + "_default")).isEqualTo(2);
+
+        long id = session.getJdbcExecutor().queryOne("INSERT INTO " + TABLE + " (created_at) VALUES (now()) RETURNING id",
+                rs -> rs.getLong("id")).orElseThrow();
+
+        assertThat(id).isEqualTo(3);
+        // sekwencja należy teraz do nowej tabeli
+        assertThat(session.getJdbcExecutor().queryOne("SELECT pg_get_serial_sequence(?, 'id') AS seq",
+                rs -> rs.getString("seq"), TABLE)).hasValue("public." + TABLE + "_id_seq");
+    }
+
+    @Test
+    void rowOfMonthWithoutPartitionIsMovedWhenPartitionIsCreated() {
+        session.getJdbcExecutor().update("INSERT INTO " + TABLE + " (id, created_at) VALUES (3, '2099-05-10 12:00')");
+        assertThat(MonthlyPartitions.monthsInDefault(session, TABLE, "created_at")).containsExactly(YearMonth.of(2099, 5));
+
+        int created = MonthlyPartitions.ensureMonths(session, TABLE, "created_at", YearMonth.of(2099, 5), YearMonth.of(2099, 5));
+
+        assertThat(created).isEqualTo(1);
+        assertThat(MonthlyPartitions.monthsInDefault(session, TABLE, "created_at")).isEmpty();
+        assertThat(ids(TABLE + "_p2099_05")).isEqualTo(3);
+        assertThat(ids(TABLE + "_default")).isEqualTo(2);
+        assertThat(ids(TABLE)).isEqualTo(6);
+    }
+
+    @Test
+    void existingMonthsAreSkipped() {
+        YearMonth current = YearMonth.now();
+
+        assertThat(MonthlyPartitions.ensureMonths(session, TABLE, "created_at", current, current.plusMonths(1))).isZero();
+        assertThat(MonthlyPartitions.list(session, TABLE))
+                .extracting(MonthlyPartitions.Partition::month)
+                .contains(current, current.plusMonths(1));
+    }
+
+    /** Suma id w tabeli - sprawdza, które wiersze do niej trafiły. */
+    private long ids(String table) {
+        return session.getJdbcExecutor().queryOne("SELECT COALESCE(sum(id), 0) AS ids FROM " + table,
+                rs -> rs.getLong("ids")).orElseThrow();
+    }
+}
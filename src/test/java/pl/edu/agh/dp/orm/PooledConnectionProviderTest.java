@@ -0,0 +1,111 @@
+package pl.edu.agh.dp.orm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PooledConnectionProviderTest {
+
+    private final List<Connection> physical = new ArrayList<>();
+    private PooledConnectionProvider pool;
+
+    @AfterEach
+    void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void borrowedConnectionReturnsToIdleOnClose() throws SQLException {
+        pool = pool(2, 1, Duration.ofSeconds(1));
+        assertThat(pool.getStats().getIdle()).isEqualTo(1);
+
+        Connection connection = pool.getConnection();
+        assertThat(pool.getStats().getActive()).isEqualTo(1);
+        assertThat(pool.getStats().getIdle()).isZero();
+
+        connection.close();
+        PoolStats stats = pool.getStats();
+        assertThat(stats.getActive()).isZero();
+        assertThat(stats.getIdle()).isEqualTo(1);
+        assertThat(stats.getAcquisitions()).isEqualTo(1);
+    }
+
+    @Test
+    void releasedConnectionIsReusedInsteadOfOpeningNewOne() throws SQLException {
+        pool = pool(2, 0, Duration.ofSeconds(1));
+
+        pool.getConnection().close();
+        pool.getConnection().close();
+
+        assertThat(physical).hasSize(1);
+        assertThat(pool.getStats().getConnectionsCreated()).isEqualTo(1);
+    }
+
+    @Test
+    void exhaustedPoolTimesOut() {
+        pool = pool(1, 0, Duration.ofMillis(50));
+        pool.getConnection();
+
+        assertThatThrownBy(() -> pool.getConnection())
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Connection pool exhausted");
+        assertThat(pool.getStats().getTimeouts()).isEqualTo(1);
+    }
+
+    @Test
+    void waitingBorrowerGetsConnectionReleasedByAnotherThread() throws Exception {
+        pool = pool(1, 0, Duration.ofSeconds(5));
+        Connection held = pool.getConnection();
+
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(pool::getConnection);
+        while (pool.getStats().getPending() == 0) {
+            Thread.onSpinWait();
+        }
+        held.close();
+
+        Connection handedOver = waiter.get(5, TimeUnit.SECONDS);
+        assertThat(handedOver.isClosed()).isFalse();
+        assertThat(physical).hasSize(1);
+    }
+
+    @Test
+    void releaseRollsBackOpenTransactionAndClosedHandleIsRejected() throws SQLException {
+        pool = pool(1, 0, Duration.ofSeconds(1));
+        Connection connection = pool.getConnection();
+        when(physical.get(0).getAutoCommit()).thenReturn(false);
+
+        connection.close();
+
+        verify(physical.get(0)).rollback();
+        verify(physical.get(0)).setAutoCommit(true);
+        assertThat(connection.isClosed()).isTrue();
+        assertThatThrownBy(connection::createStatement).isInstanceOf(SQLException.class);
+    }
+
+    private PooledConnectionProvider pool(int maxSize, int minIdle, Duration acquireTimeout) {
+        return new PooledConnectionProvider(() -> {
+            Connection connection = mock(Connection.class);
+            physical.add(connection);
+            return connection;
+        }, PoolSettings.builder()
+                .maxSize(maxSize)
+                .minIdle(minIdle)
+                .acquireTimeout(acquireTimeout)
+                .build());
+    }
+}
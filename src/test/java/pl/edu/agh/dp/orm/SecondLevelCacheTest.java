@@ -0,0 +1,102 @@
+package pl.edu.agh.dp.orm;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecondLevelCacheTest {
+
+    private static final UnaryOperator<List<String>> COPY = ArrayList::new;
+
+    @Test
+    void secondLookupIsServedFromCache() {
+        SecondLevelCache cache = new SecondLevelCache(true, 10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        List<String> first = cache.get(String.class, 1L, () -> load(loads, "a"), COPY);
+        List<String> second = cache.get(String.class, 1L, () -> load(loads, "b"), COPY);
+
+        assertThat(first).containsExactly("a");
+        assertThat(second).containsExactly("a");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getStats().getHits()).isEqualTo(1);
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void callersGetIndependentCopies() {
+        SecondLevelCache cache = new SecondLevelCache(true, 10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        List<String> loaded = cache.get(String.class, 1L, () -> load(loads, "a"), COPY);
+        loaded.add("changed by loader caller");
+        List<String> hit = cache.get(String.class, 1L, () -> load(loads, "b"), COPY);
+        hit.add("changed by hit caller");
+
+        assertThat(cache.get(String.class, 1L, () -> load(loads, "c"), COPY)).containsExactly("a");
+    }
+
+    @Test
+    void invalidateDropsOnlyThatKey() {
+        SecondLevelCache cache = new SecondLevelCache(true, 10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(String.class, 1L, () -> load(loads, "one"), COPY);
+        cache.get(String.class, 2L, () -> load(loads, "two"), COPY);
+
+        cache.invalidate(String.class, 1L);
+
+        assertThat(cache.get(String.class, 1L, () -> load(loads, "one v2"), COPY)).containsExactly("one v2");
+        assertThat(cache.get(String.class, 2L, () -> load(loads, "two v2"), COPY)).containsExactly("two");
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotCached() {
+        SecondLevelCache cache = new SecondLevelCache(true, 10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(String.class, 1L, () -> {
+            // zapis i unieważnienie w trakcie ładowania - wynik jest już nieaktualny
+            cache.invalidate(String.class, 1L);
+            return load(loads, "stale");
+        }, COPY);
+
+        assertThat(cache.get(String.class, 1L, () -> load(loads, "fresh"), COPY)).containsExactly("fresh");
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        SecondLevelCache cache = new SecondLevelCache(true, 2, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(String.class, 1L, () -> load(loads, "one"), COPY);
+        cache.get(String.class, 2L, () -> load(loads, "two"), COPY);
+        cache.get(String.class, 1L, () -> load(loads, "one v2"), COPY);
+
+        cache.get(String.class, 3L, () -> load(loads, "three"), COPY);
+
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+        assertThat(cache.get(String.class, 1L, () -> load(loads, "one v3"), COPY)).containsExactly("one");
+        assertThat(cache.get(String.class, 2L, () -> load(loads, "two v2"), COPY)).containsExactly("two v2");
+    }
+
+    @Test
+    void expiredEntryIsReloaded() {
+        SecondLevelCache cache = new SecondLevelCache(true, 10, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(String.class, 1L, () -> load(loads, "one"), COPY);
+
+        assertThat(cache.get(String.class, 1L, () -> load(loads, "one v2"), COPY)).containsExactly("one v2");
+        assertThat(cache.getStats().getExpirations()).isEqualTo(1);
+    }
+
+    private static List<String> load(AtomicInteger loads, String value) {
+        loads.incrementAndGet();
+        return new ArrayList<>(List.of(value));
+    }
+}
@@ -0,0 +1,100 @@
+package pl.edu.agh.dp.orm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.dp.core.api.Session;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlMonitorTest {
+
+    private final SqlMonitor monitor = new SqlMonitor(Duration.ZERO);
+
+    @BeforeEach
+    void beginRequest() {
+        SqlMonitor.beginRequest();
+    }
+
+    @AfterEach
+    void endRequest() {
+        SqlMonitor.endRequest();
+    }
+
+    @Test
+    void countsStatementsRowsAndFailures() {
+        monitor.record("SELECT 1", null, 3, 1_000_000, false);
+        monitor.record("SELECT 2", new Object[]{1L}, 0, 2_000_000, true);
+
+        SqlStats stats = SqlMonitor.currentRequest();
+
+        assertThat(stats.getStatements()).isEqualTo(2);
+        assertThat(stats.getFailedStatements()).isEqualTo(1);
+        assertThat(stats.getRows()).isEqualTo(3);
+        assertThat(stats.getTimeMillis()).isEqualTo(3.0);
+    }
+
+    @Test
+    void failedExecutorStatementIsRecorded() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenThrow(new SQLException("relation does not exist"));
+        when(connection.prepareStatement(anyString(), anyInt())).thenThrow(new SQLException("relation does not exist"));
+        ConnectionAwareJdbcExecutor executor = new ConnectionAwareJdbcExecutor(connection, monitor);
+
+        assertThatThrownBy(() -> executor.update("UPDATE missing SET x = ?", 1)).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> executor.query("SELECT * FROM missing", rs -> rs.getLong(1)))
+                .isInstanceOf(RuntimeException.class);
+
+        SqlStats stats = SqlMonitor.currentRequest();
+        assertThat(stats.getStatements()).isEqualTo(2);
+        assertThat(stats.getFailedStatements()).isEqualTo(2);
+    }
+
+    @Test
+    void streamingTimeExcludesConsumer() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getLong(1)).thenReturn(1L, 2L);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+        Session session = mock(Session.class);
+        when(session.getJdbcExecutor()).thenReturn(new ConnectionAwareJdbcExecutor(connection, monitor));
+
+        List<Long> rows = new ArrayList<>();
+        long count = SqlSupport.forEachRow(session, "SELECT id FROM documents", 100, r -> r.getLong(1), id -> {
+            rows.add(id);
+            sleep(100);
+        });
+
+        SqlStats stats = SqlMonitor.currentRequest();
+        assertThat(count).isEqualTo(2);
+        assertThat(rows).containsExactly(1L, 2L);
+        assertThat(stats.getStatements()).isEqualTo(1);
+        assertThat(stats.getFailedStatements()).isZero();
+        assertThat(stats.getRows()).isEqualTo(2);
+        assertThat(stats.getTimeMillis()).isLessThan(100);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package pl.edu.agh.dp.orm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    @Test
+    void candidateWithAllTrigramsButNoSubstringIsRejected() {
+        TrigramIndex index = new TrigramIndex();
+        // oba trigramy "abc" i "bcd" występują, ale nie obok siebie
+        index.put(1L, "abc xbcd");
+        index.put(2L, "xabcdx");
+
+        assertThat(index.search("abcd")).containsExactly(2L);
+    }
+
+    @Test
+    void matchIsCaseSensitive() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "Regatta report");
+        index.put(2L, "regatta invoice");
+
+        assertThat(index.search("Regatta")).containsExactly(1L);
+        assertThat(index.search("gatta")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("yacht")).isEmpty();
+    }
+
+    @Test
+    void patternShorterThanTrigramFallsBackToSql() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "ab");
+
+        assertThat(index.search("ab")).isNull();
+        assertThat(index.search("")).isNull();
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsPostings() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "old title");
+        index.put(1L, "new title");
+
+        assertThat(index.search("old")).isEmpty();
+        assertThat(index.search("new")).containsExactly(1L);
+
+        index.remove(1L);
+
+        assertThat(index.search("title")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void nullTextRemovesRow() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1L, "sails");
+
+        index.put(1L, null);
+
+        assertThat(index.search("sails")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+}
@@ -0,0 +1,104 @@
+package pl.edu.agh.dp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.edu.agh.dp.dto.AccountDto;
+import pl.edu.agh.dp.dto.BankAccountDto;
+import pl.edu.agh.dp.dto.CursorPage;
+import pl.edu.agh.dp.dto.InvestmentAccountDto;
+import pl.edu.agh.dp.dto.SavingsAccountDto;
+import pl.edu.agh.dp.orm.SqlMonitor;
+import pl.edu.agh.dp.orm.SqlStats;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AccountServiceTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void accountPageReadsWholeHierarchyWithOneStatement() {
+        AccountDto plain = accountService.create(AccountDto.builder()
+                .accountNumber(uniqueNumber()).accountName("plain").balance(BigDecimal.ONE)
+                .openDate(LocalDate.now()).currency("PLN").isActive(true)
+                .build());
+        BankAccountDto bank = accountService.createBank(BankAccountDto.builder()
+                .accountNumber(uniqueNumber()).accountName("bank").balance(BigDecimal.TEN)
+                .openDate(LocalDate.now()).currency("PLN").isActive(true)
+                .bankName("PKO").iban("PL61109010140000071219812874").swift("BPKOPLPW").branchCode("1020")
+                .build());
+        SavingsAccountDto savings = accountService.createSavings(SavingsAccountDto.builder()
+                .accountNumber(uniqueNumber()).accountName("savings").balance(BigDecimal.TEN)
+                .openDate(LocalDate.now()).currency("EUR").isActive(true)
+                .interestRate(new BigDecimal("0.05")).minimumBalance(BigDecimal.ONE).withdrawalLimit(3)
+                .savingsGoal("boat")
+                .build());
+        InvestmentAccountDto investment = accountService.createInvestment(InvestmentAccountDto.builder()
+                .accountNumber(uniqueNumber()).accountName("investment").balance(BigDecimal.TEN)
+                .openDate(LocalDate.now()).currency("USD").isActive(true)
+                .riskLevel("HIGH").portfolioType("stocks").managementFee(new BigDecimal("0.01"))
+                .investmentStrategy("growth").minimumInvestment(BigDecimal.ONE)
+                .build());
+
+        List<Object> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            SqlMonitor.beginRequest();
+            CursorPage<?> page = accountService.findPage(cursor, CursorPage.MAX_SIZE, null);
+            SqlStats stats = SqlMonitor.endRequest();
+
+            assertThat(stats.getStatements()).isEqualTo(1);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(all).anySatisfy(item -> assertThat(item).isExactlyInstanceOf(AccountDto.class)
+                .extracting("id").isEqualTo(plain.getId()));
+        assertThat(all).anySatisfy(item -> assertThat(item).isInstanceOfSatisfying(BankAccountDto.class,
+                dto -> assertThat(dto.getBankName()).isEqualTo("PKO")).extracting("id").isEqualTo(bank.getId()));
+        assertThat(all).anySatisfy(item -> assertThat(item).isInstanceOfSatisfying(SavingsAccountDto.class,
+                dto -> assertThat(dto.getInterestRate()).isEqualByComparingTo("0.05")).extracting("id").isEqualTo(savings.getId()));
+        assertThat(all).anySatisfy(item -> assertThat(item).isInstanceOfSatisfying(InvestmentAccountDto.class,
+                dto -> assertThat(dto.getRiskLevel()).isEqualTo("HIGH")).extracting("id").isEqualTo(investment.getId()));
+    }
+
+    @Test
+    void staleSummaryIsRecomputedOnRead() throws InterruptedException {
+        AccountService service;
+        System.setProperty("ACCOUNT_SUMMARY_MAX_AGE_MS", "1");
+        try {
+            service = new AccountService();
+        } finally {
+            System.clearProperty("ACCOUNT_SUMMARY_MAX_AGE_MS");
+        }
+        try {
+            String currency = uniqueNumber();
+            service.summarizeBalances("currency", true);
+            service.create(AccountDto.builder()
+                    .accountNumber(uniqueNumber()).accountName("fresh").balance(BigDecimal.TEN)
+                    .openDate(LocalDate.now()).currency(currency).isActive(true)
+                    .build());
+            Thread.sleep(10);
+
+            assertThat(service.summarizeBalances("currency", true).getGroups())
+                    .filteredOn(group -> currency.equals(group.getCurrency()))
+                    .singleElement()
+                    .satisfies(group -> assertThat(group.getTotalBalance()).isEqualByComparingTo("10"));
+        } finally {
+            service.close();
+        }
+    }
+
+    private static String uniqueNumber() {
+        return UUID.randomUUID().toString().substring(0, 20);
+    }
+}
@@ -0,0 +1,81 @@
+package pl.edu.agh.dp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.edu.agh.dp.dto.CursorPage;
+import pl.edu.agh.dp.dto.DepartmentDto;
+import pl.edu.agh.dp.dto.EmployeeDto;
+import pl.edu.agh.dp.orm.SqlMonitor;
+import pl.edu.agh.dp.orm.SqlStats;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class DepartmentServiceTest {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    void pageLoadsParentsCountsAndChildrenWithConstantQueries() {
+        DepartmentDto fleet = departmentService.create(department("Fleet", null));
+        DepartmentDto dinghies = departmentService.create(department("Dinghies", fleet.getId()));
+        DepartmentDto keelboats = departmentService.create(department("Keelboats", fleet.getId()));
+        employeeService.create(employee(fleet.getId()));
+        employeeService.create(employee(fleet.getId()));
+        employeeService.create(employee(dinghies.getId()));
+        String cursor = CursorPage.Key.of(fleet.getId() - 1).encode();
+
+        SqlMonitor.beginRequest();
+        CursorPage<DepartmentDto> page = departmentService.findPage(cursor, 3);
+        SqlStats stats = SqlMonitor.endRequest();
+
+        // strona + rodzice + liczby pracowników + poddziały
+        assertThat(stats.getStatements()).isEqualTo(4);
+        List<DepartmentDto> items = page.getItems();
+        assertThat(items).extracting(DepartmentDto::getId)
+                .containsExactly(fleet.getId(), dinghies.getId(), keelboats.getId());
+        assertThat(items.get(0)).satisfies(dto -> {
+            assertThat(dto.getParentDepartmentId()).isNull();
+            assertThat(dto.getEmployeeCount()).isEqualTo(2);
+            assertThat(dto.getSubDepartments()).extracting(DepartmentDto.DepartmentSummaryDto::getName)
+                    .containsExactly("Dinghies", "Keelboats");
+        });
+        assertThat(items.get(1)).satisfies(dto -> {
+            assertThat(dto.getParentDepartmentId()).isEqualTo(fleet.getId());
+            assertThat(dto.getParentDepartmentName()).isEqualTo("Fleet");
+            assertThat(dto.getEmployeeCount()).isEqualTo(1);
+            assertThat(dto.getSubDepartments()).isNull();
+        });
+        assertThat(items.get(2).getEmployeeCount()).isZero();
+    }
+
+    private static DepartmentDto department(String name, Long parentId) {
+        return DepartmentDto.builder()
+                .name(name)
+                .code(unique())
+                .description(name + " department")
+                .parentDepartmentId(parentId)
+                .build();
+    }
+
+    private static EmployeeDto employee(Long departmentId) {
+        return EmployeeDto.builder()
+                .firstName("Ola")
+                .lastName("Nowak")
+                .employeeCode(unique())
+                .departmentId(departmentId)
+                .build();
+    }
+
+    private static String unique() {
+        return UUID.randomUUID().toString().substring(0, 12);
+    }
+}
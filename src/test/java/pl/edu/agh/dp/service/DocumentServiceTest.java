@@ -0,0 +1,82 @@
+package pl.edu.agh.dp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.edu.agh.dp.dto.InvoiceDto;
+import pl.edu.agh.dp.dto.InvoiceSummaryDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class DocumentServiceTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Test
+    void invoiceWritesKeepReceivablesSummaryInStep() {
+        // miesiąc terminu, którego nie używa żadna inna faktura - kubełek należy tylko do tego testu
+        LocalDate dueDate = LocalDate.of(ThreadLocalRandom.current().nextInt(3000, 9000), 6, 15);
+        String dueMonth = dueDate.toString().substring(0, 7);
+        InvoiceSummaryDto initial = documentService.invoiceSummary();
+
+        InvoiceDto created = documentService.createInvoice(invoice(dueDate, "100.00", "23.00", "PENDING"));
+
+        assertThat(created.getId()).isNotNull();
+        InvoiceSummaryDto afterCreate = documentService.invoiceSummary();
+        assertThat(afterCreate.getInvoiceCount()).isEqualTo(initial.getInvoiceCount() + 1);
+        assertThat(afterCreate.getTotalAmount()).isEqualByComparingTo(initial.getTotalAmount().add(new BigDecimal("100.00")));
+        assertBucket(afterCreate, dueMonth, 1, "100.00", "23.00");
+
+        documentService.updateInvoice(created.getId(), invoice(dueDate, "150.00", "34.50", "PAID"));
+
+        InvoiceSummaryDto afterUpdate = documentService.invoiceSummary();
+        assertThat(afterUpdate.getInvoiceCount()).isEqualTo(initial.getInvoiceCount() + 1);
+        assertThat(afterUpdate.getTotalAmount()).isEqualByComparingTo(initial.getTotalAmount().add(new BigDecimal("150.00")));
+        assertBucket(afterUpdate, dueMonth, 1, "150.00", "34.50");
+
+        assertThat(documentService.deleteInvoice(created.getId())).isTrue();
+
+        InvoiceSummaryDto afterDelete = documentService.invoiceSummary();
+        assertThat(afterDelete.getInvoiceCount()).isEqualTo(initial.getInvoiceCount());
+        assertThat(afterDelete.getTotalAmount()).isEqualByComparingTo(initial.getTotalAmount());
+        assertThat(bucket(afterDelete, dueMonth)).isEmpty();
+    }
+
+    private static void assertBucket(InvoiceSummaryDto summary, String dueMonth, long count, String total, String tax) {
+        assertThat(bucket(summary, dueMonth)).get().satisfies(bucket -> {
+            assertThat(bucket.getInvoiceCount()).isEqualTo(count);
+            assertThat(bucket.getTotalAmount()).isEqualByComparingTo(total);
+            assertThat(bucket.getTaxAmount()).isEqualByComparingTo(tax);
+        });
+    }
+
+    private static Optional<InvoiceSummaryDto.Bucket> bucket(InvoiceSummaryDto summary, String dueMonth) {
+        return summary.getByDueMonth().stream().filter(b -> dueMonth.equals(b.getKey())).findFirst();
+    }
+
+    private static InvoiceDto invoice(LocalDate dueDate, String total, String tax, String paymentStatus) {
+        return InvoiceDto.builder()
+                .title("Invoice " + dueDate)
+                .createdDate(LocalDate.now())
+                .createdBy("test")
+                .content("sails")
+                .reportType("FINANCIAL")
+                .periodStart(LocalDate.now().minusMonths(1))
+                .periodEnd(LocalDate.now())
+                .status("FINAL")
+                .invoiceNumber("FV/" + dueDate)
+                .issueDate(LocalDate.now())
+                .dueDate(dueDate)
+                .totalAmount(new BigDecimal(total))
+                .taxAmount(new BigDecimal(tax))
+                .paymentStatus(paymentStatus)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package pl.edu.agh.dp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.edu.agh.dp.config.OrmConfig;
+import pl.edu.agh.dp.core.api.Session;
+import pl.edu.agh.dp.dto.DepartmentDto;
+import pl.edu.agh.dp.dto.EmployeeDto;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmployeeServiceTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Test
+    void createWithCachedManagerAndDepartmentInsertsOnlyTheEmployee() {
+        DepartmentDto department = departmentService.create(department("Sails"));
+        EmployeeDto manager = employeeService.create(employee("Anna", null, department.getId()));
+        // manager i dział trafiają do cache
+        assertThat(employeeService.findById(manager.getId())).isPresent();
+        assertThat(departmentService.findById(department.getId())).get()
+                .extracting(DepartmentDto::getEmployeeCount).isEqualTo(1);
+        long employees = count("employees");
+        long departments = count("departments");
+
+        EmployeeDto created = employeeService.create(employee("Jan", manager.getId(), department.getId()));
+
+        assertThat(count("employees")).isEqualTo(employees + 1);
+        assertThat(count("departments")).isEqualTo(departments);
+        assertThat(created.getManagerId()).isEqualTo(manager.getId());
+        assertThat(created.getDepartmentId()).isEqualTo(department.getId());
+        assertThat(employeeService.findById(manager.getId())).get()
+                .satisfies(dto -> assertThat(dto.getSubordinates())
+                        .extracting(EmployeeDto.SubordinateInfo::getId).containsExactly(created.getId()));
+        assertThat(departmentService.findById(department.getId())).get()
+                .extracting(DepartmentDto::getEmployeeCount).isEqualTo(2);
+    }
+
+    @Test
+    void cachedEmployeeIsNotSharedWithCallers() {
+        EmployeeDto employee = employeeService.create(employee("Ewa", null, null));
+        EmployeeDto first = employeeService.findById(employee.getId()).orElseThrow();
+
+        first.setFirstName("changed");
+
+        assertThat(employeeService.findById(employee.getId())).get()
+                .extracting(EmployeeDto::getFirstName).isEqualTo("Ewa");
+    }
+
+    @Test
+    void departmentRenameRefreshesCachedEmployeesOfThatDepartment() {
+        DepartmentDto department = departmentService.create(department("Rigging"));
+        EmployeeDto employee = employeeService.create(employee("Piotr", null, department.getId()));
+        assertThat(employeeService.findById(employee.getId())).get()
+                .extracting(EmployeeDto::getDepartmentName).isEqualTo("Rigging");
+
+        departmentService.update(department.getId(), DepartmentDto.builder()
+                .name("Rigging & Masts").code(department.getCode()).description("renamed").build());
+
+        assertThat(employeeService.findById(employee.getId())).get()
+                .extracting(EmployeeDto::getDepartmentName).isEqualTo("Rigging & Masts");
+    }
+
+    private static DepartmentDto department(String name) {
+        return DepartmentDto.builder()
+                .name(name)
+                .code(unique())
+                .description(name + " department")
+                .build();
+    }
+
+    private static EmployeeDto employee(String firstName, Long managerId, Long departmentId) {
+        return EmployeeDto.builder()
+                .firstName(firstName)
+                .lastName("Kowalski")
+                .employeeCode(unique())
+                .managerId(managerId)
+                .departmentId(departmentId)
+                .build();
+    }
+
+    private static long count(String table) {
+        try (Session session = OrmConfig.getSessionFactory().openSession()) {
+            return session.getJdbcExecutor().queryOne("SELECT count(*) FROM " + table, rs -> rs.getLong(1)).orElseThrow();
+        }
+    }
+
+    private static String unique() {
+        return UUID.randomUUID().toString().substring(0, 12);
+    }
+}
@@ -0,0 +1,238 @@
+package pl.edu.agh.dp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.edu.agh.dp.dto.DispatchResultDto;
+import pl.edu.agh.dp.dto.EmailNotificationDto;
+import pl.edu.agh.dp.dto.PushNotificationDto;
+import pl.edu.agh.dp.dto.SmsNotificationDto;
+import pl.edu.agh.dp.entity.Notification;
+import pl.edu.agh.dp.entity.SmsNotification;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class NotificationDispatcherTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    /** Próby wysyłki per id (ids powiadomień są wspólne dla kanałów). */
+    private final Map<Long, Integer> attempts = new ConcurrentHashMap<>();
+    private final String failingPhone = "+48" + Math.abs(UUID.randomUUID().getMostSignificantBits() % 1_000_000_000L);
+
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    void roundWritesBackSentFailedAndExpired() {
+        dispatcher = dispatcher(0);
+        String recipient = UUID.randomUUID() + "@example.com";
+        EmailNotificationDto email = notificationService.createEmail(email(recipient));
+        SmsNotificationDto failing = notificationService.createSms(sms(failingPhone));
+        PushNotificationDto fresh = notificationService.createPush(push(queuedNow(), 3600));
+        PushNotificationDto stale = notificationService.createPush(push(queuedNow().minusHours(1), 60));
+        LocalDateTime queuedAt = email.getSentAt();
+
+        dispatcher.dispatchOnce();
+
+        assertThat(notificationService.findEmailById(email.getId())).get().satisfies(sent -> {
+            assertThat(sent.getStatus()).isEqualTo(NotificationDispatcher.SENT);
+            assertThat(sent.getSentAt()).isAfter(queuedAt);
+        });
+        assertThat(notificationService.findPushById(fresh.getId())).get().satisfies(sent -> {
+            assertThat(sent.getStatus()).isEqualTo(NotificationDispatcher.SENT);
+            assertThat(sent.getSentAt()).isAfter(fresh.getSentAt());
+        });
+        assertThat(notificationService.findSmsById(failing.getId())).get().satisfies(failed -> {
+            assertThat(failed.getStatus()).isEqualTo(NotificationDispatcher.FAILED);
+            assertThat(failed.getSentAt()).isEqualTo(failing.getSentAt());
+        });
+        assertThat(notificationService.findPushById(stale.getId())).get().satisfies(expired -> {
+            assertThat(expired.getStatus()).isEqualTo(NotificationDispatcher.EXPIRED);
+            assertThat(expired.getSentAt()).isEqualTo(stale.getSentAt());
+        });
+        // przeterminowany push nie trafia do nadawcy
+        assertThat(attempts).containsEntry(email.getId(), 1).containsEntry(failing.getId(), 1)
+                .doesNotContainKey(stale.getId());
+    }
+
+    @Test
+    void concurrentRoundsNeverClaimTheSameRow() throws Exception {
+        // małe porcje - oba przebiegi przeplatają się na tych samych wierszach
+        System.setProperty("NOTIFICATION_DISPATCH_BATCH_SIZE", "5");
+        try {
+            dispatcher = dispatcher(10);
+        } finally {
+            System.clearProperty("NOTIFICATION_DISPATCH_BATCH_SIZE");
+        }
+        String recipient = UUID.randomUUID() + "@example.com";
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ids.add(notificationService.createEmail(email(recipient)).getId());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Integer>> rounds = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                rounds.add(executor.submit(() -> {
+                    start.await();
+                    return drainEmail();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> round : rounds) {
+                assertThat(round.get()).isPositive();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Long id : ids) {
+            assertThat(attempts).containsEntry(id, 1);
+            assertThat(notificationService.findEmailById(id)).get()
+                    .extracting(EmailNotificationDto::getStatus).isEqualTo(NotificationDispatcher.SENT);
+        }
+    }
+
+    /**
+     * Przebiegi do opróżnienia kolejki email; zwraca liczbę wierszy przejętych przez ten wątek.
+     */
+    private int drainEmail() {
+        int claimed = 0;
+        int round;
+        do {
+            round = dispatcher.dispatchOnce().stream()
+                    .filter(result -> result.getChannel().equals(NotificationChannel.EMAIL.name()))
+                    .mapToInt(DispatchResultDto::getClaimed)
+                    .sum();
+            claimed += round;
+        } while (round > 0);
+        return claimed;
+    }
+
+    private NotificationDispatcher dispatcher(long sendDelayMillis) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("emailSender", new RecordingSender(NotificationChannel.EMAIL, sendDelayMillis));
+        beans.addBean("smsSender", new RecordingSender(NotificationChannel.SMS, sendDelayMillis));
+        beans.addBean("pushSender", new RecordingSender(NotificationChannel.PUSH, sendDelayMillis));
+        return new NotificationDispatcher(beans.getBeanProvider(NotificationSender.class),
+                beans.getBeanProvider(MeterRegistry.class));
+    }
+
+    /**
+     * Zaślepka kanału zapamiętująca próby; SMS na failingPhone kończy się wyjątkiem.
+     */
+    private final class RecordingSender extends StubNotificationSender {
+
+        private final long delayMillis;
+
+        private RecordingSender(NotificationChannel channel, long delayMillis) {
+            super(channel);
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void send(Notification notification) {
+            attempts.merge(notification.getId(), 1, Integer::sum);
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (notification instanceof SmsNotification sms && failingPhone.equals(sms.getPhoneNumber())) {
+                throw new IllegalStateException("Carrier rejected " + sms.getPhoneNumber());
+            }
+            super.send(notification);
+        }
+    }
+
+    /**
+     * sent_at jest NOT NULL w schemacie - wiersz PENDING nosi czas utworzenia, dispatcher nadpisuje go przy SENT.
+     */
+    private static EmailNotificationDto email(String recipient) {
+        LocalDateTime now = queuedNow();
+        return EmailNotificationDto.builder()
+                .title("Regatta start")
+                .message("Start at 10:00")
+                .createdAt(now)
+                .sentAt(now)
+                .isRead(false)
+                .status(NotificationDispatcher.PENDING)
+                .recipientEmail(recipient)
+                .subject("Start")
+                .senderEmail("office@example.com")
+                .ccEmails("")
+                .bccEmails("")
+                .isHtml(false)
+                .attachments("")
+                .build();
+    }
+
+    private static SmsNotificationDto sms(String phone) {
+        LocalDateTime now = queuedNow();
+        return SmsNotificationDto.builder()
+                .title("Regatta start")
+                .message("Start at 10:00")
+                .createdAt(now)
+                .sentAt(now)
+                .isRead(false)
+                .status(NotificationDispatcher.PENDING)
+                .phoneNumber(phone)
+                .senderNumber("+48100200300")
+                .carrier("test")
+                .deliveryReport(false)
+                .messageParts(1)
+                .build();
+    }
+
+    private static PushNotificationDto push(LocalDateTime createdAt, int timeToLive) {
+        return PushNotificationDto.builder()
+                .title("Regatta start")
+                .message("Start at 10:00")
+                .createdAt(createdAt)
+                .sentAt(createdAt)
+                .isRead(false)
+                .status(NotificationDispatcher.PENDING)
+                .deviceToken(UUID.randomUUID().toString())
+                .platform("ANDROID")
+                .category("race")
+                .actionUrl("")
+                .imageUrl("")
+                .badgeCount(0)
+                .isSilent(false)
+                .timeToLive(timeToLive)
+                .build();
+    }
+
+    /** Mikrosekundy - tyle przechowuje TIMESTAMPTZ, więc odczyt porównuje się z zapisem. */
+    private static LocalDateTime queuedNow() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
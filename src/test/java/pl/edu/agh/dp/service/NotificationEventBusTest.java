@@ -0,0 +1,167 @@
+package pl.edu.agh.dp.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pl.edu.agh.dp.dto.EmailNotificationDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationEventBusTest {
+
+    private NotificationEventBus bus;
+
+    @AfterEach
+    void close() {
+        bus.close();
+    }
+
+    @Test
+    void dropPolicyDiscardsOldestBufferedEvent() throws InterruptedException {
+        bus = new NotificationEventBus(2, 0, NotificationEventBus.SlowConsumerPolicy.DROP, 0);
+        BlockingSink sink = new BlockingSink();
+        bus.subscribe(null, sink);
+
+        publish("first");
+        sink.awaitFirstSend();
+        // "first" jest w trakcie wysyłki, bufor (2) mieści "second" i "third"
+        publish("second");
+        publish("third");
+        publish("fourth");
+        sink.release();
+
+        sink.awaitDelivered(3);
+        assertThat(sink.titles()).containsExactly("first", "third", "fourth");
+        assertThat(sink.closed.getCount()).isEqualTo(1);
+        assertThat(bus.stats().getDropped()).isEqualTo(1);
+        assertThat(bus.stats().getDisconnected()).isZero();
+        assertThat(bus.stats().getSubscribers()).isEqualTo(1);
+    }
+
+    @Test
+    void disconnectPolicyClosesSlowSubscriber() throws InterruptedException {
+        bus = new NotificationEventBus(2, 0, NotificationEventBus.SlowConsumerPolicy.DISCONNECT, 0);
+        BlockingSink sink = new BlockingSink();
+        bus.subscribe(null, sink);
+
+        publish("first");
+        sink.awaitFirstSend();
+        publish("second");
+        publish("third");
+        publish("fourth");
+
+        assertThat(sink.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        sink.release();
+        publish("fifth");
+        sink.awaitDelivered(1);
+
+        assertThat(bus.stats().getDisconnected()).isEqualTo(1);
+        assertThat(bus.stats().getDropped()).isZero();
+        assertThat(bus.stats().getSubscribers()).isZero();
+        // zaległy bufor jest odrzucany razem z subskrybentem
+        assertThat(sink.titles()).containsExactly("first");
+    }
+
+    @Test
+    void subscriberLimitIsEnforced() {
+        bus = new NotificationEventBus(2, 1, NotificationEventBus.SlowConsumerPolicy.DROP, 0);
+        NotificationEventBus.Subscription first = bus.subscribe(null, new BlockingSink());
+
+        assertThatThrownBy(() -> bus.subscribe(null, new BlockingSink())).isInstanceOf(IllegalStateException.class);
+
+        // anulowanie zwalnia miejsce i nie jest rozłączeniem
+        first.cancel();
+        bus.subscribe(null, new BlockingSink());
+        assertThat(bus.stats().getSubscribers()).isEqualTo(1);
+        assertThat(bus.stats().getDisconnected()).isZero();
+    }
+
+    @Test
+    void concurrentSubscribesDoNotExceedLimit() throws Exception {
+        bus = new NotificationEventBus(2, 5, NotificationEventBus.SlowConsumerPolicy.DROP, 0);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> attempts = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        bus.subscribe(null, new BlockingSink());
+                        accepted.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // limit osiągnięty
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> attempt : attempts) {
+                attempt.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(accepted.get()).isEqualTo(5);
+        assertThat(bus.stats().getSubscribers()).isEqualTo(5);
+    }
+
+    private void publish(String title) {
+        bus.publish(NotificationEventBus.EventType.CREATED,
+                EmailNotificationDto.builder().title(title).recipientEmail("anna@example.com").build());
+    }
+
+    /**
+     * Odbiorca, który wstrzymuje pierwszą wysyłkę do {@link #release()} - symuluje klienta, który nie nadąża.
+     */
+    private static final class BlockingSink implements NotificationEventBus.Sink {
+
+        private final List<NotificationEventBus.Event> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(NotificationEventBus.Event event) throws InterruptedException {
+            sending.countDown();
+            released.await(5, TimeUnit.SECONDS);
+            received.add(event);
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        void awaitFirstSend() throws InterruptedException {
+            assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        void awaitDelivered(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+
+        List<String> titles() {
+            return received.stream().map(event -> event.notification().getTitle()).toList();
+        }
+    }
+}
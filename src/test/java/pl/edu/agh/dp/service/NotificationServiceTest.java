@@ -0,0 +1,103 @@
+package pl.edu.agh.dp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.edu.agh.dp.dto.EmailNotificationDto;
+import pl.edu.agh.dp.dto.MarkReadRequestDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class NotificationServiceTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Test
+    void createAndUpdateKeepUnreadCountInStep() {
+        String recipient = UUID.randomUUID() + "@example.com";
+
+        EmailNotificationDto created = notificationService.createEmail(email(recipient, false));
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(unread(recipient)).isEqualTo(1);
+
+        notificationService.updateEmail(created.getId(), email(recipient, true));
+        assertThat(unread(recipient)).isZero();
+
+        notificationService.updateEmail(created.getId(), email(recipient, false));
+        assertThat(unread(recipient)).isEqualTo(1);
+
+        assertThat(notificationService.deleteEmail(created.getId())).isTrue();
+        assertThat(unread(recipient)).isZero();
+    }
+
+    @Test
+    void updateOfMissingNotificationDoesNotCount() {
+        String recipient = UUID.randomUUID() + "@example.com";
+
+        assertThat(notificationService.updateEmail(Long.MAX_VALUE, email(recipient, false))).isEmpty();
+        assertThat(unread(recipient)).isZero();
+    }
+
+    @Test
+    void updateWithoutCreatedAtKeepsStoredValue() {
+        EmailNotificationDto dto = email(UUID.randomUUID() + "@example.com", false);
+        dto.setCreatedAt(LocalDateTime.of(2026, 1, 15, 10, 0));
+        EmailNotificationDto created = notificationService.createEmail(dto);
+
+        EmailNotificationDto update = email(created.getRecipientEmail(), true);
+        update.setCreatedAt(null);
+        notificationService.updateEmail(created.getId(), update);
+
+        assertThat(notificationService.findEmailById(created.getId())).get()
+                .extracting(EmailNotificationDto::getCreatedAt).isEqualTo(LocalDateTime.of(2026, 1, 15, 10, 0));
+    }
+
+    @Test
+    void markReadUsesReturnedRowsForCounts() {
+        String recipient = UUID.randomUUID() + "@example.com";
+        EmailNotificationDto first = notificationService.createEmail(email(recipient, false));
+        notificationService.createEmail(email(recipient, false));
+        notificationService.createEmail(email(recipient, true));
+        assertThat(unread(recipient)).isEqualTo(2);
+
+        assertThat(notificationService.markRead(MarkReadRequestDto.builder().emailIds(List.of(first.getId())).build()))
+                .containsEntry("EMAIL", 1);
+        assertThat(unread(recipient)).isEqualTo(1);
+
+        // już przeczytane wiersze nie wracają z RETURNING
+        assertThat(notificationService.markRead(MarkReadRequestDto.builder().recipient(recipient).build()))
+                .containsEntry("EMAIL", 1)
+                .containsEntry("SMS", 0)
+                .containsEntry("PUSH", 0);
+        assertThat(unread(recipient)).isZero();
+    }
+
+    private long unread(String recipient) {
+        return notificationService.unreadCount(recipient).getByChannel().get("EMAIL");
+    }
+
+    private static EmailNotificationDto email(String recipient, boolean read) {
+        return EmailNotificationDto.builder()
+                .title("Regatta start")
+                .message("Start at 10:00")
+                .createdAt(LocalDateTime.now())
+                .sentAt(LocalDateTime.now())
+                .isRead(read)
+                .status("SENT")
+                .recipientEmail(recipient)
+                .subject("Start")
+                .senderEmail("office@example.com")
+                .ccEmails("")
+                .bccEmails("")
+                .isHtml(false)
+                .attachments("")
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package pl.edu.agh.dp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void startsFullWithOneSecondOfTokens() {
+        TokenBucket bucket = new TokenBucket(10, now::get);
+
+        assertThat(bucket.tryAcquire(25)).isEqualTo(10);
+        assertThat(bucket.tryAcquire(1)).isZero();
+    }
+
+    @Test
+    void refillsWithElapsedTimeUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(10, now::get);
+        bucket.tryAcquire(10);
+
+        advanceMillis(250);
+        assertThat(bucket.tryAcquire(10)).isEqualTo(2);
+
+        // po długim przestoju najwyżej sekundowy zryw
+        advanceMillis(60_000);
+        assertThat(bucket.tryAcquire(100)).isEqualTo(10);
+    }
+
+    @Test
+    void fractionalTokensAccumulateBetweenCalls() {
+        TokenBucket bucket = new TokenBucket(2, now::get);
+        bucket.tryAcquire(2);
+
+        advanceMillis(300);
+        assertThat(bucket.tryAcquire(1)).isZero();
+        advanceMillis(300);
+        assertThat(bucket.tryAcquire(1)).isEqualTo(1);
+    }
+
+    @Test
+    void releaseReturnsUnusedTokensButNotAboveCapacity() {
+        TokenBucket bucket = new TokenBucket(10, now::get);
+        bucket.tryAcquire(8);
+
+        bucket.release(5);
+        assertThat(bucket.available()).isEqualTo(7);
+
+        bucket.release(100);
+        assertThat(bucket.available()).isEqualTo(10);
+    }
+
+    @Test
+    void rateBelowOneStillAllowsASingleSend() {
+        TokenBucket bucket = new TokenBucket(0.5, now::get);
+
+        assertThat(bucket.tryAcquire(5)).isEqualTo(1);
+        advanceMillis(1_000);
+        assertThat(bucket.tryAcquire(5)).isZero();
+        advanceMillis(1_000);
+        assertThat(bucket.tryAcquire(5)).isEqualTo(1);
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
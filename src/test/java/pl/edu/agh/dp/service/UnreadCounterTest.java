@@ -0,0 +1,51 @@
+package pl.edu.agh.dp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnreadCounterTest {
+
+    private final UnreadCounter counter = new UnreadCounter();
+
+    @Test
+    void countsPerRecipientAndChannel() {
+        counter.add(NotificationChannel.EMAIL, "anna@example.com", 2);
+        counter.add(NotificationChannel.EMAIL, "jan@example.com", 1);
+        counter.add(NotificationChannel.SMS, "anna@example.com", 5);
+
+        assertThat(counter.count(NotificationChannel.EMAIL, "anna@example.com")).isEqualTo(2);
+        assertThat(counter.count(NotificationChannel.SMS, "anna@example.com")).isEqualTo(5);
+        assertThat(counter.count(NotificationChannel.PUSH, "anna@example.com")).isZero();
+        assertThat(counter.total(NotificationChannel.EMAIL)).isEqualTo(3);
+        assertThat(counter.total(NotificationChannel.SMS)).isEqualTo(5);
+    }
+
+    @Test
+    void countNeverGoesBelowZeroAndTotalFollowsAppliedChange() {
+        counter.add(NotificationChannel.PUSH, "device-1", 1);
+        counter.add(NotificationChannel.PUSH, "device-2", 1);
+
+        counter.add(NotificationChannel.PUSH, "device-1", -3);
+
+        assertThat(counter.count(NotificationChannel.PUSH, "device-1")).isZero();
+        assertThat(counter.total(NotificationChannel.PUSH)).isEqualTo(1);
+    }
+
+    @Test
+    void nullRecipientIsIgnored() {
+        counter.add(NotificationChannel.SMS, null, 1);
+
+        assertThat(counter.total(NotificationChannel.SMS)).isZero();
+    }
+
+    @Test
+    void clearResetsCountsAndTotals() {
+        counter.add(NotificationChannel.EMAIL, "anna@example.com", 4);
+
+        counter.clear();
+
+        assertThat(counter.count(NotificationChannel.EMAIL, "anna@example.com")).isZero();
+        assertThat(counter.total(NotificationChannel.EMAIL)).isZero();
+    }
+}